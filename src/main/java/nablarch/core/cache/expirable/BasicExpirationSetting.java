@@ -14,12 +14,12 @@ import nablarch.core.date.SystemTimeProvider;
 import static java.util.Collections.unmodifiableMap;
 
 /**
- * {@link ExpirationSetting}の基本実装クラス。
+ * {@link RefreshableExpirationSetting}の基本実装クラス。
  * IDと有効期限の紐付けをMapで保持する。
  *
  * @author T.Kawasaki
  */
-public class BasicExpirationSetting implements ExpirationSetting {
+public class BasicExpirationSetting implements RefreshableExpirationSetting {
 
     /** 有効期限のパターン（数字＋アルファベット） */
     private static final Pattern PTN = Pattern.compile("(\\d+)(\\p{Alpha}+)");
@@ -45,6 +45,12 @@ public class BasicExpirationSetting implements ExpirationSetting {
      */
     private final Map<String, TimeoutExpression> expirationSetting = new HashMap<String, TimeoutExpression>();;
 
+    /**
+     * 有効期間に対する再読み込み開始の割合。
+     * （0の場合は再読み込みしない）
+     */
+    private double refreshAheadRatio = 0;
+
 
     /** {@inheritDoc} */
     @Override
@@ -65,6 +71,23 @@ public class BasicExpirationSetting implements ExpirationSetting {
         return timeout.evaluate();
     }
 
+    /**
+     * {@inheritDoc}
+     * 本クラスでは、有効期間に{@link #setRefreshAheadRatio(double)}で設定された割合を乗じた時間を、
+     * システム日時に付加した日時を再読み込み日時とする。
+     * 例えば、有効期限が"1h"で割合が0.8の場合、システム日時の48分後が再読み込み日時となる。
+     */
+    @Override
+    public Date getRefreshDate(String id) {
+        Date expiredDate = getExpiredDate(id);
+        if (refreshAheadRatio == 0) {
+            return null;
+        }
+        long now = systemTimeProvider.getDate().getTime();
+        long lifetime = expiredDate.getTime() - now;
+        return new Date(now + (long) (lifetime * refreshAheadRatio));
+    }
+
     /**
      * システム日時提供クラスを設定する（必須）。
      * 本メソッドはDIコンテナから使用されることを想定している。
@@ -108,6 +131,27 @@ public class BasicExpirationSetting implements ExpirationSetting {
 
     }
 
+    /**
+     * 有効期間に対する再読み込み開始の割合を設定する。
+     * <p/>
+     * 0より大きく1未満の値を設定した場合、キャッシュされてから有効期間にこの割合を乗じた時間が経過すると、
+     * キャッシュは有効期限を迎える前に非同期で再読み込みされる（リフレッシュアヘッド）。
+     * 再読み込みが完了するまでは、既にキャッシュされている値が使用される。
+     * <p/>
+     * デフォルトは0（再読み込みしない）。
+     *
+     * 本メソッドはDIコンテナから使用されることを想定している。
+     *
+     * @param refreshAheadRatio 有効期間に対する再読み込み開始の割合（0以上1未満）
+     */
+    public void setRefreshAheadRatio(double refreshAheadRatio) {
+        if (refreshAheadRatio < 0 || refreshAheadRatio >= 1) {
+            throw new IllegalArgumentException(
+                    "refreshAheadRatio must be 0 or more and less than 1. refreshAheadRatio = [" + refreshAheadRatio + ']');
+        }
+        this.refreshAheadRatio = refreshAheadRatio;
+    }
+
     /**
      * 時間単位のマッピングを取得する。
      * 本メソッドをオーバーライドすることで、
@@ -0,0 +1,189 @@
+package nablarch.core.cache.expirable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.core.util.map.LRUMap;
+
+/**
+ * キャッシュをメモリ上に保持する、マルチスレッド環境向けの{@link ExpirableCache}実装クラス。
+ * <p/>
+ * {@link InMemoryExpirableCache}は、キャッシュ全体を1つのロックで同期化するため、
+ * 多数のスレッドから同時にアクセスされた場合、値の取得であってもロックの競合が発生する。
+ * (LRUの順序を更新するため、値の取得もキャッシュの更新となる)
+ * <p/>
+ * 本クラスは、キャッシュをキーのハッシュ値で複数のセグメントに分割し、セグメントごとにロックを取得する。
+ * これにより、異なるセグメントに対するアクセスは並行して実行できる。
+ * <p/>
+ * キャッシュ上限値を超えた場合に削除されるエントリは、セグメント内で最も参照されていないエントリとなる。
+ * このため、キャッシュ全体としては近似的なLRUとなる。
+ * また、セグメントごとの上限値はキャッシュ上限値をセグメント数で割った値(切り上げ)となるため、
+ * キャッシュ全体の件数はキャッシュ上限値を超えることがある。
+ *
+ * @param <K> キャッシュキーの型
+ * @param <V> キャッシュ値の型
+ * @author Hisaaki Sioiri
+ */
+public class ConcurrentExpirableCache<K, V> extends ExpirableCacheTemplate<K, V> {
+
+    /** セグメント数のデフォルト値 */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /** セグメント数 */
+    private int concurrencyLevel = DEFAULT_CONCURRENCY_LEVEL;
+
+    /** キャッシュ上限値 */
+    private int cacheSize;
+
+    /** キャッシュの実体(セグメント) */
+    private List<Map<K, Expirable<V>>> segments;
+
+    /**
+     * キャッシュ上限値を設定する。
+     * ここで設定された件数を超過してキャッシュに値が設定された場合、
+     * セグメント内で最も参照されていないエントリが削除される。
+     *
+     * @param max 上限値
+     */
+    public void setCacheSize(int max) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("cacheSize must be greater than 0. cacheSize = [" + max + ']');
+        }
+        cacheSize = max;
+        segments = createSegments();
+    }
+
+    /**
+     * セグメント数を設定する。
+     * <p/>
+     * 同時にキャッシュにアクセスするスレッド数を目安に設定する。
+     * キャッシュ上限値より大きい値を設定した場合、セグメント数はキャッシュ上限値となる。
+     * デフォルトは16。
+     *
+     * @param concurrencyLevel セグメント数
+     */
+    public void setConcurrencyLevel(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException(
+                    "concurrencyLevel must be greater than 0. concurrencyLevel = [" + concurrencyLevel + ']');
+        }
+        this.concurrencyLevel = concurrencyLevel;
+        if (segments != null) {
+            segments = createSegments();
+        }
+    }
+
+    /**
+     * 全てのセグメントを生成する。
+     *
+     * @return セグメント
+     */
+    private List<Map<K, Expirable<V>>> createSegments() {
+        final int segmentCount = Math.min(concurrencyLevel, cacheSize);
+        final int segmentSize = (cacheSize + segmentCount - 1) / segmentCount;
+        final List<Map<K, Expirable<V>>> result = new ArrayList<Map<K, Expirable<V>>>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            result.add(createSegment(segmentSize));
+        }
+        return result;
+    }
+
+    /**
+     * セグメントの実体となるMapを生成する。
+     * 本クラスでは{@link LRUMap}が使用される。
+     * 本メソッドをオーバライドすることで使用するMap実装を変更することができる。
+     * <br/>
+     * セグメントへのアクセスは本クラスで同期化するため、
+     * このメソッドが返却するMapインスタンスをスレッドセーフとする必要はない。
+     *
+     * @param max セグメントの最大上限件数
+     * @return セグメントの実体となるMap
+     */
+    protected Map<K, Expirable<V>> createSegment(int max) {
+        return new LRUMap<K, Expirable<V>>(max);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Expirable<V> getFromCache(K key) {
+        final Map<K, Expirable<V>> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Expirable<V> removeFromCache(K key) {
+        final Map<K, Expirable<V>> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void addToCache(K key, Expirable<V> expirable) {
+        final Map<K, Expirable<V>> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, expirable);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void clearCache() {
+        for (Map<K, Expirable<V>> segment : getSegments()) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * キャッシュに保持しているエントリの件数を取得する。
+     * <p/>
+     * セグメントごとに件数を取得して合計するため、
+     * 他のスレッドがキャッシュを更新している場合は、概算の件数となる。
+     *
+     * @return エントリの件数
+     */
+    public int size() {
+        int size = 0;
+        for (Map<K, Expirable<V>> segment : getSegments()) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * キーが属するセグメントを取得する。
+     *
+     * @param key キー
+     * @return セグメント
+     */
+    private Map<K, Expirable<V>> segmentFor(K key) {
+        final List<Map<K, Expirable<V>>> current = getSegments();
+        int hash = key == null ? 0 : key.hashCode();
+        // 下位ビットが偏ったハッシュ値でも、セグメントに分散させる。
+        hash ^= (hash >>> 16);
+        return current.get((hash & Integer.MAX_VALUE) % current.size());
+    }
+
+    /**
+     * セグメントを取得する。
+     *
+     * @return セグメント
+     * @throws IllegalStateException キャッシュ上限値が設定されていない場合
+     */
+    private List<Map<K, Expirable<V>>> getSegments() {
+        final List<Map<K, Expirable<V>>> current = segments;
+        if (current == null) {
+            throw new IllegalStateException("cacheSize must be set.");
+        }
+        return current;
+    }
+}
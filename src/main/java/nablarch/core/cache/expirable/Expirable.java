@@ -1,6 +1,7 @@
 package nablarch.core.cache.expirable;
 
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import nablarch.core.util.annotation.Published;
 
@@ -19,6 +20,15 @@ public class Expirable<V> {
     /** キャッシュ有効期限 */
     private final Date expiredDate;
 
+    /** 再読み込み日時（再読み込みしない場合はnull） */
+    private final Date refreshDate;
+
+    /** 再読み込みを開始済みか否か */
+    private final AtomicBoolean refreshStarted = new AtomicBoolean(false);
+
+    /** キャッシュ値の重み（重みによる上限を設定していない場合は0） */
+    private long weight;
+
     /**
      * コンストラクタ。
      *
@@ -26,8 +36,20 @@ public class Expirable<V> {
      * @param expiredDate キャッシュ有効期限
      */
     Expirable(V content, Date expiredDate) {
+        this(content, expiredDate, null);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param content     キャッシュされる値（null不可）
+     * @param expiredDate キャッシュ有効期限
+     * @param refreshDate 再読み込み日時（再読み込みしない場合はnull）
+     */
+    Expirable(V content, Date expiredDate, Date refreshDate) {
         this.content = content;
         this.expiredDate = expiredDate;
+        this.refreshDate = refreshDate;
     }
 
     /**
@@ -58,4 +80,37 @@ public class Expirable<V> {
     boolean isExpired(Date now) {
         return now.after(expiredDate);
     }
+
+    /**
+     * 再読み込みを開始する。
+     * 再読み込み日時を過ぎていて、かつ未だ再読み込みを開始していない場合に真を返却する。
+     * 複数スレッドから同時に呼び出された場合も、真を返却するのは1スレッドのみである。
+     *
+     * @param now 判定基準となる現在日時
+     * @return 再読み込みを開始した場合、真
+     */
+    boolean startRefresh(Date now) {
+        if (refreshDate == null || now.before(refreshDate)) {
+            return false;
+        }
+        return refreshStarted.compareAndSet(false, true);
+    }
+
+    /**
+     * キャッシュ値の重みを取得する。
+     *
+     * @return キャッシュ値の重み
+     */
+    long getWeight() {
+        return weight;
+    }
+
+    /**
+     * キャッシュ値の重みを設定する。
+     *
+     * @param weight キャッシュ値の重み
+     */
+    void setWeight(long weight) {
+        this.weight = weight;
+    }
 }
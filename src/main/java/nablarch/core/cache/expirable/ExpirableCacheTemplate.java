@@ -16,7 +16,7 @@ import nablarch.core.util.annotation.Published;
  * @author T.Kawasaki
  */
 @Published(tag = "architect")
-public abstract class ExpirableCacheTemplate<K, V> implements ExpirableCache<K, V> {
+public abstract class ExpirableCacheTemplate<K, V> implements RefreshableExpirableCache<K, V> {
 
     /** 有効期限無しを表す日時 */
     protected static final Date UNLIMITED = new Date(Long.MAX_VALUE);
@@ -61,11 +61,29 @@ public abstract class ExpirableCacheTemplate<K, V> implements ExpirableCache<K,
     /** {@inheritDoc} */
     @Override
     public void add(K key, V value, Date timeout) {
+        add(key, value, timeout, null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void add(K key, V value, Date timeout, Date refreshDate) {
         checkStatus();
-        addToCache(key, new Expirable<V>(value, timeout));
+        addToCache(key, new Expirable<V>(value, timeout, refreshDate));
         listener.onCacheAdded(key, timeout);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean startRefresh(K key) {
+        checkStatus();
+        Expirable<V> expirable = getFromCache(key);
+        if (expirable == null) {
+            return false;
+        }
+        Date now = getNowDate();
+        return !expirable.isExpired(now) && expirable.startRefresh(now);
+    }
+
     /** {@inheritDoc} */
     @Override
     public void addUnlimited(K key, V value) {
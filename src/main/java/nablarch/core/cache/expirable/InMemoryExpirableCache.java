@@ -1,12 +1,18 @@
 package nablarch.core.cache.expirable;
 
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import nablarch.core.util.map.LRUMap;
 
 /**
  * キャッシュをメモリ上に保持する{@link ExpirableCache}実装クラス。
+ * <p/>
+ * キャッシュの上限は、件数({@link #setCacheSize(int)})と
+ * 重み({@link #setMaxWeight(long)})のいずれか、または両方で設定する。
+ * 両方を設定した場合は、いずれかの上限を超過した時点で、最も参照されていないエントリから削除される。
  *
  * @param <K> キャッシュキーの型
  * @param <V> キャッシュ値の型
@@ -17,6 +23,21 @@ public class InMemoryExpirableCache<K, V> extends ExpirableCacheTemplate<K, V> {
     /** キャッシュの実体 */
     private Map<K, Expirable<V>> cache;
 
+    /** キャッシュ上限値(件数による上限を設定していない場合は0) */
+    private int cacheSize;
+
+    /** 重みの上限値(重みによる上限を設定していない場合は0) */
+    private long maxWeight;
+
+    /** キャッシュ値の重みを算出するクラス */
+    private Weigher<? super K, ? super V> weigher;
+
+    /** キャッシュに保持しているエントリの重みの合計 */
+    private final AtomicLong weight = new AtomicLong();
+
+    /** 上限値の超過により削除されたエントリの件数 */
+    private final AtomicLong evictionCount = new AtomicLong();
+
     /**
      * キャッシュ上限値を設定する。
      * ここで設定された件数を超過してキャッシュに値が設定された場合、
@@ -26,6 +47,44 @@ public class InMemoryExpirableCache<K, V> extends ExpirableCacheTemplate<K, V> {
      */
     public void setCacheSize(int max) {
         cache = createCacheContainer(max);
+        cacheSize = max;
+        weight.set(0);
+    }
+
+    /**
+     * 重みの上限値を設定する。
+     * <p/>
+     * キャッシュに保持しているエントリの重みの合計がここで設定された値を超過した場合、
+     * 上限値以下となるまで、最も参照されていないエントリから削除される。
+     * 上限値を超える重みの値は、キャッシュに設定されても直ちに削除される。
+     * <p/>
+     * 重みは{@link #setWeigher(Weigher)}で設定したクラスで算出する。
+     * 件数による上限値を設定しない場合、件数の上限は無制限となる。
+     * <p/>
+     * 本設定を行う場合、{@link #createCacheContainer(int)}が返却するMapは、
+     * 最も参照されていないエントリから順に反復しなければならない。
+     *
+     * @param max 重みの上限値
+     */
+    public void setMaxWeight(long max) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("maxWeight must be greater than 0. maxWeight = [" + max + ']');
+        }
+        maxWeight = max;
+        if (cache == null) {
+            cache = createCacheContainer(Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * キャッシュ値の重みを算出するクラスを設定する。
+     * <p/>
+     * 重みの上限値({@link #setMaxWeight(long)})を設定する場合は必須。
+     *
+     * @param weigher キャッシュ値の重みを算出するクラス
+     */
+    public void setWeigher(Weigher<? super K, ? super V> weigher) {
+        this.weigher = weigher;
     }
 
     /**
@@ -56,21 +115,112 @@ public class InMemoryExpirableCache<K, V> extends ExpirableCacheTemplate<K, V> {
     @Override
     protected Expirable<V> removeFromCache(K key) {
         checkStatus();
-        return cache.remove(key);
+        synchronized (cache) {
+            final Expirable<V> removed = cache.remove(key);
+            if (removed != null) {
+                weight.addAndGet(-removed.getWeight());
+            }
+            return removed;
+        }
     }
 
     /** {@inheritDoc} */
     @Override
     protected void addToCache(K key, Expirable<V> expirable) {
         checkStatus();
-        cache.put(key, expirable);
+        if (maxWeight == 0) {
+            synchronized (cache) {
+                final boolean exists = cache.containsKey(key);
+                final int before = cache.size();
+                cache.put(key, expirable);
+                if (!exists && cache.size() == before) {
+                    // 件数が増えていない場合、最も参照されていないエントリが削除されている。
+                    evictionCount.incrementAndGet();
+                }
+            }
+            return;
+        }
+        // 重みの算出は件数に比例するため、ロックの範囲外で行う。
+        final long entryWeight = weigher.weigh(key, expirable.getContent());
+        if (entryWeight < 0) {
+            throw new IllegalArgumentException(
+                    "weight must not be negative. key = [" + key + "], weight = [" + entryWeight + ']');
+        }
+        expirable.setWeight(entryWeight);
+        synchronized (cache) {
+            if (cacheSize > 0 && cache.size() >= cacheSize && !cache.containsKey(key)) {
+                // 削除したエントリの重みを差し引くため、件数の上限による削除もここで行う。
+                evictEldest();
+            }
+            final Expirable<V> old = cache.put(key, expirable);
+            weight.addAndGet(old == null ? entryWeight : entryWeight - old.getWeight());
+            while (weight.get() > maxWeight && !cache.isEmpty()) {
+                evictEldest();
+            }
+        }
     }
 
     /** {@inheritDoc} */
     @Override
     protected void clearCache() {
         checkStatus();
-        cache.clear();
+        synchronized (cache) {
+            cache.clear();
+            weight.set(0);
+        }
+    }
+
+    /**
+     * 上限値の超過により、エントリが削除された時に呼び出される。
+     * <p/>
+     * 重みの上限値を設定した場合に、本クラスがエントリを削除した時に呼び出される。
+     * (件数の上限値のみを設定した場合、エントリの削除は{@link #createCacheContainer(int)}が返却したMapが行う)
+     * <p/>
+     * 本メソッドはキャッシュのロックを取得した状態で呼び出されるため、時間のかかる処理を行ってはならない。
+     * デフォルト実装では何もしない。
+     *
+     * @param key 削除されたエントリのキー
+     * @param expirable 削除されたエントリの値
+     */
+    protected void onEvict(K key, Expirable<V> expirable) {
+    }
+
+    /**
+     * キャッシュに保持しているエントリの重みの合計を取得する。
+     * <p/>
+     * 重みの上限値を設定していない場合は、常に0となる。
+     *
+     * @return 重みの合計
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    /**
+     * 上限値(件数または重み)の超過により削除されたエントリの件数を取得する。
+     * <p/>
+     * 有効期限切れや{@link #remove(Object)}、{@link #clear()}による削除は含まない。
+     *
+     * @return 削除されたエントリの件数
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * 最も参照されていないエントリを削除する。
+     * <p/>
+     * 本メソッドは、キャッシュのロックを取得した状態で呼び出すこと。
+     */
+    private void evictEldest() {
+        final Iterator<Map.Entry<K, Expirable<V>>> iterator = cache.entrySet().iterator();
+        final Map.Entry<K, Expirable<V>> eldest = iterator.next();
+        final K key = eldest.getKey();
+        final Expirable<V> expirable = eldest.getValue();
+        iterator.remove();
+        weight.addAndGet(-expirable.getWeight());
+        evictionCount.incrementAndGet();
+        onEvict(key, expirable);
     }
 
     /**
@@ -84,6 +234,9 @@ public class InMemoryExpirableCache<K, V> extends ExpirableCacheTemplate<K, V> {
         if (cache == null) {
             throw new IllegalStateException("cacheSize must be set.");
         }
+        if (maxWeight > 0 && weigher == null) {
+            throw new IllegalStateException("weigher must be set when maxWeight is set.");
+        }
     }
 
 }
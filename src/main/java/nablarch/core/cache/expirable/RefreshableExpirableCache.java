@@ -0,0 +1,42 @@
+package nablarch.core.cache.expirable;
+
+import java.util.Date;
+
+/**
+ * 再読み込み日時を管理できる有効期限付きキャッシュ。
+ * <p/>
+ * 再読み込み日時を過ぎた値も、有効期限までは{@link #getIfNotExpired(Object)}で取得できる。
+ * 呼び出し元は、{@link #startRefresh(Object)}で再読み込みを開始すべきかを判定し、
+ * 再読み込みした値を{@link #add(Object, Object, Date, Date)}で設定し直す。
+ *
+ * @param <K> キャッシュキー
+ * @param <V> キャッシュ値
+ * @author Hisaaki Sioiri
+ * @see RefreshableExpirationSetting
+ */
+public interface RefreshableExpirableCache<K, V> extends ExpirableCache<K, V> {
+
+    /**
+     * キャッシュに再読み込み日時を指定して値を設定する。
+     *
+     * @param key         キャッシュキー
+     * @param value       キャッシュされる値
+     * @param timeout     有効期限
+     * @param refreshDate 再読み込み日時（再読み込みしない場合はnull）
+     */
+    void add(K key, V value, Date timeout, Date refreshDate);
+
+    /**
+     * キャッシュされた値の再読み込みを開始する。
+     * <p/>
+     * 再読み込み日時を過ぎた値が有効期限内でキャッシュに存在する場合に真を返却する。
+     * 同じ値に対して真を返却するのは1度のみであるため、
+     * 呼び出し元は真が返却された場合にのみ再読み込みを行えばよい。
+     * 再読み込みした値を{@link #add(Object, Object, Date, Date)}で設定すると、
+     * 新しい再読み込み日時で再び判定が行われる。
+     *
+     * @param key キャッシュキー
+     * @return 再読み込みを開始すべき場合、真
+     */
+    boolean startRefresh(K key);
+}
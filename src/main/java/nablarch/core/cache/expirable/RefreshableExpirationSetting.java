@@ -0,0 +1,25 @@
+package nablarch.core.cache.expirable;
+
+import java.util.Date;
+
+/**
+ * 再読み込み日時を設定できる有効期限設定。
+ * IDと有効期限に加え、IDと再読み込み日時の紐付けを行う。
+ *
+ * @author Hisaaki Sioiri
+ * @see RefreshableExpirableCache
+ */
+public interface RefreshableExpirationSetting extends ExpirationSetting {
+
+    /**
+     * 指定されたIDのキャッシュを再読み込みする日時を取得する。
+     * <p/>
+     * 再読み込み日時を過ぎたキャッシュは、有効期限までは引き続き使用されるが、
+     * 有効期限を迎える前に非同期で再読み込みされる。
+     *
+     * @param id 判定対象となるID
+     * @return 再読み込み日時（再読み込みしない場合はnull）
+     * @throws IllegalArgumentException 指定されたIDがキャッシュ対象でない場合
+     */
+    Date getRefreshDate(String id) throws IllegalArgumentException;
+}
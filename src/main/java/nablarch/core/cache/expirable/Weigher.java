@@ -0,0 +1,31 @@
+package nablarch.core.cache.expirable;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * キャッシュ値の重みを算出するインタフェース。
+ * <p/>
+ * 重みは、キャッシュが使用するメモリ量の上限を管理するために使用する。
+ * 重みの単位は実装クラスで定めてよいが、同一キャッシュ内で単位を統一しなければならない。
+ * (例えば、推定バイト数)
+ * <p/>
+ * 重みは、キャッシュに値を設定する時点で1度だけ算出される。
+ * このため、キャッシュ後に内容が変化する値に対しては、正しい重みを管理できない。
+ *
+ * @param <K> キャッシュキーの型
+ * @param <V> キャッシュ値の型
+ * @author Hisaaki Sioiri
+ * @see InMemoryExpirableCache#setMaxWeight(long)
+ */
+@Published(tag = "architect")
+public interface Weigher<K, V> {
+
+    /**
+     * キャッシュ値の重みを算出する。
+     *
+     * @param key キャッシュキー
+     * @param value キャッシュ値
+     * @return 重み(0以上)
+     */
+    long weigh(K key, V value);
+}
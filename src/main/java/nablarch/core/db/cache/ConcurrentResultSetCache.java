@@ -0,0 +1,51 @@
+package nablarch.core.db.cache;
+
+import java.util.Map;
+
+import nablarch.core.cache.expirable.ConcurrentExpirableCache;
+import nablarch.core.cache.expirable.Expirable;
+import nablarch.core.db.statement.SqlResultSet;
+import nablarch.core.util.map.LRUMap;
+
+/**
+ * メモリ上にキャッシュを保持する、マルチスレッド環境向けの結果セットキャッシュ実装クラス。
+ * <p/>
+ * {@link InMemoryResultSetCache}と異なり、キャッシュをセグメントに分割してロックを取得するため、
+ * 多数のスレッドから同時にキャッシュを参照する場合でもロックの競合が発生しにくい。
+ * 詳細は{@link ConcurrentExpirableCache}を参照。
+ *
+ * @author Hisaaki Sioiri
+ */
+public class ConcurrentResultSetCache
+        extends ConcurrentExpirableCache<ResultSetCacheKey, SqlResultSet>
+        implements ResultSetCache {
+
+    /** ログ出力を行うリスナー */
+    private final ResultSetCacheLoggingListener listener = new ResultSetCacheLoggingListener();
+
+    /** デフォルトコンストラクタ。 */
+    public ConcurrentResultSetCache() {
+        if (isLoggerEnabled()) {
+            // ログレベルDEBUGが有効の場合はログ出力リスナーを使用する。
+            setCacheListener(listener);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Map<ResultSetCacheKey, Expirable<SqlResultSet>> createSegment(int max) {
+        if (isLoggerEnabled()) {
+            return new LRUMap<ResultSetCacheKey, Expirable<SqlResultSet>>(max, listener);
+        }
+        return new LRUMap<ResultSetCacheKey, Expirable<SqlResultSet>>(max);
+    }
+
+    /**
+     * ログ出力可能であるか判定する。
+     *
+     * @return ログ出力可能である場合、真
+     */
+    boolean isLoggerEnabled() {
+        return ResultSetCacheLoggingListener.isLoggerEnabled();
+    }
+}
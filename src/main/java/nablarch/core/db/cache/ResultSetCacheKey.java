@@ -55,6 +55,33 @@ public final class ResultSetCacheKey {
         this.hashCode = calcHashCode();  // インスタンス生成時にハッシュコードを計算して保持しておく。
     }
 
+    /**
+     * SQL IDを取得する。
+     *
+     * @return SQL ID
+     */
+    public String getSqlId() {
+        return sqlId;
+    }
+
+    /**
+     * 開始位置を取得する。
+     *
+     * @return 開始位置
+     */
+    public int getStartPos() {
+        return startPos;
+    }
+
+    /**
+     * 最大件数を取得する。
+     *
+     * @return 最大件数
+     */
+    public int getMax() {
+        return max;
+    }
+
     /**
      * {@inheritDoc}
      * 以下の項目が等しい場合に等価と判定する。
@@ -0,0 +1,151 @@
+package nablarch.core.db.cache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.Map;
+
+import nablarch.core.cache.expirable.Weigher;
+import nablarch.core.db.statement.SqlResultSet;
+import nablarch.core.db.statement.SqlRow;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 結果セットがヒープ上で使用するバイト数を推定する{@link Weigher}実装クラス。
+ * <p/>
+ * 推定値は、{@link nablarch.core.db.statement.ResultSetIterator#getRow()}で生成した行の構造
+ * (カラムの値を配列で保持し、カラム名の情報は全ての行で共有する)を前提として、以下の合計で算出する。
+ * <ul>
+ * <li>結果セット自体のオーバーヘッド</li>
+ * <li>カラム名の情報(1つの結果セットにつき1回) : 固定のオーバーヘッド + カラム数 × (1カラムあたりのオーバーヘッド + カラム名のバイト数 × 2)</li>
+ * <li>行ごとのデータ : 行数 × (1行あたりのオーバーヘッド + 値を保持する配列のバイト数 + 値のバイト数の合計)</li>
+ * </ul>
+ * 値のバイト数は、値の型ごとの概算値とする。(文字列や配列は長さに比例する)
+ * <p/>
+ * 推定値は、64ビットのJVMで圧縮参照(UseCompressedOops)が有効な場合の値である。
+ * JVMの実装やオプション、行の構造の変更(カラムの追加、削除)により実際の使用量とは異なるため、
+ * キャッシュが使用するメモリ量の目安として使用すること。
+ * 値の型ごとの推定値を変更する場合は、{@link #estimateValueSize(Object)}をオーバライドする。
+ *
+ * @author Hisaaki Sioiri
+ */
+@Published(tag = "architect")
+public class SqlResultSetWeigher implements Weigher<ResultSetCacheKey, SqlResultSet> {
+
+    /**
+     * 結果セット自体のオーバーヘッド(バイト数)。
+     * 結果セットのオブジェクトと、行を保持する配列のヘッダの分。
+     */
+    private static final long RESULT_SET_OVERHEAD = 40;
+
+    /**
+     * カラム名の情報の固定のオーバーヘッド(バイト数)。
+     * カラム名の情報を保持するオブジェクトと、内部に保持するMap(カラム位置、列の型、カラム名変換)の分。
+     */
+    private static final long SCHEMA_OVERHEAD = 700;
+
+    /**
+     * カラム名の情報の1カラムあたりのオーバーヘッド(バイト数)。
+     * カラム名の情報が内部に保持するMapのエントリの分。
+     * (カラム名と、変換後のカラム名の文字列は含まない)
+     */
+    private static final long SCHEMA_COLUMN_OVERHEAD = 160;
+
+    /**
+     * 1行あたりのオーバーヘッド(バイト数)。
+     * 行オブジェクトと、行が内部に保持するオブジェクト(値を保持するMap、空のカラム名変換用のMap)の分。
+     */
+    private static final long ROW_OVERHEAD = 136;
+
+    /** 配列のヘッダのバイト数 */
+    private static final long ARRAY_HEADER_SIZE = 16;
+
+    /** 参照1つあたりのバイト数 */
+    private static final long REFERENCE_SIZE = 4;
+
+    /** 型ごとの推定値が不明な値のバイト数 */
+    private static final long DEFAULT_VALUE_SIZE = 64;
+
+    /** {@inheritDoc} */
+    @Override
+    public long weigh(ResultSetCacheKey key, SqlResultSet value) {
+        long size = RESULT_SET_OVERHEAD;
+        if (value.isEmpty()) {
+            return size;
+        }
+        // カラム名の情報は全ての行で共有されるため、先頭行のカラム名から1回だけ算出する。
+        size += SCHEMA_OVERHEAD;
+        for (Map.Entry<String, Object> column : value.get(0).entrySet()) {
+            size += SCHEMA_COLUMN_OVERHEAD + estimateValueSize(column.getKey()) * 2;
+        }
+        for (SqlRow row : value) {
+            // 結果セットが保持する行への参照と、値を保持する配列の分
+            size += REFERENCE_SIZE + ROW_OVERHEAD + align(ARRAY_HEADER_SIZE + REFERENCE_SIZE * row.size());
+            for (Map.Entry<String, Object> column : row.entrySet()) {
+                size += estimateValueSize(column.getValue());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 値がヒープ上で使用するバイト数を推定する。
+     *
+     * @param value 値
+     * @return 推定バイト数
+     */
+    protected long estimateValueSize(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            // オブジェクト本体と、文字を保持する配列の分
+            return 24 + align(ARRAY_HEADER_SIZE + 2L * ((String) value).length());
+        }
+        if (value instanceof byte[]) {
+            return align(ARRAY_HEADER_SIZE + ((byte[]) value).length);
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte
+                || value instanceof Boolean || value instanceof Character) {
+            return 16;
+        }
+        if (value instanceof Long || value instanceof Double || value instanceof Float) {
+            return 24;
+        }
+        if (value instanceof BigDecimal) {
+            return 40 + estimateBigIntegerSize(((BigDecimal) value).unscaledValue());
+        }
+        if (value instanceof BigInteger) {
+            return estimateBigIntegerSize((BigInteger) value);
+        }
+        if (value instanceof Timestamp) {
+            return 32;
+        }
+        if (value instanceof Date) {
+            return 24;
+        }
+        return DEFAULT_VALUE_SIZE;
+    }
+
+    /**
+     * {@link BigInteger}がヒープ上で使用するバイト数を推定する。
+     *
+     * @param value 値
+     * @return 推定バイト数
+     */
+    private static long estimateBigIntegerSize(BigInteger value) {
+        // オブジェクト本体と、32ビット単位の大きさを保持する配列の分
+        return 56 + 4L * (value.bitLength() / 32 + 1);
+    }
+
+    /**
+     * バイト数をオブジェクトの配置単位(8バイト)に切り上げる。
+     *
+     * @param size バイト数
+     * @return 切り上げたバイト数
+     */
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,182 @@
+package nablarch.core.db.cache.statement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import nablarch.core.db.statement.SqlPStatement;
+
+/**
+ * {@link PreparedStatement}に設定されたバインド変数の値を記録するクラス。
+ * <p/>
+ * 記録した値は、別のデータベース接続で同じSQL文を再実行する際に、
+ * {@link SqlPStatement}に設定し直すために使用する。
+ * 値を再設定できるのは、null、文字列、数値、真偽値、日付、バイト配列の場合のみである。
+ * ストリームやLOB、配列など、記録元の接続やステートメントに依存する値は再設定できない。
+ *
+ * @author Hisaaki Sioiri
+ */
+class BindValueRecorder implements InvocationHandler {
+
+    /** 記録対象のステートメント */
+    private final PreparedStatement statement;
+
+    /** 記録対象のステートメントへのプロキシ */
+    private final PreparedStatement proxy;
+
+    /** 記録したバインド変数の値（パラメータインデックス順） */
+    private final Map<Integer, BindValue> values = new TreeMap<Integer, BindValue>();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param statement 記録対象のステートメント
+     */
+    BindValueRecorder(PreparedStatement statement) {
+        this.statement = statement;
+        this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                BindValueRecorder.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, this);
+    }
+
+    /**
+     * バインド変数の値を記録するステートメントを取得する。
+     * <p/>
+     * 返却されたステートメントへの呼び出しは、全て記録対象のステートメントに委譲される。
+     *
+     * @return バインド変数の値を記録するステートメント
+     */
+    PreparedStatement getStatement() {
+        return proxy;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        final String name = method.getName();
+        if ("clearParameters".equals(name)) {
+            values.clear();
+        } else if (name.startsWith("set") && args != null && args.length >= 2
+                && method.getParameterTypes()[0] == int.class) {
+            values.put((Integer) args[0], BindValue.of(name, args));
+        }
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * これまでに記録したバインド変数の値を取得する。
+     *
+     * @return バインド変数の値のリスト（再設定できない値が含まれる場合はnull）
+     */
+    List<BindValue> getBindValues() {
+        final List<BindValue> result = new ArrayList<BindValue>(values.size());
+        for (BindValue value : values.values()) {
+            if (!value.isReplayable()) {
+                return null;
+            }
+            result.add(value);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 記録されたバインド変数の値を表すクラス。
+     */
+    static final class BindValue {
+
+        /** パラメータインデックス */
+        private final int index;
+
+        /** 値 */
+        private final Object value;
+
+        /** SQL型（型を指定せずに設定された場合はnull） */
+        private final Integer sqlType;
+
+        /** 再設定可能か否か */
+        private final boolean replayable;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param index パラメータインデックス
+         * @param value 値
+         * @param sqlType SQL型（型を指定せずに設定された場合はnull）
+         * @param replayable 再設定可能か否か
+         */
+        private BindValue(int index, Object value, Integer sqlType, boolean replayable) {
+            this.index = index;
+            this.value = value;
+            this.sqlType = sqlType;
+            this.replayable = replayable;
+        }
+
+        /**
+         * setterの呼び出しから、バインド変数の値を生成する。
+         *
+         * @param methodName 呼び出されたsetterのメソッド名
+         * @param args setterの引数
+         * @return バインド変数の値
+         */
+        private static BindValue of(String methodName, Object[] args) {
+            final int index = (Integer) args[0];
+            if ("setNull".equals(methodName)) {
+                return new BindValue(index, null, (Integer) args[1], true);
+            }
+            if ("setObject".equals(methodName) && args.length == 3 && args[2] instanceof Integer) {
+                return new BindValue(index, args[1], (Integer) args[2], isReplayableValue(args[1]));
+            }
+            return new BindValue(index, args[1], null, args.length == 2 && isReplayableValue(args[1]));
+        }
+
+        /**
+         * 別のステートメントに再設定できる値か否かを判定する。
+         *
+         * @param value 値
+         * @return 再設定できる場合、真
+         */
+        private static boolean isReplayableValue(Object value) {
+            return value == null
+                    || value instanceof String
+                    || value instanceof Number
+                    || value instanceof Boolean
+                    || value instanceof Character
+                    || value instanceof java.util.Date
+                    || value instanceof byte[];
+        }
+
+        /**
+         * 再設定可能か否か。
+         *
+         * @return 再設定可能な場合、真
+         */
+        private boolean isReplayable() {
+            return replayable;
+        }
+
+        /**
+         * 指定されたステートメントに値を設定する。
+         *
+         * @param statement 設定対象のステートメント
+         */
+        void bindTo(SqlPStatement statement) {
+            if (sqlType == null) {
+                statement.setObject(index, value);
+            } else if (value == null) {
+                statement.setNull(index, sqlType);
+            } else {
+                statement.setObject(index, value, sqlType);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package nablarch.core.db.cache.statement;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import nablarch.core.db.cache.ResultSetCacheKey;
+import nablarch.core.db.statement.SqlResultSet;
+
+/**
+ * 同じキャッシュキーに対するキャッシュミス時の検索を、1つのスレッドに集約するクラス。
+ * <p/>
+ * 最初にキャッシュミスしたスレッドが検索を実行し、
+ * 検索中に同じキャッシュキーでキャッシュミスしたスレッドは、その検索結果を待ち合わせて共有する。
+ * 検索で例外が発生した場合は、待ち合わせている全てのスレッドに同じ例外を送出する。
+ * <p/>
+ * 待ち合わせがタイムアウトした場合、待ち合わせていたスレッドは自身で検索を実行する。
+ *
+ * @author Hisaaki Sioiri
+ */
+class CacheMissCoalescer {
+
+    /** 待ち合わせのタイムアウト(ミリ秒)のデフォルト値 */
+    private static final long DEFAULT_TIMEOUT_MILLIS = 10000L;
+
+    /** 実行中の検索(キャッシュキーごと) */
+    private final ConcurrentMap<ResultSetCacheKey, FutureTask<SqlResultSet>> inFlight =
+            new ConcurrentHashMap<ResultSetCacheKey, FutureTask<SqlResultSet>>();
+
+    /** 待ち合わせのタイムアウト(ミリ秒) */
+    private volatile long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    /**
+     * キャッシュキーに対応する検索を実行する。
+     * <p/>
+     * 同じキャッシュキーの検索を他のスレッドが実行中の場合は、その検索結果を待ち合わせて返却する。
+     *
+     * @param key キャッシュキー
+     * @param loader 検索処理
+     * @return 検索結果
+     */
+    SqlResultSet load(ResultSetCacheKey key, Callable<SqlResultSet> loader) {
+        final FutureTask<SqlResultSet> task = new FutureTask<SqlResultSet>(loader);
+        final FutureTask<SqlResultSet> running = inFlight.putIfAbsent(key, task);
+        if (running == null) {
+            try {
+                task.run();
+            } finally {
+                // 例外発生時も削除するので、後続のスレッドは改めて検索を実行する。
+                inFlight.remove(key, task);
+            }
+            return await(task);
+        }
+        try {
+            return running.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return call(loader);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return call(loader);
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * 自スレッドで実行した検索の結果を取得する。
+     *
+     * @param task 実行済みの検索
+     * @return 検索結果
+     */
+    private static SqlResultSet await(FutureTask<SqlResultSet> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            // 実行済みのため発生しない
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * 自スレッドで検索を実行する。
+     *
+     * @param loader 検索処理
+     * @return 検索結果
+     */
+    private static SqlResultSet call(Callable<SqlResultSet> loader) {
+        try {
+            return loader.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 検索で発生した例外を送出できる形に変換する。
+     *
+     * @param e 検索で発生した例外をラップした例外
+     * @return 非チェック例外
+     */
+    private static RuntimeException rethrow(ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * 待ち合わせのタイムアウト(ミリ秒)を設定する。
+     *
+     * @param timeoutMillis 待ち合わせのタイムアウト(ミリ秒)
+     */
+    void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+}
@@ -3,12 +3,18 @@ package nablarch.core.db.cache.statement;
 import java.sql.PreparedStatement;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import nablarch.core.cache.expirable.ExpirationSetting;
+import nablarch.core.cache.expirable.RefreshableExpirableCache;
+import nablarch.core.cache.expirable.RefreshableExpirationSetting;
 import nablarch.core.db.cache.ResultSetCache;
 import nablarch.core.db.cache.ResultSetCacheKey;
+import nablarch.core.db.cache.statement.BindValueRecorder.BindValue;
 import nablarch.core.db.statement.BasicSqlPStatement;
 import nablarch.core.db.statement.ParameterHolder;
+import nablarch.core.db.statement.ParsedSql;
+import nablarch.core.db.statement.ResultSetIterator;
 import nablarch.core.db.statement.SqlResultSet;
 import nablarch.core.db.statement.exception.SqlStatementException;
 
@@ -28,6 +34,30 @@ public class CacheableSqlPStatement extends BasicSqlPStatement {
     /** SQL ID */
     private final String sqlId;
 
+    /** 実行するSQL文 */
+    private final String sql;
+
+    /** キャッシュミス時の検索を集約するクラス(集約しない場合は{@code null}) */
+    private CacheMissCoalescer cacheMissCoalescer;
+
+    /** キャッシュを非同期で再読み込みするクラス(再読み込みしない場合は{@code null}) */
+    private ResultSetCacheRefresher refresher;
+
+    /** 再読み込み日時を管理するキャッシュ(再読み込みしない場合は{@code null}) */
+    private RefreshableExpirableCache<ResultSetCacheKey, SqlResultSet> refreshableCache;
+
+    /** 再読み込み日時を算出する有効期限設定(再読み込みしない場合は{@code null}) */
+    private RefreshableExpirationSetting refreshableExpirationSetting;
+
+    /** バインド変数の値を記録するクラス(再読み込みしない場合は{@code null}) */
+    private BindValueRecorder bindValueRecorder;
+
+    /** 検索対象テーブルとの依存関係(テーブルの更新でキャッシュを無効化しない場合は{@code null}) */
+    private TableDependency tableDependency;
+
+    /** 実行中の検索の開始時のテーブルのバージョン(バージョンを記録しない場合は{@code null}) */
+    private Long retrievingVersion;
+
     /**
      * コンストラクタ。
      * 本クラスではSQLIDが必須である。その他の値はスーパクラスに渡される。
@@ -40,6 +70,7 @@ public class CacheableSqlPStatement extends BasicSqlPStatement {
     public CacheableSqlPStatement(String sql, PreparedStatement statement, String sqlId) {
         super(sql, statement);
         this.sqlId = sqlId;
+        this.sql = sql;
     }
 
     /**
@@ -58,6 +89,24 @@ public class CacheableSqlPStatement extends BasicSqlPStatement {
                                   String sqlId) {
         super(sql, statement, nameList);
         this.sqlId = sqlId;
+        this.sql = sql;
+    }
+
+    /**
+     * コンストラクタ。
+     * 本クラスではSQLIDが必須である。その他の値はスーパクラスに渡される。
+     *
+     * @param parsedSql 名前付きバインド変数を持つSQL文の解析結果
+     * @param statement ステートメント
+     * @param sqlId     SQL ID
+     * @see BasicSqlPStatement#BasicSqlPStatement(ParsedSql, PreparedStatement)
+     */
+    public CacheableSqlPStatement(ParsedSql parsedSql,
+                                  PreparedStatement statement,
+                                  String sqlId) {
+        super(parsedSql, statement);
+        this.sqlId = sqlId;
+        this.sql = parsedSql.getSql();
     }
 
     /**
@@ -66,6 +115,12 @@ public class CacheableSqlPStatement extends BasicSqlPStatement {
      * キャッシュに値がある場合はキャッシュされた{@link SqlResultSet}が返却される。
      * キャッシュにヒットしない場合、有効期限切れの場合、DBアクセスを行い、
      * キャッシュに値を設定する。
+     * <p/>
+     * キャッシュの再読み込みが設定されている場合、再読み込み日時を過ぎたキャッシュにヒットすると、
+     * キャッシュされた{@link SqlResultSet}を返却したうえで、非同期で再読み込みを行う。
+     * <p/>
+     * テーブルの更新によるキャッシュの無効化が設定されている場合、
+     * キャッシュ後に検索対象テーブルが更新されたキャッシュは、キャッシュミスとして扱う。
      */
     @Override
     protected SqlResultSet doRetrieve(int startPos, int max)
@@ -81,19 +136,92 @@ public class CacheableSqlPStatement extends BasicSqlPStatement {
      * @param max      最大件数
      * @return 結果セット
      */
-    private SqlResultSet getFromCacheOrRetrieve(int startPos, int max) {
-        ResultSetCacheKey key = buildCacheKey(startPos, max);
+    private SqlResultSet getFromCacheOrRetrieve(final int startPos, final int max) {
+        final ResultSetCacheKey key = buildCacheKey(startPos, max);
         SqlResultSet resultSet = cache.getIfNotExpired(key);
+        if (resultSet != null && tableDependency != null && tableDependency.isStale(resultSet)) {
+            // キャッシュ後に検索対象テーブルが更新された
+            resultSet = null;
+        }
         if (resultSet == null) {  // キャッシュミス
-            // 同時実行性を優先するため、
-            // ここに複数スレッドが同時に到達する可能性を許容する。
-            // （その場合、同じクエリが発行される）
-            resultSet = super.doRetrieve(startPos, max);
+            if (cacheMissCoalescer == null) {
+                // 同時実行性を優先するため、
+                // ここに複数スレッドが同時に到達する可能性を許容する。
+                // （その場合、同じクエリが発行される）
+                resultSet = retrieveAndCache(key, startPos, max);
+            } else {
+                // 同じキャッシュキーの検索は1スレッドのみが実行し、他のスレッドはその結果を共有する。
+                resultSet = cacheMissCoalescer.load(key, new Callable<SqlResultSet>() {
+                    @Override
+                    public SqlResultSet call() {
+                        return retrieveAndCache(key, startPos, max);
+                    }
+                });
+            }
+        } else if (refresher != null) {
+            refreshIfRequired(key);
+        }
+        return resultSet;
+    }
+
+    /**
+     * キャッシュが再読み込み日時を過ぎている場合、非同期で再読み込みを行う。
+     * <p/>
+     * バインド変数に再設定できない値(ストリーム等)が含まれる場合は再読み込みを行わない。
+     * (有効期限切れ後に通常どおり検索し直される)
+     *
+     * @param key キャッシュキー
+     */
+    private void refreshIfRequired(ResultSetCacheKey key) {
+        if (!refreshableCache.startRefresh(key)) {
+            return;
+        }
+        List<BindValue> bindValues = bindValueRecorder.getBindValues();
+        if (bindValues != null) {
+            refresher.refresh(refreshableCache, refreshableExpirationSetting, key, sql, bindValues, tableDependency);
+        }
+    }
+
+    /**
+     * DBアクセスを行い、結果をキャッシュに設定する。
+     *
+     * @param key      キャッシュキー
+     * @param startPos 開始位置
+     * @param max      最大件数
+     * @return 結果セット
+     */
+    private SqlResultSet retrieveAndCache(ResultSetCacheKey key, int startPos, int max) {
+        if (tableDependency == null) {
+            SqlResultSet resultSet = super.doRetrieve(startPos, max);
             addToCache(key, resultSet);
+            return resultSet;
+        }
+        // 検索中にテーブルが更新された場合に無効と判定できるよう、検索前のバージョンを記録する。
+        // (結果セットは、createSqlResultSetでバージョンを記録したクラスとして生成する)
+        retrievingVersion = tableDependency.currentVersion();
+        final SqlResultSet resultSet;
+        try {
+            resultSet = super.doRetrieve(startPos, max);
+        } finally {
+            retrievingVersion = null;
         }
+        addToCache(key, resultSet);
         return resultSet;
     }
 
+    /**
+     * {@inheritDoc}
+     * 本クラスでは、テーブルの更新によるキャッシュの無効化が設定されている場合、
+     * 検索開始時のテーブルのバージョンを記録した結果セットを生成する。
+     */
+    @Override
+    protected SqlResultSet createSqlResultSet(ResultSetIterator rs, int startPos, int max) {
+        if (retrievingVersion == null) {
+            return super.createSqlResultSet(rs, startPos, max);
+        }
+        return tableDependency.createResultSet(rs, startPos, max, retrievingVersion);
+    }
+
     /**
      * 以下の要素からキャッシュキーの組み立てを行う。
      * <ul>
@@ -120,7 +248,11 @@ public class CacheableSqlPStatement extends BasicSqlPStatement {
      */
     private void addToCache(ResultSetCacheKey key, SqlResultSet value) {
         Date timeout = expirationSetting.getExpiredDate(sqlId);
-        cache.add(key, value, timeout);
+        if (refresher == null) {
+            cache.add(key, value, timeout);
+        } else {
+            refreshableCache.add(key, value, timeout, refreshableExpirationSetting.getRefreshDate(sqlId));
+        }
     }
 
     /**
@@ -149,4 +281,43 @@ public class CacheableSqlPStatement extends BasicSqlPStatement {
     void setCacheExpiration(ExpirationSetting expiration) {
         this.expirationSetting = expiration;
     }
+
+    /**
+     * キャッシュミス時の検索を集約するクラスを設定する。
+     *
+     * @param cacheMissCoalescer キャッシュミス時の検索を集約するクラス(集約しない場合は{@code null})
+     */
+    void setCacheMissCoalescer(CacheMissCoalescer cacheMissCoalescer) {
+        this.cacheMissCoalescer = cacheMissCoalescer;
+    }
+
+    /**
+     * キャッシュを非同期で再読み込みするクラスを設定する。
+     * <p/>
+     * 再読み込みを行う場合、キャッシュと有効期限設定は再読み込み日時を扱えなければならない。
+     * 引数のキャッシュと有効期限設定は、{@link #setResultSetCache(ResultSetCache)}、
+     * {@link #setCacheExpiration(ExpirationSetting)}で設定したものと同じインスタンスを指定すること。
+     *
+     * @param refresher キャッシュを非同期で再読み込みするクラス
+     * @param bindValueRecorder 本ステートメントのバインド変数の値を記録するクラス
+     * @param refreshableCache 再読み込み日時を管理するキャッシュ
+     * @param refreshableExpirationSetting 再読み込み日時を算出する有効期限設定
+     */
+    void setResultSetCacheRefresher(ResultSetCacheRefresher refresher, BindValueRecorder bindValueRecorder,
+            RefreshableExpirableCache<ResultSetCacheKey, SqlResultSet> refreshableCache,
+            RefreshableExpirationSetting refreshableExpirationSetting) {
+        this.refresher = refresher;
+        this.bindValueRecorder = bindValueRecorder;
+        this.refreshableCache = refreshableCache;
+        this.refreshableExpirationSetting = refreshableExpirationSetting;
+    }
+
+    /**
+     * 検索対象テーブルとの依存関係を設定する。
+     *
+     * @param tableDependency 検索対象テーブルとの依存関係(テーブルの更新でキャッシュを無効化しない場合は{@code null})
+     */
+    void setTableDependency(TableDependency tableDependency) {
+        this.tableDependency = tableDependency;
+    }
 }
@@ -1,15 +1,29 @@
 package nablarch.core.db.cache.statement;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import nablarch.core.db.DbExecutionContext;
 import nablarch.core.db.cache.ResultSetCache;
+import nablarch.core.db.cache.ResultSetCacheKey;
 import nablarch.core.cache.expirable.ExpirationSetting;
+import nablarch.core.cache.expirable.RefreshableExpirableCache;
+import nablarch.core.cache.expirable.RefreshableExpirationSetting;
+import nablarch.core.db.connection.BasicDbConnection;
+import nablarch.core.db.connection.CommitListener;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.repository.SystemRepository;
 import nablarch.core.db.statement.BasicStatementFactory;
 import nablarch.core.db.statement.ParameterizedSqlPStatement;
+import nablarch.core.db.statement.ParsedSql;
 import nablarch.core.db.statement.SqlPStatement;
-import nablarch.core.db.statement.SqlParameterParser;
+import nablarch.core.db.statement.SqlResultSet;
+import nablarch.core.db.statement.SqlUpdateListener;
 
 /**
  * キャッシュ機能を備えた{@link nablarch.core.db.statement.StatementFactory}実装クラス。
@@ -24,6 +38,33 @@ public class CacheableStatementFactory extends BasicStatementFactory {
     /** キャッシュ */
     private ResultSetCache resultSetCache;
 
+    /** キャッシュミス時の検索を1スレッドに集約するか否か */
+    private boolean coalesceCacheMiss = false;
+
+    /** キャッシュミス時の検索を集約するクラス */
+    private final CacheMissCoalescer cacheMissCoalescer = new CacheMissCoalescer();
+
+    /** キャッシュ再読み込み用のデータベース接続を生成するファクトリのコンポーネント名 */
+    private String refreshConnectionFactoryName;
+
+    /** キャッシュの再読み込みを実行するスレッド数 */
+    private int refreshThreadPoolSize = 1;
+
+    /** キャッシュの再読み込み待ちのキューの上限 */
+    private int refreshQueueCapacity = 100;
+
+    /** キャッシュを非同期で再読み込みするクラス */
+    private volatile ResultSetCacheRefresher refresher;
+
+    /** テーブルの更新時に、そのテーブルを検索したキャッシュを無効化するか否か */
+    private boolean invalidateOnUpdate = false;
+
+    /** テーブルごとの更新回数 */
+    private final TableVersionRegistry tableVersions = new TableVersionRegistry();
+
+    /** SQL IDごとの参照・更新テーブル */
+    private final ConcurrentMap<String, Set<String>> tablesBySqlId = new ConcurrentHashMap<String, Set<String>>();
+
     /**
      * {@inheritDoc}
      * 指定されたSQL IDがキャッシュ対象かどうかを判定し、
@@ -41,10 +82,16 @@ public class CacheableStatementFactory extends BasicStatementFactory {
             return super.getSqlPStatementBySqlId(sqlId, con, context);
         }
         String sql = getSql(sqlId);
-        CacheableSqlPStatement p = new CacheableSqlPStatement(sql, con.prepareStatement(sql), sqlId);
+        PreparedStatement statement = con.prepareStatement(sql);
+        BindValueRecorder recorder = createBindValueRecorder(statement);
+        CacheableSqlPStatement p = new CacheableSqlPStatement(
+                sql, recorder == null ? statement : recorder.getStatement(), sqlId);
         setCommonPropsTo(p, context);
         p.setAdditionalInfo(String.format("SQL_ID = [%s]", sqlId));
+        p.setSqlId(sqlId);
         setRSCacheAttrTo(p);         // キャッシュ設定
+        setRefresherTo(p, recorder); // キャッシュ再読み込み設定
+        setTableDependencyTo(p, sqlId, sql); // テーブル更新時の無効化設定
         return p;
     }
 
@@ -92,20 +139,22 @@ public class CacheableStatementFactory extends BasicStatementFactory {
         }
 
         // 名前付きバインド変数の置き換え
-        SqlParameterParser parser = createParser();
-        parser.parse(original);
-        String parsedSql = parser.getSql();
+        ParsedSql parsedSql = parseSql(original);
+        PreparedStatement statement = con.prepareStatement(parsedSql.getSql());
+        BindValueRecorder recorder = createBindValueRecorder(statement);
         CacheableSqlPStatement sqlp = new CacheableSqlPStatement(
                 parsedSql,
-                con.prepareStatement(parsedSql),
-                parser.getNameList(),
+                recorder == null ? statement : recorder.getStatement(),
                 sqlId);
         setCommonPropsTo(sqlp, context); // 共通設定
         setObjectFieldPropsTo(sqlp);     // オブジェクトのフィールドの値を扱う場合の設定
         setLikeConditionPropsTo(sqlp);   // like条件用の設定
         setRSCacheAttrTo(sqlp);          // 結果セットキャッシュ設定
+        setRefresherTo(sqlp, recorder);  // キャッシュ再読み込み設定
+        setTableDependencyTo(sqlp, sqlId, original); // テーブル更新時の無効化設定
         // 追加情報にSQLIDとオリジナルのSQLを設定する。
         sqlp.setAdditionalInfo(buildAdditionalInfoForSqlID(sqlId, original));
+        sqlp.setSqlId(sqlId);
         return sqlp;
     }
 
@@ -114,6 +163,7 @@ public class CacheableStatementFactory extends BasicStatementFactory {
      * <ul>
      * <li>有効期限設定</li>
      * <li>キャッシュ</li>
+     * <li>キャッシュミス時の検索の集約(集約する設定の場合のみ)</li>
      * </ul>
      *
      * @param sqlp 設定対象となるステートメント
@@ -121,6 +171,144 @@ public class CacheableStatementFactory extends BasicStatementFactory {
     protected void setRSCacheAttrTo(CacheableSqlPStatement sqlp) {
         sqlp.setCacheExpiration(expirationSetting);
         sqlp.setResultSetCache(resultSetCache);
+        sqlp.setCacheMissCoalescer(coalesceCacheMiss ? cacheMissCoalescer : null);
+    }
+
+    /**
+     * キャッシュの再読み込みを行う設定の場合、ステートメントのバインド変数の値を記録するクラスを生成する。
+     *
+     * @param statement 記録対象のステートメント
+     * @return バインド変数の値を記録するクラス(再読み込みを行わない設定の場合は{@code null})
+     */
+    private BindValueRecorder createBindValueRecorder(PreparedStatement statement) {
+        if (!isRefreshEnabled()) {
+            return null;
+        }
+        return new BindValueRecorder(statement);
+    }
+
+    /**
+     * キャッシュの再読み込みを行う設定の場合、指定されたステートメントにキャッシュを再読み込みするクラスを設定する。
+     *
+     * @param sqlp 設定対象となるステートメント
+     * @param recorder ステートメントのバインド変数の値を記録するクラス(再読み込みを行わない設定の場合は{@code null})
+     */
+    private void setRefresherTo(CacheableSqlPStatement sqlp, BindValueRecorder recorder) {
+        if (recorder != null) {
+            sqlp.setResultSetCacheRefresher(getRefresher(), recorder,
+                    (RefreshableExpirableCache<ResultSetCacheKey, SqlResultSet>) resultSetCache,
+                    (RefreshableExpirationSetting) expirationSetting);
+        }
+    }
+
+    /**
+     * キャッシュの再読み込みを行う設定か否か。
+     * <p/>
+     * 再読み込み用のデータベース接続を生成するファクトリが設定され、
+     * かつキャッシュと有効期限設定の両方が再読み込み日時を扱える場合に、再読み込みを行う。
+     *
+     * @return 再読み込みを行う場合は{@code true}
+     */
+    private boolean isRefreshEnabled() {
+        return refreshConnectionFactoryName != null
+                && resultSetCache instanceof RefreshableExpirableCache
+                && expirationSetting instanceof RefreshableExpirationSetting;
+    }
+
+    /**
+     * テーブルの更新によるキャッシュの無効化を行う設定の場合、
+     * 指定されたステートメントに検索対象テーブルとの依存関係を設定する。
+     *
+     * @param sqlp 設定対象となるステートメント
+     * @param sqlId SQL ID
+     * @param sql SQL文
+     */
+    private void setTableDependencyTo(CacheableSqlPStatement sqlp, String sqlId, String sql) {
+        if (invalidateOnUpdate) {
+            sqlp.setTableDependency(new TableDependency(tableVersions, getTables(sqlId, sql)));
+        }
+    }
+
+    /**
+     * SQL文が参照・更新するテーブルを取得する。
+     * SQL IDが指定された場合は、SQL IDごとに抽出結果を保持する。
+     *
+     * @param sqlId SQL ID(SQL IDを使用しない場合は{@code null})
+     * @param sql SQL文
+     * @return テーブル名のセット
+     */
+    private Set<String> getTables(String sqlId, String sql) {
+        if (sqlId == null) {
+            return SqlTableNameExtractor.extract(sql);
+        }
+        Set<String> tables = tablesBySqlId.get(sqlId);
+        if (tables == null) {
+            tables = SqlTableNameExtractor.extract(sql);
+            tablesBySqlId.putIfAbsent(sqlId, tables);
+        }
+        return tables;
+    }
+
+    /**
+     * {@inheritDoc}
+     * テーブルの更新によるキャッシュの無効化を行う設定の場合、
+     * 更新されたテーブルのバージョンを加算するリスナーを返却する。
+     * リスナーはステートメントごとに生成し、更新されたテーブルの抽出はステートメントごとに1度のみ行う。
+     * <p/>
+     * バージョンは更新系のSQL文の実行時に加算し、データベース接続が{@link BasicDbConnection}の場合は、
+     * コミット時にも再度加算する。
+     * これにより、コミット前に他のトランザクションが検索した(更新前の)結果セットのキャッシュも無効となる。
+     */
+    @Override
+    protected SqlUpdateListener getUpdateListener(DbExecutionContext context) {
+        if (!invalidateOnUpdate) {
+            return null;
+        }
+        final TransactionManagerConnection connection = context == null ? null : context.getConnection();
+        return new SqlUpdateListener() {
+
+            /** ステートメントが更新するテーブル(SQL文は変わらないため、初回の通知時に1度だけ抽出する) */
+            private Set<String> tables;
+
+            @Override
+            public void onUpdated(String sqlId, String sql) {
+                if (tables == null) {
+                    tables = getTables(sqlId, sql);
+                }
+                tableVersions.increment(tables);
+                if (connection instanceof BasicDbConnection) {
+                    ((BasicDbConnection) connection).addCommitListener(new TableVersionIncrementer(tableVersions, tables));
+                }
+            }
+        };
+    }
+
+    /**
+     * キャッシュを非同期で再読み込みするクラスを取得する。
+     * 初回呼び出し時に、設定された内容で生成する。
+     *
+     * @return キャッシュを非同期で再読み込みするクラス
+     * @throws IllegalStateException データベース接続を生成するファクトリがリポジトリに登録されていない場合
+     */
+    private ResultSetCacheRefresher getRefresher() {
+        ResultSetCacheRefresher result = refresher;
+        if (result == null) {
+            synchronized (this) {
+                result = refresher;
+                if (result == null) {
+                    ConnectionFactory connectionFactory = SystemRepository.get(refreshConnectionFactoryName);
+                    if (connectionFactory == null) {
+                        throw new IllegalStateException(
+                                "refresh connection factory was not found. refreshConnectionFactoryName = ["
+                                        + refreshConnectionFactoryName + ']');
+                    }
+                    result = new ResultSetCacheRefresher(
+                            connectionFactory, refreshThreadPoolSize, refreshQueueCapacity);
+                    refresher = result;
+                }
+            }
+        }
+        return result;
     }
 
     /**
@@ -153,6 +341,136 @@ public class CacheableStatementFactory extends BasicStatementFactory {
         this.resultSetCache = resultSetCache;
     }
 
+    /**
+     * キャッシュミス時の検索を1スレッドに集約するか否かを設定する。
+     * <p/>
+     * {@code true}を設定した場合、同じキャッシュキーで同時にキャッシュミスした場合は、
+     * 最初のスレッドのみが検索を実行し、他のスレッドはその検索結果を待ち合わせて共有する。
+     * これにより、キャッシュの有効期限切れ時に、同じSQL文が同時に大量に実行されることを防ぐ。
+     * <p/>
+     * 検索で例外が発生した場合、待ち合わせている全てのスレッドに同じ例外が送出される。
+     * (検索結果はキャッシュされないので、後続の検索では改めて検索が実行される)
+     * <p/>
+     * デフォルトは{@code false}(各スレッドがそれぞれ検索を実行する)。
+     *
+     * @param coalesceCacheMiss 集約する場合は{@code true}
+     * @see #setCoalesceTimeoutMillis(long)
+     */
+    public void setCoalesceCacheMiss(boolean coalesceCacheMiss) {
+        this.coalesceCacheMiss = coalesceCacheMiss;
+    }
+
+    /**
+     * キャッシュミス時の検索を集約する場合に、他のスレッドの検索結果を待ち合わせるタイムアウト(ミリ秒)を設定する。
+     * <p/>
+     * タイムアウトした場合は、待ち合わせていたスレッドが自身で検索を実行する。
+     * デフォルトは10000(10秒)。
+     *
+     * @param coalesceTimeoutMillis 待ち合わせのタイムアウト(ミリ秒)
+     * @see #setCoalesceCacheMiss(boolean)
+     */
+    public void setCoalesceTimeoutMillis(long coalesceTimeoutMillis) {
+        if (coalesceTimeoutMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "coalesceTimeoutMillis must be greater than 0. coalesceTimeoutMillis = [" + coalesceTimeoutMillis + ']');
+        }
+        cacheMissCoalescer.setTimeoutMillis(coalesceTimeoutMillis);
+    }
+
+    /**
+     * キャッシュ再読み込み用のデータベース接続を生成するファクトリ({@link ConnectionFactory})の、
+     * リポジトリ上のコンポーネント名を設定する。
+     * <p/>
+     * データベース接続を生成するファクトリは本クラスを参照するため、
+     * コンポーネントの循環参照とならないように、初回使用時にリポジトリから取得する。
+     * <p/>
+     * 本プロパティを設定すると、キャッシュの再読み込み（リフレッシュアヘッド）が有効となる。
+     * 有効期限設定で再読み込み日時が設定されたキャッシュにヒットした場合、
+     * キャッシュされた結果セットを返却したうえで、本ファクトリから取得した専用のデータベース接続を使用して
+     * 非同期で同じSQL文を再実行し、キャッシュを更新する。
+     * これにより、有効期限切れによるキャッシュミスでの応答時間の悪化を防ぐ。
+     * <p/>
+     * バインド変数に、ストリームやLOBなど別のデータベース接続で再設定できない値が含まれる場合、
+     * 再読み込みは行わない。
+     * また、キャッシュが{@link RefreshableExpirableCache}を、有効期限設定が{@link RefreshableExpirationSetting}を
+     * 実装していない場合も、再読み込みは行わない。
+     * <p/>
+     * 本メソッドはDIコンテナから起動されることを想定している。
+     *
+     * @param refreshConnectionFactoryName キャッシュ再読み込み用のデータベース接続を生成するファクトリのコンポーネント名
+     * @see nablarch.core.cache.expirable.BasicExpirationSetting#setRefreshAheadRatio(double)
+     */
+    public void setRefreshConnectionFactoryName(String refreshConnectionFactoryName) {
+        this.refreshConnectionFactoryName = refreshConnectionFactoryName;
+    }
+
+    /**
+     * キャッシュの再読み込みを実行するスレッド数を設定する。
+     * <p/>
+     * デフォルトは1。
+     *
+     * @param refreshThreadPoolSize キャッシュの再読み込みを実行するスレッド数
+     * @see #setRefreshConnectionFactoryName(String)
+     */
+    public void setRefreshThreadPoolSize(int refreshThreadPoolSize) {
+        if (refreshThreadPoolSize <= 0) {
+            throw new IllegalArgumentException(
+                    "refreshThreadPoolSize must be greater than 0. refreshThreadPoolSize = [" + refreshThreadPoolSize + ']');
+        }
+        this.refreshThreadPoolSize = refreshThreadPoolSize;
+    }
+
+    /**
+     * キャッシュの再読み込み待ちのキューの上限を設定する。
+     * <p/>
+     * キューが一杯の場合、再読み込みは行われず、キャッシュは有効期限切れ後に通常どおり検索し直される。
+     * デフォルトは100。
+     *
+     * @param refreshQueueCapacity キャッシュの再読み込み待ちのキューの上限
+     * @see #setRefreshConnectionFactoryName(String)
+     */
+    public void setRefreshQueueCapacity(int refreshQueueCapacity) {
+        if (refreshQueueCapacity <= 0) {
+            throw new IllegalArgumentException(
+                    "refreshQueueCapacity must be greater than 0. refreshQueueCapacity = [" + refreshQueueCapacity + ']');
+        }
+        this.refreshQueueCapacity = refreshQueueCapacity;
+    }
+
+    /**
+     * テーブルの更新時に、そのテーブルを検索した結果セットのキャッシュを無効化するか否かを設定する。
+     * <p/>
+     * {@code true}を設定した場合、SQL文の読み込み時に参照・更新するテーブル名を抽出し、
+     * 本ファクトリが生成したステートメントで更新系のSQL文
+     * ({@code executeUpdate}、{@code executeBatch}など)が実行されると、
+     * 更新されたテーブルを検索した結果セットのキャッシュのみを無効化する。
+     * これにより、有効期限を長く設定しても、更新前のデータを返却し続けることを防げる。
+     * <p/>
+     * 無効化は更新系のSQL文の実行時と、トランザクションのコミット時に行う。
+     * (コミット時の無効化は、データベース接続が{@link BasicDbConnection}の場合のみ行う)
+     * このため、以下の場合は有効期限まで更新前のデータが返却される可能性がある。
+     * <ul>
+     * <li>本ファクトリを使用しない方法(他のプロセスやバッチ等)でテーブルが更新された場合</li>
+     * <li>データベース接続が{@link BasicDbConnection}でない場合に、
+     * 更新系のSQL文の実行後、トランザクションの確定前に別のトランザクションで検索された場合</li>
+     * </ul>
+     * <p/>
+     * また、テーブル名はSQL文に記述されたものを抽出するため、以下の依存関係は追跡しない。
+     * これらに該当するテーブルを検索するSQL文は、有効期限のみでキャッシュを無効化すること。
+     * <ul>
+     * <li>ビュー(ビューの元となるテーブルの更新では、ビューを検索したキャッシュは無効化されない)</li>
+     * <li>トリガー(トリガーにより更新されたテーブルのキャッシュは無効化されない)</li>
+     * <li>外部キーの参照動作(ON DELETE CASCADEなどにより更新されたテーブルのキャッシュは無効化されない)</li>
+     * </ul>
+     * <p/>
+     * デフォルトは{@code false}(有効期限のみでキャッシュを無効化する)。
+     *
+     * @param invalidateOnUpdate テーブルの更新時にキャッシュを無効化する場合は{@code true}
+     */
+    public void setInvalidateOnUpdate(boolean invalidateOnUpdate) {
+        this.invalidateOnUpdate = invalidateOnUpdate;
+    }
+
     /**
      * ステータスのチェックを行う。
      * 必要なプロパティが全て設定されていることを確認する。
@@ -166,4 +484,52 @@ public class CacheableStatementFactory extends BasicStatementFactory {
         }
 
     }
+
+    /**
+     * コミット時に、更新されたテーブルのバージョンを加算するリスナー。
+     * <p/>
+     * 同一のトランザクション内で同じテーブルが繰り返し更新された場合も、コミット時の加算は1度となるよう、
+     * 更新されたテーブルが等しいリスナーは等しいものとして扱う。
+     */
+    private static final class TableVersionIncrementer implements CommitListener {
+
+        /** テーブルごとの更新回数 */
+        private final TableVersionRegistry tableVersions;
+
+        /** 更新されたテーブル */
+        private final Set<String> tables;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param tableVersions テーブルごとの更新回数
+         * @param tables 更新されたテーブル
+         */
+        TableVersionIncrementer(TableVersionRegistry tableVersions, Set<String> tables) {
+            this.tableVersions = tableVersions;
+            this.tables = tables;
+        }
+
+        @Override
+        public void onCommitted() {
+            tableVersions.increment(tables);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TableVersionIncrementer)) {
+                return false;
+            }
+            final TableVersionIncrementer other = (TableVersionIncrementer) o;
+            return tableVersions == other.tableVersions && tables.equals(other.tables);
+        }
+
+        @Override
+        public int hashCode() {
+            return tables.hashCode();
+        }
+    }
 }
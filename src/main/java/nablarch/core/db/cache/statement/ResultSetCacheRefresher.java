@@ -0,0 +1,165 @@
+package nablarch.core.db.cache.statement;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nablarch.core.cache.expirable.RefreshableExpirableCache;
+import nablarch.core.cache.expirable.RefreshableExpirationSetting;
+import nablarch.core.db.cache.ResultSetCacheKey;
+import nablarch.core.db.cache.statement.BindValueRecorder.BindValue;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.db.statement.SqlResultSet;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+/**
+ * 再読み込み日時を過ぎた結果セットキャッシュを、非同期で再読み込みするクラス。
+ * <p/>
+ * 再読み込みは、サイズが制限されたスレッドプールで実行する。
+ * 再読み込み待ちのキューが一杯の場合、その再読み込みは破棄される。
+ * (破棄されたキャッシュは、有効期限切れ後に通常どおり検索し直される)
+ * <p/>
+ * 再読み込みでは、{@link ConnectionFactory}から取得した専用のデータベース接続を使用するため、
+ * 業務処理のトランザクションには影響しない。
+ * 再読み込みに失敗した場合はワーニングログを出力し、キャッシュはそのまま有効期限まで使用される。
+ *
+ * @author Hisaaki Sioiri
+ */
+class ResultSetCacheRefresher {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(ResultSetCacheRefresher.class);
+
+    /** 再読み込みで使用するコネクション名 */
+    static final String CONNECTION_NAME = "resultSetCacheRefresh";
+
+    /** 再読み込み用のデータベース接続を生成するファクトリ */
+    private final ConnectionFactory connectionFactory;
+
+    /** 再読み込みを実行するスレッドプール */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param connectionFactory 再読み込み用のデータベース接続を生成するファクトリ
+     * @param threadPoolSize 再読み込みを実行するスレッド数
+     * @param queueCapacity 再読み込み待ちのキューの上限
+     */
+    ResultSetCacheRefresher(ConnectionFactory connectionFactory, int threadPoolSize, int queueCapacity) {
+        this.connectionFactory = connectionFactory;
+        executor = new ThreadPoolExecutor(threadPoolSize, threadPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), new RefreshThreadFactory(),
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * 結果セットキャッシュの再読み込みを依頼する。
+     *
+     * @param cache キャッシュ
+     * @param expirationSetting 有効期限設定
+     * @param key キャッシュキー
+     * @param sql 実行するSQL文
+     * @param bindValues バインド変数の値
+     * @param tableDependency 検索対象テーブルとの依存関係(テーブルの更新でキャッシュを無効化しない場合は{@code null})
+     */
+    void refresh(final RefreshableExpirableCache<ResultSetCacheKey, SqlResultSet> cache,
+            final RefreshableExpirationSetting expirationSetting,
+            final ResultSetCacheKey key, final String sql, final List<BindValue> bindValues,
+            final TableDependency tableDependency) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                reload(cache, expirationSetting, key, sql, bindValues, tableDependency);
+            }
+        });
+    }
+
+    /**
+     * 専用のデータベース接続でSQL文を再実行し、結果セットをキャッシュに設定し直す。
+     *
+     * @param cache キャッシュ
+     * @param expirationSetting 有効期限設定
+     * @param key キャッシュキー
+     * @param sql 実行するSQL文
+     * @param bindValues バインド変数の値
+     * @param tableDependency 検索対象テーブルとの依存関係(テーブルの更新でキャッシュを無効化しない場合は{@code null})
+     */
+    void reload(RefreshableExpirableCache<ResultSetCacheKey, SqlResultSet> cache,
+            RefreshableExpirationSetting expirationSetting,
+            ResultSetCacheKey key, String sql, List<BindValue> bindValues, TableDependency tableDependency) {
+        TransactionManagerConnection connection = null;
+        try {
+            final long version = tableDependency == null ? 0 : tableDependency.currentVersion();
+            connection = connectionFactory.getConnection(CONNECTION_NAME);
+            final SqlPStatement statement = connection.prepareStatement(sql);
+            for (BindValue bindValue : bindValues) {
+                bindValue.bindTo(statement);
+            }
+            final SqlResultSet resultSet;
+            if (tableDependency == null) {
+                resultSet = statement.retrieve(key.getStartPos(), key.getMax());
+            } else {
+                resultSet = retrieveWithVersion(statement, key, tableDependency, version);
+            }
+            final String sqlId = key.getSqlId();
+            cache.add(key, resultSet, expirationSetting.getExpiredDate(sqlId),
+                    expirationSetting.getRefreshDate(sqlId));
+        } catch (RuntimeException e) {
+            LOGGER.logWarn("failed to refresh the result set cache. key=[" + key + ']', e);
+        } finally {
+            if (connection != null) {
+                connection.terminate();
+            }
+        }
+    }
+
+    /**
+     * 検索開始時のテーブルのバージョンを記録した結果セットを取得する。
+     * <p/>
+     * {@link SqlPStatement#retrieve(int, int)}と同じ範囲のレコードを取得する。
+     *
+     * @param statement ステートメント
+     * @param key キャッシュキー
+     * @param tableDependency 検索対象テーブルとの依存関係
+     * @param version 検索開始時のバージョン
+     * @return バージョンを記録した結果セット
+     */
+    private static SqlResultSet retrieveWithVersion(SqlPStatement statement, ResultSetCacheKey key,
+            TableDependency tableDependency, long version) {
+        final int startPos = key.getStartPos() <= 0 ? 1 : key.getStartPos();
+        final int max = key.getMax();
+        statement.setMaxRows(max <= 0 ? 0 : max + startPos - 1);
+        final ResultSetIterator rs = statement.executeQuery();
+        try {
+            return tableDependency.createResultSet(rs, startPos, max, version);
+        } finally {
+            rs.close();
+        }
+    }
+
+    /**
+     * 再読み込みを実行するスレッドを生成するクラス。
+     * <p/>
+     * アプリケーションの終了を妨げないように、デーモンスレッドを生成する。
+     */
+    private static final class RefreshThreadFactory implements ThreadFactory {
+
+        /** スレッド番号 */
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "ResultSetCacheRefresher-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
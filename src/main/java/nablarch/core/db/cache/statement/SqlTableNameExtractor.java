@@ -0,0 +1,263 @@
+package nablarch.core.db.cache.statement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * SQL文から参照または更新するテーブル名を抽出するクラス。
+ * <p/>
+ * FROM、JOIN、INTO、INSERT、UPDATE、DELETE、USING、TABLE、TRUNCATEの各キーワードの直後に記述されたテーブル名を抽出する。
+ * FROM句にカンマ区切りで記述されたテーブルや、副問い合わせ内のテーブルも抽出対象となる。
+ * キーワードとテーブル名の間のONLY({@code FROM ONLY テーブル名}など)は読み飛ばす。
+ * <p/>
+ * テーブル名はスキーマ名などの修飾を除いて大文字に変換する。
+ * 本クラスは結果セットキャッシュの無効化に使用するため、
+ * テーブル名以外の名前(関数内のFROMに続く列名など)を抽出することは許容する。
+ * (余分に抽出した名前は、キャッシュを余分に無効化するだけで、不整合は生じない)
+ *
+ * @author Hisaaki Sioiri
+ */
+final class SqlTableNameExtractor {
+
+    /** テーブル名が続くキーワード */
+    private static final Set<String> TABLE_KEYWORDS = new HashSet<String>(Arrays.asList(
+            "FROM", "JOIN", "INTO", "INSERT", "UPDATE", "DELETE", "USING", "TABLE", "TRUNCATE"));
+
+    /** テーブル名や別名とはみなさないキーワード */
+    private static final Set<String> RESERVED_WORDS = new HashSet<String>(Arrays.asList(
+            "SELECT", "FROM", "INTO", "TABLE", "ALL", "WHERE", "GROUP", "ORDER", "HAVING", "UNION", "INTERSECT", "EXCEPT", "MINUS",
+            "JOIN", "INNER", "OUTER", "LEFT", "RIGHT", "FULL", "CROSS", "NATURAL", "ON", "USING", "AS",
+            "SET", "VALUES", "WHEN", "THEN", "ELSE", "END", "WITH", "LATERAL", "ONLY", "FOR", "LIMIT",
+            "OFFSET", "FETCH", "CONNECT", "START", "WINDOW", "RETURNING", "DEFAULT"));
+
+    /** 隠蔽コンストラクタ */
+    private SqlTableNameExtractor() {
+    }
+
+    /**
+     * SQL文からテーブル名を抽出する。
+     *
+     * @param sql SQL文
+     * @return テーブル名のセット(大文字)
+     */
+    static Set<String> extract(String sql) {
+        final List<String> tokens = tokenize(sql);
+        final Set<String> tables = new TreeSet<String>();
+        for (int i = 0; i < tokens.size(); i++) {
+            final String keyword = tokens.get(i);
+            if (!TABLE_KEYWORDS.contains(keyword) || isNotTableUpdate(tokens, i)) {
+                continue;
+            }
+            int pos = i + 1;
+            while (true) {
+                if ("ONLY".equals(get(tokens, pos))) {
+                    // ONLY テーブル名、またはONLY (テーブル名)
+                    final boolean parenthesized = "(".equals(get(tokens, pos + 1));
+                    pos = readTableName(tokens, parenthesized ? pos + 2 : pos + 1, tables);
+                    if (pos < 0) {
+                        break;
+                    }
+                    if (parenthesized && ")".equals(get(tokens, pos))) {
+                        pos++;
+                    }
+                } else if ("FROM".equals(keyword) && "(".equals(get(tokens, pos))) {
+                    // FROM句の副問い合わせ(内部のテーブルは副問い合わせのFROMで抽出される)
+                    pos = skipParentheses(tokens, pos);
+                } else {
+                    pos = readTableName(tokens, pos, tables);
+                    if (pos < 0) {
+                        break;
+                    }
+                }
+                if (!"FROM".equals(keyword)) {
+                    break;
+                }
+                pos = skipAlias(tokens, pos);
+                if (!",".equals(get(tokens, pos))) {
+                    break;
+                }
+                pos++;
+            }
+        }
+        return Collections.unmodifiableSet(tables);
+    }
+
+    /**
+     * UPDATEキーワードが、テーブルの更新を表さないか否かを判定する。
+     * (FOR UPDATEやON DUPLICATE KEY UPDATEなど)
+     *
+     * @param tokens トークンのリスト
+     * @param index キーワードの位置
+     * @return テーブルの更新を表さない場合、真
+     */
+    private static boolean isNotTableUpdate(List<String> tokens, int index) {
+        if (!"UPDATE".equals(tokens.get(index)) || index == 0) {
+            return false;
+        }
+        final String previous = tokens.get(index - 1);
+        return "FOR".equals(previous) || "KEY".equals(previous);
+    }
+
+    /**
+     * 指定された位置からテーブル名(修飾付きも可)を読み取る。
+     *
+     * @param tokens トークンのリスト
+     * @param pos 読み取り開始位置
+     * @param tables 読み取ったテーブル名を格納するセット
+     * @return テーブル名の次の位置(テーブル名でない場合は-1)
+     */
+    private static int readTableName(List<String> tokens, int pos, Set<String> tables) {
+        String name = get(tokens, pos);
+        if (!isName(name)) {
+            return -1;
+        }
+        while (".".equals(get(tokens, pos + 1)) && isName(get(tokens, pos + 2))) {
+            pos += 2;
+            name = tokens.get(pos);
+        }
+        tables.add(name.charAt(0) == '"' ? name.substring(1) : name);
+        return pos + 1;
+    }
+
+    /**
+     * 指定された位置の別名(ASを含む)を読み飛ばす。
+     *
+     * @param tokens トークンのリスト
+     * @param pos 読み飛ばし開始位置
+     * @return 別名の次の位置
+     */
+    private static int skipAlias(List<String> tokens, int pos) {
+        if ("AS".equals(get(tokens, pos))) {
+            pos++;
+        }
+        return isName(get(tokens, pos)) ? pos + 1 : pos;
+    }
+
+    /**
+     * 指定された位置の開き括弧から、対応する閉じ括弧までを読み飛ばす。
+     *
+     * @param tokens トークンのリスト
+     * @param pos 開き括弧の位置
+     * @return 閉じ括弧の次の位置
+     */
+    private static int skipParentheses(List<String> tokens, int pos) {
+        int depth = 0;
+        for (; pos < tokens.size(); pos++) {
+            final String token = tokens.get(pos);
+            if ("(".equals(token)) {
+                depth++;
+            } else if (")".equals(token)) {
+                depth--;
+                if (depth == 0) {
+                    return pos + 1;
+                }
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * トークンが名前(予約語以外の識別子)か否かを判定する。
+     *
+     * @param token トークン
+     * @return 名前の場合、真
+     */
+    private static boolean isName(String token) {
+        if (token == null || RESERVED_WORDS.contains(token)) {
+            return false;
+        }
+        final char first = token.charAt(0);
+        return Character.isLetter(first) || first == '_' || first == '"';
+    }
+
+    /**
+     * 指定された位置のトークンを取得する。
+     *
+     * @param tokens トークンのリスト
+     * @param pos 位置
+     * @return トークン(範囲外の場合は{@code null})
+     */
+    private static String get(List<String> tokens, int pos) {
+        return pos < tokens.size() ? tokens.get(pos) : null;
+    }
+
+    /**
+     * SQL文をトークンに分割する。
+     * <p/>
+     * コメントと文字列リテラルは除去し、識別子は大文字に変換する。
+     * 引用符で囲まれた識別子は、引用符を除去して大文字に変換したうえで、先頭に引用符を付加する。
+     * (予約語と区別するため)
+     *
+     * @param sql SQL文
+     * @return トークンのリスト
+     */
+    private static List<String> tokenize(String sql) {
+        final List<String> tokens = new ArrayList<String>();
+        final int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            final char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                final int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                final int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+            } else if (c == '"' || c == '`' || c == '[') {
+                final char close = c == '[' ? ']' : c;
+                final int end = skipQuoted(sql, i, close);
+                final int contentEnd = Math.max(i + 1, end - 1);
+                tokens.add('"' + sql.substring(i + 1, Math.min(contentEnd, length)).toUpperCase());
+                i = end;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#') {
+                int end = i + 1;
+                while (end < length) {
+                    final char n = sql.charAt(end);
+                    if (!(Character.isLetterOrDigit(n) || n == '_' || n == '$' || n == '#')) {
+                        break;
+                    }
+                    end++;
+                }
+                tokens.add(sql.substring(i, end).toUpperCase());
+                i = end;
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 引用符で囲まれた部分を読み飛ばす。
+     * 閉じ引用符が連続する場合はエスケープとみなす。
+     *
+     * @param sql SQL文
+     * @param start 開き引用符の位置
+     * @param close 閉じ引用符
+     * @return 閉じ引用符の次の位置
+     */
+    private static int skipQuoted(String sql, int start, char close) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == close) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == close) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,96 @@
+package nablarch.core.db.cache.statement;
+
+import java.util.Set;
+
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlResultSet;
+
+/**
+ * 結果セットキャッシュと、検索対象テーブルとの依存関係を表すクラス。
+ * <p/>
+ * キャッシュする結果セットを、検索開始時のテーブルのバージョンを記録した{@link SqlResultSet}として生成し、
+ * キャッシュから取得した際に、検索対象テーブルが更新されていないかを判定する。
+ * 検索中にテーブルが更新された場合も、記録したバージョンが古くなるため、
+ * 更新前のデータがキャッシュされ続けることはない。
+ *
+ * @author Hisaaki Sioiri
+ */
+class TableDependency {
+
+    /** テーブルのバージョン */
+    private final TableVersionRegistry registry;
+
+    /** 検索対象テーブル */
+    private final Set<String> tables;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param registry テーブルのバージョン
+     * @param tables 検索対象テーブル
+     */
+    TableDependency(TableVersionRegistry registry, Set<String> tables) {
+        this.registry = registry;
+        this.tables = tables;
+    }
+
+    /**
+     * 検索対象テーブルの現在のバージョンを取得する。
+     * 検索の実行前に取得すること。
+     *
+     * @return 検索対象テーブルのバージョン
+     */
+    long currentVersion() {
+        return registry.getVersion(tables);
+    }
+
+    /**
+     * 検索結果から、検索開始時のバージョンを記録したキャッシュ用の結果セットを生成する。
+     *
+     * @param rs 検索結果
+     * @param startPos 検索結果の取得開始位置
+     * @param max 取得最大件数
+     * @param version 検索開始時のバージョン({@link #currentVersion()}の戻り値)
+     * @return バージョンを記録した結果セット
+     * @see SqlResultSet#SqlResultSet(ResultSetIterator, int, int)
+     */
+    SqlResultSet createResultSet(ResultSetIterator rs, int startPos, int max, long version) {
+        return new VersionedSqlResultSet(rs, startPos, max, version);
+    }
+
+    /**
+     * キャッシュから取得した結果セットが、検索後のテーブル更新により無効となっているか判定する。
+     *
+     * @param cached キャッシュから取得した結果セット
+     * @return 無効となっている場合(バージョンが記録されていない場合を含む)、真
+     */
+    boolean isStale(SqlResultSet cached) {
+        return !(cached instanceof VersionedSqlResultSet)
+                || ((VersionedSqlResultSet) cached).version != currentVersion();
+    }
+
+    /**
+     * 検索開始時のテーブルのバージョンを記録した{@link SqlResultSet}。
+     */
+    private static final class VersionedSqlResultSet extends SqlResultSet {
+
+        /** シリアルバージョンUID */
+        private static final long serialVersionUID = 1L;
+
+        /** 検索開始時のテーブルのバージョン */
+        private final long version;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param rs 検索結果
+         * @param startPos 検索結果の取得開始位置
+         * @param max 取得最大件数
+         * @param version 検索開始時のテーブルのバージョン
+         */
+        private VersionedSqlResultSet(ResultSetIterator rs, int startPos, int max, long version) {
+            super(rs, startPos, max);
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package nablarch.core.db.cache.statement;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * テーブルごとの更新回数(バージョン)を管理するクラス。
+ * <p/>
+ * 更新系のSQL文が実行されるたび(およびそのトランザクションのコミット時)に、更新対象テーブルのバージョンを加算する。
+ * 結果セットのキャッシュに検索時のバージョンを記録しておき、
+ * 現在のバージョンと比較することで、キャッシュが無効になったか否かを判定する。
+ *
+ * @author Hisaaki Sioiri
+ */
+class TableVersionRegistry {
+
+    /** テーブル名ごとのバージョン */
+    private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<String, AtomicLong>();
+
+    /**
+     * 指定されたテーブルの現在のバージョンを取得する。
+     * <p/>
+     * 複数のテーブルが指定された場合は、各テーブルのバージョンの合計を返却する。
+     * バージョンは加算のみ行われるため、いずれかのテーブルが更新されると合計値も変化する。
+     *
+     * @param tables テーブル名
+     * @return バージョン
+     */
+    long getVersion(Set<String> tables) {
+        long version = 0;
+        for (String table : tables) {
+            final AtomicLong tableVersion = versions.get(table);
+            if (tableVersion != null) {
+                version += tableVersion.get();
+            }
+        }
+        return version;
+    }
+
+    /**
+     * 指定されたテーブルのバージョンを加算する。
+     *
+     * @param tables 更新されたテーブル名
+     */
+    void increment(Set<String> tables) {
+        for (String table : tables) {
+            AtomicLong tableVersion = versions.get(table);
+            if (tableVersion == null) {
+                final AtomicLong created = new AtomicLong();
+                tableVersion = versions.putIfAbsent(table, created);
+                if (tableVersion == null) {
+                    tableVersion = created;
+                }
+            }
+            tableVersion.incrementAndGet();
+        }
+    }
+}
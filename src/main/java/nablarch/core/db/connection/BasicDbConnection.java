@@ -6,12 +6,17 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import nablarch.core.db.DbAccessException;
 import nablarch.core.db.DbExecutionContext;
+import nablarch.core.db.dialect.DefaultDialect;
 import nablarch.core.db.dialect.Dialect;
+import nablarch.core.db.statement.BasicSqlPStatement;
+import nablarch.core.db.statement.CacheHitCounter;
 import nablarch.core.db.statement.ParameterizedSqlPStatement;
 import nablarch.core.db.statement.SelectOption;
 import nablarch.core.db.statement.SqlCStatement;
@@ -35,6 +40,9 @@ public class BasicDbConnection implements TransactionManagerConnection {
     /** ロガー */
     private static final Logger LOGGER = LoggerManager.get(BasicDbConnection.class);
 
+    /** 取得範囲をバインド変数とする場合に、検索処理オプションの代わりにキャッシュキーに含める値 */
+    private static final String PAGINATION_BIND_CACHE_KEY = "bound pagination";
+
     /** データベース接続オブジェクト */
     private final Connection con;
 
@@ -53,6 +61,9 @@ public class BasicDbConnection implements TransactionManagerConnection {
     /** SqlPStatementのキャッシュ */
     private Map<String, SqlStatement> cacheStatements = null;
 
+    /** SqlPStatementのキャッシュのヒット件数(nullの場合は計測しない) */
+    private CacheHitCounter statementCacheHitCounter;
+
     /** {@link nablarch.core.db.DbAccessException}ファクトリオブジェクト */
     private DbAccessExceptionFactory dbAccessExceptionFactory;
 
@@ -62,6 +73,9 @@ public class BasicDbConnection implements TransactionManagerConnection {
     /** DBアクセス時の実行コンテキスト */
     private DbExecutionContext context;
 
+    /** 次のコミット後に通知するリスナー */
+    private Set<CommitListener> commitListeners = new LinkedHashSet<CommitListener>();
+
     /**
      * 指定されたデータ接続を保持するオブジェクトを生成する。
      *
@@ -92,6 +106,8 @@ public class BasicDbConnection implements TransactionManagerConnection {
 
     /**
      * 現在のデータベース接続に対してcommitを実行する。
+     * <p/>
+     * コミットが正常終了した場合、{@link #addCommitListener(CommitListener)}で登録されたリスナーに通知する。
      *
      * @see java.sql.Connection#commit()
      */
@@ -102,11 +118,17 @@ public class BasicDbConnection implements TransactionManagerConnection {
         } catch (SQLException e) {
             throw new DbAccessException("failed to commit.", e);
         }
+        notifyCommitted();
     }
 
-    /** 現在のデータベース接続に対してrollbackを実行する。 */
+    /**
+     * 現在のデータベース接続に対してrollbackを実行する。
+     * <p/>
+     * {@link #addCommitListener(CommitListener)}で登録されたリスナーは、通知せずに登録を解除する。
+     */
     @Override
     public void rollback() {
+        commitListeners.clear();
         try {
             con.rollback();
         } catch (SQLException e) {
@@ -114,6 +136,31 @@ public class BasicDbConnection implements TransactionManagerConnection {
         }
     }
 
+    /**
+     * 次のコミットの正常終了後に通知するリスナーを登録する。
+     * <p/>
+     * 同一のトランザクション内で等しいリスナーが既に登録されている場合は、何もしない。
+     *
+     * @param listener コミットの通知を受けるリスナー
+     */
+    public void addCommitListener(CommitListener listener) {
+        commitListeners.add(listener);
+    }
+
+    /**
+     * 登録されたリスナーの登録を解除したうえで、コミットされたことを通知する。
+     */
+    private void notifyCommitted() {
+        if (commitListeners.isEmpty()) {
+            return;
+        }
+        final Set<CommitListener> listeners = commitListeners;
+        commitListeners = new LinkedHashSet<CommitListener>();
+        for (CommitListener listener : listeners) {
+            listener.onCommitted();
+        }
+    }
+
     /**
      * データベース接続の終了処理を行う。<br>
      * 本処理では、下記処理を行う。
@@ -473,6 +520,46 @@ public class BasicDbConnection implements TransactionManagerConnection {
         .create(variableConditionSql);
     }
 
+    /**
+     * SQL_IDを元に、検索結果の件数を各行に付加した検索用のStatementオブジェクトを生成する。
+     * <p/>
+     * SQL文を{@link DefaultDialect#convertCountOverSql(String)}で変換すること以外は、
+     * {@link #prepareParameterizedSqlStatementBySqlId(String, Object, SelectOption)}と同じ処理を行う。
+     *
+     * @param sqlId SQL_ID
+     * @param condition 可変条件に設定される条件をもつオブジェクト
+     * @param selectOption 検索処理オプション
+     * @return Statementオブジェクト
+     * @throws UnsupportedOperationException dialectが{@link DefaultDialect}を継承していない場合
+     * @see java.sql.Connection#prepareStatement(String)
+     */
+    public ParameterizedSqlPStatement prepareParameterizedCountOverSqlStatementBySqlId(
+            final String sqlId, Object condition, final SelectOption selectOption) {
+
+        final Dialect dialect = getDialect();
+        if (!(dialect instanceof DefaultDialect)) {
+            throw new UnsupportedOperationException("count over is unsupported. dialect = ["
+                    + dialect.getClass().getName() + ']');
+        }
+        String variableConditionSql = ((DefaultDialect) dialect)
+                .convertCountOverSql(factory.getVariableConditionSqlBySqlId(sqlId, condition));
+        variableConditionSql = convertPaginationSql(variableConditionSql, selectOption);
+        return (ParameterizedSqlPStatement) new BasicDbConnection.StatementCreator() {
+
+            @Override
+            SqlStatement createSqlStatement(String sql) throws SQLException {
+                return factory.getParameterizedSqlPStatementBySqlId(sql, sqlId, con, getContext(), selectOption);
+            }
+
+            @Override
+            String getErrorMessage(String sql) {
+                return MessageFormat.format(
+                        "failed to prepareParameterizedCountOverSqlStatementBySqlId. SQL_ID = [{0}], {1}", sqlId, selectOption);
+            }
+        }
+        .create(variableConditionSql, selectOption);
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -547,11 +634,30 @@ public class BasicDbConnection implements TransactionManagerConnection {
             }
         }
         if (ps == null || ps.isClosed()) {
+            countStatementCache(false);
             return null;
         }
+        countStatementCache(true);
         return ps;
     }
 
+    /**
+     * キャッシュのヒット件数を記録する。<br/>
+     * {@link #setStatementReuse(boolean)}にfalseを設定している場合は記録しない。
+     *
+     * @param hit キャッシュにヒットした場合はtrue
+     */
+    private void countStatementCache(boolean hit) {
+        if (!statementReuse || statementCacheHitCounter == null) {
+            return;
+        }
+        if (hit) {
+            statementCacheHitCounter.hit();
+        } else {
+            statementCacheHitCounter.miss();
+        }
+    }
+
     /**
      * キャッシュに{@link SqlStatement}を追加する。
      *
@@ -607,6 +713,15 @@ public class BasicDbConnection implements TransactionManagerConnection {
         this.statementReuse = statementReuse;
     }
 
+    /**
+     * ステートメントのキャッシュのヒット件数を計測するオブジェクトを設定する。
+     *
+     * @param statementCacheHitCounter ステートメントのキャッシュのヒット件数を計測するオブジェクト
+     */
+    public void setStatementCacheHitCounter(CacheHitCounter statementCacheHitCounter) {
+        this.statementCacheHitCounter = statementCacheHitCounter;
+    }
+
     /**
      * {@link nablarch.core.db.DbAccessException}ファクトリオブジェクトを設定する。
      *
@@ -643,6 +758,42 @@ public class BasicDbConnection implements TransactionManagerConnection {
             return statement;
         }
 
+        /**
+         * 検索処理オプションを指定して{@link SqlPStatement}を生成する。
+         * <p/>
+         * 取得範囲をバインド変数とするSQL文(キーセットページングのSQL文を含む)の場合は、取得範囲の値をキャッシュキーに含めずに、
+         * ページによらず同じステートメントを再利用する。
+         * 再利用するステートメントには、今回の検索処理オプションを設定し直す。
+         *
+         * @param sql ステートメントを生成するためのSQL文
+         * @param selectOption 検索処理オプション
+         * @return 生成したステートメント
+         */
+        public SqlStatement create(String sql, SelectOption selectOption) {
+            if (!selectOption.isKeyset()
+                    && (!isConvertToPaginatingSql(selectOption)
+                            || !hasPaginationBindValues(selectOption))) {
+                return create(sql, (Object) selectOption);
+            }
+            final SqlStatement statement = create(sql, PAGINATION_BIND_CACHE_KEY);
+            if (statement instanceof BasicSqlPStatement) {
+                ((BasicSqlPStatement) statement).setSelectOption(selectOption);
+            }
+            return statement;
+        }
+
+        /**
+         * ページング用のSQL文が、取得範囲をバインド変数とするか否か。
+         *
+         * @param selectOption 検索処理オプション
+         * @return 取得範囲をバインド変数とする場合は{@code true}
+         */
+        private boolean hasPaginationBindValues(SelectOption selectOption) {
+            final Dialect dialect = getDialect();
+            return dialect instanceof DefaultDialect
+                    && ((DefaultDialect) dialect).getPaginationBindValues(selectOption).length > 0;
+        }
+
         /**
          * SQLをキャッシュするためのキー値を生成する。
          * @param sql SQL
@@ -724,10 +875,18 @@ public class BasicDbConnection implements TransactionManagerConnection {
      *
      * @param sql 変換するSQL
      * @param selectOption 検索条件オプション
-     * @return dialectがoffsetをサポートする場合、検索範囲を設定したSQL
+     * @return キーセットページングの場合、またはdialectがoffsetをサポートする場合、検索範囲を設定したSQL
+     * @throws UnsupportedOperationException キーセットページングで、dialectが{@link DefaultDialect}を継承していない場合
      */
     private String convertPaginationSql(String sql, final SelectOption selectOption) {
-        if (isConvertToPaginatingSql(selectOption)) {
+        if (selectOption.isKeyset()) {
+            final Dialect dialect = getDialect();
+            if (!(dialect instanceof DefaultDialect)) {
+                throw new UnsupportedOperationException("keyset pagination is unsupported. dialect = ["
+                        + dialect.getClass().getName() + ']');
+            }
+            sql = ((DefaultDialect) dialect).convertKeysetPaginationSql(sql, selectOption);
+        } else if (isConvertToPaginatingSql(selectOption)) {
             sql = getDialect().convertPaginationSql(sql, selectOption);
         }
         return sql;
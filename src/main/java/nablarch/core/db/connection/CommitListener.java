@@ -0,0 +1,23 @@
+package nablarch.core.db.connection;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link BasicDbConnection}でトランザクションがコミットされたことの通知を受けるインタフェース。
+ * <p/>
+ * リスナーは{@link BasicDbConnection#addCommitListener(CommitListener)}で登録する。
+ * 登録したリスナーは、次のコミットの正常終了後に1度だけ通知され、登録が解除される。
+ * (ロールバックした場合は、通知されずに登録が解除される)
+ * <p/>
+ * 同一のトランザクション内で{@link Object#equals(Object)}が等しいリスナーが登録された場合、通知は1度のみ行われる。
+ *
+ * @author Hisaaki Sioiri
+ */
+@Published(tag = "architect")
+public interface CommitListener {
+
+    /**
+     * トランザクションがコミットされたことを通知する。
+     */
+    void onCommitted();
+}
@@ -3,6 +3,7 @@ package nablarch.core.db.connection;
 import nablarch.core.db.DbExecutionContext;
 import nablarch.core.db.dialect.DefaultDialect;
 import nablarch.core.db.dialect.Dialect;
+import nablarch.core.db.statement.CacheHitCounter;
 import nablarch.core.db.statement.StatementFactory;
 import nablarch.core.util.annotation.Published;
 
@@ -22,6 +23,9 @@ public abstract class ConnectionFactorySupport implements ConnectionFactory {
     /** Statementのキャッシュ有無(デフォルトは、キャッシュ無) */
     protected boolean statementReuse = true; // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
 
+    /** Statementのキャッシュのヒット件数 */
+    private final CacheHitCounter statementCacheHitCounter = new CacheHitCounter();
+
     /** {@link nablarch.core.db.DbAccessException}ファクトリオブジェクト */
     protected DbAccessExceptionFactory dbAccessExceptionFactory; // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
 
@@ -47,6 +51,17 @@ public abstract class ConnectionFactorySupport implements ConnectionFactory {
         this.statementReuse = statementReuse;
     }
 
+    /**
+     * Statementのキャッシュのヒット件数を取得する。<br>
+     * 本ファクトリで生成した全てのデータベース接続での件数を合算したものを返却する。
+     * ステートメントのキャッシュを行わない設定の場合は計測しない。
+     *
+     * @return Statementのキャッシュのヒット件数
+     */
+    public CacheHitCounter getStatementCacheHitCounter() {
+        return statementCacheHitCounter;
+    }
+
     /**
      * {@link nablarch.core.db.DbAccessException}ファクトリオブジェクトを設定する。
      * @param dbAccessExceptionFactory {@link nablarch.core.db.DbAccessException}ファクトリオブジェクト
@@ -71,7 +86,7 @@ public abstract class ConnectionFactorySupport implements ConnectionFactory {
      * <ul>
      * <li>BasicDbConnection#initialize()を呼び出し初期化を行う。</li>
      * <li>Statement生成用Factoryを設定する。</li>
-     * <li>ステートメントのキャッシュ有無を設定する。</li>
+     * <li>ステートメントのキャッシュ有無と、キャッシュのヒット件数を計測するオブジェクトを設定する。</li>
      * <li>{@link nablarch.core.db.DbAccessException}ファクトリオブジェクトを設定する。</li>
      * </ul>
      * @param dbConnection データベース接続オブジェクト
@@ -81,6 +96,7 @@ public abstract class ConnectionFactorySupport implements ConnectionFactory {
         dbConnection.initialize();
         dbConnection.setFactory(statementFactory);
         dbConnection.setStatementReuse(statementReuse);
+        dbConnection.setStatementCacheHitCounter(statementCacheHitCounter);
         dbConnection.setDbAccessExceptionFactory(dbAccessExceptionFactory);
         setContext(dbConnection, connectionName);
     }
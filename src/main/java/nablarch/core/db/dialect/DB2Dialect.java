@@ -2,6 +2,7 @@ package nablarch.core.db.dialect;
 
 import java.sql.SQLException;
 
+import nablarch.core.db.statement.SelectOption;
 import nablarch.core.util.annotation.Published;
 
 /**
@@ -18,6 +19,9 @@ public class DB2Dialect extends DefaultDialect {
     /** Query Timeアウト時に発生する例外のエラーコード */
     private static final String QUERY_CANCEL_SQL_STATE = "57014";
 
+    /** OFFSET句とFETCH句を使用してページングを行うか否か */
+    private boolean useOffsetFetch;
+
     /**
      * {@inheritDoc}
      * <p/>
@@ -75,5 +79,84 @@ public class DB2Dialect extends DefaultDialect {
     public String getPingSql() {
         return "select 1 from SYSIBM.DUAL";
     }
-}
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * OFFSET句とFETCH句を使用する設定の場合は{@code true}を返す。
+     */
+    @Override
+    public boolean supportsOffset() {
+        return useOffsetFetch;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * DB2では、分析関数がサポートされるので{@code true}を返す。
+     */
+    @Override
+    public boolean supportsCountOver() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * OFFSET句とFETCH句を使用する設定の場合は、{@link #convertOffsetFetchSql(String, SelectOption)}で変換する。
+     * それ以外の場合は、SQL文を変換せずに返す。
+     */
+    @Override
+    public String convertPaginationSql(String sql, SelectOption selectOption) {
+        if (!useOffsetFetch) {
+            return super.convertPaginationSql(sql, selectOption);
+        }
+        return convertOffsetFetchSql(sql, selectOption);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * OFFSET句とFETCH句を使用する設定の場合は、{@link #getOffsetFetchBindValues(SelectOption)}の値を返す。
+     * (サブクラスで{@link #convertPaginationSql(String, SelectOption)}をオーバーライドした場合を除く)
+     */
+    @Override
+    public int[] getPaginationBindValues(SelectOption selectOption) {
+        if (!useOffsetFetch || !isPaginationSqlDeclaredBy(DB2Dialect.class)) {
+            return super.getPaginationBindValues(selectOption);
+        }
+        return getOffsetFetchBindValues(selectOption);
+    }
+
+    /**
+     * OFFSET句とFETCH句を使用してページングを行うか否かを設定する。
+     * <p/>
+     * DB2 11.1以降の場合は、{@code true}を設定することで取得範囲のレコードのみをサーバから取得できる。
+     * 設定しない場合は、サーバ側ではページングを行わず、開始位置までのレコードを読み飛ばして取得範囲のレコードを取得する。
+     *
+     * @param useOffsetFetch OFFSET句とFETCH句を使用する場合は{@code true}
+     */
+    public void setUseOffsetFetch(boolean useOffsetFetch) {
+        this.useOffsetFetch = useOffsetFetch;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * DB2では、複数行のVALUES句を持つINSERT文を使用できるため{@code true}を返す。
+     */
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * DB2では、SQL文が過大にならないよう32767を返す。
+     */
+    @Override
+    public int getMaxBindParameterCount() {
+        return 32767;
+    }
+}
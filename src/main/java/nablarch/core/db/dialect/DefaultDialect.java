@@ -3,9 +3,17 @@ package nablarch.core.db.dialect;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import nablarch.core.db.statement.ColumnExtractor;
+import nablarch.core.db.statement.PlannableResultSetConvertor;
 import nablarch.core.db.statement.ResultSetConvertor;
 import nablarch.core.db.statement.SelectOption;
+import nablarch.core.db.statement.StandardColumnExtractor;
 import nablarch.core.util.annotation.Published;
 
 /**
@@ -21,6 +29,17 @@ public class DefaultDialect implements Dialect {
     /** {@link ResultSet}から値を取得するクラス */
     private static final ResultSetConvertor RESULT_SET_CONVERTOR = new DefaultResultSetConvertor();
 
+    /** 取得範囲のバインド変数がない場合の値 */
+    private static final int[] NO_PAGINATION_BIND_VALUES = new int[0];
+
+    /**
+     * {@link #convertPaginationSql(String, SelectOption)}を宣言しているクラス(未取得の場合はnull)
+     */
+    private volatile Class<?> paginationSqlDeclaringClass;
+
+    /** INSERT文のVALUES句の開始位置までにマッチするパターン */
+    private static final Pattern INSERT_VALUES_PATTERN = Pattern.compile("(?is)^INSERT\\s+INTO\\s+.+?\\bVALUES\\s*\\(");
+
     /**
      * @return {@code false}を返す。
      */
@@ -91,6 +110,212 @@ public class DefaultDialect implements Dialect {
         return sql;
     }
 
+    /**
+     * ページング用のSQL文に含まれる、取得範囲のバインド変数に設定する値を取得する。
+     * <p/>
+     * {@link #convertPaginationSql(String, SelectOption)}が取得範囲をバインド変数({@code ?})とする場合、
+     * SQL文の末尾から順に並ぶそれらのバインド変数に設定する値を、SQL文中の出現順に返す。
+     * 取得範囲をバインド変数とすることで、ページが異なっても同じSQL文となり、
+     * ステートメントとデータベースの実行計画を共有できる。
+     * <p/>
+     * 取得範囲をリテラルとしてSQL文に埋め込む場合は、空の配列を返す。
+     * 本メソッドは{@link Dialect}インタフェースには定義しないため、
+     * 本クラスを継承しない方言では、取得範囲はバインド変数とはみなされない。
+     *
+     * @param selectOption 検索時のオプション
+     * @return 取得範囲のバインド変数に設定する値(デフォルト実装では、SQL文を変換しないため空の配列)
+     */
+    public int[] getPaginationBindValues(SelectOption selectOption) {
+        return NO_PAGINATION_BIND_VALUES;
+    }
+
+    /**
+     * {@link #convertPaginationSql(String, SelectOption)}が、指定されたクラスで宣言されたメソッドか否か。
+     * <p/>
+     * 取得範囲をバインド変数とする方言クラスは、{@link #getPaginationBindValues(SelectOption)}で本メソッドを使用し、
+     * サブクラスで{@link #convertPaginationSql(String, SelectOption)}がオーバーライドされた場合は、取得範囲の値を返さないこと。
+     * (オーバーライドしたメソッドが、取得範囲をリテラルとしてSQL文に埋め込む場合に、
+     * 存在しないバインド変数に値を設定しないようにするため)
+     * <p/>
+     * サブクラスで{@link #convertPaginationSql(String, SelectOption)}をオーバーライドし、
+     * 取得範囲をバインド変数とする場合は、{@link #getPaginationBindValues(SelectOption)}もオーバーライドすること。
+     *
+     * @param dialectClass 取得範囲をバインド変数とする方言クラス
+     * @return 指定されたクラスで宣言されている場合は{@code true}
+     */
+    protected final boolean isPaginationSqlDeclaredBy(Class<? extends DefaultDialect> dialectClass) {
+        Class<?> declaringClass = paginationSqlDeclaringClass;
+        if (declaringClass == null) {
+            try {
+                declaringClass = getClass().getMethod("convertPaginationSql", String.class, SelectOption.class)
+                        .getDeclaringClass();
+            } catch (NoSuchMethodException e) {
+                // Dialectインタフェースのメソッドのため、到達しない。
+                throw new IllegalStateException(e);
+            }
+            paginationSqlDeclaringClass = declaringClass;
+        }
+        return declaringClass == dialectClass;
+    }
+
+    /**
+     * SQL文を、OFFSET句とFETCH句を使用したページング用のSQL文に変換する。
+     * <p/>
+     * 標準SQLのOFFSET句とFETCH句をサポートするデータベース用のサブクラスで使用する。
+     * 取得範囲はバインド変数とし、値は{@link #getOffsetFetchBindValues(SelectOption)}で取得する。
+     * <ul>
+     * <li>limitを指定した場合 : {@code 元のSQL OFFSET ? ROWS FETCH NEXT ? ROWS ONLY}</li>
+     * <li>limitを指定しない場合 : {@code 元のSQL OFFSET ? ROWS}</li>
+     * </ul>
+     *
+     * @param sql SQL文
+     * @param selectOption 検索時のオプション
+     * @return 変換したSQL文
+     */
+    protected String convertOffsetFetchSql(String sql, SelectOption selectOption) {
+        if (selectOption.getLimit() > 0) {
+            return sql + " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
+        }
+        return sql + " OFFSET ? ROWS";
+    }
+
+    /**
+     * {@link #convertOffsetFetchSql(String, SelectOption)}で変換したSQL文の、
+     * 取得範囲のバインド変数に設定する値を取得する。
+     *
+     * @param selectOption 検索時のオプション
+     * @return offset、limitを指定した場合はlimitの順に並べた値
+     */
+    protected int[] getOffsetFetchBindValues(SelectOption selectOption) {
+        final int offset = Math.max(selectOption.getOffset(), 0);
+        if (selectOption.getLimit() > 0) {
+            return new int[] {offset, selectOption.getLimit()};
+        }
+        return new int[] {offset};
+    }
+
+    /**
+     * SQL文をキーセットページング用のSQL文に変換する。
+     * <p/>
+     * ソートキーの昇順に並べ、前ページの最終行のソートキーの値より後ろのレコードを、
+     * 指定されたレコード数まで取得するSQL文に変換する。
+     * ソートキーの値と取得レコード数はバインド変数({@code ?})とし、SQL文の末尾に並べる。
+     * <p/>
+     * 以下形式のSQL文に変換する。最初のページの場合は、WHERE句を付加しない。<br/>
+     * {@code SELECT * FROM ('引数のSQL') SUB_ WHERE 'キーセット条件' ORDER BY 'ソートキー'}
+     * <p/>
+     * キーセット条件は{@link #buildKeysetCondition(String[])}で構築する。
+     * {@link #supportsOffset()}が{@code true}の場合、取得レコード数は{@link #convertPaginationSql(String, SelectOption)}で
+     * SQL文に付加する。それ以外の場合は、ステートメントの最大行数で取得レコード数を制限する。
+     * <p/>
+     * 本メソッドは{@link Dialect}インタフェースには定義しないため、
+     * キーセットページングは本クラスを継承した方言でのみ使用できる。
+     *
+     * @param sql SQL文
+     * @param selectOption キーセットページング用の検索時のオプション
+     * @return 変換したSQL文
+     * @see SelectOption#SelectOption(String[], Object[], int)
+     */
+    public String convertKeysetPaginationSql(String sql, SelectOption selectOption) {
+        final String[] keyColumns = selectOption.getKeyColumns();
+        final StringBuilder result = new StringBuilder(256);
+        result.append("SELECT * FROM (")
+              .append(sql)
+              .append(") SUB_");
+        if (selectOption.getLastKeyValues() != null) {
+            result.append(" WHERE ")
+                  .append(buildKeysetCondition(keyColumns));
+        }
+        result.append(" ORDER BY ");
+        for (int i = 0; i < keyColumns.length; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(keyColumns[i]);
+        }
+        if (isLimitedInSql(selectOption)) {
+            return convertPaginationSql(result.toString(), new SelectOption(1, selectOption.getLimit()));
+        }
+        return result.toString();
+    }
+
+    /**
+     * キーセットページング用のSQL文に含まれる、取得範囲のバインド変数に設定する値を取得する。
+     * <p/>
+     * {@link #convertKeysetPaginationSql(String, SelectOption)}で変換したSQL文の、
+     * 末尾に並ぶバインド変数に設定する値をSQL文中の出現順に返す。
+     * {@link #getKeysetConditionBindValues(Object[])}が返す値、
+     * 取得レコード数をSQL文に付加する場合は{@link #getPaginationBindValues(SelectOption)}が返す値の順に返す。
+     *
+     * @param selectOption キーセットページング用の検索時のオプション
+     * @return 取得範囲のバインド変数に設定する値
+     */
+    public Object[] getKeysetPaginationBindValues(SelectOption selectOption) {
+        final List<Object> values = new ArrayList<Object>();
+        final Object[] lastKeyValues = selectOption.getLastKeyValues();
+        if (lastKeyValues != null) {
+            values.addAll(Arrays.asList(getKeysetConditionBindValues(lastKeyValues)));
+        }
+        if (isLimitedInSql(selectOption)) {
+            for (int value : getPaginationBindValues(new SelectOption(1, selectOption.getLimit()))) {
+                values.add(value);
+            }
+        }
+        return values.toArray();
+    }
+
+    /**
+     * キーセットページングの取得レコード数をSQL文で指定するか否か。
+     *
+     * @param selectOption キーセットページング用の検索時のオプション
+     * @return 取得レコード数をSQL文で指定する場合は{@code true}
+     */
+    private boolean isLimitedInSql(SelectOption selectOption) {
+        return supportsOffset() && selectOption.getLimit() > 0;
+    }
+
+    /**
+     * キーセットページングで、前ページの最終行より後ろのレコードに絞り込む条件を構築する。
+     * <p/>
+     * 行値式の比較をサポートしないデータベースでも使用できるよう、以下形式の条件を構築する。<br/>
+     * {@code ((k1 > ?) OR (k1 = ? AND k2 > ?) OR ...)}
+     * <p/>
+     * 行値式の比較をサポートするデータベースでは、オーバーライドして{@code (k1, k2, ...) > (?, ?, ...)}形式の条件とすることで、
+     * ソートキーのインデックスを使用した検索とすることができる。
+     *
+     * @param keyColumns ソートキーのカラム名
+     * @return 絞り込み条件
+     */
+    protected String buildKeysetCondition(String[] keyColumns) {
+        final StringBuilder condition = new StringBuilder(64);
+        condition.append('(');
+        for (int i = 0; i < keyColumns.length; i++) {
+            if (i > 0) {
+                condition.append(" OR ");
+            }
+            condition.append('(');
+            for (int j = 0; j < i; j++) {
+                condition.append(keyColumns[j]).append(" = ? AND ");
+            }
+            condition.append(keyColumns[i]).append(" > ?)");
+        }
+        return condition.append(')').toString();
+    }
+
+    /**
+     * {@link #buildKeysetCondition(String[])}で構築した条件のバインド変数に設定する値を取得する。
+     *
+     * @param lastKeyValues 前ページの最終行のソートキーの値
+     * @return 条件中の出現順に並べたバインド変数の値
+     */
+    protected Object[] getKeysetConditionBindValues(Object[] lastKeyValues) {
+        final List<Object> values = new ArrayList<Object>();
+        for (int i = 0; i < lastKeyValues.length; i++) {
+            values.addAll(Arrays.asList(lastKeyValues).subList(0, i + 1));
+        }
+        return values.toArray();
+    }
+
     /**
      * {@inheritDoc}
      * <p/>
@@ -102,6 +327,38 @@ public class DefaultDialect implements Dialect {
         return "SELECT COUNT(*) COUNT_ FROM (" + sql + ") SUB_";
     }
 
+    /**
+     * 分析関数({@code COUNT(*) OVER()})を使用して、検索結果の件数を各行に付加できるか否か。
+     * <p/>
+     * 使用できる場合、件数の取得とページングした検索を1回のSQL文の実行で行える。
+     * <p/>
+     * 本メソッドは{@link Dialect}インタフェースには定義しないため、
+     * 本クラスを継承しない方言では、分析関数による件数の付加は使用されない。
+     *
+     * @return 使用可能な場合は、{@code true}(デフォルト実装では{@code false})
+     * @see #convertCountOverSql(String)
+     */
+    public boolean supportsCountOver() {
+        return false;
+    }
+
+    /**
+     * SQL文を、検索結果の件数を各行に付加するSQL文に変換する。
+     * <p/>
+     * 引数のSQL文の全てのカラムに加えて、検索結果の件数を{@code TOTAL_COUNT_}という名前のカラムで返すSQL文に変換する。
+     * 変換したSQL文は、{@link #convertPaginationSql(String, SelectOption)}でページング用に変換して使用できること。
+     * <p/>
+     * 以下形式のSQL文に変換する。<br/>
+     * {@code SELECT SUB_.*, COUNT(*) OVER() TOTAL_COUNT_ FROM ('引数のSQL') SUB_}
+     *
+     * @param sql SQL文
+     * @return 変換したSQL文
+     * @see nablarch.core.db.support.DbAccessSupport#searchWithCountOver(String, nablarch.core.db.support.ListSearchInfo)
+     */
+    public String convertCountOverSql(String sql) {
+        return "SELECT SUB_.*, COUNT(*) OVER() TOTAL_COUNT_ FROM (" + sql + ") SUB_";
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -112,16 +369,153 @@ public class DefaultDialect implements Dialect {
         throw new UnsupportedOperationException("unsupported getPingSql.");
     }
 
+    /**
+     * 配列型のバインド変数が使用できるか否か。
+     * <p/>
+     * 使用できる場合、可変IN構文({@code IN (:ids[])})を、要素数によらず1つのバインド変数に
+     * {@link java.sql.Array}を設定する条件に変換できる。
+     * <p/>
+     * 本メソッドは{@link Dialect}インタフェースには定義しないため、
+     * 本クラスを継承しない方言では、配列型のバインド変数は使用されない。
+     *
+     * @return 使用可能な場合は、{@code true}(デフォルト実装では{@code false})
+     * @see nablarch.core.db.statement.sqlconvertor.VariableInSyntaxConvertor#setDialect(Dialect)
+     */
+    public boolean supportsArrayBinding() {
+        return false;
+    }
+
+    /**
+     * 配列型のバインド変数を使用して、IN条件を置き換える条件式を構築する。
+     * <p/>
+     * {@code カラム IN (:ids[])}の{@code IN (:ids[])}部分を置き換える条件式を返す。
+     *
+     * @param bindVariable 配列型のバインド変数
+     * @return IN条件を置き換える条件式
+     * @throws UnsupportedOperationException 配列型のバインド変数をサポートしない場合(デフォルト実装)
+     */
+    public String buildArrayInCondition(String bindVariable) {
+        throw new UnsupportedOperationException("array binding is unsupported.");
+    }
+
+    /**
+     * 配列型のバインド変数を生成する際に使用する、要素の型名を取得する。
+     * <p/>
+     * 返却した型名は、{@link java.sql.Connection#createArrayOf(String, Object[])}の引数に使用する。
+     *
+     * @param elementType 要素のクラス
+     * @return 要素の型名(配列型のバインド変数に変換できない型の場合は{@code null}。デフォルト実装では常に{@code null})
+     */
+    public String getArrayElementTypeName(Class<?> elementType) {
+        return null;
+    }
+
+    /**
+     * 複数行のVALUES句を持つINSERT文({@code INSERT INTO ... VALUES (...), (...), ...})が使用できるか否か。
+     * <p/>
+     * 使用できる場合、INSERT文のバッチ実行を、複数行を1度に登録するINSERT文の実行に置き換えられる。
+     * <p/>
+     * 本メソッドは{@link Dialect}インタフェースには定義しないため、
+     * 本クラスを継承しない方言では、置き換えは行われない。
+     *
+     * @return 使用可能な場合は、{@code true}(デフォルト実装では{@code false})
+     * @see nablarch.core.db.statement.BasicSqlPStatement#setMultiRowInsert(boolean)
+     */
+    public boolean supportsMultiRowInsert() {
+        return false;
+    }
+
+    /**
+     * 1つのSQL文に指定できるバインド変数の最大数を取得する。
+     * <p/>
+     * 複数行のVALUES句を持つINSERT文で、1度に登録する行数の算出に使用する。
+     *
+     * @return バインド変数の最大数(デフォルト実装では{@link Integer#MAX_VALUE})
+     */
+    public int getMaxBindParameterCount() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * 1行を登録するINSERT文を、複数行のVALUES句を持つINSERT文に変換する。
+     * <p/>
+     * {@code INSERT INTO テーブル (カラム, ...) VALUES (?, ...)}形式のSQL文の、
+     * VALUES句の値リストを指定された行数分に繰り返したSQL文を返す。
+     * <p/>
+     * デフォルト実装では、VALUES句の値リストがSQL文の末尾にある場合のみ変換する。
+     * (値リストの後ろに句を持つSQL文や、副問い合わせで登録するSQL文は変換しない。)
+     *
+     * @param sql 1行を登録するINSERT文
+     * @param rowCount 登録する行数
+     * @return 変換したSQL文(変換できない形式のSQL文の場合は{@code null})
+     */
+    public String buildMultiRowInsertSql(String sql, int rowCount) {
+        final String insertSql = sql.trim();
+        final Matcher matcher = INSERT_VALUES_PATTERN.matcher(insertSql);
+        if (!matcher.find()) {
+            return null;
+        }
+        final int valuesStart = matcher.end() - 1;
+        if (findClosingParenthesis(insertSql, valuesStart) != insertSql.length() - 1) {
+            return null;
+        }
+        final String values = insertSql.substring(valuesStart);
+        final StringBuilder result = new StringBuilder(insertSql.length() + (values.length() + 2) * (rowCount - 1));
+        result.append(insertSql);
+        for (int i = 1; i < rowCount; i++) {
+            result.append(", ")
+                  .append(values);
+        }
+        return result.toString();
+    }
+
+    /**
+     * 開き括弧に対応する閉じ括弧の位置を取得する。
+     * <p/>
+     * 文字列リテラル内の括弧は対象外とする。
+     *
+     * @param sql SQL文
+     * @param start 開き括弧の位置
+     * @return 閉じ括弧の位置(存在しない場合は-1)
+     */
+    private static int findClosingParenthesis(String sql, int start) {
+        int depth = 0;
+        boolean literal = false;
+        for (int i = start; i < sql.length(); i++) {
+            final char c = sql.charAt(i);
+            if (c == '\'') {
+                literal = !literal;
+            } else if (literal) {
+                continue;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
     /**
      * 全て{@link ResultSet#getObject(int)}で値を取得する{@link ResultSetConvertor}の実装クラス。
      */
-    private static class DefaultResultSetConvertor implements ResultSetConvertor {
+    private static class DefaultResultSetConvertor implements PlannableResultSetConvertor {
 
         @Override
         public Object convert(ResultSet rs, ResultSetMetaData rsmd, int columnIndex) throws SQLException {
             return rs.getObject(columnIndex);
         }
 
+        @Override
+        public ColumnExtractor[] createPlan(ResultSetMetaData rsmd) throws SQLException {
+            final ColumnExtractor[] plan = new ColumnExtractor[rsmd.getColumnCount()];
+            Arrays.fill(plan, StandardColumnExtractor.OBJECT);
+            return plan;
+        }
+
         @Override
         public boolean isConvertible(ResultSetMetaData rsmd, int columnIndex) throws SQLException {
             return true;
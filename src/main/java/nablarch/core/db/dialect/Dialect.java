@@ -95,5 +95,4 @@ public interface Dialect {
      * @return ping用のSQL文
      */
     String getPingSql();
-
 }
@@ -85,25 +85,92 @@ public class H2Dialect extends DefaultDialect {
     /**
      * {@inheritDoc}
      * <p/>
-     * {@code offset}と{@code limit}を使用したSQL文に変換する。
+     * {@code limit}と{@code offset}を使用したSQL文に変換する。
+     * 取得範囲はバインド変数とするため、同じSQL文であればページによらず同じSQL文に変換される。
+     * <ul>
+     * <li>limitを指定した場合 : {@code 元のSQL limit ? offset ?}</li>
+     * <li>limitを指定しない場合 : {@code 元のSQL offset ?}</li>
+     * </ul>
      */
     @Override
     public String convertPaginationSql(String sql, SelectOption selectOption) {
-        final StringBuilder result = new StringBuilder(256);
-        result.append(sql);
         if (selectOption.getLimit() > 0) {
-            result.append(" limit ")
-                    .append(selectOption.getLimit());
+            return sql + " limit ? offset ?";
         }
-        if (selectOption.getOffset() > 0) {
-            result.append(" offset ")
-                    .append(selectOption.getOffset());
+        return sql + " offset ?";
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * limitを指定した場合は、limitとoffsetの順に値を返す。
+     * limitを指定しない場合は、offsetのみを返す。
+     * サブクラスで{@link #convertPaginationSql(String, SelectOption)}をオーバーライドした場合は、空の配列を返す。
+     */
+    @Override
+    public int[] getPaginationBindValues(SelectOption selectOption) {
+        if (!isPaginationSqlDeclaredBy(H2Dialect.class)) {
+            return super.getPaginationBindValues(selectOption);
+        }
+        final int offset = Math.max(selectOption.getOffset(), 0);
+        if (selectOption.getLimit() > 0) {
+            return new int[] {selectOption.getLimit(), offset};
         }
-        return result.toString();
+        return new int[] {offset};
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 行値式の比較を使用した{@code (k1, k2, ...) > (?, ?, ...)}形式の条件を構築する。
+     */
+    @Override
+    protected String buildKeysetCondition(String[] keyColumns) {
+        final StringBuilder columns = new StringBuilder(64);
+        final StringBuilder placeholders = new StringBuilder(16);
+        for (int i = 0; i < keyColumns.length; i++) {
+            if (i > 0) {
+                columns.append(", ");
+                placeholders.append(", ");
+            }
+            columns.append(keyColumns[i]);
+            placeholders.append('?');
+        }
+        return "(" + columns + ") > (" + placeholders + ')';
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * ソートキーの値をそのまま返す。
+     */
+    @Override
+    protected Object[] getKeysetConditionBindValues(Object[] lastKeyValues) {
+        return lastKeyValues;
     }
 
     @Override
     public String getPingSql() {
         return "select 1";
     }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * H2では、複数行のVALUES句を持つINSERT文を使用できるため{@code true}を返す。
+     */
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * H2ではバインド変数の数に上限はないが、SQL文が過大にならないよう32767を返す。
+     */
+    @Override
+    public int getMaxBindParameterCount() {
+        return 32767;
+    }
 }
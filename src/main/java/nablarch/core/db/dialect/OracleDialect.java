@@ -5,8 +5,11 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
 
+import nablarch.core.db.statement.ColumnExtractor;
+import nablarch.core.db.statement.PlannableResultSetConvertor;
 import nablarch.core.db.statement.ResultSetConvertor;
 import nablarch.core.db.statement.SelectOption;
+import nablarch.core.db.statement.StandardColumnExtractor;
 import nablarch.core.util.annotation.Published;
 
 /**
@@ -23,6 +26,9 @@ public class OracleDialect extends DefaultDialect {
     /** 検索結果の値変換クラス */
     private static final OracleResultSetConvertor RESULT_SET_CONVERTOR = new OracleResultSetConvertor();
 
+    /** OFFSET句とFETCH句を使用してページングを行うか否か */
+    private boolean useOffsetFetch;
+
     /**
      * {@inheritDoc}
      * <p/>
@@ -49,6 +55,16 @@ public class OracleDialect extends DefaultDialect {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Oracleでは、分析関数がサポートされるので{@code true}を返す。
+     */
+    @Override
+    public boolean supportsCountOver() {
+        return true;
+    }
+
     /**
      * シーケンスはサポートする。
      *
@@ -96,36 +112,62 @@ public class OracleDialect extends DefaultDialect {
      * <p/>
      * Oracleでは、offsetやlimitはサポートされていないため(Oracle12c以降ではサポートはされている)、
      * rownum擬似列を使用して取得レコード数のフィルタリングを行うSQL文に変換を行う。
+     * OFFSET句とFETCH句を使用する設定の場合は、{@link #convertOffsetFetchSql(String, SelectOption)}で変換する。
+     * 取得範囲はバインド変数とするため、同じSQL文であればページによらず同じSQL文に変換される。
      */
     @Override
     public String convertPaginationSql(String sql, SelectOption selectOption) {
-        boolean hasOffset = selectOption.getOffset() > 0;
-
+        if (useOffsetFetch) {
+            return convertOffsetFetchSql(sql, selectOption);
+        }
         StringBuilder result = new StringBuilder(256);
         result.append("SELECT SUB2.* FROM (SELECT SUB1.*, ROWNUM ROWNUM_ FROM (")
                 .append(sql)
-                .append(") SUB1 ) SUB2 WHERE");
-        if (hasOffset) {
-            result.append(" SUB2.ROWNUM_ > ")
-                    .append(selectOption.getOffset());
+                .append(") SUB1 ) SUB2 WHERE SUB2.ROWNUM_ > ?");
+        if (selectOption.getLimit() > 0) {
+            result.append(" AND SUB2.ROWNUM_ <= ?");
         }
+        return result.toString();
+    }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 読み飛ばすレコード数と、limitを指定した場合は取得する最後のレコードの番号を返す。
+     * OFFSET句とFETCH句を使用する設定の場合は、{@link #getOffsetFetchBindValues(SelectOption)}の値を返す。
+     * サブクラスで{@link #convertPaginationSql(String, SelectOption)}をオーバーライドした場合は、空の配列を返す。
+     */
+    @Override
+    public int[] getPaginationBindValues(SelectOption selectOption) {
+        if (!isPaginationSqlDeclaredBy(OracleDialect.class)) {
+            return super.getPaginationBindValues(selectOption);
+        }
+        if (useOffsetFetch) {
+            return getOffsetFetchBindValues(selectOption);
+        }
+        final int offset = Math.max(selectOption.getOffset(), 0);
         if (selectOption.getLimit() > 0) {
-            if (hasOffset) {
-                result.append(" AND SUB2.ROWNUM_ <= ")
-                        .append(selectOption.getOffset() + selectOption.getLimit());
-            } else {
-                result.append(" SUB2.ROWNUM_ <= ")
-                        .append(selectOption.getLimit());
-            }
+            return new int[] {offset, offset + selectOption.getLimit()};
         }
-        return result.toString();
+        return new int[] {offset};
+    }
+
+    /**
+     * OFFSET句とFETCH句を使用してページングを行うか否かを設定する。
+     * <p/>
+     * Oracle12c以降の場合は、{@code true}を設定することでrownum擬似列を使用した副問い合わせを使用せずにページングを行う。
+     * 設定しない場合は、rownum擬似列を使用してページングを行う。
+     *
+     * @param useOffsetFetch OFFSET句とFETCH句を使用する場合は{@code true}
+     */
+    public void setUseOffsetFetch(boolean useOffsetFetch) {
+        this.useOffsetFetch = useOffsetFetch;
     }
 
     /**
      * ResultSetから値を取得するクラス。
      */
-    private static class OracleResultSetConvertor implements ResultSetConvertor {
+    private static class OracleResultSetConvertor implements PlannableResultSetConvertor {
 
         @Override
         public Object convert(ResultSet rs, ResultSetMetaData rsmd, int columnIndex) throws SQLException {
@@ -179,6 +221,45 @@ public class OracleDialect extends DefaultDialect {
         public boolean isConvertible(ResultSetMetaData rsmd, int columnIndex) throws SQLException {
             return true;
         }
+
+        /**
+         * {@inheritDoc}
+         * <p/>
+         * {@link #convert(ResultSet, ResultSetMetaData, int)}と同じ型で値を取得する{@link ColumnExtractor}を、
+         * カラムのデータタイプ、精度、スケールから決定する。
+         */
+        @Override
+        public ColumnExtractor[] createPlan(ResultSetMetaData rsmd) throws SQLException {
+            final ColumnExtractor[] plan = new ColumnExtractor[rsmd.getColumnCount()];
+            for (int i = 0; i < plan.length; i++) {
+                plan[i] = getColumnExtractor(rsmd, i + 1);
+            }
+            return plan;
+        }
+
+        /**
+         * カラムの値を取得する{@link ColumnExtractor}を取得する。
+         *
+         * @param rsmd {@link ResultSetMetaData}
+         * @param columnIndex カラムインデックス
+         * @return {@link ColumnExtractor}
+         * @throws SQLException データベース関連の例外
+         */
+        private static ColumnExtractor getColumnExtractor(ResultSetMetaData rsmd, int columnIndex) throws SQLException {
+            switch (rsmd.getColumnType(columnIndex)) {
+                case Types.NUMERIC:
+                    if (rsmd.getScale(columnIndex) != 0) {
+                        return StandardColumnExtractor.BIG_DECIMAL;
+                    }
+                    return rsmd.getPrecision(columnIndex) <= 9
+                            ? StandardColumnExtractor.INTEGER : StandardColumnExtractor.LONG;
+                case Types.TIMESTAMP:
+                case Types.DATE:
+                    return StandardColumnExtractor.TIMESTAMP;
+                default:
+                    return StandardColumnExtractor.OBJECT;
+            }
+        }
     }
 
     @Override
@@ -1,6 +1,10 @@
 package nablarch.core.db.dialect;
 
+import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
 
 import nablarch.core.db.statement.SelectOption;
 import nablarch.core.util.annotation.Published;
@@ -19,6 +23,22 @@ public class PostgreSQLDialect extends DefaultDialect {
     /** Query Timeアウト時に発生する例外のエラーコード */
     private static final String QUERY_CANCEL_SQL_STATE = "57014";
 
+    /** 配列型のバインド変数の要素のクラスと型名の対応 */
+    private static final Map<Class<?>, String> ARRAY_ELEMENT_TYPE_NAMES = new HashMap<Class<?>, String>();
+
+    static {
+        ARRAY_ELEMENT_TYPE_NAMES.put(String.class, "varchar");
+        ARRAY_ELEMENT_TYPE_NAMES.put(Short.class, "int2");
+        ARRAY_ELEMENT_TYPE_NAMES.put(Integer.class, "int4");
+        ARRAY_ELEMENT_TYPE_NAMES.put(Long.class, "int8");
+        ARRAY_ELEMENT_TYPE_NAMES.put(Float.class, "float4");
+        ARRAY_ELEMENT_TYPE_NAMES.put(Double.class, "float8");
+        ARRAY_ELEMENT_TYPE_NAMES.put(BigDecimal.class, "numeric");
+        ARRAY_ELEMENT_TYPE_NAMES.put(Boolean.class, "bool");
+        ARRAY_ELEMENT_TYPE_NAMES.put(java.sql.Date.class, "date");
+        ARRAY_ELEMENT_TYPE_NAMES.put(Timestamp.class, "timestamp");
+    }
+
     /**
      * {@inheritDoc}
      * <p/>
@@ -49,6 +69,16 @@ public class PostgreSQLDialect extends DefaultDialect {
         return true;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * PostgreSQLでは、分析関数がサポートされるので{@code true}を返す。
+     */
+    @Override
+    public boolean supportsCountOver() {
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      * <p/>
@@ -87,24 +117,121 @@ public class PostgreSQLDialect extends DefaultDialect {
      * {@inheritDoc}
      * <p/>
      * {@code offset}と{@code limit}を使用したSQL文に変換する。
+     * 取得範囲はバインド変数とするため、同じSQL文であればページによらず同じSQL文に変換される。
+     * <ul>
+     * <li>limitを指定した場合 : {@code 元のSQL offset ? limit ?}</li>
+     * <li>limitを指定しない場合 : {@code 元のSQL offset ?}</li>
+     * </ul>
      */
     @Override
     public String convertPaginationSql(String sql, SelectOption selectOption) {
-        final StringBuilder result = new StringBuilder(256);
-        result.append(sql);
-        if (selectOption.getOffset() > 0) {
-            result.append(" offset ")
-                    .append(selectOption.getOffset());
+        if (selectOption.getLimit() > 0) {
+            return sql + " offset ? limit ?";
         }
+        return sql + " offset ?";
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * limitを指定した場合は、offsetとlimitの順に値を返す。
+     * limitを指定しない場合は、offsetのみを返す。
+     * サブクラスで{@link #convertPaginationSql(String, SelectOption)}をオーバーライドした場合は、空の配列を返す。
+     */
+    @Override
+    public int[] getPaginationBindValues(SelectOption selectOption) {
+        if (!isPaginationSqlDeclaredBy(PostgreSQLDialect.class)) {
+            return super.getPaginationBindValues(selectOption);
+        }
+        final int offset = Math.max(selectOption.getOffset(), 0);
         if (selectOption.getLimit() > 0) {
-            result.append(" limit ")
-                    .append(selectOption.getLimit());
+            return new int[] {offset, selectOption.getLimit()};
+        }
+        return new int[] {offset};
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 行値式の比較を使用した{@code (k1, k2, ...) > (?, ?, ...)}形式の条件を構築する。
+     */
+    @Override
+    protected String buildKeysetCondition(String[] keyColumns) {
+        final StringBuilder columns = new StringBuilder(64);
+        final StringBuilder placeholders = new StringBuilder(16);
+        for (int i = 0; i < keyColumns.length; i++) {
+            if (i > 0) {
+                columns.append(", ");
+                placeholders.append(", ");
+            }
+            columns.append(keyColumns[i]);
+            placeholders.append('?');
         }
-        return result.toString();
+        return "(" + columns + ") > (" + placeholders + ')';
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * ソートキーの値をそのまま返す。
+     */
+    @Override
+    protected Object[] getKeysetConditionBindValues(Object[] lastKeyValues) {
+        return lastKeyValues;
     }
 
     @Override
     public String getPingSql() {
         return "select 1";
     }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * PostgreSQLでは、配列型をバインド変数に使用できるため{@code true}を返す。
+     */
+    @Override
+    public boolean supportsArrayBinding() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * {@code = ANY(配列)}形式の条件式を構築する。
+     */
+    @Override
+    public String buildArrayInCondition(String bindVariable) {
+        return "= ANY(" + bindVariable + ')';
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * 文字列、数値、真偽値、日付({@link java.sql.Date})、タイムスタンプ({@link Timestamp})に対応する型名を返す。
+     */
+    @Override
+    public String getArrayElementTypeName(Class<?> elementType) {
+        return ARRAY_ELEMENT_TYPE_NAMES.get(elementType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * PostgreSQLでは、複数行のVALUES句を持つINSERT文を使用できるため{@code true}を返す。
+     */
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * PostgreSQLでは、1つのSQL文に32767個までのバインド変数を指定できる。
+     */
+    @Override
+    public int getMaxBindParameterCount() {
+        return 32767;
+    }
 }
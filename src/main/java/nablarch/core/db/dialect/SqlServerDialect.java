@@ -4,8 +4,14 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import nablarch.core.db.statement.ColumnExtractor;
+import nablarch.core.db.statement.PlannableResultSetConvertor;
 import nablarch.core.db.statement.ResultSetConvertor;
+import nablarch.core.db.statement.SelectOption;
+import nablarch.core.db.statement.StandardColumnExtractor;
 import nablarch.core.util.annotation.Published;
 
 /**
@@ -23,8 +29,13 @@ public class SqlServerDialect extends DefaultDialect {
     private static final String QUERY_CANCEL_STATE_CODE = "HY008";
 
     /** SQLServer用のResultSet変換クラス */
-    private static final SqlServerResultSetConvertor RESULT_SET_CONVERTOR = new SqlServerResultSetConvertor();
+    private static final SqlServerResultSetConvertor RESULT_SET_CONVERTOR = new PlannableSqlServerResultSetConvertor();
 
+    /** ORDER BY句の開始位置にマッチするパターン */
+    private static final Pattern ORDER_BY_PATTERN = Pattern.compile("(?i)order\\s+by\\b");
+
+    /** OFFSET句とFETCH句を使用してページングを行うか否か */
+    private boolean useOffsetFetch;
 
     /**
      * {@inheritDoc}
@@ -101,6 +112,120 @@ public class SqlServerDialect extends DefaultDialect {
         return countSql.toString();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * OFFSET句とFETCH句を使用する設定の場合は{@code true}を返す。
+     */
+    @Override
+    public boolean supportsOffset() {
+        return useOffsetFetch;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * OFFSET句とFETCH句を使用する設定の場合は、{@link #convertOffsetFetchSql(String, SelectOption)}で変換する。
+     * それ以外の場合は、SQL文を変換せずに返す。
+     */
+    @Override
+    public String convertPaginationSql(String sql, SelectOption selectOption) {
+        if (!useOffsetFetch) {
+            return super.convertPaginationSql(sql, selectOption);
+        }
+        return convertOffsetFetchSql(appendOrderByIfAbsent(sql), selectOption);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * OFFSET句とFETCH句を使用する設定の場合は、{@link #getOffsetFetchBindValues(SelectOption)}の値を返す。
+     * (サブクラスで{@link #convertPaginationSql(String, SelectOption)}をオーバーライドした場合を除く)
+     */
+    @Override
+    public int[] getPaginationBindValues(SelectOption selectOption) {
+        if (!useOffsetFetch || !isPaginationSqlDeclaredBy(SqlServerDialect.class)) {
+            return super.getPaginationBindValues(selectOption);
+        }
+        return getOffsetFetchBindValues(selectOption);
+    }
+
+    /**
+     * OFFSET句とFETCH句を使用してページングを行うか否かを設定する。
+     * <p/>
+     * SQL Server 2012以降の場合は、{@code true}を設定することで取得範囲のレコードのみをサーバから取得できる。
+     * SQL ServerのOFFSET句はORDER BY句が必須のため、ORDER BY句を含まないSQL文には{@code ORDER BY (SELECT NULL)}を付加する。
+     * 並び順を保証するには、SQL文にORDER BY句を含めること。
+     * 設定しない場合は、サーバ側ではページングを行わず、開始位置までのレコードを読み飛ばして取得範囲のレコードを取得する。
+     *
+     * @param useOffsetFetch OFFSET句とFETCH句を使用する場合は{@code true}
+     */
+    public void setUseOffsetFetch(boolean useOffsetFetch) {
+        this.useOffsetFetch = useOffsetFetch;
+    }
+
+    /**
+     * ORDER BY句を含まないSQL文に、並び順を指定しないORDER BY句を付加する。
+     * <p/>
+     * ORDER BY句の有無は{@link #hasTopLevelOrderBy(String)}で判定する。
+     *
+     * @param sql SQL文
+     * @return ORDER BY句を含むSQL文
+     */
+    private static String appendOrderByIfAbsent(String sql) {
+        if (hasTopLevelOrderBy(sql)) {
+            return sql;
+        }
+        return sql + " ORDER BY (SELECT NULL)";
+    }
+
+    /**
+     * SQL文の最上位(括弧の外)にORDER BY句が含まれるか否かを判定する。
+     * <p/>
+     * サブクエリや{@code ROW_NUMBER() OVER(ORDER BY ...)}など括弧内のORDER BY、
+     * 文字列リテラル、引用符({@code "}、{@code []})で囲まれた識別子、コメント内の文字列は対象外とする。
+     *
+     * @param sql SQL文
+     * @return 最上位にORDER BY句が含まれる場合は{@code true}
+     */
+    private static boolean hasTopLevelOrderBy(String sql) {
+        final Matcher matcher = ORDER_BY_PATTERN.matcher(sql);
+        final int length = sql.length();
+        int depth = 0;
+        int i = 0;
+        while (i < length) {
+            final char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '[') {
+                // 閉じ引用符まで読み飛ばす(連続した引用符によるエスケープは、閉じた直後に再び開くものとして扱う)
+                final int end = sql.indexOf(c == '[' ? ']' : c, i + 1);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                final int end = sql.indexOf('\n', i + 2);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                final int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '(') {
+                depth++;
+                i++;
+            } else if (c == ')') {
+                depth--;
+                i++;
+            } else if (Character.isJavaIdentifierPart(c)) {
+                // 識別子やキーワードの先頭でのみ判定する
+                if (depth == 0 && matcher.region(i, length).lookingAt()) {
+                    return true;
+                }
+                while (i < length && Character.isJavaIdentifierPart(sql.charAt(i))) {
+                    i++;
+                }
+            } else {
+                i++;
+            }
+        }
+        return false;
+    }
+
     /**
      * SQLServer用のResultSet変換クラス。
      * <p/>
@@ -125,8 +250,55 @@ public class SqlServerDialect extends DefaultDialect {
         }
     }
 
+    /**
+     * 検索結果ごとに値の取得方法を決定する、SQLServer用のResultSet変換クラス。
+     * <p/>
+     * {@link SqlServerResultSetConvertor}と同じ値を取得する。
+     * サブクラスで{@link SqlServerResultSetConvertor#convert(ResultSet, ResultSetMetaData, int)}を
+     * オーバーライドした場合に変換計画が優先されることのないよう、本クラスは本方言の内部でのみ使用する。
+     */
+    private static final class PlannableSqlServerResultSetConvertor extends SqlServerResultSetConvertor
+            implements PlannableResultSetConvertor {
+
+        /**
+         * {@inheritDoc}
+         * <p/>
+         * {@code varbinary(max)}で定義されたカラムは{@link ResultSet#getBinaryStream(int)}で、
+         * それ以外のカラムは{@link ResultSet#getObject(int)}で取得する。
+         */
+        @Override
+        public ColumnExtractor[] createPlan(ResultSetMetaData rsmd) throws SQLException {
+            final ColumnExtractor[] plan = new ColumnExtractor[rsmd.getColumnCount()];
+            for (int i = 0; i < plan.length; i++) {
+                plan[i] = rsmd.getColumnType(i + 1) == Types.LONGVARBINARY
+                        ? StandardColumnExtractor.BINARY_STREAM : StandardColumnExtractor.OBJECT;
+            }
+            return plan;
+        }
+    }
+
     @Override
     public String getPingSql() {
         return "select 1";
     }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * SQL Serverでは、複数行のVALUES句を持つINSERT文を使用できるため{@code true}を返す。
+     */
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * SQL Serverでは、1つのSQL文に指定できるパラメータは2100個未満であるため、余裕を持たせて2000を返す。
+     */
+    @Override
+    public int getMaxBindParameterCount() {
+        return 2000;
+    }
 }
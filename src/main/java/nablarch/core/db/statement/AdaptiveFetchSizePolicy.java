@@ -0,0 +1,428 @@
+package nablarch.core.db.statement;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 検索結果の件数と1行の大きさの実績から、次回の検索で使用するフェッチサイズを決定するクラス。
+ * <p/>
+ * SQL(SQL_IDを使用して生成したステートメントはSQL_ID、それ以外はSQL文)ごとに、
+ * 検索で取得した件数の移動平均と、{@link ResultSetMetaData}から見積もった1行の大きさを記録し、
+ * 次回の検索のフェッチサイズを以下のとおり決定する。
+ * <ol>
+ * <li>取得件数の移動平均 + 1(全件を1回の通信で取得するための件数)</li>
+ * <li>上記を、最小フェッチサイズと最大フェッチサイズの範囲に収める</li>
+ * <li>フェッチサイズ × 1行の大きさが、1回のフェッチで使用するバッファの上限を超える場合は、上限に収まる件数とする</li>
+ * </ol>
+ * 1行の大きさは、カラムの定義上の最大長から見積もる。
+ * (多くのJDBCドライバは、カラムの定義上の最大長 × フェッチサイズのバッファを確保するため。)
+ * <p/>
+ * フェッチサイズの決定は、取得最大件数を指定しない検索(SqlPStatement#retrieve()など)でのみ行う。
+ * 実績がないSQLや、ステートメントに明示的にフェッチサイズが設定された場合は、設定されたフェッチサイズを使用する。
+ * <p/>
+ * 記録するSQLの数が上限に達した場合、以降は新たなSQLの実績を記録しない。
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ *
+ * @author Hisaaki Sioiri
+ * @see BasicStatementFactory#setFetchSizePolicy(AdaptiveFetchSizePolicy)
+ */
+@Published(tag = "architect")
+public class AdaptiveFetchSizePolicy {
+
+    /** 文字列型のカラムの長さの見積もりの上限(文字数) */
+    private static final int MAX_ESTIMATED_CHARS = 4000;
+
+    /** 長さが不明なカラムの大きさの見積もり(バイト) */
+    private static final int DEFAULT_COLUMN_WIDTH = 16;
+
+    /** 実績を記録するSQLの数の上限 */
+    private int maxEntries = 1000;
+
+    /** 最小フェッチサイズ */
+    private int minFetchSize = 1;
+
+    /** 最大フェッチサイズ */
+    private int maxFetchSize = 1000;
+
+    /** 1回のフェッチで使用するバッファの上限(バイト) */
+    private long maxFetchBufferBytes = 2L * 1024 * 1024;
+
+    /** 取得件数の移動平均の重み(直近の実績の重み) */
+    private double smoothingFactor = 0.5;
+
+    /** SQLごとの実績 */
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * 次回の検索で使用するフェッチサイズを取得する。
+     *
+     * @param key SQL_IDまたはSQL文
+     * @param defaultFetchSize 実績がない場合に使用するフェッチサイズ
+     * @return フェッチサイズ
+     */
+    public int getFetchSize(String key, int defaultFetchSize) {
+        final Entry entry = entries.get(key);
+        return entry == null ? defaultFetchSize : entry.getFetchSize();
+    }
+
+    /**
+     * 検索の実績を記録する。
+     *
+     * @param key SQL_IDまたはSQL文
+     * @param metaData 検索結果のメタデータ
+     * @param rowCount 取得した件数
+     * @throws SQLException メタデータの取得に失敗した場合
+     */
+    public void record(String key, ResultSetMetaData metaData, int rowCount) throws SQLException {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+            entry = new Entry();
+            final Entry current = entries.putIfAbsent(key, entry);
+            if (current != null) {
+                entry = current;
+            }
+        }
+        entry.record(rowCount, estimateRowWidth(metaData));
+    }
+
+    /**
+     * 1行の大きさを見積もる。
+     * <p/>
+     * カラムごとの見積もりは以下のとおり。
+     * <ul>
+     * <li>文字列型 : 最大文字数(上限4000文字) × 2バイト</li>
+     * <li>バイナリ型、LOB : 最大長(上限4000バイト)</li>
+     * <li>数値型、日付型 : データタイプに応じた固定長</li>
+     * </ul>
+     *
+     * @param metaData 検索結果のメタデータ
+     * @return 1行の大きさ(バイト)
+     * @throws SQLException メタデータの取得に失敗した場合
+     */
+    protected long estimateRowWidth(ResultSetMetaData metaData) throws SQLException {
+        long width = 0;
+        final int columnCount = metaData.getColumnCount();
+        for (int i = 1; i <= columnCount; i++) {
+            width += estimateColumnWidth(metaData.getColumnType(i), metaData.getPrecision(i));
+        }
+        return Math.max(width, 1);
+    }
+
+    /**
+     * カラムの大きさを見積もる。
+     *
+     * @param sqlType データタイプ
+     * @param precision 精度(文字列型、バイナリ型の場合は最大長)
+     * @return カラムの大きさ(バイト)
+     */
+    private static int estimateColumnWidth(int sqlType, int precision) {
+        switch (sqlType) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB:
+            case Types.NCLOB:
+                return limit(precision, MAX_ESTIMATED_CHARS) * 2;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return limit(precision, MAX_ESTIMATED_CHARS);
+            case Types.BIT:
+            case Types.BOOLEAN:
+            case Types.TINYINT:
+                return 1;
+            case Types.SMALLINT:
+                return 2;
+            case Types.INTEGER:
+            case Types.REAL:
+                return 4;
+            case Types.BIGINT:
+            case Types.DOUBLE:
+            case Types.FLOAT:
+                return 8;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return 22;
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+                return 12;
+            default:
+                return DEFAULT_COLUMN_WIDTH;
+        }
+    }
+
+    /**
+     * 長さを上限に収める。
+     *
+     * @param length 長さ
+     * @param max 上限
+     * @return 上限に収めた長さ(長さが不明な場合は上限)
+     */
+    private static int limit(int length, int max) {
+        return length <= 0 || length > max ? max : length;
+    }
+
+    /**
+     * 取得件数の移動平均と1行の大きさから、フェッチサイズを算出する。
+     *
+     * @param averageRowCount 取得件数の移動平均
+     * @param rowWidth 1行の大きさ(バイト)
+     * @return フェッチサイズ
+     */
+    protected int calculateFetchSize(double averageRowCount, long rowWidth) {
+        long fetchSize = (long) Math.ceil(averageRowCount) + 1;
+        fetchSize = Math.max(minFetchSize, Math.min(maxFetchSize, fetchSize));
+        fetchSize = Math.min(fetchSize, Math.max(1, maxFetchBufferBytes / rowWidth));
+        return (int) fetchSize;
+    }
+
+    /**
+     * SQLごとの実績を取得する。
+     *
+     * @param key SQL_IDまたはSQL文
+     * @return 実績(実績がない場合は{@code null})
+     */
+    public Statistics getStatistics(String key) {
+        final Entry entry = entries.get(key);
+        return entry == null ? null : entry.toStatistics();
+    }
+
+    /**
+     * 全てのSQLの実績を取得する。
+     *
+     * @return SQL_IDまたはSQL文をキーとした実績(キーの昇順、変更不可)
+     */
+    public Map<String, Statistics> getAllStatistics() {
+        final Map<String, Statistics> result = new TreeMap<String, Statistics>();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toStatistics());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 記録した実績をクリアする。
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 実績を記録するSQLの数の上限を設定する。<br>
+     * デフォルトは1000。
+     *
+     * @param maxEntries 実績を記録するSQLの数の上限
+     */
+    public void setMaxEntries(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than 0. maxEntries = [" + maxEntries + ']');
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 最小フェッチサイズを設定する。<br>
+     * デフォルトは1。
+     *
+     * @param minFetchSize 最小フェッチサイズ
+     */
+    public void setMinFetchSize(int minFetchSize) {
+        if (minFetchSize <= 0) {
+            throw new IllegalArgumentException(
+                    "minFetchSize must be greater than 0. minFetchSize = [" + minFetchSize + ']');
+        }
+        this.minFetchSize = minFetchSize;
+    }
+
+    /**
+     * 最大フェッチサイズを設定する。<br>
+     * デフォルトは1000。
+     *
+     * @param maxFetchSize 最大フェッチサイズ
+     */
+    public void setMaxFetchSize(int maxFetchSize) {
+        if (maxFetchSize <= 0) {
+            throw new IllegalArgumentException(
+                    "maxFetchSize must be greater than 0. maxFetchSize = [" + maxFetchSize + ']');
+        }
+        this.maxFetchSize = maxFetchSize;
+    }
+
+    /**
+     * 1回のフェッチで使用するバッファの上限(バイト)を設定する。<br>
+     * フェッチサイズ × 1行の大きさがこの値を超えないようにフェッチサイズを決定する。
+     * ただし、フェッチサイズは1未満にはしない。デフォルトは2MB。
+     *
+     * @param maxFetchBufferBytes 1回のフェッチで使用するバッファの上限(バイト)
+     */
+    public void setMaxFetchBufferBytes(long maxFetchBufferBytes) {
+        if (maxFetchBufferBytes <= 0) {
+            throw new IllegalArgumentException(
+                    "maxFetchBufferBytes must be greater than 0. maxFetchBufferBytes = [" + maxFetchBufferBytes + ']');
+        }
+        this.maxFetchBufferBytes = maxFetchBufferBytes;
+    }
+
+    /**
+     * 取得件数の移動平均の重み(直近の実績の重み)を設定する。<br>
+     * 1に近いほど直近の実績を重視する。デフォルトは0.5。
+     *
+     * @param smoothingFactor 取得件数の移動平均の重み(0より大きく1以下)
+     */
+    public void setSmoothingFactor(double smoothingFactor) {
+        if (smoothingFactor <= 0 || smoothingFactor > 1) {
+            throw new IllegalArgumentException(
+                    "smoothingFactor must be greater than 0 and less than or equal to 1. smoothingFactor = ["
+                            + smoothingFactor + ']');
+        }
+        this.smoothingFactor = smoothingFactor;
+    }
+
+    /**
+     * SQLごとの実績を保持するクラス。
+     */
+    private final class Entry {
+
+        /** 検索回数 */
+        private long executionCount;
+
+        /** 取得件数の移動平均 */
+        private double averageRowCount;
+
+        /** 1行の大きさ(バイト) */
+        private long rowWidth;
+
+        /** 次回の検索で使用するフェッチサイズ */
+        private volatile int fetchSize;
+
+        /**
+         * 検索の実績を記録する。
+         *
+         * @param rowCount 取得した件数
+         * @param rowWidth 1行の大きさ(バイト)
+         */
+        synchronized void record(int rowCount, long rowWidth) {
+            averageRowCount = executionCount == 0
+                    ? rowCount
+                    : averageRowCount + (rowCount - averageRowCount) * smoothingFactor;
+            executionCount++;
+            this.rowWidth = rowWidth;
+            fetchSize = calculateFetchSize(averageRowCount, rowWidth);
+        }
+
+        /**
+         * 次回の検索で使用するフェッチサイズを取得する。
+         *
+         * @return フェッチサイズ
+         */
+        int getFetchSize() {
+            return fetchSize;
+        }
+
+        /**
+         * 実績を取得する。
+         *
+         * @return 実績
+         */
+        synchronized Statistics toStatistics() {
+            return new Statistics(executionCount, averageRowCount, rowWidth, fetchSize);
+        }
+    }
+
+    /**
+     * SQLごとの実績。
+     *
+     * @author Hisaaki Sioiri
+     */
+    @Published(tag = "architect")
+    public static final class Statistics {
+
+        /** 検索回数 */
+        private final long executionCount;
+
+        /** 取得件数の移動平均 */
+        private final double averageRowCount;
+
+        /** 1行の大きさ(バイト) */
+        private final long rowWidth;
+
+        /** 次回の検索で使用するフェッチサイズ */
+        private final int fetchSize;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param executionCount 検索回数
+         * @param averageRowCount 取得件数の移動平均
+         * @param rowWidth 1行の大きさ(バイト)
+         * @param fetchSize 次回の検索で使用するフェッチサイズ
+         */
+        Statistics(long executionCount, double averageRowCount, long rowWidth, int fetchSize) {
+            this.executionCount = executionCount;
+            this.averageRowCount = averageRowCount;
+            this.rowWidth = rowWidth;
+            this.fetchSize = fetchSize;
+        }
+
+        /**
+         * 検索回数を取得する。
+         *
+         * @return 検索回数
+         */
+        public long getExecutionCount() {
+            return executionCount;
+        }
+
+        /**
+         * 取得件数の移動平均を取得する。
+         *
+         * @return 取得件数の移動平均
+         */
+        public double getAverageRowCount() {
+            return averageRowCount;
+        }
+
+        /**
+         * 1行の大きさ(見積もり)を取得する。
+         *
+         * @return 1行の大きさ(バイト)
+         */
+        public long getRowWidth() {
+            return rowWidth;
+        }
+
+        /**
+         * 次回の検索で使用するフェッチサイズを取得する。
+         *
+         * @return フェッチサイズ
+         */
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        @Override
+        public String toString() {
+            return "executionCount=" + executionCount
+                    + ", averageRowCount=" + averageRowCount
+                    + ", rowWidth=" + rowWidth
+                    + ", fetchSize=" + fetchSize;
+        }
+    }
+}
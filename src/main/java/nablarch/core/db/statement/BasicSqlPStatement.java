@@ -8,24 +8,28 @@ import java.sql.Array;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Date;
+import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
 import java.sql.Ref;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import nablarch.core.beans.BeanUtil;
 import nablarch.core.db.DbAccessException;
 import nablarch.core.db.DbExecutionContext;
 import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.dialect.DefaultDialect;
+import nablarch.core.db.dialect.Dialect;
 import nablarch.core.db.statement.ParameterHolder.NopParameterHolder;
 import nablarch.core.db.statement.ParameterHolder.ParamValue;
 import nablarch.core.db.statement.exception.SqlStatementException;
@@ -34,7 +38,7 @@ import nablarch.core.db.util.DbUtil;
 import nablarch.core.exception.IllegalOperationException;
 import nablarch.core.log.Logger;
 import nablarch.core.log.LoggerManager;
-import nablarch.core.util.StringUtil;
+import nablarch.core.util.map.LRUMap;
 
 /**
  * {@link java.sql.PreparedStatement}のをラップしたクラス。<br>
@@ -54,14 +58,23 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
     /** クラス名 */
     private static final String CLASS_NAME = BasicSqlPStatement.class.getName();
 
+    /** 複数行のVALUES句を持つINSERT文で、1つのSQL文に登録する行数の上限 */
+    private static final int MAX_MULTI_ROW_INSERT_ROWS = 1000;
+
+    /** 複数行のVALUES句を持つINSERT文で、行数ごとに再利用するステートメントの上限 */
+    private static final int MAX_MULTI_ROW_INSERT_STATEMENTS = 4;
+
     /** SQL文 */
     private final String sql;
 
     /** Statement */
     private final PreparedStatement statement;
 
+    /** 名前付きバインド変数を持つSQL文の解析結果 */
+    private final ParsedSql parsedSql;
+
     /** 名前付きバインド変数の情報 */
-    private final List<NamedParameterHolder> namedParameterHolderList = new ArrayList<NamedParameterHolder>();
+    private final List<NamedParameterHolder> namedParameterHolderList;
 
     /** パラメータホルダー */
     protected nablarch.core.db.statement.ParameterHolder paramHolder = createParamHolder();        // SUPPRESS CHECKSTYLE サブクラスで使用するフィールドのため。
@@ -99,6 +112,45 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
     /** 検索条件オプション */
     private SelectOption selectOption;
 
+    /** 配列要素のバインド変数の値 */
+    private final ArrayParameterValues arrayParameterValues = new ArrayParameterValues();
+
+    /** 名前付きバインド変数の値の設定方法 */
+    private ParameterBinder parameterBinder = new ObjectParameterBinder();
+
+    /** nullの設定に{@link ParameterMetaData}を使用するか否か */
+    private boolean useParameterMetaData;
+
+    /** バインド変数のSQL型(未取得の場合はnull、取得できなかった場合は要素数0の配列) */
+    private int[] parameterTypes;
+
+    /** バッチを自動実行するバッチサイズ(0の場合は自動実行しない) */
+    private int autoFlushBatchSize;
+
+    /** バッチ実行の更新件数の集計結果 */
+    private BatchUpdateSummary batchUpdateSummary = BatchUpdateSummary.EMPTY;
+
+    /** 集計結果が確定しているか否か(明示的にバッチ実行した場合は確定する) */
+    private boolean batchUpdateSummaryCompleted;
+
+    /** INSERT文のバッチ実行を、複数行のVALUES句を持つINSERT文の実行に置き換えるか否か */
+    private boolean multiRowInsert;
+
+    /** 複数行のVALUES句を持つINSERT文で登録する行 */
+    private final MultiRowInsertBatch multiRowInsertBatch = new MultiRowInsertBatch();
+
+    /** SQL_ID(SQL_IDを使用せずに生成した場合はnull) */
+    private String sqlId;
+
+    /** 検索の実績からフェッチサイズを決定するポリシー(nullの場合は決定しない) */
+    private AdaptiveFetchSizePolicy fetchSizePolicy;
+
+    /** SQL文に含まれるバインド変数の数(未算出の場合は-1) */
+    private int bindVariableCount = -1;
+
+    /** 更新系のSQL文の実行を通知するリスナー(通知しない場合はnull) */
+    private SqlUpdateListener updateListener;
+
     /**
      * コンストラクタ。
      *
@@ -118,14 +170,21 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
      * @param nameList 名前付き変数のリスト
      */
     public BasicSqlPStatement(String sql, PreparedStatement statement, List<String> nameList) {
-        this.sql = sql;
-        this.statement = statement;
+        this(new ParsedSql(sql, nameList), statement);
+    }
 
-        if (nameList != null) {
-            for (String name : nameList) {
-                namedParameterHolderList.add(new NamedParameterHolder(name));
-            }
-        }
+    /**
+     * コンストラクタ。<br>
+     * 解析済みの名前付きバインド変数を持つSQL用
+     *
+     * @param parsedSql 名前付きバインド変数を持つSQL文の解析結果
+     * @param statement PreparedStatement
+     */
+    public BasicSqlPStatement(ParsedSql parsedSql, PreparedStatement statement) {
+        this.sql = parsedSql.getSql();
+        this.statement = statement;
+        this.parsedSql = parsedSql;
+        this.namedParameterHolderList = parsedSql.getNamedParameterHolderList();
         closed = false;
     }
 
@@ -169,11 +228,12 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
             private long fetchTime;
 
             @Override
-            void preprocess() {
+            void preprocess() throws SQLException {
                 searchStartPos = start <= 0 ? 1 : start;
                 setMaxRows(limit <= 0 ? 0 : limit + searchStartPos - 1);
                 // 取得最大件数が指定されている場合は、フェッチサイズを最大取得件数にする。
-                setFetchSize(limit <= 0 ? getFetchSize() : limit);
+                applyFetchSize(limit <= 0 ? getFetchSizeForRetrieve() : limit);
+                bindPaginationValues();
             }
 
             @Override
@@ -186,8 +246,12 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
 
                 try {
                     long fetchStart = System.currentTimeMillis();
-                    result = createSqlResultSet(new ResultSetIterator(rs, getResultSetConvertor()), start, limit);
+                    ResultSetIterator iterator = new ResultSetIterator(rs, getResultSetConvertor());
+                    result = createSqlResultSet(iterator, start, limit);
                     fetchTime = System.currentTimeMillis() - fetchStart;
+                    if (limit <= 0) {
+                        recordFetchResult(iterator, searchStartPos - 1 + result.size());
+                    }
 
                 } catch (RuntimeException e) {
                     error = e;
@@ -229,6 +293,219 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
         .doSql();
     }
 
+    /**
+     * 検索結果を1行ずつ{@link RowHandler}で処理する。
+     * <p/>
+     * 検索結果を{@link SqlResultSet}に保持しないため、大量データを一定のメモリ使用量で処理できる。
+     * {@link java.sql.ResultSet}は、全ての行の処理後(例外発生時も含む)にクローズする。
+     * <p/>
+     * {@link RowHandler}に渡される{@link SqlRow}は、次の行の処理で再利用される。
+     * <p/>
+     * 本メソッドは{@link SqlPStatement}インタフェースには定義しないため、
+     * {@link nablarch.core.db.connection.AppDbConnection}から取得したステートメントを本クラスにキャストして使用する。
+     *
+     * @param handler 1行分のデータを処理する{@link RowHandler}
+     * @return 処理した行数
+     * @throws SqlStatementException SQL実行時に{@link java.sql.SQLException}が発生した場合。
+     */
+    public int retrieve(RowHandler handler) throws SqlStatementException {
+        return doRetrieve(handler);
+    }
+
+    /**
+     * 検索結果を1行ずつ{@link RowHandler}で処理する。
+     * <p/>
+     * {@link RowHandler}には、同じ{@link SqlRow}の値を置き換えながら渡す。
+     * ログに出力するfetch時間には、{@link RowHandler}の処理時間も含まれる。
+     *
+     * @param handler 1行分のデータを処理する{@link RowHandler}
+     * @return 処理した行数
+     */
+    protected int doRetrieve(final RowHandler handler) throws SqlStatementException {
+        return doRetrieveRows(new RowReader() {
+
+            /** 再利用する行 */
+            private SqlRow row;
+
+            @Override
+            void read(ResultSetIterator iterator) {
+                row = iterator.getRow(row);
+                handler.handle(row);
+            }
+        });
+    }
+
+    /**
+     * 検索結果を指定されたクラスのオブジェクトのリストで取得する。
+     * <p/>
+     * {@link SqlRow}を生成せずに、カラムの値をオブジェクトのプロパティに直接設定する。
+     * カラムとプロパティは、名前の大文字/小文字の違い、アンダースコアの有無を区別せずに対応付ける。
+     * (例えば、カラム「USER_NAME」の値はプロパティ「userName」に設定する。)
+     * 対応するプロパティが存在しないカラムは無視する。
+     * <p/>
+     * カラムとプロパティの対応付けは、SQL文とクラスの組み合わせごとに一度だけ行う。
+     *
+     * @param beanClass オブジェクトのクラス(デフォルトコンストラクタを持つこと)
+     * @param <T> オブジェクトの型
+     * @return 検索結果のオブジェクトのリスト
+     * @throws SqlStatementException SQL実行時に{@link java.sql.SQLException}が発生した場合。
+     * @see ResultSetIterator#getBean(Class)
+     */
+    public <T> List<T> retrieve(Class<T> beanClass) throws SqlStatementException {
+        return doRetrieve(beanClass);
+    }
+
+    /**
+     * 検索結果を指定されたクラスのオブジェクトのリストで取得する。
+     * <p/>
+     * カラムとプロパティの対応付け(実行計画)は、SQL文とクラスの組み合わせごとに一度だけ行い、
+     * 以降の検索では再利用する。
+     *
+     * @param beanClass オブジェクトのクラス
+     * @param <T> オブジェクトの型
+     * @return 検索結果のオブジェクトのリスト
+     */
+    private <T> List<T> doRetrieve(final Class<T> beanClass) throws SqlStatementException {
+        final List<T> result = new ArrayList<T>();
+        doRetrieveRows(new RowReader() {
+
+            /** オブジェクトへの変換の実行計画 */
+            private BeanMappingPlan<T> plan;
+
+            @Override
+            void read(ResultSetIterator iterator) {
+                if (plan == null) {
+                    plan = parsedSql.getBeanMappingPlan(beanClass, iterator.getColumnNames());
+                }
+                result.add(iterator.getBean(plan));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 検索結果をカラムごとに保持する{@link ColumnarResultSet}で取得する。
+     * <p/>
+     * 数値型のカラムはプリミティブ型の配列で保持するため、
+     * 大量の行を集計する場合などに{@link SqlResultSet}よりも少ないメモリで検索結果を保持できる。
+     *
+     * @return 検索結果
+     * @throws SqlStatementException SQL実行時に{@link java.sql.SQLException}が発生した場合。
+     */
+    public ColumnarResultSet retrieveColumnar() throws SqlStatementException {
+        return doRetrieveColumnar();
+    }
+
+    /**
+     * 検索結果をカラムごとに保持する{@link ColumnarResultSet}で取得する。
+     *
+     * @return 検索結果
+     */
+    private ColumnarResultSet doRetrieveColumnar() throws SqlStatementException {
+        final ColumnarRowReader reader = new ColumnarRowReader();
+        doRetrieveRows(reader);
+        return reader.result;
+    }
+
+    /**
+     * 検索結果を1行ずつ{@link RowReader}で読み込む。
+     *
+     * @param reader 1行分のデータを読み込む{@link RowReader}
+     * @return 読み込んだ行数
+     */
+    private int doRetrieveRows(final RowReader reader) throws SqlStatementException {
+        final int start;
+        final int limit;
+        if (needsClientSidePagination()) {
+            start = selectOption.getStartPosition();
+            limit = selectOption.getLimit();
+        } else {
+            start = 1;
+            limit = 0;
+        }
+        return new BasicSqlPStatement.SqlExecutor<Integer>() {
+
+            /** 検索開始ポジション */
+            private int searchStartPos;
+
+            /** SQL実行時間 */
+            private long executeTime;
+
+            /** fetch時間 */
+            private long fetchTime;
+
+            @Override
+            void preprocess() throws SQLException {
+                searchStartPos = start <= 0 ? 1 : start;
+                setMaxRows(limit <= 0 ? 0 : limit + searchStartPos - 1);
+                applyFetchSize(limit <= 0 ? getFetchSizeForRetrieve() : limit);
+                bindPaginationValues();
+            }
+
+            @Override
+            Integer execute() throws SQLException {
+                long executeStart = System.currentTimeMillis();
+                ResultSet rs = statement.executeQuery();
+                executeTime = System.currentTimeMillis() - executeStart;
+                int count = 0;
+                Throwable error = null; //ステートメント実行中に発生した実行時例外/エラー
+
+                try {
+                    long fetchStart = System.currentTimeMillis();
+                    ResultSetIterator iterator = new ResultSetIterator(rs, getResultSetConvertor());
+                    reader.start(iterator);
+                    // 開始位置まで空回し
+                    for (int i = 0; (i < (searchStartPos - 1)) && iterator.next(); i++) ;
+
+                    while (iterator.next()) {
+                        reader.read(iterator);
+                        count++;
+                    }
+                    fetchTime = System.currentTimeMillis() - fetchStart;
+                    if (limit <= 0) {
+                        recordFetchResult(iterator, searchStartPos - 1 + count);
+                    }
+
+                } catch (RuntimeException e) {
+                    error = e;
+                    throw e;
+                } catch (Error e) {
+                    error = e;
+                    throw e;
+                } finally {
+                    try {
+                        rs.close();
+                    } catch (Throwable e) {
+                        LOGGER.logWarn("failed to close result set.", e);
+                        if (error == null) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }
+                return count;
+            }
+
+            @Override
+            void writeStartLog() {
+                SQL_LOGGER.logDebug(SqlLogUtil.startRetrieve(CLASS_NAME + '#' + getSqlType(), sql,
+                        searchStartPos, limit, getQueryTimeout(), getFetchSize(), additionalInfo));
+                writeParameter();
+            }
+
+            @Override
+            void writeEndLog(long executeTime, Integer result) {
+                SQL_LOGGER.logDebug(SqlLogUtil.endRetrieve(CLASS_NAME + '#' + getSqlType(),
+                        this.executeTime, fetchTime, result));
+            }
+
+            @Override
+            String getSqlType() {
+                return "retrieve";
+            }
+        }
+        .doSql();
+    }
+
     /**
      * {@link SqlResultSet}を生成する。
      * オーバライドすることで、生成する{@link SqlResultSet}クラスを切り替えることができる。
@@ -309,6 +586,120 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
         }
     }
 
+    /**
+     * Mapの値を検索条件に設定し、検索結果を1行ずつ{@link RowHandler}で処理する。
+     *
+     * @param data 検索条件を要素にもつMap
+     * @param handler 1行分のデータを処理する{@link RowHandler}
+     * @return 処理した行数
+     * @throws SqlStatementException SQL実行時に{@link java.sql.SQLException}が発生した場合
+     * @see #retrieve(RowHandler)
+     */
+    public int retrieveByMap(Map<String, ?> data, RowHandler handler) throws SqlStatementException {
+        try {
+            setMap(data);
+            return doRetrieve(handler);
+        } catch (SQLException e) {
+            throw sqlStatementExceptionFactory
+                    .createSqlStatementException("failed to retrieveByMap.", e, context);
+        }
+    }
+
+    /**
+     * オブジェクトのフィールドの値を検索条件に設定し、検索結果を1行ずつ{@link RowHandler}で処理する。
+     *
+     * @param data 検索条件をフィールドの値にもつオブジェクト
+     * @param handler 1行分のデータを処理する{@link RowHandler}
+     * @return 処理した行数
+     * @throws SqlStatementException SQL実行時に{@link java.sql.SQLException}が発生した場合
+     * @see #retrieve(RowHandler)
+     */
+    public int retrieveByObject(Object data, RowHandler handler) throws SqlStatementException {
+        try {
+            setObject(data);
+            return doRetrieve(handler);
+        } catch (SQLException e) {
+            throw sqlStatementExceptionFactory
+                    .createSqlStatementException("failed to retrieveByObject.", e, context);
+        }
+    }
+
+    /**
+     * Mapの値を検索条件に設定し、検索結果を指定されたクラスのオブジェクトのリストで取得する。
+     *
+     * @param data 検索条件を要素にもつMap
+     * @param beanClass オブジェクトのクラス(デフォルトコンストラクタを持つこと)
+     * @param <T> オブジェクトの型
+     * @return 検索結果のオブジェクトのリスト
+     * @throws SqlStatementException SQL実行時に{@link java.sql.SQLException}が発生した場合
+     * @see #retrieve(Class)
+     */
+    public <T> List<T> retrieveByMap(Map<String, ?> data, Class<T> beanClass) throws SqlStatementException {
+        try {
+            setMap(data);
+            return doRetrieve(beanClass);
+        } catch (SQLException e) {
+            throw sqlStatementExceptionFactory
+                    .createSqlStatementException("failed to retrieveByMap.", e, context);
+        }
+    }
+
+    /**
+     * オブジェクトのフィールドの値を検索条件に設定し、検索結果を指定されたクラスのオブジェクトのリストで取得する。
+     *
+     * @param data 検索条件をフィールドの値にもつオブジェクト
+     * @param beanClass オブジェクトのクラス(デフォルトコンストラクタを持つこと)
+     * @param <T> オブジェクトの型
+     * @return 検索結果のオブジェクトのリスト
+     * @throws SqlStatementException SQL実行時に{@link java.sql.SQLException}が発生した場合
+     * @see #retrieve(Class)
+     */
+    public <T> List<T> retrieveByObject(Object data, Class<T> beanClass) throws SqlStatementException {
+        try {
+            setObject(data);
+            return doRetrieve(beanClass);
+        } catch (SQLException e) {
+            throw sqlStatementExceptionFactory
+                    .createSqlStatementException("failed to retrieveByObject.", e, context);
+        }
+    }
+
+    /**
+     * Mapの値を検索条件に設定し、検索結果をカラムごとに保持する{@link ColumnarResultSet}で取得する。
+     *
+     * @param data 検索条件を要素にもつMap
+     * @return 検索結果
+     * @throws SqlStatementException SQL実行時に{@link java.sql.SQLException}が発生した場合
+     * @see #retrieveColumnar()
+     */
+    public ColumnarResultSet retrieveColumnarByMap(Map<String, ?> data) throws SqlStatementException {
+        try {
+            setMap(data);
+            return doRetrieveColumnar();
+        } catch (SQLException e) {
+            throw sqlStatementExceptionFactory
+                    .createSqlStatementException("failed to retrieveColumnarByMap.", e, context);
+        }
+    }
+
+    /**
+     * オブジェクトのフィールドの値を検索条件に設定し、検索結果をカラムごとに保持する{@link ColumnarResultSet}で取得する。
+     *
+     * @param data 検索条件をフィールドの値にもつオブジェクト
+     * @return 検索結果
+     * @throws SqlStatementException SQL実行時に{@link java.sql.SQLException}が発生した場合
+     * @see #retrieveColumnar()
+     */
+    public ColumnarResultSet retrieveColumnarByObject(Object data) throws SqlStatementException {
+        try {
+            setObject(data);
+            return doRetrieveColumnar();
+        } catch (SQLException e) {
+            throw sqlStatementExceptionFactory
+                    .createSqlStatementException("failed to retrieveColumnarByObject.", e, context);
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public ResultSetIterator executeQueryByMap(Map<String, ?> data) throws SqlStatementException {
@@ -349,14 +740,18 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
     @Override
     public void addBatchMap(Map<String, ?> data) {
         try {
-            setMap(data);
-            statement.addBatch();
-            batchSize++;
-            batchParameterHolder.add(paramHolder);
-            paramHolder = createParamHolder();
+            Object[] row;
+            multiRowInsertBatch.startRow();
+            try {
+                setMap(data);
+            } finally {
+                row = multiRowInsertBatch.finishRow();
+            }
+            addBatchParameter(row);
         } catch (SQLException e) {
             throw new DbAccessException("failed to addBatchMap.", e);
         }
+        flushBatchIfNeeded();
     }
 
 
@@ -377,14 +772,18 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
     @Override
     public void addBatchObject(Object data) {
         try {
-            setObject(data);
-            statement.addBatch();
-            batchSize++;
-            batchParameterHolder.add(paramHolder);
-            paramHolder = createParamHolder();
+            Object[] row;
+            multiRowInsertBatch.startRow();
+            try {
+                setObject(data);
+            } finally {
+                row = multiRowInsertBatch.finishRow();
+            }
+            addBatchParameter(row);
         } catch (SQLException e) {
             throw new DbAccessException("failed to addBatchObject.", e);
         }
+        flushBatchIfNeeded();
     }
 
     /**
@@ -429,11 +828,12 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
     public ResultSetIterator executeQuery() throws SqlStatementException {
         return new BasicSqlPStatement.SqlExecutor<ResultSetIterator>() {
             @Override
-            void preprocess() {
+            void preprocess() throws SQLException {
                 if (needsClientSidePagination()) {
                     int offset = selectOption.getOffset() < 0 ? 0 : selectOption.getOffset();
                     setMaxRows(offset + selectOption.getLimit());
                 }
+                bindPaginationValues();
             }
 
             @Override
@@ -470,7 +870,7 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
     /** {@inheritDoc} */
     @Override
     public int executeUpdate() throws SqlStatementException {
-        return new BasicSqlPStatement.SqlExecutor<Integer>() {
+        final int result = new BasicSqlPStatement.SqlExecutor<Integer>() {
             @Override
             Integer execute() throws SQLException {
                 return statement.executeUpdate();
@@ -494,6 +894,8 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
             }
         }
         .doSql();
+        notifyUpdated();
+        return result;
     }
 
     /** {@inheritDoc} */
@@ -707,7 +1109,7 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
     /** {@inheritDoc} */
     @Override
     public boolean execute() throws SqlStatementException {
-        return new BasicSqlPStatement.SqlExecutor<Boolean>() {
+        final boolean result = new BasicSqlPStatement.SqlExecutor<Boolean>() {
             @Override
             Boolean execute() throws SQLException {
                 return statement.execute();
@@ -730,19 +1132,69 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
             }
         }
         .doSql();
+        if (!result) {
+            // 結果セットを返さない場合は更新系のSQL文とみなす
+            notifyUpdated();
+        }
+        return result;
     }
 
     /** {@inheritDoc} */
     @Override
     public void addBatch() throws SqlStatementException {
+        if (multiRowInsertBatch.hasRows()) {
+            throw new IllegalOperationException(
+                    "addBatch() can not be used together with addBatchMap or addBatchObject "
+                  + "while multi-row insert is enabled.");
+        }
         try {
-            statement.addBatch();
-            batchSize++;
-            batchParameterHolder.add(paramHolder);
-            paramHolder = createParamHolder();
+            addBatchParameter(null);
         } catch (SQLException e) {
             throw new DbAccessException("failed to addBatch.", e);
         }
+        flushBatchIfNeeded();
+    }
+
+    /**
+     * 現在のバインド変数の値をバッチに追加する。
+     * <p/>
+     * 複数行のVALUES句を持つINSERT文で登録する行が指定された場合は、
+     * {@link PreparedStatement}のバッチではなく、登録する行として保持する。
+     *
+     * @param row 複数行のVALUES句を持つINSERT文で登録する行(置き換えない場合はnull)
+     * @throws SQLException データベースアクセス例外が発生した場合
+     */
+    private void addBatchParameter(Object[] row) throws SQLException {
+        startBatchUpdateSummary();
+        if (row == null) {
+            statement.addBatch();
+        } else {
+            multiRowInsertBatch.add(row);
+        }
+        batchSize++;
+        batchParameterHolder.add(paramHolder);
+        paramHolder = createParamHolder();
+    }
+
+    /**
+     * バッチサイズが自動実行するバッチサイズに達した場合、バッチ実行を行う。
+     * <p/>
+     * 更新件数は{@link #getBatchUpdateSummary()}で取得できる集計結果に加算する。
+     */
+    private void flushBatchIfNeeded() {
+        if (autoFlushBatchSize > 0 && batchSize >= autoFlushBatchSize) {
+            doExecuteBatch();
+        }
+    }
+
+    /**
+     * 集計結果が確定している場合、新たな集計を開始する。
+     */
+    private void startBatchUpdateSummary() {
+        if (batchUpdateSummaryCompleted) {
+            batchUpdateSummary = BatchUpdateSummary.EMPTY;
+            batchUpdateSummaryCompleted = false;
+        }
     }
 
     /** {@inheritDoc} */
@@ -828,6 +1280,7 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
     public void close() {
         try {
             statement.close();
+            multiRowInsertBatch.close();
             context.getConnection().removeStatement(this);
             closed = true;
         } catch (SQLException e) {
@@ -925,9 +1378,23 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
                 "BasicSqlPStatement#getFetchDirection is unsupported.");
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * フェッチサイズを明示的に設定した場合、{@link AdaptiveFetchSizePolicy}によるフェッチサイズの決定は行わない。
+     */
     @Override
     public void setFetchSize(final int rows) {
+        applyFetchSize(rows);
+        fetchSizePolicy = null;
+    }
+
+    /**
+     * ステートメントにフェッチサイズを設定する。
+     *
+     * @param rows フェッチサイズ
+     */
+    private void applyFetchSize(int rows) {
         try {
             statement.setFetchSize(rows);
         } catch (SQLException e) {
@@ -935,6 +1402,38 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
         }
     }
 
+    /**
+     * 取得最大件数を指定しない検索で使用するフェッチサイズを取得する。
+     *
+     * @return {@link AdaptiveFetchSizePolicy}が決定したフェッチサイズ(ポリシーが設定されていない場合は現在のフェッチサイズ)
+     */
+    private int getFetchSizeForRetrieve() {
+        final int fetchSize = getFetchSize();
+        return fetchSizePolicy == null ? fetchSize : fetchSizePolicy.getFetchSize(getFetchSizeKey(), fetchSize);
+    }
+
+    /**
+     * 検索の実績を{@link AdaptiveFetchSizePolicy}に記録する。
+     *
+     * @param iterator 検索結果
+     * @param rowCount 取得した件数
+     * @throws SQLException メタデータの取得に失敗した場合
+     */
+    private void recordFetchResult(ResultSetIterator iterator, int rowCount) throws SQLException {
+        if (fetchSizePolicy != null) {
+            fetchSizePolicy.record(getFetchSizeKey(), iterator.getMetaData(), rowCount);
+        }
+    }
+
+    /**
+     * 検索の実績を記録するキーを取得する。
+     *
+     * @return SQL_ID(SQL_IDを使用せずに生成した場合はSQL文)
+     */
+    private String getFetchSizeKey() {
+        return sqlId == null ? sql : sqlId;
+    }
+
     /** {@inheritDoc} */
     @Override
     public int getFetchSize() {
@@ -970,20 +1469,46 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
     public void clearBatch() {
         try {
             statement.clearBatch();
+            multiRowInsertBatch.clear();
             batchSize = 0;
+            batchParameterHolder.clear();
         } catch (SQLException e) {
             throw new DbAccessException("failed to clearBatch.", e);
         }
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * バッチの自動実行({@link #setAutoFlushBatchSize(int)})により、追加した全てのレコードが実行済みの場合は、
+     * JDBCドライバのバッチ実行を行わず、要素数0の配列を返却する。
+     */
     @Override
     public int[] executeBatch() throws SqlStatementException {
-        return new BasicSqlPStatement.SqlExecutor<int[]>() {
+        if (batchSize == 0 && !batchUpdateSummaryCompleted && batchUpdateSummary.getExecuteCount() > 0) {
+            batchUpdateSummaryCompleted = true;
+            return new int[0];
+        }
+        final int[] result = doExecuteBatch();
+        batchUpdateSummaryCompleted = true;
+        return result;
+    }
+
+    /**
+     * バッチ実行を行い、更新件数を集計結果に加算する。
+     *
+     * @return 更新件数
+     */
+    private int[] doExecuteBatch() {
+        startBatchUpdateSummary();
+        final int[] result = new BasicSqlPStatement.SqlExecutor<int[]>() {
             @Override
             int[] execute() throws SQLException {
-                int[] result = statement.executeBatch();
+                int[] result = multiRowInsertBatch.hasRows()
+                        ? multiRowInsertBatch.execute()
+                        : statement.executeBatch();
                 batchSize = 0;
+                batchUpdateSummary = batchUpdateSummary.add(result);
                 return result;
             }
 
@@ -1005,6 +1530,17 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
             }
         }
         .doSql();
+        notifyUpdated();
+        return result;
+    }
+
+    /**
+     * 更新系のSQL文が実行されたことをリスナーに通知する。
+     */
+    private void notifyUpdated() {
+        if (updateListener != null) {
+            updateListener.onUpdated(sqlId, sql);
+        }
     }
 
     /**
@@ -1082,6 +1618,7 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
      * @throws SQLException データベースアクセス例外が発生した場合
      */
     private void setMap(Map<String, ?> map) throws SQLException {
+        arrayParameterValues.clear();
         for (int i = 0; i < namedParameterHolderList.size(); i++) {
             final NamedParameterHolder namedParameterHolder = namedParameterHolderList.get(i);
             if (!map.containsKey(namedParameterHolder.getParameterName())) {
@@ -1089,28 +1626,157 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
                         String.format("SQL parameter was not found in Object. parameter name=[%s]",
                                 namedParameterHolder.getParameterName()));
             }
+            setNamedParameter(i, namedParameterHolder, map.get(namedParameterHolder.getParameterName()));
+        }
+    }
+
+    /**
+     * 名前付きバインド変数に値を設定する。
+     * <p/>
+     * like条件の場合はエスケープ処理を、配列要素の場合は要素の取り出しを行った値を設定する。
+     * 値の設定には{@link #setParameterBinder(ParameterBinder)}で設定された{@link ParameterBinder}を使用する。
+     * (nullの設定に{@link ParameterMetaData}を使用する場合は、{@link #bindParameter(PreparedStatement, int, int, Object)}を参照)
+     *
+     * @param index バインド変数の位置(0始まり)
+     * @param namedParameterHolder 名前付きバインド変数の情報
+     * @param value 設定する値
+     * @throws SQLException データベースアクセス例外が発生した場合
+     */
+    private void setNamedParameter(int index, NamedParameterHolder namedParameterHolder, Object value)
+            throws SQLException {
+        if (namedParameterHolder.isWholeArray()) {
+            final List<?> values = setArrayParameter(index, namedParameterHolder.getParameterName(), value);
+            paramHolder.add(namedParameterHolder.getParameterName(), values);
+            return;
+        }
+        if (namedParameterHolder.isLikeParameter()) {
+            value = likeEscape(
+                    value == null ? "" : value.toString(),
+                    namedParameterHolder.isBackWardMatch(),
+                    namedParameterHolder.isForwardMatch());
+        } else if (namedParameterHolder.isArray()) {
+            final Integer position = namedParameterHolder.getArrayPosition();
+            if (position == null) {
+                value = null;
+            } else {
+                value = arrayParameterValues.get(value, position);
+            }
+        }
+        if (!multiRowInsertBatch.set(index, value)) {
+            bindParameter(statement, index + 1, index + 1, value);
+        }
+        paramHolder.add(namedParameterHolder.getParameterName(), value);
+    }
+
+    /**
+     * バインド変数に値を設定する。
+     * <p/>
+     * nullの設定に{@link ParameterMetaData}を使用する場合、nullは{@link ParameterMetaData}から取得した
+     * バインド変数のSQL型を使用して{@link PreparedStatement#setNull(int, int)}で設定する。
+     * SQL型は本ステートメントに対して一度だけ取得し、ステートメントを閉じるまで再利用する。
+     * ({@link ParameterMetaData}をサポートしないJDBCドライバの場合は、{@link ParameterBinder}で設定する。)
+     * <p/>
+     * それ以外の場合は、{@link #setParameterBinder(ParameterBinder)}で設定された{@link ParameterBinder}で設定する。
+     *
+     * @param target 値を設定するステートメント
+     * @param parameterIndex 値を設定するステートメント上のバインド変数の位置(1始まり)
+     * @param typeIndex 本ステートメントのSQL文上のバインド変数の位置(1始まり)
+     * @param value 設定する値
+     * @throws SQLException データベースアクセス例外が発生した場合
+     */
+    private void bindParameter(PreparedStatement target, int parameterIndex, int typeIndex, Object value)
+            throws SQLException {
+        if (value == null && useParameterMetaData) {
+            final int[] types = getParameterTypes();
+            if (typeIndex <= types.length) {
+                target.setNull(parameterIndex, types[typeIndex - 1]);
+                return;
+            }
+        }
+        parameterBinder.bind(target, parameterIndex, value);
+    }
+
+    /**
+     * {@link ParameterMetaData}からバインド変数のSQL型を取得する。
+     *
+     * @return バインド変数の位置順に並んだSQL型({@link ParameterMetaData}が取得できない場合は要素数0の配列)
+     */
+    private int[] getParameterTypes() {
+        if (parameterTypes == null) {
+            try {
+                final ParameterMetaData metaData = statement.getParameterMetaData();
+                final int[] types = new int[metaData.getParameterCount()];
+                for (int i = 0; i < types.length; i++) {
+                    types[i] = metaData.getParameterType(i + 1);
+                }
+                parameterTypes = types;
+            } catch (SQLException e) {
+                LOGGER.logDebug("failed to get ParameterMetaData. null is set by ParameterBinder.", e);
+                parameterTypes = new int[0];
+            }
+        }
+        return parameterTypes;
+    }
 
-            Object value = map.get(namedParameterHolder.getParameterName());
-            if (namedParameterHolder.isLikeParameter()) {
-                value = likeEscape(
-                        value == null ? "" : value.toString(),
-                        namedParameterHolder.isBackWardMatch(),
-                        namedParameterHolder.isForwardMatch());
-            } else if (namedParameterHolder.isArray()) {
-                final Integer position = namedParameterHolder.getArrayPosition();
-                if (position == null) {
-                    value = null;
-                } else {
-                    value = DbUtil.getArrayValue(value, position);
+    /**
+     * 配列または{@link java.util.Collection}全体を、配列型({@link Array})のバインド変数に設定する。
+     * <p/>
+     * 配列の型名は{@link DefaultDialect#getArrayElementTypeName(Class)}で、
+     * 最初のnullでない要素のクラスから決定する。
+     * 要素が存在しない場合や、全ての要素がnullの場合は、nullを設定する。
+     * (IN条件に要素を指定しない場合と同じく、条件に一致するレコードは存在しない。)
+     *
+     * @param index バインド変数の位置(0始まり)
+     * @param parameterName バインド変数名
+     * @param value 配列または{@link java.util.Collection}
+     * @return 設定した要素のリスト(ログ出力用)
+     * @throws SQLException データベースアクセス例外が発生した場合
+     */
+    private List<?> setArrayParameter(int index, String parameterName, Object value) throws SQLException {
+        final List<?> values = DbUtil.toRandomAccessList(value);
+        Class<?> elementType = null;
+        if (values != null) {
+            for (Object element : values) {
+                if (element != null) {
+                    elementType = element.getClass();
+                    break;
                 }
             }
-            statement.setObject(i + 1, value);
-            paramHolder.add(namedParameterHolder.getParameterName(), value);
         }
+        if (elementType == null) {
+            statement.setNull(index + 1, Types.ARRAY);
+            return values;
+        }
+        final DefaultDialect dialect = getDefaultDialect();
+        final String typeName = dialect == null ? null : dialect.getArrayElementTypeName(elementType);
+        if (typeName == null) {
+            throw new IllegalArgumentException(String.format(
+                    "element type of Array parameter is unsupported. parameter name=[%s], element type=[%s]",
+                    parameterName, elementType.getName()));
+        }
+        statement.setArray(index + 1, statement.getConnection().createArrayOf(typeName, values.toArray()));
+        return values;
+    }
+
+    /**
+     * 方言を{@link DefaultDialect}として取得する。
+     * <p/>
+     * {@link Dialect}インタフェースに定義されていない方言の機能は、{@link DefaultDialect}を継承した方言でのみ使用する。
+     *
+     * @return 方言({@link DefaultDialect}を継承しない方言の場合は{@code null})
+     */
+    private DefaultDialect getDefaultDialect() {
+        final Dialect dialect = context.getDialect();
+        return dialect instanceof DefaultDialect ? (DefaultDialect) dialect : null;
     }
 
     /**
-     * オブジェクトの属性情報をバインドパラメータに設定する。<br>
+     * オブジェクトの属性情報をバインドパラメータに設定する。
+     * <p/>
+     * オブジェクトのクラスごとに作成した実行計画({@link BeanBindingPlan})を使用して、
+     * バインド変数に対応するプロパティの値のみを取得して設定する。
+     * 実行計画がサポートしないバインド変数を持つ場合は、
+     * オブジェクトの全プロパティを{@link Map}にコピーしてから設定する。
      *
      * @param data オブジェクト
      * @throws SQLException データベースアクセス例外が発生した場合
@@ -1123,7 +1789,17 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
             }
         }
 
-        setMap(BeanUtil.createMapAndCopy(data));
+        final BeanBindingPlan plan = parsedSql.getBeanBindingPlan(data.getClass());
+        if (!plan.isSupported()) {
+            setMap(BeanUtil.createMapAndCopy(data));
+            return;
+        }
+        arrayParameterValues.clear();
+        for (int i = 0; i < namedParameterHolderList.size(); i++) {
+            final NamedParameterHolder namedParameterHolder = namedParameterHolderList.get(i);
+            setNamedParameter(i, namedParameterHolder,
+                    plan.getValue(data, i, namedParameterHolder.getParameterName()));
+        }
     }
 
     /**
@@ -1231,6 +1907,126 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
         this.context =  context;
     }
 
+    /**
+     * 名前付きバインド変数の値の設定方法を設定する。
+     * <p/>
+     * 設定しない場合は、{@link ObjectParameterBinder}を使用する。
+     *
+     * @param parameterBinder 名前付きバインド変数の値の設定方法
+     */
+    public void setParameterBinder(ParameterBinder parameterBinder) {
+        this.parameterBinder = parameterBinder;
+    }
+
+    /**
+     * nullの設定に{@link ParameterMetaData}を使用するか否かを設定する。
+     * <p/>
+     * {@code true}を設定した場合、nullは{@link ParameterMetaData}から取得したバインド変数のSQL型を使用して
+     * {@link PreparedStatement#setNull(int, int)}で設定する。デフォルトは{@code false}。
+     *
+     * @param useParameterMetaData {@link ParameterMetaData}を使用する場合は{@code true}
+     */
+    public void setUseParameterMetaData(boolean useParameterMetaData) {
+        this.useParameterMetaData = useParameterMetaData;
+    }
+
+    /**
+     * バッチを自動実行するバッチサイズを設定する。
+     * <p/>
+     * バッチに追加したレコード数が設定値に達するごとに、バッチ実行を行いバッチをクリアする。
+     * これにより、大量のレコードをバッチ実行する場合でも、JDBCドライバやログ出力用に保持する
+     * バインド変数の値が一定量を超えて蓄積されることがない。
+     * <p/>
+     * 自動実行した分の更新件数は{@link #executeBatch()}の戻り値には含まれないため、
+     * 全体の更新件数は{@link #getBatchUpdateSummary()}で取得すること。
+     * (自動実行で全てのレコードが実行済みの場合、{@link #executeBatch()}はバッチ実行を行わず要素数0の配列を返却する)
+     * <p/>
+     * 0を設定した場合は自動実行しない。デフォルトは0。
+     *
+     * @param autoFlushBatchSize バッチを自動実行するバッチサイズ
+     */
+    public void setAutoFlushBatchSize(int autoFlushBatchSize) {
+        if (autoFlushBatchSize < 0) {
+            throw new IllegalArgumentException(
+                    "autoFlushBatchSize must not be negative. autoFlushBatchSize = [" + autoFlushBatchSize + ']');
+        }
+        this.autoFlushBatchSize = autoFlushBatchSize;
+    }
+
+    /**
+     * INSERT文のバッチ実行を、複数行のVALUES句を持つINSERT文の実行に置き換えるか否かを設定する。
+     * <p/>
+     * {@code true}を設定した場合、{@link #addBatchMap(Map)}、{@link #addBatchObject(Object)}で追加した行を保持しておき、
+     * {@link #executeBatch()}で{@code INSERT INTO ... VALUES (...), (...), ...}形式のSQL文に置き換えて登録する。
+     * 1つのSQL文で登録する行数は、{@link DefaultDialect#getMaxBindParameterCount()}と
+     * {@value #MAX_MULTI_ROW_INSERT_ROWS}行を上限とする。
+     * {@link #executeBatch()}の戻り値は、置き換えない場合と同じく行ごとの更新件数とする。
+     * (SQL文ごとの更新件数が行数と一致しない場合は、{@link Statement#SUCCESS_NO_INFO}とする。)
+     * <p/>
+     * 以下のいずれかに該当する場合は、設定に関わらず置き換えを行わない。
+     * <ul>
+     * <li>方言が{@link DefaultDialect}を継承していない場合</li>
+     * <li>{@link DefaultDialect#supportsMultiRowInsert()}が{@code false}を返す場合</li>
+     * <li>SQL文が1行を登録するINSERT文ではない場合
+     * ({@link DefaultDialect#buildMultiRowInsertSql(String, int)}が{@code null}を返す場合)</li>
+     * <li>配列全体を設定するバインド変数({@code :ids[*]})を持つ場合</li>
+     * </ul>
+     * <p/>
+     * 置き換えを行う場合、{@link #addBatch()}は{@link #addBatchMap(Map)}、{@link #addBatchObject(Object)}と併用できない。
+     * デフォルトは{@code false}。
+     *
+     * @param multiRowInsert 置き換える場合は{@code true}
+     */
+    public void setMultiRowInsert(boolean multiRowInsert) {
+        this.multiRowInsert = multiRowInsert;
+        multiRowInsertBatch.reset();
+    }
+
+    /**
+     * SQL_IDを設定する。
+     * <p/>
+     * SQL_IDは、{@link AdaptiveFetchSizePolicy}に検索の実績を記録するキーとして使用する。
+     * 設定しない場合は、SQL文をキーとする。
+     *
+     * @param sqlId SQL_ID
+     */
+    public void setSqlId(String sqlId) {
+        this.sqlId = sqlId;
+    }
+
+    /**
+     * 更新系のSQL文の実行を通知するリスナーを設定する。
+     *
+     * @param updateListener 更新系のSQL文の実行を通知するリスナー(通知しない場合は{@code null})
+     */
+    public void setUpdateListener(SqlUpdateListener updateListener) {
+        this.updateListener = updateListener;
+    }
+
+    /**
+     * 検索の実績からフェッチサイズを決定するポリシーを設定する。
+     * <p/>
+     * 設定した場合、取得最大件数を指定しない検索では、ポリシーが決定したフェッチサイズを使用する。
+     *
+     * @param fetchSizePolicy 検索の実績からフェッチサイズを決定するポリシー
+     */
+    public void setFetchSizePolicy(AdaptiveFetchSizePolicy fetchSizePolicy) {
+        this.fetchSizePolicy = fetchSizePolicy;
+    }
+
+    /**
+     * バッチ実行の更新件数の集計結果を取得する。
+     * <p/>
+     * 集計結果には、バッチサイズによる自動実行と{@link #executeBatch()}による実行の両方の結果が含まれる。
+     * {@link #executeBatch()}を呼び出した時点で集計結果は確定し、
+     * 次にバッチへレコードを追加した時点で新たな集計を開始する。
+     *
+     * @return バッチ実行の更新件数の集計結果
+     */
+    public BatchUpdateSummary getBatchUpdateSummary() {
+        return batchUpdateSummary;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1239,6 +2035,48 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
         return context.getConnection();
     }
 
+    /**
+     * 検索結果の1行分のデータを読み込むクラス。
+     */
+    private abstract static class RowReader {
+
+        /**
+         * 行の読み込みを開始する。
+         * <p/>
+         * デフォルト実装では何もしない。
+         *
+         * @param iterator 検索結果
+         */
+        void start(ResultSetIterator iterator) {
+        }
+
+        /**
+         * {@link ResultSetIterator}の現在行のデータを読み込む。
+         *
+         * @param iterator 検索結果
+         */
+        abstract void read(ResultSetIterator iterator);
+    }
+
+    /**
+     * 検索結果を{@link ColumnarResultSet}に読み込むクラス。
+     */
+    private static final class ColumnarRowReader extends RowReader {
+
+        /** 検索結果 */
+        private ColumnarResultSet result;
+
+        @Override
+        void start(ResultSetIterator iterator) {
+            result = iterator.createColumnarResultSet();
+        }
+
+        @Override
+        void read(ResultSetIterator iterator) {
+            iterator.readColumnar(result);
+        }
+    }
+
     /**
      * SQL文を実行するためのテンプレートクラス。
      *
@@ -1315,8 +2153,10 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
          * SQL実行前の準備処理。
          * <p/>
          * デフォルト実装では何も行わない。必要に応じて実装すること。
+         *
+         * @throws SQLException 準備処理に失敗した場合
          */
-        void preprocess() {
+        void preprocess() throws SQLException {
         }
 
         /**
@@ -1357,6 +2197,103 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
         return !supportsOffsetInSql() && hasSelectOption();
     }
 
+    /**
+     * SQL文に取得範囲が含まれているかどうか。
+     * <p/>
+     * {@link nablarch.core.db.connection.BasicDbConnection}がページング用のSQL文に変換する条件と同じ条件で判定する。
+     *
+     * @return 検索オプションの取得範囲がSQL文に含まれている場合true
+     */
+    private boolean isPaginatedInSql() {
+        if (!hasSelectOption()) {
+            return false;
+        }
+        return selectOption.isKeyset()
+                || (supportsOffsetInSql() && (selectOption.getStartPosition() > 1 || selectOption.getLimit() > 0));
+    }
+
+    /**
+     * SQL文に含まれる取得範囲のバインド変数に値を設定する。
+     * <p/>
+     * {@link DefaultDialect#getPaginationBindValues(SelectOption)}
+     * (キーセットページングの場合は{@link DefaultDialect#getKeysetPaginationBindValues(SelectOption)})
+     * が返す値を、SQL文の末尾に並ぶバインド変数に設定する。
+     * ページが変わってもSQL文は変わらないため、ステートメントを再利用したまま取得範囲のみを切り替えられる。
+     *
+     * @throws SQLException バインド変数への値の設定に失敗した場合
+     */
+    private void bindPaginationValues() throws SQLException {
+        if (!isPaginatedInSql()) {
+            return;
+        }
+        final DefaultDialect dialect = getDefaultDialect();
+        if (dialect == null) {
+            return;
+        }
+        if (selectOption.isKeyset()) {
+            final Object[] values = dialect.getKeysetPaginationBindValues(selectOption);
+            final int firstIndex = getFirstPaginationBindIndex(values.length);
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(firstIndex + i, values[i]);
+                paramHolder.add(firstIndex + i, values[i]);
+            }
+            return;
+        }
+        final int[] values = dialect.getPaginationBindValues(selectOption);
+        final int firstIndex = getFirstPaginationBindIndex(values.length);
+        for (int i = 0; i < values.length; i++) {
+            statement.setInt(firstIndex + i, values[i]);
+            paramHolder.add(firstIndex + i, values[i]);
+        }
+    }
+
+    /**
+     * 取得範囲のバインド変数の開始位置を取得する。
+     *
+     * @param valueCount 取得範囲のバインド変数の数
+     * @return 開始位置(1から開始)
+     */
+    private int getFirstPaginationBindIndex(int valueCount) {
+        if (bindVariableCount < 0) {
+            bindVariableCount = countBindVariables(sql);
+        }
+        return bindVariableCount - valueCount + 1;
+    }
+
+    /**
+     * SQL文に含まれるバインド変数({@code ?})の数を数える。
+     * <p/>
+     * 文字列リテラル、二重引用符で囲まれた識別子、コメント({@code --}、{@code /* ... *}{@code /})内の{@code ?}は数えない。
+     *
+     * @param sql SQL文
+     * @return バインド変数の数
+     */
+    private static int countBindVariables(String sql) {
+        final int length = sql.length();
+        int count = 0;
+        int i = 0;
+        while (i < length) {
+            final char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                // 閉じ引用符まで読み飛ばす(連続した引用符によるエスケープは、閉じた直後に再び開くものとして扱う)
+                final int end = sql.indexOf(c, i + 1);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                final int end = sql.indexOf('\n', i + 2);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                final int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else {
+                if (c == '?') {
+                    count++;
+                }
+                i++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Sql内にOffsetを付与する機能がサポートされているかどうか。
      *
@@ -1407,155 +2344,255 @@ public class BasicSqlPStatement implements SqlPStatement, ParameterizedSqlPState
     }
 
     /**
-     * パラメータ名を保持するクラス。
+     * 複数行のVALUES句を持つINSERT文で登録する行を保持し、実行するクラス。
+     * <p/>
+     * 1つのSQL文で登録する行数に満たない端数の行は、実行のたびに{@link PreparedStatement}を生成して登録する。
+     * 行数が上限に達したSQL文の{@link PreparedStatement}は、ステートメントを閉じるまで再利用する。
      */
-    private static class NamedParameterHolder {
+    private final class MultiRowInsertBatch {
 
-        /** 配列パターン */
-        private static final Pattern array_pattern = Pattern.compile("^(.+)\\[([0-9]*)\\]$");
+        /** 置き換えを行うか否か(未判定の場合はnull) */
+        private Boolean available;
 
-        /** パラメータ名 */
-        private final String parameterName;
+        /** 1つのSQL文で登録する行数 */
+        private int rowsPerStatement;
 
-        /** 前方一致か否か */
-        private final boolean forwardMatch;
+        /** 登録する行 */
+        private final List<Object[]> rows = new ArrayList<Object[]>();
 
-        /** 後方一致か否か */
-        private final boolean backWardMatch;
+        /** 値を設定中の行(値を設定中でない場合はnull) */
+        private Object[] currentRow;
 
-        /** 配列要素か否か */
-        private final boolean array;
+        /**
+         * 行数ごとのSQL文のステートメント。
+         * <p/>
+         * 最近使用したものから上限件数まで保持し、上限を超えたステートメントは閉じる。
+         * (バッチの自動実行を行う場合など、上限行数に満たない行数のSQL文も繰り返し実行されるため)
+         */
+        private final Map<Integer, PreparedStatement> statements = new LRUMap<Integer, PreparedStatement>(
+                MAX_MULTI_ROW_INSERT_STATEMENTS, new LRUMap.RemoveListener<Integer, PreparedStatement>() {
+                    @Override
+                    public void onRemoveEldest(Integer rowCount, PreparedStatement removed) {
+                        try {
+                            removed.close();
+                        } catch (SQLException e) {
+                            LOGGER.logWarn("failed to close statement.", e);
+                        }
+                    }
+                });
 
-        /** 配列ポジション */
-        private final Integer arrayPosition;
+        /**
+         * 置き換えを行うか否か。
+         *
+         * @return 置き換えを行う場合は{@code true}
+         */
+        private boolean isAvailable() {
+            if (available == null) {
+                available = determine();
+            }
+            return available;
+        }
 
         /**
-         * パラメータ名をもとに構築する。
+         * 置き換えを行うか否かを判定し、1つのSQL文で登録する行数を算出する。
          *
-         * @param parameterName パラメータ名
+         * @return 置き換えを行う場合は{@code true}
          */
-        public NamedParameterHolder(final String parameterName) {
-            forwardMatch = isForwardMatchCondition(parameterName);
-            backWardMatch = isBackWardMatchCondition(parameterName);
-
-            // like検索の処理
-            String tmpParameterName = parameterName;
-            if (backWardMatch) {
-                tmpParameterName = tmpParameterName.substring(1);
+        private boolean determine() {
+            if (!multiRowInsert || context == null) {
+                return false;
             }
-            if (forwardMatch) {
-                tmpParameterName = tmpParameterName.substring(0, tmpParameterName.length() - 1);
+            final DefaultDialect dialect = getDefaultDialect();
+            if (dialect == null || !dialect.supportsMultiRowInsert() || dialect.buildMultiRowInsertSql(sql, 1) == null) {
+                return false;
             }
-
-            // 配列パラメータの処理
-            final Matcher matcher = array_pattern.matcher(tmpParameterName);
-            if (matcher.matches()) {
-                // 配列を表すパラメータの場/**/合
-                array = true;
-                tmpParameterName = matcher.group(1);
-                arrayPosition = toIntPosition(tmpParameterName, matcher.group(2));
-            } else {
-                array = false;
-                arrayPosition = null;
+            for (NamedParameterHolder holder : namedParameterHolderList) {
+                if (holder.isWholeArray()) {
+                    return false;
+                }
             }
-            this.parameterName = tmpParameterName;
+            final int parameterCount = namedParameterHolderList.size();
+            rowsPerStatement = parameterCount == 0
+                    ? MAX_MULTI_ROW_INSERT_ROWS
+                    : Math.min(MAX_MULTI_ROW_INSERT_ROWS, dialect.getMaxBindParameterCount() / parameterCount);
+            return rowsPerStatement > 0;
         }
 
         /**
-         * パラメータ名の添字を数値に変換する。
-         * <p>
-         * 数値に変換できない場合は、 {@link IllegalArgumentException}。ただし、添字が空文字列の場合はnullをかえす。
-         *
-         * @param parameterName プロパティ名
-         * @param positionString 添字文字列
-         * @return 数値に変換した添字(添字文字列が空文字列の場合はnull)
+         * 置き換えを行う場合、バインド変数の値を保持する行を開始する。
+         * <p/>
+         * {@link #finishRow()}を呼び出すまで、バインド変数の値は{@link PreparedStatement}ではなく行に設定される。
          */
-        private static Integer toIntPosition(final String parameterName, final String positionString) {
-            if (StringUtil.isNullOrEmpty(positionString)) {
-                return null;
-            }
-            try {
-                return Integer.valueOf(positionString);
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException(
-                        String.format("additional character of Array parameter is not numeric. parameter = [%s]",
-                                parameterName), e);
+        void startRow() {
+            if (isAvailable()) {
+                currentRow = new Object[namedParameterHolderList.size()];
             }
         }
 
         /**
-         * 後方一致の条件か否か。
+         * バインド変数の値を保持する行を終了する。
          *
-         * @param parameterName 条件のプロパティ名
-         * @return 後方一致の場合{@code true}
+         * @return 値を設定した行(置き換えを行わない場合はnull)
          */
-        private static boolean isBackWardMatchCondition(final String parameterName) {
-            return parameterName.startsWith("%");
+        Object[] finishRow() {
+            final Object[] row = currentRow;
+            currentRow = null;
+            return row;
         }
 
         /**
-         * 前方一致の条件か否か。
+         * 値を設定中の行に、バインド変数の値を設定する。
          *
-         * @param parameterName 条件のプロパティ名
-         * @return 前方一致の場合{@code true}
+         * @param index バインド変数の位置(0始まり)
+         * @param value 値
+         * @return 行に設定した場合は{@code true}(値を設定中の行がない場合は{@code false})
          */
-        private static boolean isForwardMatchCondition(final String parameterName) {
-            return parameterName.endsWith("%");
+        boolean set(int index, Object value) {
+            if (currentRow == null) {
+                return false;
+            }
+            currentRow[index] = value;
+            return true;
         }
 
         /**
-         * like検索か否か
+         * 登録する行を追加する。
          *
-         * @return like検索の場合{@code true}
+         * @param row 行
          */
-        public boolean isLikeParameter() {
-            return forwardMatch || backWardMatch;
+        void add(Object[] row) {
+            rows.add(row);
         }
 
         /**
-         * 前方一致か否か
+         * 登録する行が存在するか否か。
          *
-         * @return 前方一致の場合{@code true}
+         * @return 存在する場合は{@code true}
          */
-        public boolean isForwardMatch() {
-            return forwardMatch;
+        boolean hasRows() {
+            return !rows.isEmpty();
         }
 
         /**
-         * 後方一致か否か
+         * 保持している行を、複数行のVALUES句を持つINSERT文で登録する。
          *
-         * @return 後方一致の場合{@code true}
+         * @return 行ごとの更新件数
+         * @throws SQLException データベースアクセス例外が発生した場合
          */
-        public boolean isBackWardMatch() {
-            return backWardMatch;
+        int[] execute() throws SQLException {
+            final int rowCount = rows.size();
+            final int[] result = new int[rowCount];
+            try {
+                for (int offset = 0; offset < rowCount; offset += rowsPerStatement) {
+                    final int chunkSize = Math.min(rowsPerStatement, rowCount - offset);
+                    final PreparedStatement chunkStatement = prepareStatement(chunkSize);
+                    int parameterIndex = 1;
+                    for (int i = offset; i < offset + chunkSize; i++) {
+                        final Object[] row = rows.get(i);
+                        for (int j = 0; j < row.length; j++) {
+                            // 各行のバインド変数は、元のINSERT文のバインド変数と同じ並びとなる。
+                            bindParameter(chunkStatement, parameterIndex++, j + 1, row[j]);
+                        }
+                    }
+                    final int updateCount = chunkStatement.executeUpdate();
+                    Arrays.fill(result, offset, offset + chunkSize,
+                            updateCount == chunkSize ? 1 : Statement.SUCCESS_NO_INFO);
+                }
+            } finally {
+                rows.clear();
+            }
+            return result;
         }
 
         /**
-         * パラメータ名を取得する。
+         * 指定された行数を登録するステートメントを取得する。
          *
-         * @return パラメータ名
+         * @param rowCount 行数
+         * @return ステートメント
+         * @throws SQLException データベースアクセス例外が発生した場合
          */
-        public String getParameterName() {
-            return parameterName;
+        private PreparedStatement prepareStatement(int rowCount) throws SQLException {
+            PreparedStatement result = statements.get(rowCount);
+            if (result == null) {
+                result = statement.getConnection().prepareStatement(
+                        getDefaultDialect().buildMultiRowInsertSql(sql, rowCount));
+                statements.put(rowCount, result);
+            }
+            result.setQueryTimeout(statement.getQueryTimeout());
+            return result;
+        }
+
+        /** 保持している行をクリアする。 */
+        void clear() {
+            rows.clear();
+            currentRow = null;
         }
 
         /**
-         * 配列を示すパラメータか否か
+         * 判定結果をクリアする。
+         * <p/>
+         * 次に行を追加する際に、置き換えを行うか否かを再判定する。
+         */
+        void reset() {
+            available = null;
+        }
+
+        /**
+         * 再利用しているステートメントを閉じる。
          *
-         * @return 配列パラメータの場合{@code true}
+         * @throws SQLException データベースアクセス例外が発生した場合
          */
-        public boolean isArray() {
-            return array;
+        void close() throws SQLException {
+            try {
+                for (PreparedStatement cached : statements.values()) {
+                    cached.close();
+                }
+            } finally {
+                statements.clear();
+            }
         }
+    }
+
+
+    /**
+     * 配列要素のバインド変数の値を取得するクラス。
+     * <p/>
+     * IN句を展開したバインド変数(:ids[0], :ids[1]...)は、同一オブジェクトの要素を連続して参照する。
+     * このため、直前に参照したオブジェクトは添字で要素にアクセスできる形式に一度だけ変換して保持し、
+     * 要素ごとにオブジェクト全体をコピーしないようにする。
+     */
+    private static final class ArrayParameterValues {
+
+        /** 直前に参照したオブジェクト */
+        private Object source;
+
+        /** 直前に参照したオブジェクトを、添字で要素にアクセスできる形式に変換したもの */
+        private Object values;
 
         /**
-         * 配列要素の添字を取得する。
+         * 配列または{@link java.util.Collection}から、指定された位置の要素の値を取得する。
          *
-         * @return 配列要素の添字
+         * @param object 配列または{@link java.util.Collection}
+         * @param position 要素の位置
+         * @return 要素の値
          */
-        public Integer getArrayPosition() {
-            return arrayPosition;
+        Object get(Object object, int position) {
+            if (object != source) {
+                source = object;
+                values = DbUtil.isArrayObject(object) ? DbUtil.toRandomAccessList(object) : object;
+            }
+            return DbUtil.getArrayValue(values, position);
+        }
+
+        /**
+         * 保持しているオブジェクトをクリアする。
+         * <p/>
+         * バッチ実行で同一のオブジェクトが更新されながら繰り返し指定された場合に備え、
+         * バインド変数への値の設定ごとにクリアする。
+         */
+        void clear() {
+            source = null;
+            values = null;
         }
     }
 }
-
@@ -6,6 +6,7 @@ import java.util.List;
 import nablarch.core.db.statement.sqlconvertor.VariableConditionSyntaxConvertor;
 import nablarch.core.db.statement.sqlconvertor.VariableInSyntaxConvertor;
 import nablarch.core.db.statement.sqlconvertor.VariableOrderBySyntaxConvertor;
+import nablarch.core.db.statement.sqlconvertor.VariableSqlTemplate;
 
 /**
  * 名前付きバインド変数を持つSQL文を解析するクラス。<br>
@@ -41,6 +42,9 @@ public class BasicSqlParameterParser implements SqlParameterParser {
             new VariableOrderBySyntaxConvertor()
     };
 
+    /** 拡張構文を解析したSQL文のテンプレートのキャッシュ(nullの場合はテンプレートを使用しない) */
+    private VariableSqlTemplateCache variableSqlTemplateCache;
+
     /**
      * SQL文を解析する。<br>
      *
@@ -72,6 +76,16 @@ public class BasicSqlParameterParser implements SqlParameterParser {
      * </ul>
      */
     public String convertToJdbcSql(String sql, Object obj) {
+        if (variableSqlTemplateCache != null && usesDefaultConvertors()) {
+            // デフォルトのSqlConvertorを使用する場合は、解析済みのテンプレートからSQL文を構築する。
+            // 配列型のバインド変数への変換は検索条件に依存しないため、テンプレートの構築前に行う。
+            final VariableInSyntaxConvertor inConvertor = (VariableInSyntaxConvertor) sqlConvertors[1];
+            VariableSqlTemplate template = variableSqlTemplateCache.get(inConvertor.convertArrayInCondition(sql));
+            return template.render(obj,
+                    (VariableConditionSyntaxConvertor) sqlConvertors[0],
+                    inConvertor,
+                    (VariableOrderBySyntaxConvertor) sqlConvertors[2]);
+        }
         String replaceSql = sql;
         for (SqlConvertor sqlConvertor : sqlConvertors) {
             replaceSql = sqlConvertor.convert(replaceSql, obj);
@@ -79,6 +93,20 @@ public class BasicSqlParameterParser implements SqlParameterParser {
         return replaceSql;
     }
 
+    /**
+     * デフォルトの{@link SqlConvertor}の構成(型と適用順)であるか否か。
+     * <p/>
+     * 各{@link SqlConvertor}のサブクラスは、変換処理が変更されている可能性があるため対象外とする。
+     *
+     * @return デフォルトの構成の場合は{@code true}
+     */
+    private boolean usesDefaultConvertors() {
+        return sqlConvertors.length == 3
+                && sqlConvertors[0].getClass() == VariableConditionSyntaxConvertor.class
+                && sqlConvertors[1].getClass() == VariableInSyntaxConvertor.class
+                && sqlConvertors[2].getClass() == VariableOrderBySyntaxConvertor.class;
+    }
+
     /**
      * SQL文を取得する。<br>
      * 返却されるSQL文は、名前付きバインド変数部を「?」に置き換えたSQL
@@ -203,7 +231,7 @@ public class BasicSqlParameterParser implements SqlParameterParser {
         boolean valid = false;
         while (startPos < sql.length()) {
             char c = sql.charAt(startPos++);
-            if (c == '[' || c == ']' || ('0' <= c && c <= '9')) {
+            if (c == '[' || c == ']' || c == '*' || ('0' <= c && c <= '9')) {
                 inParam.append(c);
                 if (c == ']') {
                     valid = true;
@@ -269,5 +297,16 @@ public class BasicSqlParameterParser implements SqlParameterParser {
     public void setSqlConvertors(List<SqlConvertor> sqlConvertors) {
         this.sqlConvertors = sqlConvertors.toArray(new SqlConvertor[sqlConvertors.size()]);
     }
-}
 
+    /**
+     * 拡張構文を解析したSQL文のテンプレートのキャッシュを設定する。
+     * <p/>
+     * 設定した場合、デフォルトの{@link SqlConvertor}の構成では、
+     * {@link #convertToJdbcSql(String, Object)}はキャッシュしたテンプレートからSQL文を構築する。
+     *
+     * @param variableSqlTemplateCache テンプレートのキャッシュ
+     */
+    void setVariableSqlTemplateCache(VariableSqlTemplateCache variableSqlTemplateCache) {
+        this.variableSqlTemplateCache = variableSqlTemplateCache;
+    }
+}
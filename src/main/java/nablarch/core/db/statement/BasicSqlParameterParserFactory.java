@@ -9,9 +9,16 @@ import java.util.List;
  */
 public class BasicSqlParameterParserFactory implements SqlParameterParserFactory {
 
+    /** 拡張構文を解析したSQL文のテンプレートのキャッシュ件数の上限値(デフォルト) */
+    private static final int DEFAULT_VARIABLE_SQL_TEMPLATE_CACHE_SIZE = 1000;
+
     /** {@link nablarch.core.db.statement.SqlConvertor}のリスト */
     private List<SqlConvertor> sqlConvertors;
 
+    /** 拡張構文を解析したSQL文のテンプレートのキャッシュ(nullの場合はキャッシュしない) */
+    private VariableSqlTemplateCache variableSqlTemplateCache
+            = new VariableSqlTemplateCache(DEFAULT_VARIABLE_SQL_TEMPLATE_CACHE_SIZE);
+
     /**
      * {@link nablarch.core.db.statement.BasicSqlParameterParser}を生成し返却する。
      *
@@ -22,6 +29,7 @@ public class BasicSqlParameterParserFactory implements SqlParameterParserFactory
         if (sqlConvertors != null && !sqlConvertors.isEmpty()) {
             parser.setSqlConvertors(sqlConvertors);
         }
+        parser.setVariableSqlTemplateCache(variableSqlTemplateCache);
         return parser;
     }
 
@@ -33,4 +41,20 @@ public class BasicSqlParameterParserFactory implements SqlParameterParserFactory
     public void setSqlConvertors(List<SqlConvertor> sqlConvertors) {
         this.sqlConvertors = sqlConvertors;
     }
+
+    /**
+     * 拡張構文を解析したSQL文のテンプレートをキャッシュする件数の上限値を設定する。<br>
+     * 0を設定した場合、テンプレートは使用せず、{@link SqlConvertor}を順に適用してSQL文を変換する。デフォルトは1000件。
+     *
+     * @param variableSqlTemplateCacheSize テンプレートをキャッシュする件数の上限値
+     */
+    public void setVariableSqlTemplateCacheSize(int variableSqlTemplateCacheSize) {
+        if (variableSqlTemplateCacheSize < 0) {
+            throw new IllegalArgumentException("variableSqlTemplateCacheSize must not be negative."
+                    + " variableSqlTemplateCacheSize = [" + variableSqlTemplateCacheSize + ']');
+        }
+        variableSqlTemplateCache = variableSqlTemplateCacheSize == 0
+                ? null
+                : new VariableSqlTemplateCache(variableSqlTemplateCacheSize);
+    }
 }
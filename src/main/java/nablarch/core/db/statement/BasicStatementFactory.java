@@ -26,6 +26,9 @@ import nablarch.core.repository.IgnoreProperty;
  */
 public class BasicStatementFactory implements StatementFactory {
 
+    /** 名前付きバインド変数を持つSQL文の解析結果のキャッシュ件数の上限値(デフォルト) */
+    private static final int DEFAULT_PARSED_SQL_CACHE_SIZE = 1000;
+
     /** SqlStatementExceptionFactory */
     private SqlStatementExceptionFactory sqlStatementExceptionFactory;
 
@@ -41,6 +44,21 @@ public class BasicStatementFactory implements StatementFactory {
     /** 名前付きバインド変数解析クラス */
     private SqlParameterParserFactory sqlParameterParserFactory;
 
+    /** 検索の実績からフェッチサイズを決定するポリシー */
+    private AdaptiveFetchSizePolicy fetchSizePolicy;
+
+    /** 名前付きバインド変数の値の設定方法 */
+    private ParameterBinder parameterBinder = new ObjectParameterBinder();
+
+    /** nullの設定に{@link java.sql.ParameterMetaData}を使用するか否か */
+    private boolean useParameterMetaData;
+
+    /** バッチを自動実行するバッチサイズ(0の場合は自動実行しない) */
+    private int autoFlushBatchSize;
+
+    /** INSERT文のバッチ実行を、複数行のVALUES句を持つINSERT文の実行に置き換えるか否か */
+    private boolean multiRowInsert;
+
     /** like条件のエスケープ対象文字リスト */
     private char[] likeEscapeTargetCharList = {'%', '_'};
 
@@ -50,6 +68,12 @@ public class BasicStatementFactory implements StatementFactory {
     /** ロードしたSQL文のキャッシュ */
     private final CachingSqlLoader cachingSqlLoader = new CachingSqlLoader();
 
+    /** 名前付きバインド変数を持つSQL文の解析結果のキャッシュ(nullの場合はキャッシュしない) */
+    private ParsedSqlCache parsedSqlCache = new ParsedSqlCache(DEFAULT_PARSED_SQL_CACHE_SIZE);
+
+    /** 名前付きバインド変数を持つSQL文の解析結果のキャッシュのヒット件数 */
+    private final CacheHitCounter parsedSqlCacheHitCounter = new CacheHitCounter();
+
     /** {@inheritDoc} */
     @Override
     public SqlPStatement getSqlPStatement(final String sql, final Connection con, DbExecutionContext context) throws SQLException {
@@ -124,6 +148,25 @@ public class BasicStatementFactory implements StatementFactory {
         sqlp.setFetchSize(fetchSize);
         sqlp.setQueryTimeout(queryTimeout);
         sqlp.setContext(context);
+        sqlp.setParameterBinder(parameterBinder);
+        sqlp.setUseParameterMetaData(useParameterMetaData);
+        sqlp.setAutoFlushBatchSize(autoFlushBatchSize);
+        sqlp.setMultiRowInsert(multiRowInsert);
+        sqlp.setFetchSizePolicy(fetchSizePolicy);
+        sqlp.setUpdateListener(getUpdateListener(context));
+    }
+
+    /**
+     * 生成するステートメントに設定する、更新系のSQL文の実行を通知するリスナーを取得する。
+     * <p/>
+     * 本クラスでは通知を行わないため{@code null}を返却する。
+     * 更新系のSQL文の実行を検知する必要がある場合は、サブクラスで本メソッドをオーバーライドすること。
+     *
+     * @param context ステートメントを生成したデータベース接続の実行時のコンテキスト
+     * @return 更新系のSQL文の実行を通知するリスナー(通知しない場合は{@code null})
+     */
+    protected SqlUpdateListener getUpdateListener(DbExecutionContext context) {
+        return null;
     }
 
     /**
@@ -139,6 +182,7 @@ public class BasicStatementFactory implements StatementFactory {
         String sql = getSql(sqlId);
         BasicSqlPStatement sqlp = (BasicSqlPStatement) getSqlPStatement(sql, con, context);
         sqlp.setAdditionalInfo("SQL_ID = [" + sqlId + "]");
+        sqlp.setSqlId(sqlId);
         return sqlp;
     }
 
@@ -195,6 +239,7 @@ public class BasicStatementFactory implements StatementFactory {
         // 追加情報にSQLIDとオリジナルのSQLを設定する。
         String additional = buildAdditionalInfoForSqlID(sqlId, sql);
         sqlp.setAdditionalInfo(additional);
+        sqlp.setSqlId(sqlId);
         return sqlp;
     }
 
@@ -208,6 +253,7 @@ public class BasicStatementFactory implements StatementFactory {
         // 追加情報にSQLIDとオリジナルのSQLを設定する。
         String additional = buildAdditionalInfoForSqlID(sqlId, sql);
         sqlp.setAdditionalInfo(additional);
+        sqlp.setSqlId(sqlId);
         return sqlp;
     }
 
@@ -221,6 +267,7 @@ public class BasicStatementFactory implements StatementFactory {
         // 追加情報にSQLIDとオリジナルのSQLを設定する。
         String additional = buildAdditionalInfoForSqlID(sqlId, sql);
         sqlp.setAdditionalInfo(additional);
+        sqlp.setSqlId(sqlId);
         return sqlp;
     }
 
@@ -252,12 +299,9 @@ public class BasicStatementFactory implements StatementFactory {
     private BasicSqlPStatement createParameterizedSqlPStatement(String sql,
             Connection con, DbExecutionContext context, SelectOption selectOption) throws SQLException {
         // 名前付きバインド変数の置き換え
-        SqlParameterParser parser = createParser();
-        parser.parse(sql);
-        String parsedSql = parser.getSql();
+        ParsedSql parsedSql = parseSql(sql);
         BasicSqlPStatement sqlp = new BasicSqlPStatement(parsedSql,
-                                                         con.prepareStatement(parsedSql),
-                                                         parser.getNameList());
+                                                         con.prepareStatement(parsedSql.getSql()));
         setCommonPropsTo(sqlp, context); // 共通設定
         setObjectFieldPropsTo(sqlp);   // オブジェクトのフィールドの値を扱う場合の設定
         setLikeConditionPropsTo(sqlp); // like条件用の設定
@@ -313,6 +357,45 @@ public class BasicStatementFactory implements StatementFactory {
         return parser;
     }
 
+    /**
+     * 名前付きバインド変数を持つSQL文を解析する。
+     * <p/>
+     * 解析結果はキャッシュされ、同一のSQL文(かつ同一のlike条件のエスケープ文字)に対しては、
+     * 解析を行わずにキャッシュした解析結果を返却する。
+     *
+     * @param sql 名前付きバインド変数を持つSQL文
+     * @return 解析結果
+     */
+    protected final ParsedSql parseSql(String sql) {
+        final ParsedSqlCache cache = parsedSqlCache;
+        if (cache == null) {
+            return doParseSql(sql);
+        }
+        final char escapeChar = likeEscapeChar;
+        ParsedSql parsedSql = cache.get(sql, escapeChar);
+        if (parsedSql != null) {
+            parsedSqlCacheHitCounter.hit();
+        } else {
+            parsedSqlCacheHitCounter.miss();
+            // 同時に複数スレッドが解析を行う可能性があるが、解析結果は同じになるため許容する。
+            parsedSql = doParseSql(sql);
+            cache.put(sql, escapeChar, parsedSql);
+        }
+        return parsedSql;
+    }
+
+    /**
+     * {@link SqlParameterParser}を使用して名前付きバインド変数を持つSQL文を解析する。
+     *
+     * @param sql 名前付きバインド変数を持つSQL文
+     * @return 解析結果
+     */
+    private ParsedSql doParseSql(String sql) {
+        SqlParameterParser parser = createParser();
+        parser.parse(sql);
+        return new ParsedSql(parser.getSql(), parser.getNameList());
+    }
+
     /** {@inheritDoc} */
     public String getVariableConditionSql(String sql, Object condition) {
         if (condition == null) {
@@ -397,6 +480,10 @@ public class BasicStatementFactory implements StatementFactory {
      */
     public void setSqlParameterParserFactory(SqlParameterParserFactory sqlParameterParserFactory) {
         this.sqlParameterParserFactory = sqlParameterParserFactory;
+        if (parsedSqlCache != null) {
+            // 解析方法が変わるため、これまでの解析結果は破棄する。
+            parsedSqlCache.clear();
+        }
     }
 
     /**
@@ -426,6 +513,93 @@ public class BasicStatementFactory implements StatementFactory {
         this.likeEscapeChar = likeEscapeChar.charAt(0);
     }
 
+    /**
+     * 名前付きバインド変数を持つSQL文の解析結果をキャッシュする件数の上限値を設定する。<br>
+     * 0を設定した場合、解析結果はキャッシュしない。デフォルトは1000件。
+     *
+     * @param parsedSqlCacheSize 解析結果をキャッシュする件数の上限値
+     */
+    public void setParsedSqlCacheSize(int parsedSqlCacheSize) {
+        if (parsedSqlCacheSize < 0) {
+            throw new IllegalArgumentException(
+                    "parsedSqlCacheSize must not be negative. parsedSqlCacheSize = [" + parsedSqlCacheSize + ']');
+        }
+        parsedSqlCache = parsedSqlCacheSize == 0 ? null : new ParsedSqlCache(parsedSqlCacheSize);
+    }
+
+    /**
+     * 名前付きバインド変数を持つSQL文の解析結果のキャッシュのヒット件数を取得する。<br>
+     * 解析結果をキャッシュしない設定の場合は計測しない。
+     *
+     * @return 解析結果のキャッシュのヒット件数
+     */
+    public CacheHitCounter getParsedSqlCacheHitCounter() {
+        return parsedSqlCacheHitCounter;
+    }
+
+    /**
+     * 名前付きバインド変数の値の設定方法を設定する。<br>
+     * 設定しない場合は、{@link ObjectParameterBinder}を使用する。
+     * 値のクラスに応じた型指定のsetterで設定する場合は、{@link TypedParameterBinder}を設定する。
+     *
+     * @param parameterBinder 名前付きバインド変数の値の設定方法
+     */
+    public void setParameterBinder(ParameterBinder parameterBinder) {
+        this.parameterBinder = parameterBinder;
+    }
+
+    /**
+     * nullの設定に{@link java.sql.ParameterMetaData}を使用するか否かを設定する。<br>
+     * {@code true}を設定した場合、名前付きバインド変数へのnullの設定は、
+     * {@link java.sql.ParameterMetaData}から取得したバインド変数のSQL型を使用して行う。
+     * SQL型はステートメントごとに一度だけ取得し、ステートメント自体に保持する。
+     * デフォルトは{@code false}。
+     *
+     * @param useParameterMetaData {@link java.sql.ParameterMetaData}を使用する場合は{@code true}
+     */
+    public void setUseParameterMetaData(boolean useParameterMetaData) {
+        this.useParameterMetaData = useParameterMetaData;
+    }
+
+    /**
+     * バッチを自動実行するバッチサイズを設定する。<br>
+     * 0を設定した場合は自動実行しない。デフォルトは0。
+     *
+     * @param autoFlushBatchSize バッチを自動実行するバッチサイズ
+     * @see BasicSqlPStatement#setAutoFlushBatchSize(int)
+     */
+    public void setAutoFlushBatchSize(int autoFlushBatchSize) {
+        if (autoFlushBatchSize < 0) {
+            throw new IllegalArgumentException(
+                    "autoFlushBatchSize must not be negative. autoFlushBatchSize = [" + autoFlushBatchSize + ']');
+        }
+        this.autoFlushBatchSize = autoFlushBatchSize;
+    }
+
+    /**
+     * INSERT文のバッチ実行を、複数行のVALUES句を持つINSERT文の実行に置き換えるか否かを設定する。<br>
+     * 置き換えは、{@link nablarch.core.db.dialect.DefaultDialect#supportsMultiRowInsert()}が{@code true}を返す
+     * データベースでのみ行われる。デフォルトは{@code false}。
+     *
+     * @param multiRowInsert 置き換える場合は{@code true}
+     * @see BasicSqlPStatement#setMultiRowInsert(boolean)
+     */
+    public void setMultiRowInsert(boolean multiRowInsert) {
+        this.multiRowInsert = multiRowInsert;
+    }
+
+    /**
+     * 検索の実績からフェッチサイズを決定するポリシーを設定する。<br>
+     * 設定した場合、取得最大件数を指定しない検索では、SQL_ID(SQL_IDを使用しない場合はSQL文)ごとの
+     * 取得件数と1行の大きさの実績から決定したフェッチサイズを使用する。
+     * 設定しない場合は、常に{@link #setFetchSize(String)}で設定したフェッチサイズを使用する。
+     *
+     * @param fetchSizePolicy 検索の実績からフェッチサイズを決定するポリシー
+     */
+    public void setFetchSizePolicy(AdaptiveFetchSizePolicy fetchSizePolicy) {
+        this.fetchSizePolicy = fetchSizePolicy;
+    }
+
     /**
      * SQL文をロードするクラスを設定する。
      * @param sqlLoader SQL文をロードするクラス
@@ -0,0 +1,117 @@
+package nablarch.core.db.statement;
+
+import java.sql.Statement;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * バッチ実行の更新件数を集計した結果を保持するクラス。
+ * <p/>
+ * バッチ実行({@link java.sql.PreparedStatement#executeBatch()})ごとの更新件数の配列を保持する代わりに、
+ * 件数の合計のみを保持する。
+ * バッチサイズの上限による自動実行({@link BasicSqlPStatement#setAutoFlushBatchSize(int)})を行う場合に、
+ * 全てのバッチ実行の結果を確認するために使用する。
+ * <p/>
+ * 本クラスは不変オブジェクトである。
+ *
+ * @author Hisaaki Sioiri
+ * @see BasicSqlPStatement#getBatchUpdateSummary()
+ */
+@Published
+public final class BatchUpdateSummary {
+
+    /** バッチ実行を1度も行っていない状態 */
+    static final BatchUpdateSummary EMPTY = new BatchUpdateSummary(0, 0, 0L, 0);
+
+    /** バッチ実行の回数 */
+    private final int executeCount;
+
+    /** バッチ実行したレコード数 */
+    private final int batchCount;
+
+    /** 更新件数の合計 */
+    private final long updateCount;
+
+    /** 更新件数が不明({@link Statement#SUCCESS_NO_INFO})のレコード数 */
+    private final int successNoInfoCount;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param executeCount バッチ実行の回数
+     * @param batchCount バッチ実行したレコード数
+     * @param updateCount 更新件数の合計
+     * @param successNoInfoCount 更新件数が不明のレコード数
+     */
+    private BatchUpdateSummary(int executeCount, int batchCount, long updateCount, int successNoInfoCount) {
+        this.executeCount = executeCount;
+        this.batchCount = batchCount;
+        this.updateCount = updateCount;
+        this.successNoInfoCount = successNoInfoCount;
+    }
+
+    /**
+     * バッチ実行の結果を加えた集計結果を生成する。
+     *
+     * @param result バッチ実行の結果({@link java.sql.PreparedStatement#executeBatch()}の戻り値)
+     * @return 結果を加えた集計結果
+     */
+    BatchUpdateSummary add(int[] result) {
+        long update = updateCount;
+        int successNoInfo = successNoInfoCount;
+        for (int count : result) {
+            if (count >= 0) {
+                update += count;
+            } else if (count == Statement.SUCCESS_NO_INFO) {
+                successNoInfo++;
+            }
+        }
+        return new BatchUpdateSummary(executeCount + 1, batchCount + result.length, update, successNoInfo);
+    }
+
+    /**
+     * バッチ実行の回数を取得する。
+     *
+     * @return バッチ実行の回数
+     */
+    public int getExecuteCount() {
+        return executeCount;
+    }
+
+    /**
+     * バッチ実行したレコード数を取得する。
+     *
+     * @return バッチ実行したレコード数
+     */
+    public int getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * 更新件数の合計を取得する。
+     * <p/>
+     * 更新件数が不明({@link Statement#SUCCESS_NO_INFO})のレコードは含まない。
+     *
+     * @return 更新件数の合計
+     */
+    public long getUpdateCount() {
+        return updateCount;
+    }
+
+    /**
+     * 更新件数が不明({@link Statement#SUCCESS_NO_INFO})のレコード数を取得する。
+     * <p/>
+     * JDBCドライバによっては、バッチ実行時の更新件数を返却しない。
+     *
+     * @return 更新件数が不明のレコード数
+     */
+    public int getSuccessNoInfoCount() {
+        return successNoInfoCount;
+    }
+
+    @Override
+    public String toString() {
+        return "executeCount=" + executeCount + ", batchCount=" + batchCount
+                + ", updateCount=" + updateCount + ", successNoInfoCount=" + successNoInfoCount;
+    }
+}
@@ -0,0 +1,116 @@
+package nablarch.core.db.statement;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.beans.BeansException;
+import nablarch.core.beans.ConversionUtil;
+
+/**
+ * オブジェクトのプロパティ値を名前付きバインド変数に設定するための実行計画を保持するクラス。
+ * <p/>
+ * オブジェクトのクラスと名前付きバインド変数のリストの組み合わせごとに、
+ * バインド変数に対応するプロパティのアクセサ(getter)を事前に解決しておく。
+ * これにより、オブジェクトの全プロパティを{@link java.util.Map}にコピーすることなく、
+ * 必要なプロパティの値のみを取得できる。
+ * <p/>
+ * 取得される値は、{@link BeanUtil#createMapAndCopy(Object)}で作成した{@link Map}から
+ * 取得した場合と同じとなる。
+ * ただし、以下のバインド変数を持つ場合、本クラスによる値の取得はサポートしない。
+ * (この場合、呼び出し元は{@link BeanUtil#createMapAndCopy(Object)}を使用して値を取得すること。)
+ * <ul>
+ * <li>ネストしたプロパティを示すバインド変数(名前に「.」を含むもの)</li>
+ * <li>getterを持つプロパティが存在しないバインド変数</li>
+ * </ul>
+ * <p/>
+ * 本クラスは不変オブジェクトであるため、複数のステートメント、スレッド間で共有できる。
+ *
+ * @author Hisaaki Sioiri
+ * @see ParsedSql#getBeanBindingPlan(Class)
+ */
+final class BeanBindingPlan {
+
+    /** バインド変数の位置順に並んだプロパティのgetter(サポートしない場合はnull) */
+    private final Method[] readMethods;
+
+    /** バインド変数の位置順に並んだプロパティの型(サポートしない場合はnull) */
+    private final Class<?>[] propertyTypes;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param readMethods プロパティのgetter
+     * @param propertyTypes プロパティの型
+     */
+    private BeanBindingPlan(Method[] readMethods, Class<?>[] propertyTypes) {
+        this.readMethods = readMethods;
+        this.propertyTypes = propertyTypes;
+    }
+
+    /**
+     * 実行計画を生成する。
+     *
+     * @param beanClass オブジェクトのクラス
+     * @param namedParameterHolderList 名前付きバインド変数の情報
+     * @return 実行計画
+     */
+    static BeanBindingPlan create(Class<?> beanClass, List<NamedParameterHolder> namedParameterHolderList) {
+        final Map<String, PropertyDescriptor> descriptors = new HashMap<String, PropertyDescriptor>();
+        for (PropertyDescriptor descriptor : BeanUtil.getPropertyDescriptors(beanClass)) {
+            descriptors.put(descriptor.getName(), descriptor);
+        }
+
+        final int size = namedParameterHolderList.size();
+        final Method[] readMethods = new Method[size];
+        final Class<?>[] propertyTypes = new Class<?>[size];
+        for (int i = 0; i < size; i++) {
+            final PropertyDescriptor descriptor = descriptors.get(
+                    namedParameterHolderList.get(i).getParameterName());
+            if (descriptor == null || descriptor.getReadMethod() == null) {
+                return new BeanBindingPlan(null, null);
+            }
+            readMethods[i] = descriptor.getReadMethod();
+            propertyTypes[i] = descriptor.getPropertyType();
+        }
+        return new BeanBindingPlan(readMethods, propertyTypes);
+    }
+
+    /**
+     * 本実行計画による値の取得をサポートしているか否か。
+     *
+     * @return サポートしている場合は{@code true}
+     */
+    boolean isSupported() {
+        return readMethods != null;
+    }
+
+    /**
+     * 指定された位置のバインド変数に設定する値をオブジェクトから取得する。
+     * <p/>
+     * 変換対象外の型(ネストしたオブジェクト)のプロパティが値を持つ場合、
+     * {@link BeanUtil#createMapAndCopy(Object)}ではプロパティ名そのものをキーとした値は作成されないため、
+     * バインド変数が見つからない場合と同じく{@link IllegalArgumentException}を送出する。
+     *
+     * @param bean オブジェクト
+     * @param index バインド変数の位置(0始まり)
+     * @param parameterName バインド変数名
+     * @return バインド変数に設定する値
+     */
+    Object getValue(Object bean, int index, String parameterName) {
+        final Object value;
+        try {
+            value = readMethods[index].invoke(bean);
+        } catch (Exception e) {
+            throw new BeansException(e);
+        }
+        if (value != null && !ConversionUtil.hasConverter(propertyTypes[index])) {
+            throw new IllegalArgumentException(
+                    String.format("SQL parameter was not found in Object. parameter name=[%s]", parameterName));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,195 @@
+package nablarch.core.db.statement;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.beans.BeansException;
+import nablarch.core.beans.ConversionUtil;
+import nablarch.core.util.StringUtil;
+
+/**
+ * 検索結果の1行をオブジェクトに変換するための実行計画を保持するクラス。
+ * <p/>
+ * 検索結果のカラム構成とオブジェクトのクラスの組み合わせごとに、
+ * カラムに対応するプロパティのアクセサ(setter)を事前に解決しておく。
+ * これにより、{@link SqlRow}を生成することなく、{@link ResultSet}から取得した値を直接プロパティに設定できる。
+ * <p/>
+ * カラムとプロパティは、名前の大文字/小文字の違い、アンダースコアの有無を区別せずに対応付ける。
+ * (例えば、カラム「USER_NAME」はプロパティ「userName」に対応する。)
+ * 対応するプロパティ(setterを持つもの)が存在しないカラムは無視する。
+ * 同一のプロパティに対応するカラムが複数存在する場合は、後ろのカラムが有効となる。
+ * <p/>
+ * カラムの値は{@link ConversionUtil#convert(Class, Object)}でプロパティの型に変換する。
+ * ただし、変換対象外の型のプロパティには値をそのまま設定し、
+ * プリミティブ型のプロパティにはカラムの値が{@code null}の場合は値を設定しない。
+ * <p/>
+ * 本クラスは不変オブジェクトであるため、複数のステートメント、スレッド間で共有できる。
+ *
+ * @param <T> オブジェクトの型
+ * @author Hisaaki Sioiri
+ * @see ParsedSql#getBeanMappingPlan(Class, String[])
+ */
+final class BeanMappingPlan<T> {
+
+    /** オブジェクトのクラス */
+    private final Class<T> beanClass;
+
+    /** オブジェクトのコンストラクタ */
+    private final Constructor<T> constructor;
+
+    /** カラム名(大文字に変換したもの)のリスト */
+    private final String[] columnNames;
+
+    /** 値を設定するカラムの位置(0始まり) */
+    private final int[] columnIndexes;
+
+    /** カラムの位置順に並んだプロパティのsetter */
+    private final Method[] writeMethods;
+
+    /** カラムの位置順に並んだプロパティの型(変換対象外の型の場合はnull) */
+    private final Class<?>[] convertTypes;
+
+    /** カラムの位置順に並んだプロパティがプリミティブ型か否か */
+    private final boolean[] primitives;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param beanClass オブジェクトのクラス
+     * @param constructor オブジェクトのコンストラクタ
+     * @param columnNames カラム名のリスト
+     * @param descriptors カラムの位置順に並んだプロパティ(対応するプロパティが存在しない場合はnull)
+     */
+    private BeanMappingPlan(Class<T> beanClass, Constructor<T> constructor,
+            String[] columnNames, PropertyDescriptor[] descriptors) {
+        this.beanClass = beanClass;
+        this.constructor = constructor;
+        this.columnNames = columnNames.clone();
+
+        int size = 0;
+        for (PropertyDescriptor descriptor : descriptors) {
+            if (descriptor != null) {
+                size++;
+            }
+        }
+        columnIndexes = new int[size];
+        writeMethods = new Method[size];
+        convertTypes = new Class<?>[size];
+        primitives = new boolean[size];
+        int pos = 0;
+        for (int i = 0; i < descriptors.length; i++) {
+            final PropertyDescriptor descriptor = descriptors[i];
+            if (descriptor == null) {
+                continue;
+            }
+            final Class<?> propertyType = descriptor.getPropertyType();
+            columnIndexes[pos] = i;
+            writeMethods[pos] = descriptor.getWriteMethod();
+            convertTypes[pos] = ConversionUtil.hasConverter(propertyType) ? propertyType : null;
+            primitives[pos] = propertyType.isPrimitive();
+            pos++;
+        }
+    }
+
+    /**
+     * 実行計画を生成する。
+     *
+     * @param beanClass オブジェクトのクラス
+     * @param columnNames カラム名(大文字に変換したもの)のリスト
+     * @param <T> オブジェクトの型
+     * @return 実行計画
+     * @throws BeansException オブジェクトのクラスがデフォルトコンストラクタを持たない場合
+     */
+    static <T> BeanMappingPlan<T> create(Class<T> beanClass, String[] columnNames) {
+        final Constructor<T> constructor;
+        try {
+            constructor = beanClass.getConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new BeansException(e);
+        }
+
+        final Map<String, PropertyDescriptor> properties = new HashMap<String, PropertyDescriptor>();
+        for (PropertyDescriptor descriptor : BeanUtil.getPropertyDescriptors(beanClass)) {
+            if (descriptor.getWriteMethod() != null) {
+                properties.put(StringUtil.lowerAndTrimUnderScore(descriptor.getName()), descriptor);
+            }
+        }
+
+        final PropertyDescriptor[] descriptors = new PropertyDescriptor[columnNames.length];
+        final Map<String, Integer> mappedColumns = new HashMap<String, Integer>();
+        for (int i = 0; i < columnNames.length; i++) {
+            final String key = StringUtil.lowerAndTrimUnderScore(columnNames[i]);
+            final PropertyDescriptor descriptor = properties.get(key);
+            if (descriptor == null) {
+                continue;
+            }
+            // 同一のプロパティに対応するカラムは後ろのカラムを有効とする。
+            final Integer previous = mappedColumns.put(key, i);
+            if (previous != null) {
+                descriptors[previous] = null;
+            }
+            descriptors[i] = descriptor;
+        }
+        return new BeanMappingPlan<T>(beanClass, constructor, columnNames, descriptors);
+    }
+
+    /**
+     * オブジェクトのクラスを取得する。
+     *
+     * @return オブジェクトのクラス
+     */
+    Class<T> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * 指定されたカラム構成に対する実行計画か否か。
+     *
+     * @param columnNames カラム名(大文字に変換したもの)のリスト
+     * @return 指定されたカラム構成に対する実行計画の場合は{@code true}
+     */
+    boolean isApplicable(String[] columnNames) {
+        return Arrays.equals(this.columnNames, columnNames);
+    }
+
+    /**
+     * {@link ResultSet}の現在行をオブジェクトに変換する。
+     *
+     * @param rs ResultSet
+     * @param extractors カラムごとの値の取得方法
+     * @return 現在行の値を設定したオブジェクト
+     * @throws SQLException カラムの値の取得に失敗した場合
+     * @throws BeansException オブジェクトの生成、プロパティへの値の設定に失敗した場合
+     */
+    T map(ResultSet rs, ColumnExtractor[] extractors) throws SQLException {
+        final T bean;
+        try {
+            bean = constructor.newInstance();
+        } catch (Exception e) {
+            throw new BeansException(e);
+        }
+        for (int i = 0; i < columnIndexes.length; i++) {
+            final int columnIndex = columnIndexes[i];
+            Object value = extractors[columnIndex].extract(rs, columnIndex + 1);
+            if (value == null && primitives[i]) {
+                continue;
+            }
+            if (convertTypes[i] != null) {
+                value = ConversionUtil.convert(convertTypes[i], value);
+            }
+            try {
+                writeMethods[i].invoke(bean, value);
+            } catch (Exception e) {
+                throw new BeansException(e);
+            }
+        }
+        return bean;
+    }
+}
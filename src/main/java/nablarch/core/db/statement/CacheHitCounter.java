@@ -0,0 +1,84 @@
+package nablarch.core.db.statement;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * キャッシュのヒット件数とミス件数を計測するクラス。
+ * <p/>
+ * ステートメントのキャッシュや、SQL文の解析結果のキャッシュがどの程度再利用されているかを確認するために使用する。
+ * 例えば、可変IN構文の要素数の丸め({@link nablarch.core.db.statement.sqlconvertor.VariableInSyntaxConvertor#setInListBucketSizes(int[])})
+ * の効果を測定する場合は、設定前後でヒット率を比較する。
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ *
+ * @author Hisaaki Sioiri
+ */
+@Published(tag = "architect")
+public class CacheHitCounter {
+
+    /** ヒット件数 */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** ミス件数 */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * キャッシュヒットを記録する。
+     */
+    public void hit() {
+        hitCount.incrementAndGet();
+    }
+
+    /**
+     * キャッシュミスを記録する。
+     */
+    public void miss() {
+        missCount.incrementAndGet();
+    }
+
+    /**
+     * ヒット件数を取得する。
+     *
+     * @return ヒット件数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * ミス件数を取得する。
+     *
+     * @return ミス件数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * ヒット率を取得する。
+     * <p/>
+     * 1件も記録されていない場合は0を返却する。
+     *
+     * @return ヒット率(0.0～1.0)
+     */
+    public double getHitRate() {
+        final long hit = hitCount.get();
+        final long total = hit + missCount.get();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    /**
+     * 計測結果をクリアする。
+     */
+    public void reset() {
+        hitCount.set(0);
+        missCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "hit=" + getHitCount() + ", miss=" + getMissCount() + ", hitRate=" + getHitRate();
+    }
+}
@@ -0,0 +1,31 @@
+package nablarch.core.db.statement;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link ResultSet}から1カラムの値を取得するインタフェース。
+ * <p/>
+ * {@link PlannableResultSetConvertor}が検索結果のカラムごとに生成し、
+ * 検索結果の全ての行で再利用する。
+ * 取得方法は生成時に{@link java.sql.ResultSetMetaData}を元に決定しているため、
+ * 値の取得時には{@link java.sql.ResultSetMetaData}を参照しない。
+ *
+ * @author Hisaaki Sioiri
+ * @see StandardColumnExtractor
+ */
+@Published(tag = "architect")
+public interface ColumnExtractor {
+
+    /**
+     * {@link ResultSet}の現在行から指定されたカラムの値を取得する。
+     *
+     * @param rs ResultSet
+     * @param columnIndex カラムインデックス
+     * @return カラムの値
+     * @throws SQLException SQL例外発生時
+     */
+    Object extract(ResultSet rs, int columnIndex) throws SQLException;
+}
@@ -0,0 +1,471 @@
+package nablarch.core.db.statement;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 検索結果の1カラム分の値を保持するクラス。
+ * <p/>
+ * カラムの値は、データタイプに応じたプリミティブ型の配列で保持し、
+ * 値が{@code null}か否かはビット列で保持する。
+ * 配列は行の追加に応じて拡張する。
+ *
+ * @author Hisaaki Sioiri
+ * @see ColumnarResultSet
+ */
+abstract class ColumnVector {
+
+    /** 配列の初期サイズ */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** intで保持できる数値型の最大精度 */
+    private static final int MAX_INT_PRECISION = 9;
+
+    /** longで保持できる数値型の最大精度 */
+    private static final int MAX_LONG_PRECISION = 18;
+
+    /** 値が{@code null}の行を示すビット列 */
+    private long[] nulls = new long[1];
+
+    /** 行数 */
+    protected int size;
+
+    /**
+     * カラムのデータタイプに応じた{@link ColumnVector}を生成する。
+     * <p/>
+     * データタイプと値の保持方法の対応は以下のとおり。
+     * <ul>
+     * <li>INTEGER、SMALLINT、TINYINT、および精度9桁以下で小数部を持たないNUMERIC、DECIMAL : int配列</li>
+     * <li>BIGINT、および精度18桁以下で小数部を持たないNUMERIC、DECIMAL : long配列</li>
+     * <li>DOUBLE、FLOAT、REAL : double配列</li>
+     * <li>CHAR、VARCHAR、NCHAR、NVARCHAR、LONGVARCHAR、LONGNVARCHAR : 辞書のインデックス(int配列)</li>
+     * <li>上記以外 : Object配列</li>
+     * </ul>
+     *
+     * @param metaData ResultSetMetaData
+     * @param columnIndex カラムインデックス
+     * @return カラムの値を保持する{@link ColumnVector}
+     * @throws SQLException メタデータの取得に失敗した場合
+     */
+    static ColumnVector create(ResultSetMetaData metaData, int columnIndex) throws SQLException {
+        switch (metaData.getColumnType(columnIndex)) {
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                return new IntVector();
+            case Types.BIGINT:
+                return new LongVector();
+            case Types.DOUBLE:
+            case Types.FLOAT:
+            case Types.REAL:
+                return new DoubleVector();
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return createNumericVector(metaData.getPrecision(columnIndex), metaData.getScale(columnIndex));
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+                return new StringVector();
+            default:
+                return new ObjectVector();
+        }
+    }
+
+    /**
+     * NUMERIC、DECIMAL型のカラムの値を保持する{@link ColumnVector}を生成する。
+     * <p/>
+     * 小数部を持つ場合や精度が不明な場合は、値を丸めないように{@link java.math.BigDecimal}のまま保持する。
+     *
+     * @param precision 精度
+     * @param scale 小数部の桁数
+     * @return カラムの値を保持する{@link ColumnVector}
+     */
+    private static ColumnVector createNumericVector(int precision, int scale) {
+        if (scale != 0 || precision <= 0) {
+            return new ObjectVector();
+        }
+        if (precision <= MAX_INT_PRECISION) {
+            return new IntVector();
+        }
+        if (precision <= MAX_LONG_PRECISION) {
+            return new LongVector();
+        }
+        return new ObjectVector();
+    }
+
+    /**
+     * {@link ResultSet}の現在行の値を末尾に追加する。
+     *
+     * @param rs ResultSet
+     * @param columnIndex カラムインデックス
+     * @param extractor カラムの値の取得方法
+     * @throws SQLException 値の取得に失敗した場合
+     */
+    abstract void read(ResultSet rs, int columnIndex, ColumnExtractor extractor) throws SQLException;
+
+    /**
+     * 指定された行の値を取得する。
+     *
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値(値が{@code null}の場合は{@code null})
+     */
+    abstract Object get(int rowIndex);
+
+    /**
+     * 指定された行の値をintで取得する。
+     *
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値(値が{@code null}の場合は0)
+     * @throws ClassCastException 数値型以外のカラムの場合
+     */
+    int getInt(int rowIndex) {
+        final Number value = (Number) get(rowIndex);
+        return value == null ? 0 : value.intValue();
+    }
+
+    /**
+     * 指定された行の値をlongで取得する。
+     *
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値(値が{@code null}の場合は0)
+     * @throws ClassCastException 数値型以外のカラムの場合
+     */
+    long getLong(int rowIndex) {
+        final Number value = (Number) get(rowIndex);
+        return value == null ? 0L : value.longValue();
+    }
+
+    /**
+     * 指定された行の値をdoubleで取得する。
+     *
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値(値が{@code null}の場合は0)
+     * @throws ClassCastException 数値型以外のカラムの場合
+     */
+    double getDouble(int rowIndex) {
+        final Number value = (Number) get(rowIndex);
+        return value == null ? 0d : value.doubleValue();
+    }
+
+    /**
+     * 指定された行の値が{@code null}か否か。
+     *
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値が{@code null}の場合は{@code true}
+     */
+    final boolean isNull(int rowIndex) {
+        final int word = rowIndex >>> 6;
+        return word < nulls.length && (nulls[word] & (1L << rowIndex)) != 0;
+    }
+
+    /**
+     * 行数を取得する。
+     *
+     * @return 行数
+     */
+    final int size() {
+        return size;
+    }
+
+    /**
+     * 末尾に追加する行の値を{@code null}とする。
+     * <p/>
+     * 行数の更新は、サブクラスで行うこと。
+     */
+    protected final void markNull() {
+        final int word = size >>> 6;
+        if (word >= nulls.length) {
+            nulls = Arrays.copyOf(nulls, Math.max(word + 1, nulls.length * 2));
+        }
+        nulls[word] |= 1L << size;
+    }
+
+    /**
+     * 配列の拡張後のサイズを算出する。
+     *
+     * @param currentLength 現在の配列のサイズ
+     * @return 拡張後のサイズ
+     */
+    protected static int grow(int currentLength) {
+        return currentLength == 0 ? INITIAL_CAPACITY : currentLength + (currentLength >> 1) + 1;
+    }
+
+    /**
+     * int配列で値を保持する{@link ColumnVector}。
+     */
+    static final class IntVector extends ColumnVector {
+
+        /** 値 */
+        private int[] values = new int[0];
+
+        @Override
+        void read(ResultSet rs, int columnIndex, ColumnExtractor extractor) throws SQLException {
+            final int value = rs.getInt(columnIndex);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            if (rs.wasNull()) {
+                markNull();
+            } else {
+                values[size] = value;
+            }
+            size++;
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            return isNull(rowIndex) ? null : values[rowIndex];
+        }
+
+        @Override
+        int getInt(int rowIndex) {
+            return values[rowIndex];
+        }
+
+        @Override
+        long getLong(int rowIndex) {
+            return values[rowIndex];
+        }
+
+        @Override
+        double getDouble(int rowIndex) {
+            return values[rowIndex];
+        }
+
+        /**
+         * 全ての行の値を取得する。
+         *
+         * @return 値の配列(値が{@code null}の行は0)
+         */
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * long配列で値を保持する{@link ColumnVector}。
+     */
+    static final class LongVector extends ColumnVector {
+
+        /** 値 */
+        private long[] values = new long[0];
+
+        @Override
+        void read(ResultSet rs, int columnIndex, ColumnExtractor extractor) throws SQLException {
+            final long value = rs.getLong(columnIndex);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            if (rs.wasNull()) {
+                markNull();
+            } else {
+                values[size] = value;
+            }
+            size++;
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            return isNull(rowIndex) ? null : values[rowIndex];
+        }
+
+        @Override
+        long getLong(int rowIndex) {
+            return values[rowIndex];
+        }
+
+        @Override
+        double getDouble(int rowIndex) {
+            return values[rowIndex];
+        }
+
+        /**
+         * 全ての行の値を取得する。
+         *
+         * @return 値の配列(値が{@code null}の行は0)
+         */
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * double配列で値を保持する{@link ColumnVector}。
+     */
+    static final class DoubleVector extends ColumnVector {
+
+        /** 値 */
+        private double[] values = new double[0];
+
+        @Override
+        void read(ResultSet rs, int columnIndex, ColumnExtractor extractor) throws SQLException {
+            final double value = rs.getDouble(columnIndex);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            if (rs.wasNull()) {
+                markNull();
+            } else {
+                values[size] = value;
+            }
+            size++;
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            return isNull(rowIndex) ? null : values[rowIndex];
+        }
+
+        @Override
+        double getDouble(int rowIndex) {
+            return values[rowIndex];
+        }
+
+        /**
+         * 全ての行の値を取得する。
+         *
+         * @return 値の配列(値が{@code null}の行は0)
+         */
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * 文字列を辞書に登録し、辞書のインデックスで値を保持する{@link ColumnVector}。
+     * <p/>
+     * 同じ文字列は辞書上の1つのインスタンスを共有する。
+     * 辞書の要素数が上限を超えた場合(値の種類が多く辞書による削減効果がない場合)は、
+     * 以降は文字列の配列で値を保持する。
+     */
+    static final class StringVector extends ColumnVector {
+
+        /** 辞書の要素数の上限 */
+        private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+        /** 辞書のインデックス */
+        private int[] codes = new int[0];
+
+        /** 辞書(インデックス順の文字列) */
+        private List<String> dictionary = new ArrayList<String>();
+
+        /** 文字列と辞書のインデックスとのMap */
+        private Map<String, Integer> dictionaryIndexes = new HashMap<String, Integer>();
+
+        /** 辞書を使用しない場合の値 */
+        private String[] values;
+
+        @Override
+        void read(ResultSet rs, int columnIndex, ColumnExtractor extractor) throws SQLException {
+            final String value = rs.getString(columnIndex);
+            if (value == null) {
+                markNull();
+            }
+            if (values != null) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, grow(values.length));
+                }
+                values[size++] = value;
+                return;
+            }
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, grow(codes.length));
+            }
+            if (value != null) {
+                codes[size] = encode(value);
+            }
+            size++;
+            if (dictionary.size() > MAX_DICTIONARY_SIZE) {
+                decodeAll();
+            }
+        }
+
+        /**
+         * 文字列を辞書のインデックスに変換する。
+         * <p/>
+         * 辞書に存在しない文字列は、辞書に追加する。
+         *
+         * @param value 文字列
+         * @return 辞書のインデックス
+         */
+        private int encode(String value) {
+            final Integer code = dictionaryIndexes.get(value);
+            if (code != null) {
+                return code;
+            }
+            final int newCode = dictionary.size();
+            dictionary.add(value);
+            dictionaryIndexes.put(value, newCode);
+            return newCode;
+        }
+
+        /**
+         * 辞書を使用した保持から、文字列の配列による保持に切り替える。
+         */
+        private void decodeAll() {
+            final String[] decoded = new String[codes.length];
+            for (int i = 0; i < size; i++) {
+                decoded[i] = isNull(i) ? null : dictionary.get(codes[i]);
+            }
+            values = decoded;
+            codes = null;
+            dictionary = null;
+            dictionaryIndexes = null;
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            if (isNull(rowIndex)) {
+                return null;
+            }
+            return values != null ? values[rowIndex] : dictionary.get(codes[rowIndex]);
+        }
+
+        /**
+         * 辞書の要素数を取得する。
+         *
+         * @return 辞書の要素数(辞書を使用していない場合は-1)
+         */
+        int getDictionarySize() {
+            return dictionary == null ? -1 : dictionary.size();
+        }
+    }
+
+    /**
+     * Object配列で値を保持する{@link ColumnVector}。
+     * <p/>
+     * 値は{@link ColumnExtractor}で取得するため、ダイアレクトによる変換が行われる。
+     */
+    static final class ObjectVector extends ColumnVector {
+
+        /** 値 */
+        private Object[] values = new Object[0];
+
+        @Override
+        void read(ResultSet rs, int columnIndex, ColumnExtractor extractor) throws SQLException {
+            final Object value = extractor.extract(rs, columnIndex);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            if (value == null) {
+                markNull();
+            }
+            values[size++] = value;
+        }
+
+        @Override
+        Object get(int rowIndex) {
+            return values[rowIndex];
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package nablarch.core.db.statement;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 検索結果をカラムごとに保持するクラス。
+ * <p/>
+ * 検索結果の値を行ごとの{@link SqlRow}ではなく、カラムごとの配列で保持する。
+ * 数値型のカラムはプリミティブ型の配列で、文字列型のカラムは辞書のインデックスで保持するため、
+ * 大量の行を集計する場合などに{@link SqlResultSet}よりも少ないメモリで検索結果を保持できる。
+ * <p/>
+ * カラムのデータタイプと値の保持方法の対応は以下のとおり。
+ * <ul>
+ * <li>INTEGER、SMALLINT、TINYINT、および精度9桁以下で小数部を持たないNUMERIC、DECIMAL : int</li>
+ * <li>BIGINT、および精度18桁以下で小数部を持たないNUMERIC、DECIMAL : long</li>
+ * <li>DOUBLE、FLOAT、REAL : double</li>
+ * <li>CHAR、VARCHAR、NCHAR、NVARCHAR、LONGVARCHAR、LONGNVARCHAR : 文字列(同じ文字列は1つのインスタンスを共有する)</li>
+ * <li>上記以外 : {@link ResultSetConvertor}で変換したオブジェクト</li>
+ * </ul>
+ * <p/>
+ * カラム名は、大文字/小文字の違い、アンダースコアの有無を区別しない。
+ * 行は0から始まるインデックスで指定する。
+ * <p/>
+ * 以下に例を示す。
+ * <code>
+ * <pre>
+ * ColumnarResultSet rs = ((BasicSqlPStatement) statement).retrieveColumnar();
+ * long total = 0;
+ * for (int i = 0; i &lt; rs.size(); i++) {
+ *     if (!rs.isNull("amount", i)) {
+ *         total += rs.getLong("amount", i);
+ *     }
+ * }
+ * </pre>
+ * </code>
+ *
+ * @author Hisaaki Sioiri
+ * @see BasicSqlPStatement#retrieveColumnar()
+ */
+@Published
+public class ColumnarResultSet {
+
+    /** カラム構成 */
+    private final SqlRowSchema schema;
+
+    /** カラムの位置順に並んだカラムの値 */
+    private final ColumnVector[] columns;
+
+    /** 行数 */
+    private int size;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param schema カラム構成
+     * @param columns カラムの位置順に並んだカラムの値
+     */
+    ColumnarResultSet(SqlRowSchema schema, ColumnVector[] columns) {
+        this.schema = schema;
+        this.columns = columns;
+    }
+
+    /**
+     * {@link ResultSet}の現在行の値を末尾に追加する。
+     *
+     * @param rs ResultSet
+     * @param extractors カラムごとの値の取得方法
+     * @throws SQLException 値の取得に失敗した場合
+     */
+    void addRow(ResultSet rs, ColumnExtractor[] extractors) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].read(rs, i + 1, extractors[i]);
+        }
+        size++;
+    }
+
+    /**
+     * 行数を取得する。
+     *
+     * @return 行数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * カラム名のリストを取得する。
+     *
+     * @return カラム名(大文字に変換したもの)のリスト(カラムの順に並ぶ、変更不可)
+     */
+    public List<String> getColumnNames() {
+        return schema.getColumnNames();
+    }
+
+    /**
+     * 指定された行のカラムの値が{@code null}か否か。
+     *
+     * @param columnName カラム名
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値が{@code null}の場合は{@code true}
+     * @throws IllegalArgumentException カラムが存在しない場合
+     * @throws IndexOutOfBoundsException 行のインデックスが範囲外の場合
+     */
+    public boolean isNull(String columnName, int rowIndex) {
+        return getColumn(columnName, rowIndex).isNull(rowIndex);
+    }
+
+    /**
+     * 指定された行のカラムの値を取得する。
+     *
+     * @param columnName カラム名
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値(数値型のカラムは{@link Integer}、{@link Long}、{@link Double}のいずれか)
+     * @throws IllegalArgumentException カラムが存在しない場合
+     * @throws IndexOutOfBoundsException 行のインデックスが範囲外の場合
+     */
+    public Object getObject(String columnName, int rowIndex) {
+        return getColumn(columnName, rowIndex).get(rowIndex);
+    }
+
+    /**
+     * 指定された行のカラムの値を{@link String}で取得する。
+     *
+     * @param columnName カラム名
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値(値が{@code null}の場合は{@code null})
+     * @throws IllegalArgumentException カラムが存在しない場合
+     * @throws IndexOutOfBoundsException 行のインデックスが範囲外の場合
+     */
+    public String getString(String columnName, int rowIndex) {
+        final Object value = getObject(columnName, rowIndex);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * 指定された行のカラムの値をintで取得する。
+     * <p/>
+     * 値が{@code null}の場合は0を返す。{@code null}か否かは{@link #isNull(String, int)}で判定すること。
+     *
+     * @param columnName カラム名
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値
+     * @throws IllegalArgumentException カラムが存在しない場合
+     * @throws IndexOutOfBoundsException 行のインデックスが範囲外の場合
+     * @throws ClassCastException 数値型以外のカラムの場合
+     */
+    public int getInt(String columnName, int rowIndex) {
+        return getColumn(columnName, rowIndex).getInt(rowIndex);
+    }
+
+    /**
+     * 指定された行のカラムの値をlongで取得する。
+     * <p/>
+     * 値が{@code null}の場合は0を返す。{@code null}か否かは{@link #isNull(String, int)}で判定すること。
+     *
+     * @param columnName カラム名
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値
+     * @throws IllegalArgumentException カラムが存在しない場合
+     * @throws IndexOutOfBoundsException 行のインデックスが範囲外の場合
+     * @throws ClassCastException 数値型以外のカラムの場合
+     */
+    public long getLong(String columnName, int rowIndex) {
+        return getColumn(columnName, rowIndex).getLong(rowIndex);
+    }
+
+    /**
+     * 指定された行のカラムの値をdoubleで取得する。
+     * <p/>
+     * 値が{@code null}の場合は0を返す。{@code null}か否かは{@link #isNull(String, int)}で判定すること。
+     *
+     * @param columnName カラム名
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値
+     * @throws IllegalArgumentException カラムが存在しない場合
+     * @throws IndexOutOfBoundsException 行のインデックスが範囲外の場合
+     * @throws ClassCastException 数値型以外のカラムの場合
+     */
+    public double getDouble(String columnName, int rowIndex) {
+        return getColumn(columnName, rowIndex).getDouble(rowIndex);
+    }
+
+    /**
+     * 指定された行のカラムの値を{@link BigDecimal}で取得する。
+     *
+     * @param columnName カラム名
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return 値(値が{@code null}の場合は{@code null})
+     * @throws IllegalArgumentException カラムが存在しない場合
+     * @throws IndexOutOfBoundsException 行のインデックスが範囲外の場合
+     * @throws NumberFormatException 値を{@link BigDecimal}に変換できない場合
+     */
+    public BigDecimal getBigDecimal(String columnName, int rowIndex) {
+        final Object value = getObject(columnName, rowIndex);
+        if (value == null || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    /**
+     * int型で保持しているカラムの全ての行の値を取得する。
+     * <p/>
+     * 値が{@code null}の行は0となる。
+     *
+     * @param columnName カラム名
+     * @return 値の配列(行数と同じ長さの複製)
+     * @throws IllegalArgumentException カラムが存在しない場合、またはint型で保持していない場合
+     */
+    public int[] getIntArray(String columnName) {
+        return getColumn(columnName, ColumnVector.IntVector.class).toArray();
+    }
+
+    /**
+     * long型で保持しているカラムの全ての行の値を取得する。
+     * <p/>
+     * 値が{@code null}の行は0となる。
+     *
+     * @param columnName カラム名
+     * @return 値の配列(行数と同じ長さの複製)
+     * @throws IllegalArgumentException カラムが存在しない場合、またはlong型で保持していない場合
+     */
+    public long[] getLongArray(String columnName) {
+        return getColumn(columnName, ColumnVector.LongVector.class).toArray();
+    }
+
+    /**
+     * double型で保持しているカラムの全ての行の値を取得する。
+     * <p/>
+     * 値が{@code null}の行は0となる。
+     *
+     * @param columnName カラム名
+     * @return 値の配列(行数と同じ長さの複製)
+     * @throws IllegalArgumentException カラムが存在しない場合、またはdouble型で保持していない場合
+     */
+    public double[] getDoubleArray(String columnName) {
+        return getColumn(columnName, ColumnVector.DoubleVector.class).toArray();
+    }
+
+    /**
+     * カラムの値を取得する。
+     *
+     * @param columnName カラム名
+     * @param rowIndex 行のインデックス(0始まり)
+     * @return カラムの値
+     * @throws IllegalArgumentException カラムが存在しない場合
+     * @throws IndexOutOfBoundsException 行のインデックスが範囲外の場合
+     */
+    private ColumnVector getColumn(String columnName, int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= size) {
+            throw new IndexOutOfBoundsException("row index = [" + rowIndex + "], size = [" + size + ']');
+        }
+        return getColumn(columnName);
+    }
+
+    /**
+     * 指定された型で保持しているカラムの値を取得する。
+     *
+     * @param columnName カラム名
+     * @param columnType カラムの値の保持方法
+     * @param <T> カラムの値の保持方法
+     * @return カラムの値
+     * @throws IllegalArgumentException カラムが存在しない場合、または指定された型で保持していない場合
+     */
+    private <T extends ColumnVector> T getColumn(String columnName, Class<T> columnType) {
+        final ColumnVector column = getColumn(columnName);
+        if (!columnType.isInstance(column)) {
+            throw new IllegalArgumentException("column type does not match. column name = [" + columnName + ']');
+        }
+        return columnType.cast(column);
+    }
+
+    /**
+     * カラムの値を取得する。
+     *
+     * @param columnName カラム名
+     * @return カラムの値
+     * @throws IllegalArgumentException カラムが存在しない場合
+     */
+    private ColumnVector getColumn(String columnName) {
+        final int index = schema.indexOf(columnName);
+        if (index < 0) {
+            throw new IllegalArgumentException("column was not found. column name = [" + columnName + ']');
+        }
+        return columns[index];
+    }
+}
@@ -0,0 +1,313 @@
+package nablarch.core.db.statement;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * カラムの値を配列で保持する{@link SqlRow}実装クラス。
+ * <p/>
+ * カラム名とカラム位置との対応は、検索結果の全ての行で共有する{@link SqlRowSchema}が保持するため、
+ * 行ごとにカラム名をキーとした{@link Map}やカラム名の変換用の{@link Map}を生成しない。
+ * <p/>
+ * 検索結果に存在するカラム名(大文字/小文字の違い、アンダースコアの有無は区別しない)を指定した
+ * {@link #put(String, Object)}は、そのカラムの値を置き換える。
+ * 検索結果に存在しないカラム名の追加や、要素の削除が行われた場合は、
+ * 以降は{@link HashMap}で値を保持する。
+ *
+ * @author Hisaaki Sioiri
+ */
+class IndexedSqlRow extends SqlRow {
+
+    /** カラム構成 */
+    private final SqlRowSchema schema;
+
+    /** 1行分のデータ */
+    private final RowMap row;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param schema カラム構成
+     * @param values カラムの値(カラムの順に並ぶ)
+     */
+    IndexedSqlRow(SqlRowSchema schema, Object[] values) {
+        this(schema, new RowMap(schema, values));
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param schema カラム構成
+     * @param row 1行分のデータ
+     */
+    private IndexedSqlRow(SqlRowSchema schema, RowMap row) {
+        super(row, schema.getColTypeMap());
+        this.schema = schema;
+        this.row = row;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (row.isIndexed()) {
+            final int index = schema.indexOf((String) key);
+            return index < 0 ? null : row.values[index];
+        }
+        return super.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (row.isIndexed()) {
+            return schema.indexOf((String) key) >= 0;
+        }
+        return super.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 検索結果に存在するカラム名が指定された場合は、そのカラムの値を置き換える。
+     */
+    @Override
+    public Object put(String key, Object value) {
+        final String columnName = schema.getColumnName(key);
+        if (columnName == null) {
+            return super.put(key, value);
+        }
+        return row.put(columnName, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+        for (Map.Entry<? extends String, ?> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 値を保持する配列を再利用のために取得する。
+     * <p/>
+     * カラム構成が異なる場合や、構造の変更(カラムの追加、削除)が行われている場合は再利用できない。
+     *
+     * @param schema 再利用先のカラム構成
+     * @return 値を保持する配列。再利用できない場合は{@code null}
+     */
+    Object[] getReusableValues(SqlRowSchema schema) {
+        return this.schema == schema && row.isIndexed() ? row.values : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 検索結果に存在するカラム名は{@link SqlRowSchema}で変換するため、変換情報を追加しない。
+     */
+    @Override
+    protected void addKeyConversion(String key) {
+        // スーパークラスのコンストラクタから呼び出された場合は、全て検索結果のカラム名であるため変換情報は不要
+        if (schema != null && schema.indexOf(key) < 0) {
+            super.addKeyConversion(key);
+        }
+    }
+
+    @Override
+    protected String getActualDataKey(String key) {
+        final String columnName = schema.getColumnName(key);
+        return columnName == null ? super.getActualDataKey(key) : columnName;
+    }
+
+    /**
+     * 1行分のデータを保持する{@link Map}。
+     * <p/>
+     * 構造の変更(カラムの追加、削除)が行われるまでは、値を配列で保持する。
+     */
+    private static final class RowMap extends AbstractMap<String, Object> {
+
+        /** カラム構成 */
+        private final SqlRowSchema schema;
+
+        /** カラムの値 */
+        private final Object[] values;
+
+        /** 構造の変更後に値を保持する{@link Map} */
+        private Map<String, Object> changedMap;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param schema カラム構成
+         * @param values カラムの値
+         */
+        private RowMap(SqlRowSchema schema, Object[] values) {
+            this.schema = schema;
+            this.values = values;
+        }
+
+        /**
+         * 値を配列で保持しているか否か。
+         *
+         * @return 配列で保持している場合は{@code true}
+         */
+        private boolean isIndexed() {
+            return changedMap == null;
+        }
+
+        /**
+         * 値の保持を{@link HashMap}に切り替える。
+         *
+         * @return 値を保持する{@link Map}
+         */
+        private Map<String, Object> toChangeable() {
+            if (changedMap == null) {
+                changedMap = new HashMap<String, Object>(this);
+            }
+            return changedMap;
+        }
+
+        @Override
+        public Object get(Object key) {
+            if (changedMap != null) {
+                return changedMap.get(key);
+            }
+            final int index = schema.exactIndexOf(key);
+            return index < 0 ? null : values[index];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if (changedMap != null) {
+                return changedMap.containsKey(key);
+            }
+            return schema.exactIndexOf(key) >= 0;
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            if (changedMap == null) {
+                final int index = schema.exactIndexOf(key);
+                if (index >= 0) {
+                    final Object old = values[index];
+                    values[index] = value;
+                    return old;
+                }
+            }
+            return toChangeable().put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return toChangeable().remove(key);
+        }
+
+        @Override
+        public void clear() {
+            toChangeable().clear();
+        }
+
+        @Override
+        public int size() {
+            if (changedMap != null) {
+                return changedMap.size();
+            }
+            return schema.getColumnIndexes().size();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            if (changedMap != null) {
+                return changedMap.entrySet();
+            }
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    if (changedMap != null) {
+                        return changedMap.entrySet().iterator();
+                    }
+                    return new EntryIterator(schema.getColumnIndexes().entrySet().iterator());
+                }
+
+                @Override
+                public int size() {
+                    return RowMap.this.size();
+                }
+            };
+        }
+
+        /**
+         * カラムの値を要素とする{@link Iterator}。
+         * <p/>
+         * 要素の削除が行われた場合は、以降は{@link HashMap}で値を保持する。
+         * (反復は、削除前のカラム構成に従って継続する)
+         */
+        private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+            /** カラム名とカラム位置の{@link Iterator} */
+            private final Iterator<Entry<String, Integer>> columns;
+
+            /** 最後に返却した要素のカラム名(未返却または削除済みの場合は{@code null}) */
+            private String lastKey;
+
+            /**
+             * コンストラクタ。
+             *
+             * @param columns カラム名とカラム位置の{@link Iterator}
+             */
+            private EntryIterator(Iterator<Entry<String, Integer>> columns) {
+                this.columns = columns;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return columns.hasNext();
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+                lastKey = columns.next().getKey();
+                return new ColumnEntry(RowMap.this, lastKey, get(lastKey));
+            }
+
+            @Override
+            public void remove() {
+                if (lastKey == null) {
+                    throw new IllegalStateException("next must be called before remove.");
+                }
+                RowMap.this.remove(lastKey);
+                lastKey = null;
+            }
+        }
+    }
+
+    /**
+     * {@link RowMap}の要素。
+     * <p/>
+     * 値の変更は{@link RowMap}に反映する。
+     */
+    private static final class ColumnEntry extends AbstractMap.SimpleEntry<String, Object> {
+
+        /** シリアルバージョンUID */
+        private static final long serialVersionUID = 1L;
+
+        /** 値の変更を反映する{@link RowMap} */
+        private final transient RowMap row;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param row 値の変更を反映する{@link RowMap}
+         * @param key カラム名
+         * @param value カラムの値
+         */
+        private ColumnEntry(RowMap row, String key, Object value) {
+            super(key, value);
+            this.row = row;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            super.setValue(value);
+            return row.put(getKey(), value);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package nablarch.core.db.statement;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import nablarch.core.util.StringUtil;
+
+/**
+ * パラメータ名を保持するクラス。
+ * <p/>
+ * 本クラスは不変オブジェクトであるため、複数のステートメント、スレッド間で共有できる。
+ *
+ * @author Hisaaki Sioiri
+ */
+final class NamedParameterHolder {
+
+    /** 配列パターン */
+    private static final Pattern array_pattern = Pattern.compile("^(.+)\\[([0-9]*|\\*)\\]$");
+
+    /** 配列全体を示す添字 */
+    private static final String WHOLE_ARRAY = "*";
+
+    /** パラメータ名 */
+    private final String parameterName;
+
+    /** 前方一致か否か */
+    private final boolean forwardMatch;
+
+    /** 後方一致か否か */
+    private final boolean backWardMatch;
+
+    /** 配列要素か否か */
+    private final boolean array;
+
+    /** 配列ポジション */
+    private final Integer arrayPosition;
+
+    /** 配列全体を1つのバインド変数に設定するか否か */
+    private final boolean wholeArray;
+
+    /**
+     * パラメータ名をもとに構築する。
+     *
+     * @param parameterName パラメータ名
+     */
+    public NamedParameterHolder(final String parameterName) {
+        forwardMatch = isForwardMatchCondition(parameterName);
+        backWardMatch = isBackWardMatchCondition(parameterName);
+
+        // like検索の処理
+        String tmpParameterName = parameterName;
+        if (backWardMatch) {
+            tmpParameterName = tmpParameterName.substring(1);
+        }
+        if (forwardMatch) {
+            tmpParameterName = tmpParameterName.substring(0, tmpParameterName.length() - 1);
+        }
+
+        // 配列パラメータの処理
+        final Matcher matcher = array_pattern.matcher(tmpParameterName);
+        if (matcher.matches() && WHOLE_ARRAY.equals(matcher.group(2))) {
+            // 配列全体を表すパラメータの場合
+            array = false;
+            arrayPosition = null;
+            wholeArray = true;
+            tmpParameterName = matcher.group(1);
+        } else if (matcher.matches()) {
+            // 配列を表すパラメータの場合
+            array = true;
+            tmpParameterName = matcher.group(1);
+            arrayPosition = toIntPosition(tmpParameterName, matcher.group(2));
+            wholeArray = false;
+        } else {
+            array = false;
+            arrayPosition = null;
+            wholeArray = false;
+        }
+        this.parameterName = tmpParameterName;
+    }
+
+    /**
+     * パラメータ名の添字を数値に変換する。
+     * <p>
+     * 数値に変換できない場合は、 {@link IllegalArgumentException}。ただし、添字が空文字列の場合はnullをかえす。
+     *
+     * @param parameterName プロパティ名
+     * @param positionString 添字文字列
+     * @return 数値に変換した添字(添字文字列が空文字列の場合はnull)
+     */
+    private static Integer toIntPosition(final String parameterName, final String positionString) {
+        if (StringUtil.isNullOrEmpty(positionString)) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(positionString);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    String.format("additional character of Array parameter is not numeric. parameter = [%s]",
+                            parameterName), e);
+        }
+    }
+
+    /**
+     * 後方一致の条件か否か。
+     *
+     * @param parameterName 条件のプロパティ名
+     * @return 後方一致の場合{@code true}
+     */
+    private static boolean isBackWardMatchCondition(final String parameterName) {
+        return parameterName.startsWith("%");
+    }
+
+    /**
+     * 前方一致の条件か否か。
+     *
+     * @param parameterName 条件のプロパティ名
+     * @return 前方一致の場合{@code true}
+     */
+    private static boolean isForwardMatchCondition(final String parameterName) {
+        return parameterName.endsWith("%");
+    }
+
+    /**
+     * like検索か否か
+     *
+     * @return like検索の場合{@code true}
+     */
+    public boolean isLikeParameter() {
+        return forwardMatch || backWardMatch;
+    }
+
+    /**
+     * 前方一致か否か
+     *
+     * @return 前方一致の場合{@code true}
+     */
+    public boolean isForwardMatch() {
+        return forwardMatch;
+    }
+
+    /**
+     * 後方一致か否か
+     *
+     * @return 後方一致の場合{@code true}
+     */
+    public boolean isBackWardMatch() {
+        return backWardMatch;
+    }
+
+    /**
+     * パラメータ名を取得する。
+     *
+     * @return パラメータ名
+     */
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    /**
+     * 配列を示すパラメータか否か
+     *
+     * @return 配列パラメータの場合{@code true}
+     */
+    public boolean isArray() {
+        return array;
+    }
+
+    /**
+     * 配列全体を1つのバインド変数({@link java.sql.Array})に設定するパラメータか否か
+     *
+     * @return 配列全体を示すパラメータ(:ids[*])の場合{@code true}
+     */
+    public boolean isWholeArray() {
+        return wholeArray;
+    }
+
+    /**
+     * 配列要素の添字を取得する。
+     *
+     * @return 配列要素の添字
+     */
+    public Integer getArrayPosition() {
+        return arrayPosition;
+    }
+}
@@ -0,0 +1,23 @@
+package nablarch.core.db.statement;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 全ての値を{@link PreparedStatement#setObject(int, Object)}で設定する{@link ParameterBinder}実装クラス。
+ * <p/>
+ * 値の型の判定はJDBCドライバに委譲する。
+ * {@link BasicStatementFactory}に{@link ParameterBinder}を設定しない場合は、本クラスが使用される。
+ *
+ * @author Hisaaki Sioiri
+ */
+@Published(tag = "architect")
+public class ObjectParameterBinder implements ParameterBinder {
+
+    @Override
+    public void bind(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+        statement.setObject(parameterIndex, value);
+    }
+}
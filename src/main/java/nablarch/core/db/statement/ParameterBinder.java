@@ -0,0 +1,30 @@
+package nablarch.core.db.statement;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 名前付きバインド変数の値を{@link PreparedStatement}に設定するインタフェース。
+ * <p/>
+ * {@link BasicSqlPStatement}は、{@link java.util.Map}やオブジェクトから取得した値
+ * (like条件のエスケープや配列要素の取り出しを行った後の値)を、本インタフェースを使用して設定する。
+ *
+ * @author Hisaaki Sioiri
+ * @see ObjectParameterBinder
+ * @see TypedParameterBinder
+ */
+@Published(tag = "architect")
+public interface ParameterBinder {
+
+    /**
+     * バインド変数に値を設定する。
+     *
+     * @param statement ステートメント
+     * @param parameterIndex バインド変数の位置(1始まり)
+     * @param value 設定する値(nullの場合もある)
+     * @throws SQLException データベースアクセス例外が発生した場合
+     */
+    void bind(PreparedStatement statement, int parameterIndex, Object value) throws SQLException;
+}
@@ -0,0 +1,139 @@
+package nablarch.core.db.statement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 名前付きバインド変数を持つSQL文の解析結果を保持するクラス。
+ * <p/>
+ * 解析結果として、JDBC標準のSQL文(バインド変数を「?」に置き換えたSQL)と、
+ * 「?」の位置順に並んだ名前付きバインド変数の情報を保持する。
+ * <p/>
+ * 本クラスは不変オブジェクトであるため、解析結果をキャッシュし、
+ * 複数のステートメント、スレッド間で共有できる。
+ *
+ * @author Hisaaki Sioiri
+ * @see BasicStatementFactory#parseSql(String)
+ */
+public final class ParsedSql {
+
+    /** 名前付きバインド変数を「?」に置き換えたSQL */
+    private final String sql;
+
+    /** 名前付きバインド変数のリスト */
+    private final List<String> nameList;
+
+    /** 名前付きバインド変数の情報 */
+    private final List<NamedParameterHolder> namedParameterHolderList;
+
+    /** オブジェクトのクラスごとのバインド変数設定の実行計画 */
+    private final ConcurrentMap<Class<?>, BeanBindingPlan> beanBindingPlans =
+            new ConcurrentHashMap<Class<?>, BeanBindingPlan>();
+
+    /** オブジェクトのクラスごとの検索結果の変換の実行計画 */
+    private final ConcurrentMap<Class<?>, BeanMappingPlan<?>> beanMappingPlans =
+            new ConcurrentHashMap<Class<?>, BeanMappingPlan<?>>();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param sql 名前付きバインド変数を「?」に置き換えたSQL
+     * @param nameList 名前付きバインド変数のリスト(「?」の位置順、名前付きバインド変数を持たない場合はnull)
+     */
+    public ParsedSql(String sql, List<String> nameList) {
+        this.sql = sql;
+        this.nameList = nameList == null
+                ? Collections.<String>emptyList()
+                : Collections.unmodifiableList(new ArrayList<String>(nameList));
+        this.namedParameterHolderList = toNamedParameterHolderList(this.nameList);
+    }
+
+    /**
+     * 名前付きバインド変数のリストから、名前付きバインド変数の情報のリストを構築する。
+     *
+     * @param nameList 名前付きバインド変数のリスト
+     * @return 名前付きバインド変数の情報のリスト(変更不可)
+     */
+    private static List<NamedParameterHolder> toNamedParameterHolderList(List<String> nameList) {
+        if (nameList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<NamedParameterHolder> result = new ArrayList<NamedParameterHolder>(nameList.size());
+        for (String name : nameList) {
+            result.add(new NamedParameterHolder(name));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * SQL文を取得する。
+     *
+     * @return SQL文(名前付きバインド変数を「?」に置き換えたSQL文)
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * 名前付きバインド変数のリストを取得する。
+     *
+     * @return 名前付きバインド変数のリスト(変更不可)
+     */
+    public List<String> getNameList() {
+        return nameList;
+    }
+
+    /**
+     * 名前付きバインド変数の情報を取得する。
+     *
+     * @return 名前付きバインド変数の情報(変更不可)
+     */
+    List<NamedParameterHolder> getNamedParameterHolderList() {
+        return namedParameterHolderList;
+    }
+
+    /**
+     * オブジェクトのプロパティ値をバインド変数に設定するための実行計画を取得する。
+     * <p/>
+     * 実行計画はオブジェクトのクラスごとに一度だけ生成し、以降は生成済みのものを返す。
+     *
+     * @param beanClass オブジェクトのクラス
+     * @return 実行計画
+     */
+    BeanBindingPlan getBeanBindingPlan(Class<?> beanClass) {
+        BeanBindingPlan plan = beanBindingPlans.get(beanClass);
+        if (plan == null) {
+            plan = BeanBindingPlan.create(beanClass, namedParameterHolderList);
+            final BeanBindingPlan current = beanBindingPlans.putIfAbsent(beanClass, plan);
+            if (current != null) {
+                plan = current;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * 検索結果の1行をオブジェクトに変換するための実行計画を取得する。
+     * <p/>
+     * 実行計画はオブジェクトのクラスごとに保持し、検索結果のカラム構成が保持している実行計画と異なる場合
+     * (テーブル定義の変更により「*」で取得するカラムが変わった場合など)のみ再生成する。
+     *
+     * @param beanClass オブジェクトのクラス
+     * @param columnNames 検索結果のカラム名(大文字に変換したもの)のリスト
+     * @param <T> オブジェクトの型
+     * @return 実行計画
+     */
+    @SuppressWarnings("unchecked")
+    <T> BeanMappingPlan<T> getBeanMappingPlan(Class<T> beanClass, String[] columnNames) {
+        final BeanMappingPlan<T> plan = (BeanMappingPlan<T>) beanMappingPlans.get(beanClass);
+        if (plan != null && plan.isApplicable(columnNames)) {
+            return plan;
+        }
+        final BeanMappingPlan<T> created = BeanMappingPlan.create(beanClass, columnNames);
+        beanMappingPlans.put(beanClass, created);
+        return created;
+    }
+}
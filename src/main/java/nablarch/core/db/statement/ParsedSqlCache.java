@@ -0,0 +1,124 @@
+package nablarch.core.db.statement;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 名前付きバインド変数を持つSQL文の解析結果({@link ParsedSql})をキャッシュするクラス。
+ * <p/>
+ * キャッシュのキーは、解析前のSQL文とlike条件のエスケープ文字の組み合わせとする。
+ * <p/>
+ * キャッシュの件数は上限値で制限される。上限値に達した状態で新たなエントリを追加する場合、
+ * 任意のエントリを1件削除してから追加する。
+ * (参照頻度を考慮した厳密な削除は行わない。ロックを取得せずに参照できることを優先するため。)
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ *
+ * @author Hisaaki Sioiri
+ */
+class ParsedSqlCache {
+
+    /** キャッシュの実体 */
+    private final ConcurrentMap<Key, ParsedSql> cache = new ConcurrentHashMap<Key, ParsedSql>();
+
+    /** キャッシュ件数の上限値 */
+    private final int maxSize;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param maxSize キャッシュ件数の上限値(1以上)
+     */
+    ParsedSqlCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0. maxSize = [" + maxSize + ']');
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 解析結果を取得する。
+     *
+     * @param sql 解析前のSQL文
+     * @param likeEscapeChar like条件のエスケープ文字
+     * @return 解析結果(キャッシュに存在しない場合はnull)
+     */
+    ParsedSql get(String sql, char likeEscapeChar) {
+        return cache.get(new Key(sql, likeEscapeChar));
+    }
+
+    /**
+     * 解析結果をキャッシュに追加する。
+     *
+     * @param sql 解析前のSQL文
+     * @param likeEscapeChar like条件のエスケープ文字
+     * @param parsedSql 解析結果
+     */
+    void put(String sql, char likeEscapeChar, ParsedSql parsedSql) {
+        if (cache.size() >= maxSize) {
+            final Iterator<Key> iterator = cache.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        cache.put(new Key(sql, likeEscapeChar), parsedSql);
+    }
+
+    /**
+     * キャッシュをクリアする。
+     */
+    void clear() {
+        cache.clear();
+    }
+
+    /**
+     * キャッシュされている件数を取得する。
+     *
+     * @return キャッシュされている件数
+     */
+    int size() {
+        return cache.size();
+    }
+
+    /**
+     * キャッシュのキー。
+     */
+    private static final class Key {
+
+        /** 解析前のSQL文 */
+        private final String sql;
+
+        /** like条件のエスケープ文字 */
+        private final char likeEscapeChar;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param sql 解析前のSQL文
+         * @param likeEscapeChar like条件のエスケープ文字
+         */
+        Key(String sql, char likeEscapeChar) {
+            this.sql = sql;
+            this.likeEscapeChar = likeEscapeChar;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return likeEscapeChar == other.likeEscapeChar && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + likeEscapeChar;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package nablarch.core.db.statement;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 検索結果ごとに値の取得方法(変換計画)を決定できる{@link ResultSetConvertor}。
+ * <p/>
+ * {@link ResultSetConvertor#convert(java.sql.ResultSet, ResultSetMetaData, int)}は値ごとに呼び出されるため、
+ * {@link ResultSetMetaData}からデータタイプや桁数を取得する処理が行数分繰り返される。
+ * 本インタフェースを実装した場合、{@link ResultSetIterator}は検索結果ごとに一度だけ
+ * {@link #createPlan(ResultSetMetaData)}を呼び出し、返却された{@link ColumnExtractor}で全ての行の値を取得する。
+ * <p/>
+ * 本インタフェースを実装するクラスは、{@link #createPlan(ResultSetMetaData)}で返却する{@link ColumnExtractor}と、
+ * {@link ResultSetConvertor#convert(java.sql.ResultSet, ResultSetMetaData, int)}とで同じ値を取得すること。
+ *
+ * @author Hisaaki Sioiri
+ */
+@Published(tag = "architect")
+public interface PlannableResultSetConvertor extends ResultSetConvertor {
+
+    /**
+     * 検索結果のカラムごとの値の取得方法を生成する。
+     *
+     * @param rsmd ResultSetMetaData
+     * @return カラムごとの{@link ColumnExtractor}(要素0がカラムインデックス1に対応する)
+     * @throws SQLException SQL例外発生時
+     */
+    ColumnExtractor[] createPlan(ResultSetMetaData rsmd) throws SQLException;
+}
@@ -6,11 +6,8 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 
 import nablarch.core.db.DbAccessException;
 import nablarch.core.util.annotation.Published;
@@ -46,14 +43,14 @@ public class ResultSetIterator implements Iterable<SqlRow> {
     private String[] colNames;
 
     /**
-     * カラム名とデータタイプとのMap
+     * カラム構成(全ての行で共有する)
      */
-    private Map<String, Integer> colTypeMap;
+    private SqlRowSchema schema;
 
     /**
-     * ResultSetConvertorで変換するカラムか否か
+     * カラムごとの値の取得方法
      */
-    private boolean[] convertCols;
+    private ColumnExtractor[] extractors;
 
     /**
      * ResultSetMetaData
@@ -61,9 +58,9 @@ public class ResultSetIterator implements Iterable<SqlRow> {
     private ResultSetMetaData metaData;
 
     /**
-     * ResultSetConvertor
+     * 直近に使用したオブジェクトへの変換の実行計画
      */
-    private ResultSetConvertor convertor;
+    private BeanMappingPlan<?> beanMappingPlan;
 
     /**
      * Iteratorの生成フラグ。<br>
@@ -98,33 +95,64 @@ public class ResultSetIterator implements Iterable<SqlRow> {
      */
     public ResultSetIterator(ResultSet rs, ResultSetConvertor convertor) {
         this.rs = rs;
-        this.convertor = convertor;
 
-        Map<String, Integer> tmpColTypeMap = new HashMap<String, Integer>();
         try {
             metaData = rs.getMetaData();
             int columnCount = metaData.getColumnCount();
             colNames = new String[columnCount];
-            convertCols = new boolean[columnCount];
+            int[] colTypes = new int[columnCount];
 
             for (int i = 1; i <= columnCount; i++) {
                 String colName = metaData.getColumnLabel(i)
                         .toUpperCase();
 
                 colNames[i - 1] = colName;
-                tmpColTypeMap.put(colName, metaData.getColumnType(i));
-
-                // ResultSetConvertorでの変換対象かを判定する。
-                if (convertor != null) {
-                    convertCols[i - 1] = convertor.isConvertible(metaData, i);
-                }
+                colTypes[i - 1] = metaData.getColumnType(i);
             }
-            colTypeMap = Collections.unmodifiableMap(tmpColTypeMap);
+            schema = new SqlRowSchema(colNames, colTypes);
+            extractors = createExtractors(convertor, metaData, columnCount);
         } catch (SQLException e) {
             throw new DbAccessException("failed to initialization.", e);
         }
     }
 
+    /**
+     * カラムごとの値の取得方法を生成する。
+     * <p/>
+     * {@link PlannableResultSetConvertor}の場合は、{@link PlannableResultSetConvertor#createPlan(ResultSetMetaData)}の結果を使用する。
+     * それ以外の場合は、{@link ResultSetConvertor#isConvertible(ResultSetMetaData, int)}が{@code true}のカラムは
+     * {@link ResultSetConvertor#convert(ResultSet, ResultSetMetaData, int)}で、それ以外のカラムは
+     * {@link ResultSet#getObject(int)}で値を取得する。
+     *
+     * @param convertor ResultSetConvertor
+     * @param metaData ResultSetMetaData
+     * @param columnCount カラム数
+     * @return カラムごとの値の取得方法
+     * @throws SQLException SQL例外発生時
+     */
+    private static ColumnExtractor[] createExtractors(
+            ResultSetConvertor convertor, ResultSetMetaData metaData, int columnCount) throws SQLException {
+        if (convertor instanceof PlannableResultSetConvertor) {
+            final ColumnExtractor[] plan = ((PlannableResultSetConvertor) convertor).createPlan(metaData);
+            if (plan.length != columnCount) {
+                throw new IllegalStateException("column extractor count does not match column count."
+                        + " extractor count = [" + plan.length + "], column count = [" + columnCount + ']');
+            }
+            return plan;
+        }
+        final ColumnExtractor[] result = new ColumnExtractor[columnCount];
+        final ColumnExtractor convertorExtractor =
+                convertor == null ? null : new ConvertorColumnExtractor(convertor, metaData);
+        for (int i = 1; i <= columnCount; i++) {
+            if (convertor != null && convertor.isConvertible(metaData, i)) {
+                result[i - 1] = convertorExtractor;
+            } else {
+                result[i - 1] = StandardColumnExtractor.OBJECT;
+            }
+        }
+        return result;
+    }
+
     /**
      * {@link ResultSet#next()} を行う。
      *
@@ -342,26 +370,137 @@ public class ResultSetIterator implements Iterable<SqlRow> {
      * 現在レコードのデータを取得する。
      * <p/>
      * 本メソッドでは、呼び出されるたびに{@link SqlRow}を生成する。
+     * 生成した{@link SqlRow}はカラムの値を配列で保持し、カラム名の情報は全ての行で共有する。
      *
      * @return 現在レコードを保持したSqlRow
      * @throws DbAccessException {@link SQLException}が発生した場合
      */
     @Published
     public SqlRow getRow() {
-        Map<String, Object> tmpRow;
-        tmpRow = new HashMap<String, Object>((colNames.length * 3) / 2 + 1);
+        Object[] values = new Object[colNames.length];
+        readValues(values);
+        return new IndexedSqlRow(schema, values);
+    }
+
+    /**
+     * 現在レコードのデータを、指定された{@link SqlRow}に読み込む。
+     * <p/>
+     * 指定された{@link SqlRow}が本オブジェクトの{@link #getRow()}で生成したもので、
+     * 構造の変更(カラムの追加、削除)が行われていない場合は、その{@link SqlRow}の値を置き換えて返す。
+     * それ以外の場合は、新たに{@link SqlRow}を生成する。
+     *
+     * @param reuse 再利用する{@link SqlRow}({@code null}の場合は新たに生成する)
+     * @return 現在レコードを保持したSqlRow
+     * @throws DbAccessException {@link SQLException}が発生した場合
+     */
+    SqlRow getRow(SqlRow reuse) {
+        final Object[] values = reuse instanceof IndexedSqlRow
+                ? ((IndexedSqlRow) reuse).getReusableValues(schema) : null;
+        if (values == null) {
+            return getRow();
+        }
+        readValues(values);
+        return reuse;
+    }
+
+    /**
+     * 現在レコードのデータを配列に読み込む。
+     *
+     * @param values 値を読み込む配列
+     * @throws DbAccessException {@link SQLException}が発生した場合
+     */
+    private void readValues(Object[] values) {
         try {
             for (int i = 0; i < colNames.length; i++) {
-                if (convertCols[i]) {
-                    tmpRow.put(colNames[i], convertor.convert(rs, metaData, i + 1));
-                } else {
-                    tmpRow.put(colNames[i], rs.getObject(i + 1));
-                }
+                values[i] = extractors[i].extract(rs, i + 1);
             }
         } catch (SQLException e) {
             throw new DbAccessException("failed to getRow.", e);
         }
-        return new SqlRow(tmpRow, colTypeMap);
+    }
+
+    /**
+     * 現在レコードのデータを、指定されたクラスのオブジェクトで取得する。
+     * <p/>
+     * {@link SqlRow}を生成せずに、カラムの値をオブジェクトのプロパティに直接設定する。
+     * カラムとプロパティは、名前の大文字/小文字の違い、アンダースコアの有無を区別せずに対応付ける。
+     * (例えば、カラム「USER_NAME」の値はプロパティ「userName」に設定する。)
+     * 対応するプロパティが存在しないカラムは無視する。
+     * <p/>
+     * カラムとプロパティの対応付けは、クラスごとに一度だけ行う。
+     *
+     * @param beanClass オブジェクトのクラス(デフォルトコンストラクタを持つこと)
+     * @param <T> オブジェクトの型
+     * @return 現在レコードの値を設定したオブジェクト
+     * @throws DbAccessException {@link SQLException}が発生した場合
+     * @throws nablarch.core.beans.BeansException オブジェクトの生成、プロパティへの値の設定に失敗した場合
+     */
+    @Published
+    @SuppressWarnings("unchecked")
+    public <T> T getBean(Class<T> beanClass) {
+        BeanMappingPlan<T> plan = (BeanMappingPlan<T>) beanMappingPlan;
+        if (plan == null || plan.getBeanClass() != beanClass) {
+            plan = BeanMappingPlan.create(beanClass, colNames);
+            beanMappingPlan = plan;
+        }
+        return getBean(plan);
+    }
+
+    /**
+     * 現在レコードのデータを、実行計画に従いオブジェクトに変換する。
+     *
+     * @param plan 本オブジェクトのカラム構成に対する実行計画
+     * @param <T> オブジェクトの型
+     * @return 現在レコードの値を設定したオブジェクト
+     * @throws DbAccessException {@link SQLException}が発生した場合
+     */
+    <T> T getBean(BeanMappingPlan<T> plan) {
+        try {
+            return plan.map(rs, extractors);
+        } catch (SQLException e) {
+            throw new DbAccessException("failed to getBean.", e);
+        }
+    }
+
+    /**
+     * 本オブジェクトのカラム構成で、行を保持していない{@link ColumnarResultSet}を生成する。
+     *
+     * @return 生成した{@link ColumnarResultSet}
+     * @throws DbAccessException {@link SQLException}が発生した場合
+     */
+    ColumnarResultSet createColumnarResultSet() {
+        final ColumnVector[] columns = new ColumnVector[colNames.length];
+        try {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = ColumnVector.create(metaData, i + 1);
+            }
+        } catch (SQLException e) {
+            throw new DbAccessException("failed to create columnar result set.", e);
+        }
+        return new ColumnarResultSet(schema, columns);
+    }
+
+    /**
+     * 現在レコードのデータを、{@link ColumnarResultSet}の末尾に追加する。
+     *
+     * @param columnarResultSet {@link #createColumnarResultSet()}で生成した{@link ColumnarResultSet}
+     * @throws DbAccessException {@link SQLException}が発生した場合
+     */
+    void readColumnar(ColumnarResultSet columnarResultSet) {
+        try {
+            columnarResultSet.addRow(rs, extractors);
+        } catch (SQLException e) {
+            throw new DbAccessException("failed to readColumnar.", e);
+        }
+    }
+
+    /**
+     * カラム名のリストを取得する。
+     *
+     * @return カラム名(大文字に変換したもの)のリスト
+     */
+    String[] getColumnNames() {
+        return colNames;
     }
 
     /**
@@ -403,6 +542,34 @@ public class ResultSetIterator implements Iterable<SqlRow> {
         return new InnerIterator();
     }
 
+    /**
+     * {@link ResultSetConvertor#convert(ResultSet, ResultSetMetaData, int)}で値を取得する{@link ColumnExtractor}。
+     */
+    private static final class ConvertorColumnExtractor implements ColumnExtractor {
+
+        /** ResultSetConvertor */
+        private final ResultSetConvertor convertor;
+
+        /** ResultSetMetaData */
+        private final ResultSetMetaData metaData;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param convertor ResultSetConvertor
+         * @param metaData ResultSetMetaData
+         */
+        private ConvertorColumnExtractor(ResultSetConvertor convertor, ResultSetMetaData metaData) {
+            this.convertor = convertor;
+            this.metaData = metaData;
+        }
+
+        @Override
+        public Object extract(ResultSet rs, int columnIndex) throws SQLException {
+            return convertor.convert(rs, metaData, columnIndex);
+        }
+    }
+
     /**
      * Iterator実装。
      */
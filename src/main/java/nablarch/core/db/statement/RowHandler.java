@@ -0,0 +1,25 @@
+package nablarch.core.db.statement;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 検索結果を1行ずつ処理するインタフェース。
+ * <p/>
+ * {@link BasicSqlPStatement#retrieve(RowHandler)}などで使用する。
+ * 検索結果を{@link SqlResultSet}に保持せずに処理するため、大量データを一定のメモリ使用量で処理できる。
+ * <p/>
+ * {@link #handle(SqlRow)}に渡される{@link SqlRow}は、次の行の処理で再利用される。
+ * 処理後も値を保持する必要がある場合は、値をコピーすること。
+ *
+ * @author Hisaaki Sioiri
+ */
+@Published
+public interface RowHandler {
+
+    /**
+     * 1行分のデータを処理する。
+     *
+     * @param row 1行分のデータ(本メソッドの呼び出し中のみ有効)
+     */
+    void handle(SqlRow row);
+}
@@ -1,15 +1,26 @@
 package nablarch.core.db.statement;
 
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
 import nablarch.core.util.annotation.Published;
 
 /**
  * 検索処理のオプションを保持するクラス。
+ * <p/>
+ * 取得範囲は、取得開始レコード番号と取得レコード数で指定する方法と、
+ * 前ページの最終行のソートキーの値と取得レコード数で指定する方法(キーセットページング)がある。
+ * キーセットページングでは、前ページまでのレコードを読み飛ばさずに、ソートキーの値を条件として次のページを検索するため、
+ * 後ろのページであっても最初のページと同じコストで検索できる。
  *
  * @author Hisaaki Sioiri
  */
 @Published(tag = "architect")
 public class SelectOption {
 
+    /** ソートキーのカラム名として許容するパターン */
+    private static final Pattern KEY_COLUMN_PATTERN = Pattern.compile("[\\w$#.\"]+");
+
     /** 検索処理の取得開始レコード番号(0から開始) */
     private final int offset;
 
@@ -19,6 +30,12 @@ public class SelectOption {
     /** 検索処理の取得開始レコード番号(1から開始) */
     private final int startPosition;
 
+    /** キーセットページングのソートキーのカラム名(キーセットページングでない場合はnull) */
+    private final String[] keyColumns;
+
+    /** 前ページの最終行のソートキーの値(最初のページの場合、キーセットページングでない場合はnull) */
+    private final Object[] lastKeyValues;
+
     /**
      * 検索オプションを生成する。
      *
@@ -29,6 +46,45 @@ public class SelectOption {
         this.offset = startPosition - 1;
         this.limit = limit;
         this.startPosition = startPosition;
+        this.keyColumns = null;
+        this.lastKeyValues = null;
+    }
+
+    /**
+     * キーセットページング用の検索オプションを生成する。
+     * <p/>
+     * 検索結果はソートキーの昇順に並び、前ページの最終行のソートキーの値より後ろのレコードを、
+     * 指定されたレコード数まで取得する。
+     * ソートキーは、検索結果の行を一意に特定できるカラムの組み合わせとし、値に{@code null}を含まないこと。
+     * ソート順はソートキーで決まるため、検索するSQL文にはORDER BY句を含めないこと。
+     * <p/>
+     * ソートキーのカラム名はそのままSQL文に埋め込まれるため、外部から入力された値を使用しないこと。
+     *
+     * @param keyColumns ソートキーのカラム名(検索結果のカラム名をソート順に並べたもの)
+     * @param lastKeyValues 前ページの最終行のソートキーの値(最初のページの場合は{@code null})
+     * @param limit 取得するレコード数
+     * @throws IllegalArgumentException ソートキーのカラム名が指定されていない場合、カラム名として不正な文字を含む場合、
+     *                                  ソートキーの値の数がカラム名の数と一致しない場合
+     */
+    public SelectOption(String[] keyColumns, Object[] lastKeyValues, int limit) {
+        if (keyColumns == null || keyColumns.length == 0) {
+            throw new IllegalArgumentException("keyColumns must not be empty.");
+        }
+        for (String keyColumn : keyColumns) {
+            if (keyColumn == null || !KEY_COLUMN_PATTERN.matcher(keyColumn).matches()) {
+                throw new IllegalArgumentException("invalid key column. key column = [" + keyColumn + ']');
+            }
+        }
+        if (lastKeyValues != null && lastKeyValues.length != keyColumns.length) {
+            throw new IllegalArgumentException("lastKeyValues size must be equal to keyColumns size."
+                    + " keyColumns = " + Arrays.toString(keyColumns)
+                    + ", lastKeyValues = " + Arrays.toString(lastKeyValues));
+        }
+        this.offset = 0;
+        this.limit = limit;
+        this.startPosition = 1;
+        this.keyColumns = keyColumns.clone();
+        this.lastKeyValues = lastKeyValues == null ? null : lastKeyValues.clone();
     }
 
     /**
@@ -58,10 +114,42 @@ public class SelectOption {
         return startPosition;
     }
 
+    /**
+     * キーセットページングか否か。
+     *
+     * @return キーセットページングの場合は{@code true}
+     */
+    public boolean isKeyset() {
+        return keyColumns != null;
+    }
+
+    /**
+     * キーセットページングのソートキーのカラム名を返す。
+     *
+     * @return ソートキーのカラム名(キーセットページングでない場合は{@code null})
+     */
+    public String[] getKeyColumns() {
+        return keyColumns == null ? null : keyColumns.clone();
+    }
+
+    /**
+     * 前ページの最終行のソートキーの値を返す。
+     *
+     * @return ソートキーの値(最初のページの場合、キーセットページングでない場合は{@code null})
+     */
+    public Object[] getLastKeyValues() {
+        return lastKeyValues == null ? null : lastKeyValues.clone();
+    }
+
     @Override
     public String toString() {
-        return new StringBuilder(getClass().getName())
-                      .append(":{offset=").append(offset)
-                      .append(", limit=").append(limit).append("}").toString();
+        final StringBuilder sb = new StringBuilder(getClass().getName())
+                .append(":{offset=").append(offset)
+                .append(", limit=").append(limit);
+        if (isKeyset()) {
+            sb.append(", keyColumns=").append(Arrays.toString(keyColumns))
+              .append(", lastKeyValues=").append(Arrays.toString(lastKeyValues));
+        }
+        return sb.append('}').toString();
     }
 }
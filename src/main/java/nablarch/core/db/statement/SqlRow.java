@@ -115,10 +115,26 @@ public class SqlRow extends MultipleKeyCaseMap<Object> {
      * @param orig コピー元となるインスタンス
      */
     protected SqlRow(SqlRow orig) {
-        super(orig);
+        super(toCopySource(orig));
         this.colType = copyValueOf(orig.colType);
     }
 
+    /**
+     * コピー元となる{@link MultipleKeyCaseMap}を取得する。
+     * <p/>
+     * {@link IndexedSqlRow}はカラム名の変換情報を保持しないため、
+     * 1行分のデータから変換情報を構築した{@link MultipleKeyCaseMap}をコピー元とする。
+     *
+     * @param orig コピー元となるインスタンス
+     * @return コピー元となる{@link MultipleKeyCaseMap}
+     */
+    private static MultipleKeyCaseMap<Object> toCopySource(SqlRow orig) {
+        if (orig instanceof IndexedSqlRow) {
+            return new MultipleKeyCaseMap<Object>(orig.getDelegateMap());
+        }
+        return orig;
+    }
+
     /**
      * 指定されたカラムの情報を文字列で取得する。
      * @param colName カラム名
@@ -0,0 +1,156 @@
+package nablarch.core.db.statement;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import nablarch.core.util.StringUtil;
+
+/**
+ * 検索結果のカラム構成を保持するクラス。
+ * <p/>
+ * 1つの検索結果に含まれる全ての行({@link IndexedSqlRow})で共有し、
+ * カラム名からカラムの位置への変換を行う。
+ * カラム名の大文字/小文字の違い、アンダースコアの有無を区別しない変換は本クラスで一度だけ行い、
+ * 変換結果を全ての行で再利用する。
+ * <p/>
+ * 同一名のカラムが複数存在する場合は、後ろのカラムが有効となる。
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ *
+ * @author Hisaaki Sioiri
+ */
+final class SqlRowSchema {
+
+    /** 変換結果を保持するカラム名の上限数 */
+    private static final int MAX_RESOLVED_KEY_COUNT = 256;
+
+    /** カラム名(大文字に変換したもの)のリスト */
+    private final String[] columnNames;
+
+    /** 有効なカラム名とカラム位置(0始まり)とのMap */
+    private final Map<String, Integer> columnIndexes;
+
+    /** カラム名とデータタイプとのMap */
+    private final Map<String, Integer> colTypeMap;
+
+    /** 小文字に変換しアンダースコアを取り除いたカラム名とカラム位置とのMap */
+    private final Map<String, Integer> normalizedIndexes;
+
+    /** 指定されたカラム名とカラム位置とのMap(変換結果のキャッシュ) */
+    private final ConcurrentMap<String, Integer> resolvedIndexes;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param columnNames カラム名(大文字に変換したもの)のリスト
+     * @param colTypes カラムのデータタイプのリスト
+     */
+    SqlRowSchema(String[] columnNames, int[] colTypes) {
+        this.columnNames = columnNames.clone();
+
+        final Map<String, Integer> indexes = new LinkedHashMap<String, Integer>();
+        final Map<String, Integer> types = new HashMap<String, Integer>();
+        final Map<String, Integer> normalized = new HashMap<String, Integer>();
+        for (int i = 0; i < columnNames.length; i++) {
+            // 同一名のカラムは後ろのカラムを有効とするため、順序を保ったまま置き換える。
+            indexes.remove(columnNames[i]);
+            indexes.put(columnNames[i], i);
+            types.put(columnNames[i], colTypes[i]);
+            normalized.put(StringUtil.lowerAndTrimUnderScore(columnNames[i]), i);
+        }
+        columnIndexes = Collections.unmodifiableMap(indexes);
+        colTypeMap = Collections.unmodifiableMap(types);
+        normalizedIndexes = normalized;
+
+        resolvedIndexes = new ConcurrentHashMap<String, Integer>(normalized);
+        resolvedIndexes.putAll(indexes);
+    }
+
+    /**
+     * 指定されたカラム名のカラム位置を取得する。
+     * <p/>
+     * カラム名の大文字/小文字の違い、アンダースコアの有無は区別しない。
+     *
+     * @param key カラム名
+     * @return カラム位置(0始まり)。カラムが存在しない場合は-1
+     */
+    int indexOf(String key) {
+        Integer index = resolvedIndexes.get(key);
+        if (index == null) {
+            index = normalizedIndexes.get(StringUtil.lowerAndTrimUnderScore(key));
+            if (index == null) {
+                return -1;
+            }
+            if (resolvedIndexes.size() < MAX_RESOLVED_KEY_COUNT) {
+                resolvedIndexes.putIfAbsent(key, index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 指定されたカラム名に対応するカラム名(大文字に変換したもの)を取得する。
+     *
+     * @param key カラム名
+     * @return カラム名。カラムが存在しない場合は{@code null}
+     */
+    String getColumnName(String key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : columnNames[index];
+    }
+
+    /**
+     * 指定されたカラム名(大文字に変換したもの)のカラム位置を取得する。
+     * <p/>
+     * カラム名の変換は行わない。
+     *
+     * @param columnName カラム名
+     * @return カラム位置(0始まり)。カラムが存在しない場合は-1
+     */
+    int exactIndexOf(Object columnName) {
+        final Integer index = columnIndexes.get(columnName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * カラム名のリストを取得する。
+     *
+     * @return カラム名(大文字に変換したもの)のリスト(同一名のカラムも含む、変更不可)
+     */
+    List<String> getColumnNames() {
+        return Collections.unmodifiableList(Arrays.asList(columnNames));
+    }
+
+    /**
+     * カラム数を取得する。
+     *
+     * @return カラム数(同一名のカラムも含む)
+     */
+    int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     * 有効なカラム名とカラム位置とのMapを取得する。
+     *
+     * @return カラム名とカラム位置(0始まり)とのMap(カラムの順に並ぶ)
+     */
+    Map<String, Integer> getColumnIndexes() {
+        return columnIndexes;
+    }
+
+    /**
+     * カラム名とデータタイプとのMapを取得する。
+     *
+     * @return カラム名とデータタイプとのMap
+     */
+    Map<String, Integer> getColTypeMap() {
+        return colTypeMap;
+    }
+}
@@ -0,0 +1,24 @@
+package nablarch.core.db.statement;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link BasicSqlPStatement}で更新系のSQL文が実行されたことの通知を受けるインタフェース。
+ * <p/>
+ * 通知は、{@link SqlPStatement#executeUpdate()}、{@link SqlPStatement#executeBatch()}
+ * (バッチサイズによる自動実行を含む)、および結果セットを返さなかった{@link SqlPStatement#execute()}の
+ * 正常終了後に行われる。トランザクションの確定前に通知される点に注意すること。
+ *
+ * @author Hisaaki Sioiri
+ */
+@Published(tag = "architect")
+public interface SqlUpdateListener {
+
+    /**
+     * 更新系のSQL文が実行されたことを通知する。
+     *
+     * @param sqlId SQL_ID(SQL_IDを使用せずに生成されたステートメントの場合は{@code null})
+     * @param sql 実行されたSQL文
+     */
+    void onUpdated(String sqlId, String sql);
+}
@@ -0,0 +1,62 @@
+package nablarch.core.db.statement;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 標準で提供する{@link ColumnExtractor}。
+ * <p/>
+ * プリミティブ型で取得するものは、データベースの値が{@code null}の場合に{@code null}を返す。
+ *
+ * @author Hisaaki Sioiri
+ */
+@Published(tag = "architect")
+public enum StandardColumnExtractor implements ColumnExtractor {
+
+    /** {@link ResultSet#getObject(int)}で取得する。 */
+    OBJECT {
+        @Override
+        public Object extract(ResultSet rs, int columnIndex) throws SQLException {
+            return rs.getObject(columnIndex);
+        }
+    },
+    /** {@link ResultSet#getInt(int)}で取得し、{@link Integer}を返す。 */
+    INTEGER {
+        @Override
+        public Object extract(ResultSet rs, int columnIndex) throws SQLException {
+            final int value = rs.getInt(columnIndex);
+            return rs.wasNull() ? null : value;
+        }
+    },
+    /** {@link ResultSet#getLong(int)}で取得し、{@link Long}を返す。 */
+    LONG {
+        @Override
+        public Object extract(ResultSet rs, int columnIndex) throws SQLException {
+            final long value = rs.getLong(columnIndex);
+            return rs.wasNull() ? null : value;
+        }
+    },
+    /** {@link ResultSet#getBigDecimal(int)}で取得する。 */
+    BIG_DECIMAL {
+        @Override
+        public Object extract(ResultSet rs, int columnIndex) throws SQLException {
+            return rs.getBigDecimal(columnIndex);
+        }
+    },
+    /** {@link ResultSet#getTimestamp(int)}で取得する。 */
+    TIMESTAMP {
+        @Override
+        public Object extract(ResultSet rs, int columnIndex) throws SQLException {
+            return rs.getTimestamp(columnIndex);
+        }
+    },
+    /** {@link ResultSet#getBinaryStream(int)}で取得する。 */
+    BINARY_STREAM {
+        @Override
+        public Object extract(ResultSet rs, int columnIndex) throws SQLException {
+            return rs.getBinaryStream(columnIndex);
+        }
+    }
+}
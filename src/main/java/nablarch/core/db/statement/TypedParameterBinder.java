@@ -0,0 +1,172 @@
+package nablarch.core.db.statement;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 値のクラスに応じた型指定のsetterで値を設定する{@link ParameterBinder}実装クラス。
+ * <p/>
+ * 例えば、{@link String}は{@link PreparedStatement#setString(int, String)}で、
+ * {@link Integer}は{@link PreparedStatement#setInt(int, int)}で設定する。
+ * JDBCドライバによる型の推論が行われないため、実行のたびにバインド変数の型が変わることがなく、
+ * データベースサーバ側での再解析(re-prepare)を抑止できる。
+ * <p/>
+ * 型指定のsetterが対応しないクラスの値は、{@link PreparedStatement#setObject(int, Object)}で設定する。
+ * <p/>
+ * nullは{@link PreparedStatement#setObject(int, Object)}で設定する。
+ * バインド変数のSQL型を指定してnullを設定する場合は、
+ * {@link BasicStatementFactory#setUseParameterMetaData(boolean)}を使用すること。
+ * <p/>
+ * 本クラスは状態を持たないため、スレッドセーフである。
+ *
+ * @author Hisaaki Sioiri
+ */
+@Published(tag = "architect")
+public class TypedParameterBinder implements ParameterBinder {
+
+    /** クラスごとの値の設定方法 */
+    private static final Map<Class<?>, ValueSetter> SETTERS;
+
+    static {
+        final Map<Class<?>, ValueSetter> setters = new HashMap<Class<?>, ValueSetter>();
+        setters.put(String.class, ValueSetter.STRING);
+        setters.put(Integer.class, ValueSetter.INTEGER);
+        setters.put(Long.class, ValueSetter.LONG);
+        setters.put(Short.class, ValueSetter.SHORT);
+        setters.put(Byte.class, ValueSetter.BYTE);
+        setters.put(Boolean.class, ValueSetter.BOOLEAN);
+        setters.put(Double.class, ValueSetter.DOUBLE);
+        setters.put(Float.class, ValueSetter.FLOAT);
+        setters.put(BigDecimal.class, ValueSetter.BIG_DECIMAL);
+        setters.put(Timestamp.class, ValueSetter.TIMESTAMP);
+        setters.put(java.sql.Date.class, ValueSetter.DATE);
+        setters.put(Time.class, ValueSetter.TIME);
+        setters.put(byte[].class, ValueSetter.BYTES);
+        SETTERS = Collections.unmodifiableMap(setters);
+    }
+
+    @Override
+    public void bind(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+        final ValueSetter setter = value == null ? null : SETTERS.get(value.getClass());
+        if (setter == null) {
+            statement.setObject(parameterIndex, value);
+        } else {
+            setter.set(statement, parameterIndex, value);
+        }
+    }
+
+    /**
+     * クラスごとの値の設定方法。
+     */
+    private enum ValueSetter {
+        /** {@link String} */
+        STRING {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setString(parameterIndex, (String) value);
+            }
+        },
+        /** {@link Integer} */
+        INTEGER {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setInt(parameterIndex, (Integer) value);
+            }
+        },
+        /** {@link Long} */
+        LONG {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setLong(parameterIndex, (Long) value);
+            }
+        },
+        /** {@link Short} */
+        SHORT {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setShort(parameterIndex, (Short) value);
+            }
+        },
+        /** {@link Byte} */
+        BYTE {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setByte(parameterIndex, (Byte) value);
+            }
+        },
+        /** {@link Boolean} */
+        BOOLEAN {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setBoolean(parameterIndex, (Boolean) value);
+            }
+        },
+        /** {@link Double} */
+        DOUBLE {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setDouble(parameterIndex, (Double) value);
+            }
+        },
+        /** {@link Float} */
+        FLOAT {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setFloat(parameterIndex, (Float) value);
+            }
+        },
+        /** {@link BigDecimal} */
+        BIG_DECIMAL {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setBigDecimal(parameterIndex, (BigDecimal) value);
+            }
+        },
+        /** {@link Timestamp} */
+        TIMESTAMP {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setTimestamp(parameterIndex, (Timestamp) value);
+            }
+        },
+        /** {@link java.sql.Date} */
+        DATE {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setDate(parameterIndex, (java.sql.Date) value);
+            }
+        },
+        /** {@link Time} */
+        TIME {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setTime(parameterIndex, (Time) value);
+            }
+        },
+        /** バイト配列 */
+        BYTES {
+            @Override
+            void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+                statement.setBytes(parameterIndex, (byte[]) value);
+            }
+        };
+
+        /**
+         * バインド変数に値を設定する。
+         *
+         * @param statement ステートメント
+         * @param parameterIndex バインド変数の位置(1始まり)
+         * @param value 設定する値
+         * @throws SQLException データベースアクセス例外が発生した場合
+         */
+        abstract void set(PreparedStatement statement, int parameterIndex, Object value) throws SQLException;
+    }
+}
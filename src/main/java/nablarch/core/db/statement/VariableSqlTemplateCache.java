@@ -0,0 +1,75 @@
+package nablarch.core.db.statement;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import nablarch.core.db.statement.sqlconvertor.VariableSqlTemplate;
+
+/**
+ * Nablarchの拡張構文を解析したSQL文のテンプレート({@link VariableSqlTemplate})をキャッシュするクラス。
+ * <p/>
+ * キャッシュのキーは、拡張構文を含むSQL文とする。
+ * <p/>
+ * キャッシュの件数は上限値で制限される。上限値に達した状態で新たなエントリを追加する場合、
+ * 任意のエントリを1件削除してから追加する。
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ *
+ * @author Kiyohito Itoh
+ * @see ParsedSqlCache
+ */
+class VariableSqlTemplateCache {
+
+    /** キャッシュの実体 */
+    private final ConcurrentMap<String, VariableSqlTemplate> cache
+            = new ConcurrentHashMap<String, VariableSqlTemplate>();
+
+    /** キャッシュ件数の上限値 */
+    private final int maxSize;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param maxSize キャッシュ件数の上限値(1以上)
+     */
+    VariableSqlTemplateCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0. maxSize = [" + maxSize + ']');
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * SQL文に対応するテンプレートを取得する。
+     * キャッシュに存在しない場合は、SQL文を解析してテンプレートを構築し、キャッシュに追加する。
+     *
+     * @param sql 拡張構文を含むSQL文
+     * @return テンプレート
+     */
+    VariableSqlTemplate get(String sql) {
+        VariableSqlTemplate template = cache.get(sql);
+        if (template == null) {
+            // 同時に複数スレッドが解析を行う可能性があるが、解析結果は同じになるため許容する。
+            template = VariableSqlTemplate.compile(sql);
+            if (cache.size() >= maxSize) {
+                final Iterator<String> iterator = cache.keySet().iterator();
+                if (iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+            cache.put(sql, template);
+        }
+        return template;
+    }
+
+    /**
+     * キャッシュされている件数を取得する。
+     *
+     * @return キャッシュされている件数
+     */
+    int size() {
+        return cache.size();
+    }
+}
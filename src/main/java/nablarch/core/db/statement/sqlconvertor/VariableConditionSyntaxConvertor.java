@@ -17,11 +17,11 @@ public class VariableConditionSyntaxConvertor extends SqlConvertorSupport {
      * 可変条件を示す正規表現<br>
      * if(userName){user_name = :userName}を抜き出す正規表現
      */
-    private static final Pattern VARIABLE_CONDITION = Pattern
+    static final Pattern VARIABLE_CONDITION = Pattern
             .compile("^\\$if[ ]*\\(([a-zA-Z0-9_]+)\\)[ ]*\\{[ ]*([^\\}]+)[ ]*\\}");
 
     /** if拡張構文を表す文字列 */
-    private static final String IF_CONDITION = "$if";
+    static final String IF_CONDITION = "$if";
 
     /** 配列(Collection)の要素1つでその中身が空文字列を許容するか否か */
     private boolean allowArrayEmptyString = true;
@@ -95,32 +95,7 @@ public class VariableConditionSyntaxConvertor extends SqlConvertorSupport {
 
             // 可変条件までのSQL文を構築
             sb.append(sql.substring(start, matcher.start()));
-
-            // 未入力の場合は、評価不要な条件なので「0 = 0 or」を条件として挿入する。
-            // フィールドの値がnull以外かつ、長さが0以外の場合は、
-            // 対応する条件を評価する必要があるため「0 = 1 or」を条件として挿入する。
-            Object value = getBindValue(obj, parameterName);
-            if (!DbUtil.isArrayObject(value)) {
-                // 配列以外の場合は、Stringに変換してチェックする。
-                sb.append(
-                        StringUtil.isNullOrEmpty(value.toString()) ? "(0 = 0 or (" : "(0 = 1 or (");
-            } else {
-                // 配列の場合
-                int size = DbUtil.getArraySize(value);
-                if (size == 0) {
-                    sb.append("(0 = 0 or (");
-                } else if (size == 1 && !allowArrayEmptyString) {
-                    Object o = DbUtil.getArrayValue(value, 0);
-                    if (o == null || StringUtil.isNullOrEmpty(o.toString())) {
-                        sb.append("(0 = 0 or (");
-                    } else {
-                        sb.append("(0 = 1 or (");
-                    }
-                } else {
-                    sb.append("(0 = 1 or (");
-                }
-            }
-
+            sb.append(getConditionPrefix(obj, parameterName));
             sb.append(matcher.group(2)).append("))");
             start = matcher.end();
             conditionStart = sql.indexOf(IF_CONDITION, start);
@@ -130,6 +105,36 @@ public class VariableConditionSyntaxConvertor extends SqlConvertorSupport {
         return sb.toString();
     }
 
+    /**
+     * 可変条件の前に挿入する条件を取得する。
+     * <p/>
+     * 未入力の場合は、評価不要な条件なので「(0 = 0 or (」を返却する。
+     * フィールドの値がnull以外かつ、長さが0以外の場合は、
+     * 対応する条件を評価する必要があるため「(0 = 1 or (」を返却する。
+     *
+     * @param obj 検索条件をもつオブジェクト
+     * @param parameterName 入力チェックを行うフィールド名
+     * @return 可変条件の前に挿入する条件
+     */
+    String getConditionPrefix(Object obj, String parameterName) {
+        Object value = getBindValue(obj, parameterName);
+        if (!DbUtil.isArrayObject(value)) {
+            // 配列以外の場合は、Stringに変換してチェックする。
+            return StringUtil.isNullOrEmpty(value.toString()) ? "(0 = 0 or (" : "(0 = 1 or (";
+        }
+        // 配列の場合
+        int size = DbUtil.getArraySize(value);
+        if (size == 0) {
+            return "(0 = 0 or (";
+        } else if (size == 1 && !allowArrayEmptyString) {
+            Object o = DbUtil.getArrayValue(value, 0);
+            if (o == null || StringUtil.isNullOrEmpty(o.toString())) {
+                return "(0 = 0 or (";
+            }
+        }
+        return "(0 = 1 or (";
+    }
+
     /**
      * 配列({@link java.util.Collection}を含む)のサイズが1の場合で、
      * その要素の値が空文字列の場合にその項目を検索条件に含めるか否かを設定する。
@@ -1,8 +1,11 @@
 package nablarch.core.db.statement.sqlconvertor;
 
+import java.util.Arrays;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import nablarch.core.db.dialect.DefaultDialect;
+import nablarch.core.db.dialect.Dialect;
 import nablarch.core.db.util.DbUtil;
 
 /**
@@ -16,7 +19,20 @@ public class VariableInSyntaxConvertor extends SqlConvertorSupport {
      * 可変IN構文を示す正規表現<br>
      * :kbn[]を抜き出す正規表現
      */
-    private static final Pattern VARIABLE_IN_SYNTAX = Pattern.compile(":([a-zA-Z0-9_]+)\\[\\]");
+    static final Pattern VARIABLE_IN_SYNTAX = Pattern.compile(":([a-zA-Z0-9_]+)\\[\\]");
+
+    /**
+     * 可変IN構文のみを要素とするIN条件を示す正規表現<br>
+     * 「IN (:kbn[])」を抜き出す。NOT IN条件は対象外とするため、NOTもあわせて抜き出す。
+     */
+    private static final Pattern VARIABLE_IN_CONDITION
+            = Pattern.compile("(?i)(\\bNOT\\s+)?\\bIN\\s*\\(\\s*:([a-zA-Z0-9_]+)\\[\\]\\s*\\)");
+
+    /** IN句の要素数を丸める単位(昇順、nullの場合は丸めない) */
+    private int[] inListBucketSizes;
+
+    /** 配列型のバインド変数を使用する場合の方言(nullの場合は使用しない) */
+    private DefaultDialect arrayBindingDialect;
 
     /**
      * SQL文の可変IN構文を変換する。
@@ -58,22 +74,66 @@ public class VariableInSyntaxConvertor extends SqlConvertorSupport {
      */
     public String convert(String sql, Object obj) {
 
-        int sqlLength = sql.length();
-        Matcher matcher = VARIABLE_IN_SYNTAX.matcher(sql);
+        String target = convertArrayInCondition(sql);
+        int sqlLength = target.length();
+        Matcher matcher = VARIABLE_IN_SYNTAX.matcher(target);
 
         StringBuilder sb = new StringBuilder(sqlLength);
         int start = 0;
         while (matcher.find()) {
 
             // 可変IN構文までのSQL文を構築する。
-            sb.append(sql.substring(start, matcher.start()));
+            sb.append(target.substring(start, matcher.start()));
 
             // INパラメータ部分を構築する。
             sb.append(makeInParameter(matcher.group(1), obj));
 
             start = matcher.end();
         }
-        sb.append(sql.substring(start));
+        sb.append(target.substring(start));
+        return sb.toString();
+    }
+
+    /**
+     * 可変IN構文のみを要素とするIN条件を、配列型のバインド変数を使用した条件に変換する。
+     * <p/>
+     * 配列型のバインド変数を使用しない場合({@link #setDialect(Dialect)}参照)は、SQL文をそのまま返却する。
+     * <p/>
+     * 変換後の条件は{@link DefaultDialect#buildArrayInCondition(String)}で構築し、
+     * バインド変数名は配列全体を示す「:kbn[*]」とする。
+     * NOT IN条件や、可変IN構文以外の要素を含むIN条件は変換しない。
+     * <p/>
+     * 例(PostgreSQLの場合):
+     * <pre>
+     * USER_KBN IN (:userKbn[]) -> USER_KBN = ANY(:userKbn[*])
+     * </pre>
+     * 本変換は検索条件をもつオブジェクトに依存しないため、変換結果は同じSQL文に対して常に同じとなる。
+     *
+     * @param sql SQL文
+     * @return 変換後のSQL文
+     */
+    public String convertArrayInCondition(String sql) {
+        if (arrayBindingDialect == null) {
+            return sql;
+        }
+        final Matcher matcher = VARIABLE_IN_CONDITION.matcher(sql);
+        StringBuilder sb = null;
+        int start = 0;
+        while (matcher.find()) {
+            if (matcher.group(1) != null) {
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(sql.length());
+            }
+            sb.append(sql, start, matcher.start());
+            sb.append(arrayBindingDialect.buildArrayInCondition(':' + matcher.group(2) + "[*]"));
+            start = matcher.end();
+        }
+        if (sb == null) {
+            return sql;
+        }
+        sb.append(sql, start, sql.length());
         return sb.toString();
     }
 
@@ -84,7 +144,7 @@ public class VariableInSyntaxConvertor extends SqlConvertorSupport {
      * @param obj 条件フィールドを持つオブジェクト
      * @return INパラメータ
      */
-    private String makeInParameter(String parameterName, Object obj) {
+    String makeInParameter(String parameterName, Object obj) {
         StringBuilder sb = new StringBuilder();
         Object value = getBindValue(obj, parameterName);
         if (!DbUtil.isArrayObject(value)) {
@@ -97,16 +157,90 @@ public class VariableInSyntaxConvertor extends SqlConvertorSupport {
         if (size == 0) {
             return ':' + parameterName + "[]";
         }
-        for (int i = 0; i < size; i++) {
+        final int bucketSize = getBucketSize(size);
+        for (int i = 0; i < bucketSize; i++) {
             if (i != 0) {
                 sb.append(',');
             }
             sb.append(':');
             sb.append(parameterName);
             sb.append('[');
-            sb.append(i);
+            // 丸めにより増えた部分は、最後の要素で埋める。
+            sb.append(Math.min(i, size - 1));
             sb.append(']');
         }
         return sb.toString();
     }
+
+    /**
+     * IN句の要素数を丸めた値を取得する。
+     * <p/>
+     * 要素数以上で最小の丸め単位を返却する。
+     * 丸め単位が設定されていない場合や、要素数が最大の丸め単位を超える場合は、要素数をそのまま返却する。
+     *
+     * @param size IN句の要素数
+     * @return 丸めた要素数
+     */
+    private int getBucketSize(int size) {
+        if (inListBucketSizes == null) {
+            return size;
+        }
+        for (int bucketSize : inListBucketSizes) {
+            if (size <= bucketSize) {
+                return bucketSize;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 配列型のバインド変数の使用有無を判定する方言を設定する。
+     * <p/>
+     * 方言が配列型のバインド変数をサポートする場合({@link DefaultDialect#supportsArrayBinding()})、
+     * 可変IN構文のみを要素とするIN条件は、要素数によらず1つのバインド変数に配列を設定する条件に変換する。
+     * これにより、要素数によらずSQL文が一定となり、ステートメントやデータベースの実行計画を再利用できる。
+     * 変換内容は{@link #convertArrayInCondition(String)}を参照。
+     * <p/>
+     * 方言がサポートしない場合や、{@link DefaultDialect}を継承しない方言の場合、方言を設定しない場合は、
+     * 要素数分のバインド変数に展開する。
+     *
+     * @param dialect 方言
+     */
+    public void setDialect(Dialect dialect) {
+        if (dialect instanceof DefaultDialect && ((DefaultDialect) dialect).supportsArrayBinding()) {
+            arrayBindingDialect = (DefaultDialect) dialect;
+        } else {
+            arrayBindingDialect = null;
+        }
+    }
+
+    /**
+     * IN句の要素数を丸める単位を設定する。
+     * <p/>
+     * 可変IN構文は要素数と同じ数のバインド変数に展開されるため、要素数ごとに異なるSQL文となる。
+     * このため、ステートメントのキャッシュやデータベースの実行計画のキャッシュが再利用されにくい。
+     * 丸め単位を設定した場合、要素数以上で最小の丸め単位までバインド変数を展開し、
+     * 増えた部分は最後の要素の値で埋める。これにより、生成されるSQL文の種類を丸め単位の数に抑えられる。
+     * (同じ値が重複してもIN句の結果は変わらない。)
+     * <p/>
+     * 例えば、「1,2,4,8,16」を設定した場合、要素数3のIN句は「IN (:ids[0],:ids[1],:ids[2],:ids[2])」に展開する。
+     * 要素数が最大の丸め単位を超える場合は、要素数のとおりに展開する。
+     * <p/>
+     * デフォルトでは丸めは行わない。
+     *
+     * @param inListBucketSizes IN句の要素数を丸める単位(1以上)
+     */
+    public void setInListBucketSizes(int[] inListBucketSizes) {
+        if (inListBucketSizes == null || inListBucketSizes.length == 0) {
+            this.inListBucketSizes = null;
+            return;
+        }
+        final int[] sizes = inListBucketSizes.clone();
+        Arrays.sort(sizes);
+        if (sizes[0] <= 0) {
+            throw new IllegalArgumentException("inListBucketSizes must be greater than 0. inListBucketSizes = "
+                    + Arrays.toString(inListBucketSizes));
+        }
+        this.inListBucketSizes = sizes;
+    }
 }
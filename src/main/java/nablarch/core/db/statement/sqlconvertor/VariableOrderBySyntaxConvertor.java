@@ -18,7 +18,7 @@ public class VariableOrderBySyntaxConvertor extends SqlConvertorSupport {
      * グループ2: "(1 USER_ID)(2 KANJI_NAME)(3 KANA_NAME)(default USER_ID)"
      * </pre>
      */
-    private static final Pattern VARIABLE_ORDER_BY_SYNTAX
+    static final Pattern VARIABLE_ORDER_BY_SYNTAX
         = Pattern.compile("^\\$sort[ ]*\\(([a-zA-Z0-9_]+)\\)[ ]*\\{[ ]*([^\\}]+)[ ]*\\}");
 
     /**
@@ -37,7 +37,7 @@ public class VariableOrderBySyntaxConvertor extends SqlConvertorSupport {
     private static final String ORDER_BY_CASE_FORMAT = "\\([ ]*(%s)[ ]+([^\\)]+)\\)";
 
     /** デフォルトのケースに使用するソートID */
-    private static final String DEFAULT_CASE_SORT_ID = "default";
+    static final String DEFAULT_CASE_SORT_ID = "default";
     
     /**
      * SQL文の可変ORDER BY構文を変換する。
@@ -161,7 +161,7 @@ public class VariableOrderBySyntaxConvertor extends SqlConvertorSupport {
      * @param sortId ソートID
      * @return ケース。該当するケースが見つからない場合はnull
      */
-    private String getCase(String cases, String sortId) {
+    String getCase(String cases, String sortId) {
         String useCasePattern = String.format(ORDER_BY_CASE_FORMAT, sortId);
         Pattern casePattern = Pattern.compile(useCasePattern);
         Matcher caseMatcher = casePattern.matcher(cases);
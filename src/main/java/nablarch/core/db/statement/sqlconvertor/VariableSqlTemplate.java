@@ -0,0 +1,472 @@
+package nablarch.core.db.statement.sqlconvertor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * Nablarchの拡張構文(可変条件構文、可変IN構文、可変ORDER BY構文)を事前に解析したSQL文のテンプレート。
+ * <p/>
+ * {@link VariableConditionSyntaxConvertor}、{@link VariableInSyntaxConvertor}、{@link VariableOrderBySyntaxConvertor}は、
+ * 変換の都度、SQL文全体に対して正規表現による走査を行う。
+ * 本クラスでは、SQL文を一度だけ解析して、以下の要素からなるテンプレートを構築する。
+ * <ul>
+ * <li>固定の文字列</li>
+ * <li>可変条件構文($if)</li>
+ * <li>可変IN構文(:name[])</li>
+ * <li>可変ORDER BY構文($sort)とソートIDに対応するORDER BY句の対応表</li>
+ * </ul>
+ * テンプレートからのSQL文の構築({@link #render})は、検索条件をもつオブジェクトを元に要素を先頭から順に評価するだけで完了する。
+ * <p/>
+ * 構築されるSQL文は、上記3つのコンバータを順に適用した結果と同じになる。
+ * 拡張構文が入れ子になっているなど、テンプレートとして解析できないSQL文の場合は、
+ * 構築時に上記3つのコンバータを順に適用する。
+ * <p/>
+ * 本クラスは不変オブジェクトであるため、複数スレッドから共有できる。
+ *
+ * @author Kiyohito Itoh
+ */
+public final class VariableSqlTemplate {
+
+    /** sort拡張構文を表す文字列 */
+    private static final String SORT_SYNTAX = "$sort";
+
+    /** 元のSQL文 */
+    private final String sql;
+
+    /** テンプレートの要素(テンプレートとして解析できない場合はnull) */
+    private final Node[] nodes;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param sql 元のSQL文
+     * @param nodes テンプレートの要素(テンプレートとして解析できない場合はnull)
+     */
+    private VariableSqlTemplate(String sql, Node[] nodes) {
+        this.sql = sql;
+        this.nodes = nodes;
+    }
+
+    /**
+     * SQL文を解析し、テンプレートを構築する。
+     *
+     * @param sql SQL文
+     * @return テンプレート
+     */
+    public static VariableSqlTemplate compile(String sql) {
+        final List<Node> nodes = new ArrayList<Node>();
+        if (!compileConditions(sql, nodes)) {
+            return new VariableSqlTemplate(sql, null);
+        }
+        return new VariableSqlTemplate(sql, nodes.toArray(new Node[nodes.size()]));
+    }
+
+    /**
+     * テンプレートとして解析できたか否か。
+     *
+     * @return テンプレートとして解析できた場合は{@code true}
+     */
+    public boolean isCompiled() {
+        return nodes != null;
+    }
+
+    /**
+     * テンプレートと検索条件をもつオブジェクトからSQL文を構築する。
+     *
+     * @param obj 検索条件をもつオブジェクト
+     * @param conditionConvertor 可変条件構文の評価に使用するコンバータ
+     * @param inConvertor 可変IN構文の評価に使用するコンバータ
+     * @param orderByConvertor 可変ORDER BY構文の評価に使用するコンバータ
+     * @return 拡張構文を変換したSQL文
+     */
+    public String render(Object obj,
+            VariableConditionSyntaxConvertor conditionConvertor,
+            VariableInSyntaxConvertor inConvertor,
+            VariableOrderBySyntaxConvertor orderByConvertor) {
+        if (nodes == null) {
+            String converted = conditionConvertor.convert(sql, obj);
+            converted = inConvertor.convert(converted, obj);
+            return orderByConvertor.convert(converted, obj);
+        }
+        if (nodes.length == 1 && nodes[0] instanceof Literal) {
+            // 拡張構文を含まないSQL文
+            return sql;
+        }
+        final Context context = new Context(obj, conditionConvertor, inConvertor, orderByConvertor);
+        final StringBuilder sb = new StringBuilder(sql.length() + 64);
+        for (Node node : nodes) {
+            node.appendTo(sb, context);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 可変条件構文を解析する。
+     * <p/>
+     * 解析方法は、{@link VariableConditionSyntaxConvertor#convert(String, Object)}と同じ。
+     *
+     * @param sql SQL文
+     * @param nodes 解析結果の要素を追加するリスト
+     * @return テンプレートとして解析できた場合は{@code true}
+     */
+    private static boolean compileConditions(String sql, List<Node> nodes) {
+        final int sqlLength = sql.length();
+        int conditionStart = sql.indexOf(VariableConditionSyntaxConvertor.IF_CONDITION);
+        if (conditionStart == -1) {
+            return compileOrderBy(sql, nodes);
+        }
+        final Matcher matcher = VariableConditionSyntaxConvertor.VARIABLE_CONDITION.matcher(sql);
+        matcher.region(conditionStart, sqlLength);
+        int start = 0;
+        while (matcher.find()) {
+            if (!compileOrderBy(sql.substring(start, matcher.start()), nodes)) {
+                return false;
+            }
+            final String body = matcher.group(2);
+            if (body.contains(SORT_SYNTAX)) {
+                // 可変条件の中の可変ORDER BY構文はサポートしない
+                return false;
+            }
+            final List<Node> bodyNodes = new ArrayList<Node>();
+            compileIn(body, bodyNodes);
+            nodes.add(new Condition(matcher.group(1), bodyNodes.toArray(new Node[bodyNodes.size()])));
+
+            start = matcher.end();
+            conditionStart = sql.indexOf(VariableConditionSyntaxConvertor.IF_CONDITION, start);
+            matcher.region(conditionStart != -1 ? conditionStart : sqlLength, sqlLength);
+        }
+        return compileOrderBy(sql.substring(start), nodes);
+    }
+
+    /**
+     * 可変ORDER BY構文を解析する。
+     * <p/>
+     * 解析方法は、{@link VariableOrderBySyntaxConvertor#convert(String, Object)}と同じ。
+     *
+     * @param text 解析対象の文字列
+     * @param nodes 解析結果の要素を追加するリスト
+     * @return テンプレートとして解析できた場合は{@code true}
+     */
+    private static boolean compileOrderBy(String text, List<Node> nodes) {
+        int orderBySyntaxStart = text.indexOf(SORT_SYNTAX);
+        if (orderBySyntaxStart == -1) {
+            compileIn(text, nodes);
+            return true;
+        }
+        final int textLength = text.length();
+        final Matcher matcher = VariableOrderBySyntaxConvertor.VARIABLE_ORDER_BY_SYNTAX.matcher(text);
+        int start = 0;
+        while (orderBySyntaxStart != -1) {
+            matcher.region(orderBySyntaxStart, textLength);
+            if (!matcher.find()) {
+                // 構文に一致しない$sortや、可変条件をまたがる可変ORDER BY構文はサポートしない
+                return false;
+            }
+            final String cases = matcher.group(2);
+            if (cases.indexOf(':') != -1) {
+                // ケース内の名前付きバインド変数(可変IN構文)はサポートしない
+                return false;
+            }
+            compileIn(text.substring(start, matcher.start()), nodes);
+            nodes.add(new OrderBy(matcher.group(1), cases));
+            start = matcher.end();
+            orderBySyntaxStart = text.indexOf(SORT_SYNTAX, start);
+        }
+        compileIn(text.substring(start), nodes);
+        return true;
+    }
+
+    /**
+     * 可変IN構文を解析する。
+     * <p/>
+     * 解析方法は、{@link VariableInSyntaxConvertor#convert(String, Object)}と同じ。
+     *
+     * @param text 解析対象の文字列
+     * @param nodes 解析結果の要素を追加するリスト
+     */
+    private static void compileIn(String text, List<Node> nodes) {
+        final Matcher matcher = VariableInSyntaxConvertor.VARIABLE_IN_SYNTAX.matcher(text);
+        int start = 0;
+        while (matcher.find()) {
+            addLiteral(text.substring(start, matcher.start()), nodes);
+            nodes.add(new InParameter(matcher.group(1)));
+            start = matcher.end();
+        }
+        addLiteral(text.substring(start), nodes);
+    }
+
+    /**
+     * 固定の文字列を要素として追加する。
+     *
+     * @param text 文字列
+     * @param nodes 要素を追加するリスト
+     */
+    private static void addLiteral(String text, List<Node> nodes) {
+        if (text.length() == 0) {
+            return;
+        }
+        final int last = nodes.size() - 1;
+        if (last >= 0 && nodes.get(last) instanceof Literal) {
+            // 連続する固定の文字列は1つにまとめる
+            nodes.set(last, new Literal(((Literal) nodes.get(last)).text + text));
+        } else {
+            nodes.add(new Literal(text));
+        }
+    }
+
+    /**
+     * SQL文構築時のコンテキスト。
+     */
+    private static final class Context {
+
+        /** 検索条件をもつオブジェクト */
+        private final Object obj;
+
+        /** 可変条件構文の評価に使用するコンバータ */
+        private final VariableConditionSyntaxConvertor conditionConvertor;
+
+        /** 可変IN構文の評価に使用するコンバータ */
+        private final VariableInSyntaxConvertor inConvertor;
+
+        /** 可変ORDER BY構文の評価に使用するコンバータ */
+        private final VariableOrderBySyntaxConvertor orderByConvertor;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param obj 検索条件をもつオブジェクト
+         * @param conditionConvertor 可変条件構文の評価に使用するコンバータ
+         * @param inConvertor 可変IN構文の評価に使用するコンバータ
+         * @param orderByConvertor 可変ORDER BY構文の評価に使用するコンバータ
+         */
+        Context(Object obj,
+                VariableConditionSyntaxConvertor conditionConvertor,
+                VariableInSyntaxConvertor inConvertor,
+                VariableOrderBySyntaxConvertor orderByConvertor) {
+            this.obj = obj;
+            this.conditionConvertor = conditionConvertor;
+            this.inConvertor = inConvertor;
+            this.orderByConvertor = orderByConvertor;
+        }
+    }
+
+    /**
+     * テンプレートの要素。
+     */
+    private interface Node {
+
+        /**
+         * 要素を評価し、結果を追加する。
+         *
+         * @param sb 結果を追加するバッファ
+         * @param context コンテキスト
+         */
+        void appendTo(StringBuilder sb, Context context);
+    }
+
+    /**
+     * 固定の文字列。
+     */
+    private static final class Literal implements Node {
+
+        /** 文字列 */
+        private final String text;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param text 文字列
+         */
+        Literal(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void appendTo(StringBuilder sb, Context context) {
+            sb.append(text);
+        }
+    }
+
+    /**
+     * 可変条件構文。
+     */
+    private static final class Condition implements Node {
+
+        /** 入力チェックを行うフィールド名 */
+        private final String parameterName;
+
+        /** 条件部分の要素 */
+        private final Node[] body;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param parameterName 入力チェックを行うフィールド名
+         * @param body 条件部分の要素
+         */
+        Condition(String parameterName, Node[] body) {
+            this.parameterName = parameterName;
+            this.body = body;
+        }
+
+        @Override
+        public void appendTo(StringBuilder sb, Context context) {
+            sb.append(context.conditionConvertor.getConditionPrefix(context.obj, parameterName));
+            for (Node node : body) {
+                node.appendTo(sb, context);
+            }
+            sb.append("))");
+        }
+    }
+
+    /**
+     * 可変IN構文。
+     */
+    private static final class InParameter implements Node {
+
+        /** パラメータ名 */
+        private final String parameterName;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param parameterName パラメータ名
+         */
+        InParameter(String parameterName) {
+            this.parameterName = parameterName;
+        }
+
+        @Override
+        public void appendTo(StringBuilder sb, Context context) {
+            sb.append(context.inConvertor.makeInParameter(parameterName, context.obj));
+        }
+    }
+
+    /**
+     * 可変ORDER BY構文。
+     * <p/>
+     * ケース部分に含まれるソートIDに対応するORDER BY句を、解析時に求めて保持する。
+     */
+    private static final class OrderBy implements Node {
+
+        /** ソートIDを取得するフィールド名 */
+        private final String propName;
+
+        /** ケース部分 */
+        private final String cases;
+
+        /** ソートIDとORDER BY句の対応表(ケースに該当しないソートIDの値はnull) */
+        private final Map<String, String> orderByTable;
+
+        /** デフォルトのケースのORDER BY句(デフォルトのケースがない場合はnull) */
+        private final String defaultOrderBy;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param propName ソートIDを取得するフィールド名
+         * @param cases ケース部分
+         */
+        OrderBy(String propName, String cases) {
+            this.propName = propName;
+            this.cases = cases;
+            final VariableOrderBySyntaxConvertor convertor = new VariableOrderBySyntaxConvertor();
+            final Map<String, String> table = new HashMap<String, String>();
+            for (String sortId : extractSortIds(cases)) {
+                try {
+                    table.put(sortId, toOrderBy(convertor.getCase(cases, sortId)));
+                } catch (RuntimeException ignored) {
+                    // 正規表現として解釈できないソートIDは、構築時に評価する。
+                }
+            }
+            this.orderByTable = Collections.unmodifiableMap(table);
+            this.defaultOrderBy = toOrderBy(
+                    convertor.getCase(cases, VariableOrderBySyntaxConvertor.DEFAULT_CASE_SORT_ID));
+        }
+
+        @Override
+        public void appendTo(StringBuilder sb, Context context) {
+            final Object sortIdObj = context.orderByConvertor.getBindValue(context.obj, propName);
+            String orderBy = null;
+            if (sortIdObj != null) {
+                final String sortId = sortIdObj.toString();
+                if (orderByTable.containsKey(sortId)) {
+                    orderBy = orderByTable.get(sortId);
+                } else if (!isWordCharacters(sortId)) {
+                    // 正規表現のメタ文字などを含むソートIDは、コンバータと同じ方法で評価する。
+                    orderBy = toOrderBy(context.orderByConvertor.getCase(cases, sortId));
+                }
+            }
+            if (orderBy == null) {
+                orderBy = defaultOrderBy;
+            }
+            if (orderBy != null) {
+                sb.append(orderBy);
+            }
+        }
+
+        /**
+         * ケースからORDER BY句を構築する。
+         *
+         * @param orderByCase ケース本体(null可)
+         * @return ORDER BY句(ケース本体がnullの場合はnull)
+         */
+        private static String toOrderBy(String orderByCase) {
+            return orderByCase == null ? null : "ORDER BY " + orderByCase.trim();
+        }
+
+        /**
+         * ケース部分に含まれるソートIDの候補を抽出する。
+         * <p/>
+         * 括弧開きの後の空白を除いた、次の空白までの文字列をソートIDの候補とする。
+         *
+         * @param cases ケース部分
+         * @return ソートIDの候補
+         */
+        private static List<String> extractSortIds(String cases) {
+            final List<String> sortIds = new ArrayList<String>();
+            int pos = cases.indexOf('(');
+            while (pos != -1) {
+                int start = pos + 1;
+                while (start < cases.length() && cases.charAt(start) == ' ') {
+                    start++;
+                }
+                int end = start;
+                while (end < cases.length() && cases.charAt(end) != ' ') {
+                    end++;
+                }
+                if (end > start) {
+                    sortIds.add(cases.substring(start, end));
+                }
+                pos = cases.indexOf('(', pos + 1);
+            }
+            return sortIds;
+        }
+
+        /**
+         * 英数字とアンダースコアのみで構成されているか否か。
+         * <p/>
+         * この条件を満たすソートIDは、ケース部分から抽出したソートIDの候補に含まれない場合、
+         * どのケースにも該当しない。
+         *
+         * @param value 文字列
+         * @return 1文字以上の英数字とアンダースコアのみで構成されている場合は{@code true}
+         */
+        private static boolean isWordCharacters(String value) {
+            if (value.length() == 0) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (!(('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || ('0' <= c && c <= '9') || c == '_')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
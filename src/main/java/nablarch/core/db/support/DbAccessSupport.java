@@ -3,12 +3,18 @@ package nablarch.core.db.support;
 import java.util.Map;
 
 import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.BasicDbConnection;
 import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.dialect.DefaultDialect;
+import nablarch.core.db.dialect.Dialect;
 import nablarch.core.db.statement.ParameterizedSqlPStatement;
 import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SelectOption;
 import nablarch.core.db.statement.SqlCStatement;
 import nablarch.core.db.statement.SqlPStatement;
 import nablarch.core.db.statement.SqlResultSet;
+import nablarch.core.db.statement.SqlRow;
 import nablarch.core.util.annotation.Published;
 
 /**
@@ -20,6 +26,9 @@ import nablarch.core.util.annotation.Published;
 @Published
 public class DbAccessSupport {
 
+    /** {@link DefaultDialect#convertCountOverSql(String)}で付加される件数のカラム名 */
+    private static final String TOTAL_COUNT_COLUMN_NAME = "TOTAL_COUNT_";
+
     /** SQLリソース名 */
     private final String sqlResource;
 
@@ -162,6 +171,74 @@ public class DbAccessSupport {
                 condition.getStartPosition(), condition.getMax(), condition);
     }
 
+    /**
+     * 指定されたSQL_IDと{@link nablarch.core.db.support.ListSearchInfo}から、件数取得と検索を1回のSQL文の実行で行う。
+     * 検索結果の件数は、指定された{@link ListSearchInfo}オブジェクトに設定する。
+     * <p/>
+     * {@link #search(String, ListSearchInfo)}は件数取得用のSQL文と検索用のSQL文を実行するが、
+     * 本メソッドは分析関数({@code COUNT(*) OVER()})で各行に付加した件数を、検索結果の先頭行から取得する。
+     * このため、データベースで検索条件を評価する回数が1回となる。
+     * <p/>
+     * 以下の場合は、件数取得用のSQL文を実行する。
+     * <ul>
+     * <li>ダイアレクトが分析関数をサポートしない場合({@link #search(String, ListSearchInfo)}と同じ処理を行う)</li>
+     * <li>コネクションが{@link BasicDbConnection}でない場合、またはダイアレクトが{@link DefaultDialect}を継承していない場合
+     * ({@link #search(String, ListSearchInfo)}と同じ処理を行う)</li>
+     * <li>取得対象のページに検索結果が存在しない場合(件数を検索結果から取得できないため)</li>
+     * </ul>
+     * <p/>
+     * 件数が検索結果の最大件数(上限)を超えた場合の動作は、{@link #search(String, ListSearchInfo)}と同じである。
+     *
+     * @param sqlId SQL_ID
+     * @param condition {@link ListSearchInfo}オブジェクト
+     * @return 検索結果
+     * @throws TooManyResultException ページング付きの検索において検索結果件数が検索結果の最大件数(上限)を超えた場合。
+     * 検索結果の最大件数(上限)の設定については、{@link ListSearchInfo#ListSearchInfo()}を参照。
+     * @see DefaultDialect#supportsCountOver()
+     */
+    public final SqlResultSet searchWithCountOver(String sqlId,
+            ListSearchInfo condition) throws TooManyResultException {
+        TransactionManagerConnection conn = DbConnectionContext.getTransactionManagerConnection();
+        if (!supportsCountOver(conn)) {
+            return search(sqlId, condition);
+        }
+        SqlResultSet rs = ((BasicDbConnection) conn).prepareParameterizedCountOverSqlStatementBySqlId(
+                makeSqlResourceId(sqlId), condition,
+                new SelectOption(condition.getStartPosition(), condition.getMax()))
+                .retrieve(condition);
+        int count;
+        if (!rs.isEmpty()) {
+            count = rs.get(0).getInteger(TOTAL_COUNT_COLUMN_NAME);
+            for (SqlRow row : rs) {
+                row.remove(TOTAL_COUNT_COLUMN_NAME);
+            }
+        } else if (condition.getStartPosition() > 1) {
+            count = countByParameterizedSql(sqlId, condition);
+        } else {
+            count = 0;
+        }
+        if (condition.getMaxResultCount() < count) {
+            throw new TooManyResultException(condition.getMaxResultCount(),
+                    count);
+        }
+        condition.setResultCount(count);
+        return rs;
+    }
+
+    /**
+     * 分析関数で件数を付加した検索を行えるか否か。
+     *
+     * @param conn データベース接続
+     * @return 行える場合は{@code true}
+     */
+    private static boolean supportsCountOver(TransactionManagerConnection conn) {
+        if (!(conn instanceof BasicDbConnection)) {
+            return false;
+        }
+        final Dialect dialect = conn.getDialect();
+        return dialect instanceof DefaultDialect && ((DefaultDialect) dialect).supportsCountOver();
+    }
+
     /**
      * 指定されたSQL_IDから{@link SqlCStatement}を生成する。
      *
@@ -0,0 +1,634 @@
+package nablarch.core.db.transaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.statement.ParameterizedSqlPStatement;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 複数のデータベース接続を使用して、オブジェクトを並列にバッチ登録するクラス。
+ * <p/>
+ * 入力されたオブジェクトを、{@link Partitioner}で決定したパーティションごとのキューに振り分け、
+ * パーティションごとのスレッドが、それぞれのデータベース接続とトランザクションでバッチ登録({@link ParameterizedSqlPStatement#addBatchObject(Object)})を行う。
+ * <p/>
+ * トランザクションの制御には{@link SimpleDbTransactionManager}を使用する。
+ * データベース接続とトランザクションはスレッドごとに管理されるため、
+ * 1つの{@link SimpleDbTransactionManager}を全てのスレッドで共有できる。
+ * <p/>
+ * 各スレッドは、{@link #setBatchSize(int)}件ごとにバッチ実行を行い、
+ * {@link #setCommitInterval(int)}件ごと、または{@link #setCommitIntervalMillis(long)}ミリ秒ごとにコミットする。
+ * いずれかのスレッドで例外が発生した場合は、全てのスレッドがコミットしていない登録内容をロールバックして処理を中断する。
+ * (コミット済みの登録内容は取り消されない。)
+ * 登録件数と発生した例外は、{@link Result}として返却する。
+ * <p/>
+ * 使用例を以下に示す。
+ * <pre>
+ * ParallelBatchWriter&lt;User&gt; writer = new ParallelBatchWriter&lt;User&gt;(
+ *         transactionManager, "INSERT INTO USERS (USER_ID, NAME) VALUES (:userId, :name)", 4);
+ * writer.setPartitioner(new ParallelBatchWriter.Partitioner&lt;User&gt;() {
+ *     public int partition(User user, int partitionCount) {
+ *         return Math.abs(user.getUserId().hashCode() % partitionCount);
+ *     }
+ * });
+ * ParallelBatchWriter.Result result = writer.write(users);
+ * </pre>
+ *
+ * @param <T> 登録するオブジェクトの型
+ * @author Hisaaki Sioiri
+ * @see SimpleDbTransactionManager
+ */
+@Published(tag = "architect")
+public class ParallelBatchWriter<T> {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(ParallelBatchWriter.class);
+
+    /** 入力の終了を示すキューの要素 */
+    private static final Object END = new Object();
+
+    /** キューへの追加を待機する時間(ミリ秒) */
+    private static final long OFFER_TIMEOUT_MILLIS = 100L;
+
+    /** トランザクションマネージャ */
+    private final SimpleDbTransactionManager transactionManager;
+
+    /** 登録に使用するSQL文(名前付きバインド変数を持つSQL文) */
+    private final String sql;
+
+    /** パーティション数(スレッド数) */
+    private final int partitionCount;
+
+    /** オブジェクトをパーティションに振り分けるクラス(nullの場合は順番に振り分ける) */
+    private Partitioner<? super T> partitioner;
+
+    /** バッチ実行する件数 */
+    private int batchSize = 100;
+
+    /** コミットする件数 */
+    private int commitInterval = 1000;
+
+    /** コミットする間隔(ミリ秒、0の場合は件数でのみコミットする) */
+    private long commitIntervalMillis;
+
+    /** パーティションごとのキューの容量 */
+    private int queueCapacity = 1000;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param transactionManager トランザクションマネージャ
+     * @param sql 登録に使用するSQL文(名前付きバインド変数を持つSQL文)
+     * @param partitionCount パーティション数(スレッド数)
+     */
+    public ParallelBatchWriter(SimpleDbTransactionManager transactionManager, String sql, int partitionCount) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException(
+                    "partitionCount must be greater than 0. partitionCount = [" + partitionCount + ']');
+        }
+        this.transactionManager = transactionManager;
+        this.sql = sql;
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * オブジェクトを登録する。
+     *
+     * @param objects 登録するオブジェクト
+     * @return 登録結果
+     */
+    public Result write(Iterable<? extends T> objects) {
+        return write(objects.iterator());
+    }
+
+    /**
+     * オブジェクトを登録する。
+     * <p/>
+     * 全てのオブジェクトの登録が終了するか、処理が中断されるまで待機する。
+     *
+     * @param objects 登録するオブジェクト
+     * @return 登録結果
+     */
+    public Result write(Iterator<? extends T> objects) {
+        final WriteState state = new WriteState();
+        final List<Worker> workers = new ArrayList<Worker>(partitionCount);
+        final ExecutorService executor = Executors.newFixedThreadPool(partitionCount);
+        final List<Future<?>> futures = new ArrayList<Future<?>>(partitionCount);
+        try {
+            for (int i = 0; i < partitionCount; i++) {
+                final Worker worker = new Worker(state);
+                workers.add(worker);
+                futures.add(executor.submit(worker));
+            }
+            dispatch(objects, workers, state);
+            for (Future<?> future : futures) {
+                await(future, state);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long committedCount = 0;
+        long uncommittedCount = state.undispatchedCount;
+        for (Worker worker : workers) {
+            committedCount += worker.committedCount;
+            uncommittedCount += worker.uncommittedCount;
+        }
+        return new Result(committedCount, uncommittedCount, state.getFailures());
+    }
+
+    /**
+     * オブジェクトをパーティションごとのキューに振り分ける。
+     * <p/>
+     * 処理が中断された場合は、以降のオブジェクトは読み込まない。
+     * 振り分けが終了した後は、全てのキューに入力の終了を示す要素を追加する。
+     *
+     * @param objects 登録するオブジェクト
+     * @param workers パーティションごとの登録処理
+     * @param state 登録処理の状態
+     */
+    private void dispatch(Iterator<? extends T> objects, List<Worker> workers, WriteState state) {
+        try {
+            int sequence = 0;
+            while (!state.isAborted() && objects.hasNext()) {
+                final T object = objects.next();
+                final int partition = partitioner == null
+                        ? sequence++ % partitionCount
+                        : partitioner.partition(object, partitionCount);
+                if (partition < 0 || partition >= partitionCount) {
+                    throw new IllegalArgumentException("partition is out of range. partition = [" + partition
+                            + "], partitionCount = [" + partitionCount + ']');
+                }
+                if (!offer(workers.get(partition).queue, object, state)) {
+                    state.undispatchedCount++;
+                }
+            }
+        } catch (InterruptedException e) {
+            state.abort(e);
+        } catch (RuntimeException e) {
+            state.abort(e);
+        } finally {
+            for (Worker worker : workers) {
+                putEnd(worker.queue, state);
+            }
+        }
+    }
+
+    /**
+     * キューにオブジェクトを追加する。
+     * <p/>
+     * キューに空きができるまで待機する。待機中に処理が中断された場合は追加しない。
+     *
+     * @param queue キュー
+     * @param object オブジェクト
+     * @param state 登録処理の状態
+     * @return 追加した場合は{@code true}
+     * @throws InterruptedException 待機中に割り込みが発生した場合
+     */
+    private static boolean offer(BlockingQueue<Object> queue, Object object, WriteState state)
+            throws InterruptedException {
+        while (!queue.offer(object, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (state.isAborted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * キューに入力の終了を示す要素を追加する。
+     * <p/>
+     * 登録処理は、入力の終了を示す要素を受け取るまでキューから要素を取り出し続けるため、
+     * キューに空きができるまで待機する。
+     *
+     * @param queue キュー
+     * @param state 登録処理の状態
+     */
+    private static void putEnd(BlockingQueue<Object> queue, WriteState state) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(END);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+                state.abort(e);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 登録処理の終了を待機する。
+     *
+     * @param future 登録処理
+     * @param state 登録処理の状態
+     */
+    private static void await(Future<?> future, WriteState state) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            state.abort(e);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            state.abort(e.getCause());
+        }
+    }
+
+    /**
+     * オブジェクトをパーティションに振り分けるクラスを設定する。
+     * <p/>
+     * 設定しない場合は、入力された順に各パーティションへ順番に振り分ける。
+     * 同一レコードへの更新を同一トランザクションで行う必要がある場合など、
+     * 振り分け先を制御したい場合に設定する。
+     *
+     * @param partitioner オブジェクトをパーティションに振り分けるクラス
+     */
+    public void setPartitioner(Partitioner<? super T> partitioner) {
+        this.partitioner = partitioner;
+    }
+
+    /**
+     * バッチ実行する件数を設定する。
+     * <p/>
+     * デフォルトは100件。
+     *
+     * @param batchSize バッチ実行する件数
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be greater than 0. batchSize = [" + batchSize + ']');
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * コミットする件数を設定する。
+     * <p/>
+     * パーティションごとに、登録した件数が設定値に達するたびにコミットする。
+     * デフォルトは1000件。
+     *
+     * @param commitInterval コミットする件数
+     */
+    public void setCommitInterval(int commitInterval) {
+        if (commitInterval <= 0) {
+            throw new IllegalArgumentException(
+                    "commitInterval must be greater than 0. commitInterval = [" + commitInterval + ']');
+        }
+        this.commitInterval = commitInterval;
+    }
+
+    /**
+     * コミットする間隔(ミリ秒)を設定する。
+     * <p/>
+     * パーティションごとに、前回のコミットから設定値が経過した時点で未コミットの登録内容があればコミットする。
+     * 0を設定した場合は、件数でのみコミットする。デフォルトは0。
+     *
+     * @param commitIntervalMillis コミットする間隔(ミリ秒)
+     */
+    public void setCommitIntervalMillis(long commitIntervalMillis) {
+        if (commitIntervalMillis < 0) {
+            throw new IllegalArgumentException(
+                    "commitIntervalMillis must not be negative. commitIntervalMillis = [" + commitIntervalMillis + ']');
+        }
+        this.commitIntervalMillis = commitIntervalMillis;
+    }
+
+    /**
+     * パーティションごとのキューの容量を設定する。
+     * <p/>
+     * キューが満杯の場合、オブジェクトの読み込みは空きができるまで待機する。
+     * デフォルトは1000件。
+     *
+     * @param queueCapacity キューの容量
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException(
+                    "queueCapacity must be greater than 0. queueCapacity = [" + queueCapacity + ']');
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * オブジェクトをパーティションに振り分けるインタフェース。
+     *
+     * @param <T> オブジェクトの型
+     */
+    @Published(tag = "architect")
+    public interface Partitioner<T> {
+
+        /**
+         * オブジェクトのパーティションを決定する。
+         *
+         * @param object オブジェクト
+         * @param partitionCount パーティション数
+         * @return パーティション(0以上、パーティション数未満)
+         */
+        int partition(T object, int partitionCount);
+    }
+
+    /**
+     * 登録結果を保持するクラス。
+     */
+    @Published(tag = "architect")
+    public static final class Result {
+
+        /** コミットした件数 */
+        private final long committedCount;
+
+        /** コミットしなかった件数 */
+        private final long uncommittedCount;
+
+        /** 発生した例外 */
+        private final List<Throwable> failures;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param committedCount コミットした件数
+         * @param uncommittedCount コミットしなかった件数
+         * @param failures 発生した例外
+         */
+        Result(long committedCount, long uncommittedCount, List<Throwable> failures) {
+            this.committedCount = committedCount;
+            this.uncommittedCount = uncommittedCount;
+            this.failures = Collections.unmodifiableList(failures);
+        }
+
+        /**
+         * コミットした件数を取得する。
+         *
+         * @return コミットした件数
+         */
+        public long getCommittedCount() {
+            return committedCount;
+        }
+
+        /**
+         * コミットしなかった件数を取得する。
+         * <p/>
+         * 処理の中断によりロールバックした件数と、登録しなかった件数の合計。
+         * (中断後に読み込まなかったオブジェクトは含まない。)
+         *
+         * @return コミットしなかった件数
+         */
+        public long getUncommittedCount() {
+            return uncommittedCount;
+        }
+
+        /**
+         * 発生した例外を取得する。
+         *
+         * @return 発生した例外(発生しなかった場合は空のリスト)
+         */
+        public List<Throwable> getFailures() {
+            return failures;
+        }
+
+        /**
+         * 全てのオブジェクトが登録されたか否か。
+         *
+         * @return 例外が発生しなかった場合は{@code true}
+         */
+        public boolean isSuccess() {
+            return failures.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "committedCount=" + committedCount + ", uncommittedCount=" + uncommittedCount
+                    + ", failures=" + failures.size();
+        }
+    }
+
+    /**
+     * 登録処理全体の状態を保持するクラス。
+     */
+    private static final class WriteState {
+
+        /** 発生した例外 */
+        private final List<Throwable> failures = new ArrayList<Throwable>();
+
+        /** 処理が中断されたか否か */
+        private volatile boolean aborted;
+
+        /** 中断によりキューに追加しなかった件数(振り分けを行うスレッドのみが更新する) */
+        private long undispatchedCount;
+
+        /**
+         * 処理を中断する。
+         *
+         * @param failure 中断の原因となった例外
+         */
+        synchronized void abort(Throwable failure) {
+            failures.add(failure);
+            aborted = true;
+        }
+
+        /**
+         * 処理が中断されたか否か。
+         *
+         * @return 中断された場合は{@code true}
+         */
+        boolean isAborted() {
+            return aborted;
+        }
+
+        /**
+         * 発生した例外を取得する。
+         *
+         * @return 発生した例外
+         */
+        synchronized List<Throwable> getFailures() {
+            return new ArrayList<Throwable>(failures);
+        }
+    }
+
+    /**
+     * 1つのパーティションの登録処理を行うクラス。
+     */
+    private final class Worker implements Runnable {
+
+        /** パーティションのキュー */
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(queueCapacity);
+
+        /** 登録処理全体の状態 */
+        private final WriteState state;
+
+        /** コミットした件数 */
+        private long committedCount;
+
+        /** コミットしなかった件数 */
+        private long uncommittedCount;
+
+        /** 前回のコミット以降に登録した件数 */
+        private long pendingCount;
+
+        /** 入力の終了を示す要素を受け取ったか否か */
+        private boolean ended;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param state 登録処理全体の状態
+         */
+        Worker(WriteState state) {
+            this.state = state;
+        }
+
+        @Override
+        public void run() {
+            try {
+                transactionManager.beginTransaction();
+            } catch (RuntimeException e) {
+                state.abort(e);
+                drain();
+                return;
+            }
+            try {
+                write();
+            } catch (RuntimeException e) {
+                fail(e);
+            } catch (InterruptedException e) {
+                fail(e);
+            } catch (Error e) {
+                fail(e);
+                throw e;
+            } finally {
+                try {
+                    transactionManager.endTransaction();
+                } finally {
+                    drain();
+                }
+            }
+        }
+
+        /**
+         * キューから取り出したオブジェクトを登録する。
+         *
+         * @throws InterruptedException キューからの取り出し中に割り込みが発生した場合
+         */
+        private void write() throws InterruptedException {
+            final ParameterizedSqlPStatement statement = DbConnectionContext.getConnection(
+                    transactionManager.getDbTransactionName()).prepareParameterizedSqlStatement(sql);
+            long lastCommitTime = System.currentTimeMillis();
+            while (true) {
+                final Object object = commitIntervalMillis > 0
+                        ? queue.poll(Math.max(1L, lastCommitTime + commitIntervalMillis - System.currentTimeMillis()),
+                                     TimeUnit.MILLISECONDS)
+                        : queue.take();
+                if (object == END) {
+                    ended = true;
+                    break;
+                }
+                if (state.isAborted()) {
+                    rollback();
+                    if (object != null) {
+                        uncommittedCount++;
+                    }
+                    return;
+                }
+                if (object != null) {
+                    statement.addBatchObject(object);
+                    pendingCount++;
+                    if (statement.getBatchSize() >= batchSize) {
+                        statement.executeBatch();
+                    }
+                }
+                final long now = System.currentTimeMillis();
+                if (pendingCount >= commitInterval
+                        || (commitIntervalMillis > 0 && pendingCount > 0 && now - lastCommitTime >= commitIntervalMillis)) {
+                    commit(statement);
+                    lastCommitTime = now;
+                } else if (object == null) {
+                    lastCommitTime = now;
+                }
+            }
+            if (state.isAborted()) {
+                rollback();
+            } else {
+                commit(statement);
+            }
+        }
+
+        /**
+         * バッチ実行していない登録内容をバッチ実行し、コミットする。
+         *
+         * @param statement ステートメント
+         */
+        private void commit(ParameterizedSqlPStatement statement) {
+            if (statement.getBatchSize() > 0) {
+                statement.executeBatch();
+            }
+            transactionManager.commitTransaction();
+            committedCount += pendingCount;
+            pendingCount = 0;
+        }
+
+        /**
+         * コミットしていない登録内容をロールバックする。
+         */
+        private void rollback() {
+            transactionManager.rollbackTransaction();
+            uncommittedCount += pendingCount;
+            pendingCount = 0;
+        }
+
+        /**
+         * 例外が発生した場合の処理を行う。
+         * <p/>
+         * 処理全体を中断し、コミットしていない登録内容をロールバックする。
+         *
+         * @param failure 発生した例外
+         */
+        private void fail(Throwable failure) {
+            state.abort(failure);
+            uncommittedCount += pendingCount;
+            pendingCount = 0;
+            try {
+                transactionManager.rollbackTransaction();
+            } catch (RuntimeException e) {
+                LOGGER.logWarn("ParallelBatchWriter failed to rollback.", e);
+            }
+        }
+
+        /**
+         * 入力の終了を示す要素を受け取るまで、キューの要素を取り出す。
+         * <p/>
+         * 取り出したオブジェクトは登録せず、コミットしなかった件数に加える。
+         */
+        private void drain() {
+            boolean interrupted = false;
+            while (!ended) {
+                try {
+                    final Object object = queue.take();
+                    if (object == END) {
+                        ended = true;
+                        break;
+                    }
+                    uncommittedCount++;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package nablarch.core.db.util;
 
 import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * データベースアクセス機能で利用するユーティリティクラス。
@@ -89,17 +93,103 @@ public final class DbUtil {
         if (object == null) {
             return null;
         }
-        int size = getArraySize(object);
+        final List<?> values = toRandomAccessList(object);
+        final int size = values.size();
         if (pos < 0 || pos >= size) {
             throw new IllegalArgumentException(String.format(
                     "specified position is out of range. actual size = [%d], specified position = [%d]",
                     size, pos));
         }
+        return values.get(pos);
+    }
+
+    /**
+     * 配列または、{@link java.util.Collection}オブジェクトを、添字で要素にアクセスできる{@link List}に変換する。<br/>
+     * <p/>
+     * 変換後の{@link List}は{@link RandomAccess}を実装するため、要素の取得は要素数に関わらず一定時間で行える。
+     * IN句のように同一オブジェクトの要素を繰り返し取得する場合は、本メソッドで一度だけ変換し、
+     * 変換後の{@link List}に対して{@link #getArrayValue(Object, int)}を呼び出すこと。
+     * <ul>
+     * <li>{@link RandomAccess}を実装した{@link List}の場合は、そのまま返却する。</li>
+     * <li>上記以外の{@link Collection}の場合は、要素をコピーした{@link List}を返却する。</li>
+     * <li>配列の場合は、配列をラップした{@link List}を返却する。(プリミティブ型の配列の場合、要素はラッパー型となる。)</li>
+     * </ul>
+     * オブジェクトが配列または、Collection以外の場合は、{@link IllegalArgumentException}。<br/>
+     * オブジェクトがnullの場合は、nullを返却する。
+     *
+     * @param object オブジェクト(配列または、Collection)
+     * @return 変換した{@link List}(オブジェクトがnullの場合は、null)
+     */
+    public static List<?> toRandomAccessList(Object object) {
+        if (!isArrayObject(object)) {
+            throw new IllegalArgumentException(String.format(
+                    "object type is invalid. valid object type is Array or Collection. object class = [%s]",
+                    object.getClass().getName()));
+        }
+        if (object == null) {
+            return null;
+        }
+        if (object instanceof List<?> && object instanceof RandomAccess) {
+            return (List<?>) object;
+        }
         if (isCollection(object)) {
-            Object[] objects = ((Collection<?>) object).toArray();
-            return objects[pos];
-        } else {
-            return Array.get(object, pos);
+            return Arrays.asList(((Collection<?>) object).toArray());
+        }
+        if (object instanceof Object[]) {
+            return Arrays.asList((Object[]) object);
+        }
+        return new PrimitiveArrayList(object);
+    }
+
+    /**
+     * プリミティブ型の配列をラップする{@link List}。<br/>
+     * 要素の取得時に{@link Array}によるリフレクションを使用せず、配列の型ごとに直接要素を取得する。
+     */
+    private static final class PrimitiveArrayList extends AbstractList<Object> implements RandomAccess {
+
+        /** ラップする配列 */
+        private final Object array;
+
+        /** 配列の要素数 */
+        private final int size;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param array プリミティブ型の配列
+         */
+        PrimitiveArrayList(Object array) {
+            this.array = array;
+            size = Array.getLength(array);
+        }
+
+        @Override
+        public Object get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index = [" + index + "], size = [" + size + ']');
+            }
+            if (array instanceof int[]) {
+                return ((int[]) array)[index];
+            } else if (array instanceof long[]) {
+                return ((long[]) array)[index];
+            } else if (array instanceof short[]) {
+                return ((short[]) array)[index];
+            } else if (array instanceof byte[]) {
+                return ((byte[]) array)[index];
+            } else if (array instanceof char[]) {
+                return ((char[]) array)[index];
+            } else if (array instanceof boolean[]) {
+                return ((boolean[]) array)[index];
+            } else if (array instanceof double[]) {
+                return ((double[]) array)[index];
+            } else {
+                return ((float[]) array)[index];
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
         }
     }
 }
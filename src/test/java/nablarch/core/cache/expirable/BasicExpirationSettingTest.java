@@ -1,7 +1,10 @@
 package nablarch.core.cache.expirable;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.util.Date;
 
@@ -78,6 +81,35 @@ public class BasicExpirationSettingTest {
         target.evaluate("10ms");
     }
 
+    /** 再読み込みの割合が設定されていない場合、再読み込み日時はnullであること。 */
+    @Test
+    public void testRefreshDateNotSet() {
+        assertThat(target.getRefreshDate("please.change.me.tutorial.ss11AA.W11AA01Action#SELECT"),
+                is(nullValue()));
+    }
+
+    /** 再読み込み日時が、有効期間に割合を乗じた時間だけシステム日時から経過した日時となること。 */
+    @Test
+    public void testRefreshDate() {
+        target.setRefreshAheadRatio(0.8);
+        Date refreshDate = target.getRefreshDate("please.change.me.tutorial.ss11AA.W11AA01Action#SELECT");
+        Date now = systemTimeProvider.getDate();
+        assertThat("有効期間100msの80%", refreshDate.getTime() - now.getTime(), is(80L));
+    }
+
+    /** 再読み込みの割合に不正な値が設定された場合、例外が発生すること。 */
+    @Test
+    public void testInvalidRefreshAheadRatio() {
+        for (double ratio : new double[] {-0.1, 1}) {
+            try {
+                target.setRefreshAheadRatio(ratio);
+                fail("とおらない");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), containsString("refreshAheadRatio must be 0 or more and less than 1."));
+            }
+        }
+    }
+
     /** 登録されていないキー（SQLID）が指定された場合、例外が発生すること。 */
     @Test(expected = IllegalArgumentException.class)
     public void testGetExpiredDateNotRegistered() {
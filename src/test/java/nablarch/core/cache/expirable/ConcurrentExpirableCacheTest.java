@@ -0,0 +1,201 @@
+package nablarch.core.cache.expirable;
+
+import static nablarch.core.util.DateUtil.getDate;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nablarch.util.FixedSystemTimeProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link ConcurrentExpirableCache}のテストクラス。
+ */
+public class ConcurrentExpirableCacheTest {
+
+    /** テスト対象 */
+    private ConcurrentExpirableCache<Integer, String> target = new ConcurrentExpirableCache<Integer, String>();
+
+    /** テスト用のリスナーが記録したイベント(複数スレッドから記録されるため同期化する) */
+    private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() {
+        target.setSystemTimeProvider(new FixedSystemTimeProvider("20140101000000"));
+        target.setCacheSize(100);
+        target.setCacheListener(new ExpirableCacheListener<Integer>() {
+            @Override
+            public void onCacheHit(Integer key, Date now) {
+                events.add("hit:" + key);
+            }
+
+            @Override
+            public void onCacheNotHit(Integer key) {
+                events.add("miss:" + key);
+            }
+
+            @Override
+            public void onExpire(Integer key, Date now, Date expiredDate) {
+                events.add("expire:" + key);
+            }
+
+            @Override
+            public void onCacheAdded(Integer key, Date expiredDate) {
+                events.add("add:" + key);
+            }
+
+            @Override
+            public void onRemove(Integer key) {
+                events.add("remove:" + key);
+            }
+
+            @Override
+            public void onClear() {
+                events.add("clear");
+            }
+        });
+    }
+
+    /** 値の追加、取得、削除ができ、リスナーがコールバックされること。 */
+    @Test
+    public void testAddGetRemove() {
+        target.add(1, "1", getDate("20140101"));
+        target.addUnlimited(2, "2");
+        target.add(3, "3", getDate("20131231"));
+
+        assertThat(target.getIfNotExpired(1), is("1"));
+        assertThat(target.getIfNotExpired(2), is("2"));
+        assertThat("有効期限切れ", target.getIfNotExpired(3), is(nullValue()));
+        assertThat("有効期限切れのエントリは削除されていること", target.size(), is(2));
+        assertThat(target.getIfNotExpired(4), is(nullValue()));
+
+        target.remove(1);
+        target.remove(1);
+        assertThat(target.getIfNotExpired(1), is(nullValue()));
+
+        target.clear();
+        assertThat(target.getIfNotExpired(2), is(nullValue()));
+        assertThat(target.size(), is(0));
+
+        assertThat(events.toString(), is("[add:1, add:2, add:3, hit:1, hit:2, expire:3, miss:4,"
+                + " remove:1, miss:1, clear, miss:2]"));
+    }
+
+    /** セグメントが1つの場合、キャッシュ上限値を超えると最も参照されていないエントリが削除されること。 */
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        target.setConcurrencyLevel(1);
+        target.setCacheSize(3);
+
+        target.addUnlimited(1, "1");
+        target.addUnlimited(2, "2");
+        target.addUnlimited(3, "3");
+        target.getIfNotExpired(1);
+        target.addUnlimited(4, "4");
+
+        assertThat(target.size(), is(3));
+        assertThat(target.getIfNotExpired(1), is("1"));
+        assertThat("最も参照されていないエントリが削除されていること", target.getIfNotExpired(2), is(nullValue()));
+        assertThat(target.getIfNotExpired(3), is("3"));
+        assertThat(target.getIfNotExpired(4), is("4"));
+    }
+
+    /** キャッシュの件数が、セグメントごとの上限値の合計を超えないこと。 */
+    @Test
+    public void testBoundedSize() {
+        target.setConcurrencyLevel(4);
+        target.setCacheSize(10);
+        for (int i = 0; i < 1000; i++) {
+            target.addUnlimited(i, String.valueOf(i));
+        }
+        // セグメントごとの上限値は 10 / 4 の切り上げで3件
+        assertTrue("size = " + target.size(), target.size() <= 12);
+        assertTrue("size = " + target.size(), target.size() >= 10);
+    }
+
+    /** キャッシュ上限値がセグメント数より小さい場合、セグメント数はキャッシュ上限値となること。 */
+    @Test
+    public void testCacheSizeSmallerThanConcurrencyLevel() {
+        target.setCacheSize(2);
+        for (int i = 0; i < 100; i++) {
+            target.addUnlimited(i, String.valueOf(i));
+        }
+        assertThat(target.size(), is(2));
+    }
+
+    /** 複数スレッドから同時にアクセスできること。 */
+    @Test(timeout = 30 * 1000)
+    public void testMultiThread() throws Exception {
+        target.setCacheSize(64);
+        final ExecutorService service = Executors.newFixedThreadPool(16);
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int t = 0; t < 16; t++) {
+                final int seed = t;
+                futures.add(service.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < 10000; i++) {
+                            final int key = (i * 31 + seed) % 128;
+                            final String value = target.getIfNotExpired(key);
+                            if (value == null) {
+                                target.addUnlimited(key, String.valueOf(key));
+                            } else {
+                                assertThat(value, is(String.valueOf(key)));
+                            }
+                            if (i % 1000 == 0) {
+                                target.remove(key);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            service.shutdown();
+        }
+        assertTrue("size = " + target.size(), target.size() <= 64);
+    }
+
+    /** 不正な設定値の場合は例外が送出されること。 */
+    @Test
+    public void testInvalidSettings() {
+        try {
+            target.setCacheSize(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("cacheSize must be greater than 0. cacheSize = [0]"));
+        }
+        try {
+            target.setConcurrencyLevel(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("concurrencyLevel must be greater than 0. concurrencyLevel = [0]"));
+        }
+    }
+
+    /** プロパティcacheSizeが設定されていない場合、例外が発生すること。 */
+    @Test(expected = IllegalStateException.class)
+    public void testCacheSizeNotSet() {
+        ConcurrentExpirableCache<Integer, String> target = new ConcurrentExpirableCache<Integer, String>();
+        target.setSystemTimeProvider(new FixedSystemTimeProvider("20140101000000"));
+        target.setConcurrencyLevel(4);
+        target.addUnlimited(1, "1");
+    }
+}
@@ -0,0 +1,100 @@
+package nablarch.core.cache.expirable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nablarch.core.date.BasicSystemTimeProvider;
+
+/**
+ * {@link InMemoryExpirableCache}と{@link ConcurrentExpirableCache}の、
+ * マルチスレッド環境でのスループットを比較するベンチマーク。
+ * <p/>
+ * キャッシュにヒットする参照(一部は追加)を、指定したスレッド数で同時に実行し、1秒あたりの操作数を出力する。
+ * <pre>
+ * java nablarch.core.cache.expirable.ExpirableCacheBenchmark [スレッド数] [1スレッドあたりの操作数]
+ * </pre>
+ */
+public class ExpirableCacheBenchmark {
+
+    /** キャッシュ上限値 */
+    private static final int CACHE_SIZE = 1000;
+
+    /** 参照するキーの種類 */
+    private static final int KEY_COUNT = 800;
+
+    /** 計測の繰り返し回数(初回はウォームアップ) */
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        final int operations = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+        System.out.println("threads=" + threads + ", operations/thread=" + operations);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            final InMemoryExpirableCache<Integer, String> synchronizedCache = new InMemoryExpirableCache<Integer, String>();
+            synchronizedCache.setCacheSize(CACHE_SIZE);
+            final ConcurrentExpirableCache<Integer, String> concurrentCache = new ConcurrentExpirableCache<Integer, String>();
+            concurrentCache.setCacheSize(CACHE_SIZE);
+
+            final String label = round == 0 ? " (warm up)" : "";
+            System.out.printf("InMemoryExpirableCache   : %,12.0f ops/sec%s%n",
+                    run(synchronizedCache, threads, operations), label);
+            System.out.printf("ConcurrentExpirableCache : %,12.0f ops/sec%s%n",
+                    run(concurrentCache, threads, operations), label);
+        }
+    }
+
+    /**
+     * キャッシュへのアクセスを同時に実行し、スループットを計測する。
+     *
+     * @param cache 計測対象のキャッシュ
+     * @param threads スレッド数
+     * @param operations 1スレッドあたりの操作数
+     * @return 1秒あたりの操作数
+     */
+    private static double run(final ExpirableCacheTemplate<Integer, String> cache, int threads,
+            final int operations) throws Exception {
+        cache.setSystemTimeProvider(new BasicSystemTimeProvider());
+        for (int i = 0; i < KEY_COUNT; i++) {
+            cache.addUnlimited(i, String.valueOf(i));
+        }
+
+        final ExecutorService service = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int t = 0; t < threads; t++) {
+                final int seed = t;
+                futures.add(service.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        int key = seed;
+                        start.await();
+                        for (int i = 0; i < operations; i++) {
+                            key = (key * 1103515245 + 12345) & Integer.MAX_VALUE;
+                            final int k = key % KEY_COUNT;
+                            if (cache.getIfNotExpired(k) == null) {
+                                cache.addUnlimited(k, String.valueOf(k));
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            final long begin = System.nanoTime();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            final long elapsed = System.nanoTime() - begin;
+            return (double) threads * operations * 1000000000L / elapsed;
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -56,4 +56,22 @@ public class ExpirableTest {
     public void testGetDate() {
         assertThat(target.getExpiredDate(), is(DateUtil.getDate("20140101")));
     }
+
+    /**
+     * 再読み込み日時を過ぎている場合、再読み込みの開始は1度のみ真を返却すること。
+     */
+    @Test
+    public void testStartRefresh() {
+        Expirable<String> target = new Expirable<String>(
+                "content", DateUtil.getDate("20140102"), DateUtil.getDate("20140101"));
+        assertThat("再読み込み日時前", target.startRefresh(DateUtil.getDate("20131231")), is(false));
+        assertThat(target.startRefresh(DateUtil.getDate("20140101")), is(true));
+        assertThat("開始済み", target.startRefresh(DateUtil.getDate("20140101")), is(false));
+    }
+
+    /** 再読み込み日時が指定されていない場合、再読み込みは開始されないこと。 */
+    @Test
+    public void testStartRefreshWithoutRefreshDate() {
+        assertThat(target.startRefresh(DateUtil.getDate("20131231")), is(false));
+    }
 }
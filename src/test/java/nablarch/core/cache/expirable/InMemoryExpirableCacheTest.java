@@ -4,6 +4,7 @@ import static nablarch.core.util.DateUtil.getDate;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.util.Date;
 
@@ -68,6 +69,28 @@ public class InMemoryExpirableCacheTest {
                    listener.expired, is(true));
     }
 
+    /**
+     * 再読み込み日時を過ぎた有効期限内のエントリは、値が取得でき、
+     * 再読み込みの開始は1度のみ真を返却すること。
+     */
+    @Test
+    public void testStartRefresh() {
+        target.add(1, "1", getDate("20140102"), getDate("20131231"));
+        target.add(2, "2", getDate("20140102"), getDate("20140102"));
+        target.add(3, "3", getDate("20131231"), getDate("20131230"));
+
+        assertThat(target.getIfNotExpired(1), is("1"));
+        assertThat(target.startRefresh(1), is(true));
+        assertThat("開始済み", target.startRefresh(1), is(false));
+
+        target.add(1, "1", getDate("20140102"), getDate("20131231"));
+        assertThat("再設定後は再び開始できる", target.startRefresh(1), is(true));
+
+        assertThat("再読み込み日時前", target.startRefresh(2), is(false));
+        assertThat("有効期限切れ", target.startRefresh(3), is(false));
+        assertThat("キャッシュにない", target.startRefresh(4), is(false));
+    }
+
     /** 有効期限指定なしでキャッシュに追加されたエントリが取得できること。 */
     @Test
     public void testGetUnlimited() {
@@ -157,6 +180,147 @@ public class InMemoryExpirableCacheTest {
 
     }
 
+    /** 件数の上限値を超過した場合、最も参照されていないエントリが削除され、削除件数が計上されること。 */
+    @Test
+    public void testEvictionCountByCacheSize() {
+        target.add(1, "1", getDate("20140102"));
+        target.add(2, "2", getDate("20140102"));
+        target.add(3, "3", getDate("20140102"));
+        target.add(3, "3", getDate("20140102"));
+        assertThat("既存のキーの置き換えは削除ではない", target.getEvictionCount(), is(0L));
+
+        target.getIfNotExpired(1);
+        target.add(4, "4", getDate("20140102"));
+        assertThat(target.getEvictionCount(), is(1L));
+        assertThat(target.getIfNotExpired(2), is(nullValue()));
+        assertThat("重みの上限値を設定していない", target.getWeight(), is(0L));
+    }
+
+    /**
+     * 重みの合計が上限値を超過した場合、上限値以下となるまで
+     * 最も参照されていないエントリから削除されること。
+     */
+    @Test
+    public void testMaxWeight() {
+        target = createWeightedCache(10);
+        target.add(1, "aaa", getDate("20140102"));
+        target.add(2, "bbb", getDate("20140102"));
+        target.add(3, "ccc", getDate("20140102"));
+        assertThat(target.getWeight(), is(9L));
+
+        target.getIfNotExpired(1);
+        target.add(4, "dddddd", getDate("20140102"));
+        assertThat("2と3が削除される", target.getWeight(), is(9L));
+        assertThat(target.getEvictionCount(), is(2L));
+        assertThat(target.getIfNotExpired(1), is("aaa"));
+        assertThat(target.getIfNotExpired(2), is(nullValue()));
+        assertThat(target.getIfNotExpired(3), is(nullValue()));
+        assertThat(target.getIfNotExpired(4), is("dddddd"));
+
+        target.add(5, "eeeeeeeeeee", getDate("20140102"));
+        assertThat("上限値を超える値は直ちに削除される", target.getIfNotExpired(5), is(nullValue()));
+        assertThat(target.getIfNotExpired(1), is(nullValue()));
+        assertThat(target.getIfNotExpired(4), is(nullValue()));
+        assertThat(target.getWeight(), is(0L));
+        assertThat(target.getEvictionCount(), is(5L));
+    }
+
+    /** 置き換え、削除、有効期限切れ、全クリアにより、重みの合計が減算されること。 */
+    @Test
+    public void testWeightUpdated() {
+        target = createWeightedCache(100);
+        target.add(1, "aaaa", getDate("20140102"));
+        target.add(2, "bb", getDate("20140102"));
+        target.add(1, "a", getDate("20140102"));
+        assertThat("置き換え", target.getWeight(), is(3L));
+
+        target.remove(2);
+        assertThat("削除", target.getWeight(), is(1L));
+
+        target.add(3, "ccc", getDate("20131231"));
+        assertThat(target.getIfNotExpired(3), is(nullValue()));
+        assertThat("有効期限切れ", target.getWeight(), is(1L));
+
+        target.clear();
+        assertThat("全クリア", target.getWeight(), is(0L));
+        assertThat("上限値の超過による削除ではない", target.getEvictionCount(), is(0L));
+    }
+
+    /** 件数と重みの両方の上限値を設定した場合、いずれかの上限値を超過した時点で削除されること。 */
+    @Test
+    public void testMaxWeightWithCacheSize() {
+        target.setMaxWeight(10);
+        target.setWeigher(new LengthWeigher());
+        target.add(1, "a", getDate("20140102"));
+        target.add(2, "b", getDate("20140102"));
+        target.add(3, "c", getDate("20140102"));
+        target.add(4, "d", getDate("20140102"));
+        assertThat("件数の上限値による削除", target.getIfNotExpired(1), is(nullValue()));
+        assertThat("削除されたエントリの重みが減算されていること", target.getWeight(), is(3L));
+
+        target.add(5, "eeeeeeeee", getDate("20140102"));
+        assertThat("重みの上限値による削除", target.getWeight(), is(10L));
+        assertThat(target.getIfNotExpired(4), is("d"));
+        assertThat(target.getIfNotExpired(5), is("eeeeeeeee"));
+        assertThat(target.getEvictionCount(), is(3L));
+    }
+
+    /** 重みの上限値に0以下を設定した場合、例外が発生すること。 */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxWeight() {
+        target.setMaxWeight(0);
+    }
+
+    /** 重みの上限値を設定して、重みを算出するクラスを設定していない場合、例外が発生すること。 */
+    @Test(expected = IllegalStateException.class)
+    public void testWeigherNotSet() {
+        InMemoryExpirableCache<Integer, String> target = new InMemoryExpirableCache<Integer, String>();
+        target.setSystemTimeProvider(new FixedSystemTimeProvider("20140101000000"));
+        target.setMaxWeight(10);
+        target.add(1, "1", getDate("20140102"));
+    }
+
+    /** 重みが負の値の場合、例外が発生し、キャッシュに追加されないこと。 */
+    @Test
+    public void testNegativeWeight() {
+        target = createWeightedCache(10);
+        target.setWeigher(new Weigher<Integer, String>() {
+            @Override
+            public long weigh(Integer key, String value) {
+                return -1;
+            }
+        });
+        try {
+            target.add(1, "1", getDate("20140102"));
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("weight must not be negative. key = [1], weight = [-1]"));
+        }
+        assertThat(target.getIfNotExpired(1), is(nullValue()));
+    }
+
+    /**
+     * 件数の上限値を設定せず、重みの上限値を設定したキャッシュを生成する。
+     *
+     * @param maxWeight 重みの上限値
+     * @return キャッシュ
+     */
+    private InMemoryExpirableCache<Integer, String> createWeightedCache(long maxWeight) {
+        InMemoryExpirableCache<Integer, String> cache = new InMemoryExpirableCache<Integer, String>();
+        cache.setSystemTimeProvider(new FixedSystemTimeProvider("20140101000000"));
+        cache.setMaxWeight(maxWeight);
+        cache.setWeigher(new LengthWeigher());
+        return cache;
+    }
+
+    /** 文字列の長さを重みとする{@link Weigher}。 */
+    private static class LengthWeigher implements Weigher<Integer, String> {
+        @Override
+        public long weigh(Integer key, String value) {
+            return value.length();
+        }
+    }
+
     /**
      * テスト用のモックリスナー。
      * コールバックされた時、各イベントに対応するフラグが設定される。
@@ -0,0 +1,88 @@
+package nablarch.core.db.cache;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import nablarch.core.db.cache.InMemoryResultSetCacheTest.MockSqlResultSet;
+import nablarch.core.util.DateUtil;
+import nablarch.test.support.log.app.OnMemoryLogWriter;
+import nablarch.util.FixedSystemTimeProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link ConcurrentResultSetCache}のテストクラス。
+ */
+public class ConcurrentResultSetCacheTest {
+
+    /** ログライター名 */
+    private static final String WRITER_NAME = "writer.memory";
+
+    /** テスト対象 */
+    private ConcurrentResultSetCache target = new ConcurrentResultSetCache();
+
+    /** システム日時 */
+    private FixedSystemTimeProvider timeProvider = new FixedSystemTimeProvider("20140101000000");
+
+    @Before
+    public void setUp() {
+        target.setCacheSize(10);
+        target.setSystemTimeProvider(timeProvider);
+        OnMemoryLogWriter.clear();
+    }
+
+    /** キャッシュにエントリを追加できること。 */
+    @Test
+    public void testAdd() {
+        ResultSetCacheKey key = new ResultSetCacheKeyBuilder("001").addParam("name", "yamada").build();
+        assertThat(target.getIfNotExpired(key), is(nullValue()));
+
+        target.add(key, new MockSqlResultSet(), DateUtil.getDate("20140101"));
+        assertThat("キャッシュに追加されている", target.getIfNotExpired(key), is(not(nullValue())));
+    }
+
+    /** ロガーが有効な場合、各イベントがログ出力されること。 */
+    @Test
+    public void testWhenLoggerEnable() {
+        target.setCacheSize(1);
+
+        ResultSetCacheKey one = new ResultSetCacheKeyBuilder("SQL_001").build();
+        target.add(one, new MockSqlResultSet(), DateUtil.getDate("20140101"));
+        OnMemoryLogWriter.assertLogContains(WRITER_NAME, "cache entry added:",
+                "key=[sqlId='SQL_001', params={}, startPos=1, max=0}]");
+
+        // ２つめを登録（１つめは押し出される）
+        ResultSetCacheKey two = new ResultSetCacheKeyBuilder("SQL_002").build();
+        target.add(two, new MockSqlResultSet(), DateUtil.getDate("20140102"));
+        OnMemoryLogWriter.assertLogContains(WRITER_NAME, "the eldest entry removed:");
+
+        target.getIfNotExpired(two);
+        OnMemoryLogWriter.assertLogContains(WRITER_NAME, "cache hit:");
+
+        target.clear();
+        OnMemoryLogWriter.assertLogContains(WRITER_NAME, "cache cleared");
+    }
+
+    /** ロガーが無効な場合、ログ出力されないこと。 */
+    @Test
+    public void testLoggerOff() {
+        target = new ConcurrentResultSetCache() {
+            @Override
+            boolean isLoggerEnabled() {
+                return false;
+            }
+        };
+        target.setCacheSize(100);
+        target.setSystemTimeProvider(timeProvider);
+
+        target.add(new ResultSetCacheKeyBuilder("SQL_001").build(), new MockSqlResultSet(),
+                DateUtil.getDate("20140101"));
+        List<String> log = OnMemoryLogWriter.getMessages(WRITER_NAME);
+        assertThat(log.isEmpty(), is(true));
+    }
+}
@@ -6,9 +6,11 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 
 import nablarch.core.db.statement.SqlResultSet;
+import nablarch.core.db.statement.SqlRow;
 import nablarch.core.util.DateUtil;
 import nablarch.test.support.log.app.OnMemoryLogWriter;
 import nablarch.util.FixedSystemTimeProvider;
@@ -127,6 +129,41 @@ public class InMemoryResultSetCacheTest {
         assertLog("cache cleared");
     }
 
+    /**
+     * 重みの上限値を設定した場合、デフォルトでは結果セットの推定バイト数で
+     * キャッシュの上限が管理されること。
+     */
+    @Test
+    public void testMaxWeight() {
+        final SqlResultSetWeigher weigher = new SqlResultSetWeigher();
+        final SqlResultSet small = new MockSqlResultSet();
+        final SqlResultSet large = new MockSqlResultSet();
+        for (int i = 0; i < 100; i++) {
+            large.add(new SqlRow(new HashMap<String, Object>(), new HashMap<String, Integer>()));
+        }
+        final long smallWeight = weigher.weigh(key, small);
+        final long largeWeight = weigher.weigh(key, large);
+
+        target = new InMemoryResultSetCache();
+        target.setSystemTimeProvider(timeProvider);
+        target.setMaxWeight(largeWeight + smallWeight);
+
+        ResultSetCacheKey one = new ResultSetCacheKeyBuilder("SQL_001").build();
+        ResultSetCacheKey two = new ResultSetCacheKeyBuilder("SQL_002").build();
+        ResultSetCacheKey three = new ResultSetCacheKeyBuilder("SQL_003").build();
+        target.add(one, small, DateUtil.getDate("20140102"));
+        target.add(two, small, DateUtil.getDate("20140102"));
+        assertThat(target.getWeight(), is(smallWeight * 2));
+        clearLog();
+
+        target.add(three, large, DateUtil.getDate("20140102"));
+        assertThat(target.getWeight(), is(largeWeight + smallWeight));
+        assertThat(target.getEvictionCount(), is(1L));
+        assertThat(target.getIfNotExpired(one), is(nullValue()));
+        assertThat(target.getIfNotExpired(two), is(not(nullValue())));
+        assertLog("the eldest entry removed:", "sqlId='SQL_001'");
+    }
+
     /** ロガーが無効な場合のテスト */
     @Test
     public void testLoggerOff() {
@@ -0,0 +1,247 @@
+package nablarch.core.db.cache;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlResultSet;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+/**
+ * {@link SqlResultSetWeigher}のテストクラス。
+ */
+public class SqlResultSetWeigherTest {
+
+    /** テスト対象 */
+    private final SqlResultSetWeigher sut = new SqlResultSetWeigher();
+
+    /** キャッシュキー */
+    private final ResultSetCacheKey key = new ResultSetCacheKeyBuilder("SQL_001").build();
+
+    /** 行数と列数、値の大きさに応じた推定バイト数が算出されること。 */
+    @Test
+    public void testWeigh() {
+        assertThat("空の結果セット", sut.weigh(key, resultSet(0, "value")), is(40L));
+
+        // 結果セット(40) + カラム名の情報(700 + 160 + "COL1" × 2) + 1行(4 + 136 + 配列(24) + "value")
+        final long oneRow = sut.weigh(key, resultSet(1, "value"));
+        assertThat(oneRow, is(40L + (700 + 160 + 48 * 2) + (4 + 136 + 24 + 56)));
+
+        final long tenRows = sut.weigh(key, resultSet(10, "value"));
+        assertThat("カラム名の情報は1回だけ算出され、行数に比例する", tenRows - oneRow, is((4L + 136 + 24 + 56) * 9));
+
+        final long twoColumns = sut.weigh(key, resultSet(1, "value", "value"));
+        assertThat("列数に応じて増加する", twoColumns > oneRow, is(true));
+
+        final long shortValue = sut.weigh(key, resultSet(1, "a"));
+        final long longValue = sut.weigh(key, resultSet(1, "aaaaa"));
+        assertThat("文字列の長さに応じて増加する", longValue - shortValue, is(8L));
+
+        final long nullValue = sut.weigh(key, resultSet(1, (Object) null));
+        assertThat("nullは配列の要素の分のみ", shortValue - nullValue, is(48L));
+    }
+
+    /** 値の型ごとに推定バイト数が算出されること。 */
+    @Test
+    public void testEstimateValueSize() {
+        assertThat(sut.estimateValueSize(null), is(0L));
+        assertThat(sut.estimateValueSize("abc"), is(48L));
+        assertThat(sut.estimateValueSize("abcd"), is(48L));
+        assertThat(sut.estimateValueSize("abcde"), is(56L));
+        assertThat(sut.estimateValueSize(new byte[10]), is(32L));
+        assertThat(sut.estimateValueSize(1), is(16L));
+        assertThat(sut.estimateValueSize(Boolean.TRUE), is(16L));
+        assertThat(sut.estimateValueSize(1L), is(24L));
+        assertThat(sut.estimateValueSize(new BigDecimal("1.5")), is(100L));
+        assertThat("桁数に応じて増加する",
+                sut.estimateValueSize(new BigDecimal("12345678901234567890.5")) > 100L, is(true));
+        assertThat(sut.estimateValueSize(new Timestamp(0)), is(32L));
+        assertThat(sut.estimateValueSize(new Date(0)), is(24L));
+        assertThat("不明な型", sut.estimateValueSize(new Object()), is(64L));
+    }
+
+    /**
+     * 推定バイト数が、実際に結果セットが使用するヒープのバイト数と近い値となること。
+     * <p/>
+     * 推定値が前提とする圧縮参照が無効なJVMでは実施しない。
+     */
+    @Test
+    public void testWeighComparedWithMeasuredFootprint() throws Exception {
+        final HotSpotDiagnosticMXBean hotSpot = ManagementFactory.newPlatformMXBeanProxy(
+                ManagementFactory.getPlatformMBeanServer(), "com.sun.management:type=HotSpotDiagnostic",
+                HotSpotDiagnosticMXBean.class);
+        Assume.assumeThat(hotSpot.getVMOption("UseCompressedOops").getValue(), is("true"));
+
+        final int count = 20;
+        final SqlResultSet[] resultSets = new SqlResultSet[count];
+        // クラスのロードなどを測定対象に含めないため、事前に1度実行する。
+        sut.weigh(key, measuredResultSet(1));
+
+        final long before = usedMemory();
+        for (int i = 0; i < count; i++) {
+            resultSets[i] = measuredResultSet(500);
+        }
+        final long measured = usedMemory() - before;
+
+        long estimated = 0;
+        for (SqlResultSet resultSet : resultSets) {
+            estimated += sut.weigh(key, resultSet);
+        }
+        assertThat("推定値 = [" + estimated + "], 実測値 = [" + measured + ']',
+                Math.abs(estimated - measured) < measured * 0.2, is(true));
+    }
+
+    /**
+     * GC後のヒープの使用量を取得する。
+     *
+     * @return ヒープの使用量(バイト数)
+     * @throws InterruptedException 割り込みが発生した場合
+     */
+    private static long usedMemory() throws InterruptedException {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * 全ての行が同じ値を持つ結果セットを生成する。
+     * <p/>
+     * カラム名は、COL1から始まる連番とする。
+     *
+     * @param rows 行数
+     * @param values カラムの値
+     * @return 結果セット
+     */
+    private static SqlResultSet resultSet(int rows, final Object... values) {
+        return retrieve(rows, values.length, new ValueFactory() {
+            @Override
+            public Object create(int row, int column) {
+                return values[column - 1];
+            }
+        });
+    }
+
+    /**
+     * 実測値と比較するための結果セットを生成する。
+     * <p/>
+     * 全ての値は、行ごとに異なるインスタンスとする。
+     *
+     * @param rows 行数
+     * @return 結果セット
+     */
+    private static SqlResultSet measuredResultSet(int rows) {
+        return retrieve(rows, 4, new ValueFactory() {
+            @Override
+            public Object create(int row, int column) {
+                switch (column) {
+                    case 1:
+                        return Integer.valueOf(1000 + row);
+                    case 2:
+                        return Long.valueOf(1000L + row);
+                    case 3:
+                        return "name" + row;
+                    default:
+                        return row % 2 == 0 ? null : "description of row " + row;
+                }
+            }
+        });
+    }
+
+    /**
+     * {@link ResultSetIterator}から結果セットを生成する。
+     *
+     * @param rows 行数
+     * @param columns カラム数
+     * @param factory カラムの値を生成するクラス
+     * @return 結果セット
+     */
+    private static SqlResultSet retrieve(int rows, int columns, ValueFactory factory) {
+        return new SqlResultSet(new ResultSetIterator(resultSetStub(rows, columns, factory), null), 1, rows);
+    }
+
+    /**
+     * 指定された行数、カラム数の{@link ResultSet}を生成する。
+     *
+     * @param rows 行数
+     * @param columns カラム数
+     * @param factory カラムの値を生成するクラス
+     * @return ResultSet
+     */
+    private static ResultSet resultSetStub(final int rows, final int columns, final ValueFactory factory) {
+        final ResultSetMetaData metaData = proxy(ResultSetMetaData.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getColumnCount")) {
+                    return columns;
+                }
+                if (method.getName().equals("getColumnLabel")) {
+                    return "COL" + args[0];
+                }
+                if (method.getName().equals("getColumnType")) {
+                    return Types.VARCHAR;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return proxy(ResultSet.class, new InvocationHandler() {
+            private int row;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getMetaData")) {
+                    return metaData;
+                }
+                if (method.getName().equals("next")) {
+                    return ++row <= rows;
+                }
+                if (method.getName().equals("getObject")) {
+                    return factory.create(row, (Integer) args[0]);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    /**
+     * 指定されたインタフェースのプロキシを生成する。
+     *
+     * @param type インタフェース
+     * @param handler 呼び出しを処理するクラス
+     * @param <T> インタフェースの型
+     * @return プロキシ
+     */
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    /** カラムの値を生成するインタフェース。 */
+    private interface ValueFactory {
+
+        /**
+         * カラムの値を生成する。
+         *
+         * @param row 行番号(1始まり)
+         * @param column カラム番号(1始まり)
+         * @return カラムの値
+         */
+        Object create(int row, int column);
+    }
+}
@@ -0,0 +1,92 @@
+package nablarch.core.db.cache.statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.List;
+
+import nablarch.core.db.cache.statement.BindValueRecorder.BindValue;
+import nablarch.core.db.statement.SqlPStatement;
+
+import org.junit.Test;
+
+import mockit.Mocked;
+import mockit.Verifications;
+
+/**
+ * {@link BindValueRecorder}のテストクラス。
+ */
+public class BindValueRecorderTest {
+
+    @Mocked
+    private PreparedStatement statement;
+
+    @Mocked
+    private SqlPStatement sqlp;
+
+    /** 設定したバインド変数の値が記録され、別のステートメントに再設定できること。 */
+    @Test
+    public void testRecordAndBind() throws Exception {
+        BindValueRecorder sut = new BindValueRecorder(statement);
+        PreparedStatement ps = sut.getStatement();
+        ps.setString(1, "a");
+        ps.setInt(2, 10);
+        ps.setNull(3, Types.VARCHAR);
+        ps.setObject(4, new BigDecimal("1.5"), Types.DECIMAL);
+        ps.setString(1, "b");
+
+        List<BindValue> values = sut.getBindValues();
+        assertThat(values.size(), is(4));
+        for (BindValue value : values) {
+            value.bindTo(sqlp);
+        }
+
+        new Verifications() {{
+            // 記録対象のステートメントに委譲されていること
+            statement.setString(1, "a");
+            statement.setInt(2, 10);
+            statement.setNull(3, Types.VARCHAR);
+            statement.setObject(4, new BigDecimal("1.5"), Types.DECIMAL);
+            statement.setString(1, "b");
+
+            sqlp.setObject(1, "b");
+            sqlp.setObject(2, 10);
+            sqlp.setNull(3, Types.VARCHAR);
+            sqlp.setObject(4, new BigDecimal("1.5"), Types.DECIMAL);
+        }};
+    }
+
+    /** パラメータをクリアした場合、記録された値もクリアされること。 */
+    @Test
+    public void testClearParameters() throws Exception {
+        BindValueRecorder sut = new BindValueRecorder(statement);
+        PreparedStatement ps = sut.getStatement();
+        ps.setString(1, "a");
+        ps.clearParameters();
+
+        assertThat(sut.getBindValues().isEmpty(), is(true));
+        new Verifications() {{
+            statement.clearParameters();
+        }};
+    }
+
+    /** 再設定できない値が含まれる場合、nullが返却されること。 */
+    @Test
+    public void testNotReplayable() throws Exception {
+        BindValueRecorder sut = new BindValueRecorder(statement);
+        sut.getStatement().setString(1, "a");
+        sut.getStatement().setBinaryStream(2, new ByteArrayInputStream(new byte[0]));
+        assertThat("ストリーム", sut.getBindValues(), is(nullValue()));
+
+        sut = new BindValueRecorder(statement);
+        sut.getStatement().setTimestamp(1, new Timestamp(0), Calendar.getInstance());
+        assertThat("カレンダー指定", sut.getBindValues(), is(nullValue()));
+    }
+}
@@ -0,0 +1,169 @@
+package nablarch.core.db.cache.statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nablarch.core.db.cache.ResultSetCacheKey;
+import nablarch.core.db.cache.ResultSetCacheKeyBuilder;
+import nablarch.core.db.statement.SqlResultSet;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * {@link CacheMissCoalescer}のテストクラス。
+ */
+public class CacheMissCoalescerTest {
+
+    /** 待ち合わせるスレッド数 */
+    private static final int WAITERS = 8;
+
+    /** テスト対象 */
+    private final CacheMissCoalescer sut = new CacheMissCoalescer();
+
+    /** キャッシュキー */
+    private final ResultSetCacheKey key = new ResultSetCacheKeyBuilder("SQL_001").build();
+
+    /** 検索の実行回数 */
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    /** 検索の開始を通知するラッチ */
+    private final CountDownLatch loading = new CountDownLatch(1);
+
+    /** 検索の終了を指示するラッチ */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final ExecutorService service = Executors.newFixedThreadPool(WAITERS + 1);
+
+    @After
+    public void tearDown() {
+        service.shutdownNow();
+    }
+
+    /** 同じキャッシュキーの検索は1回のみ実行され、全てのスレッドが同じ結果を取得できること。 */
+    @Test(timeout = 30 * 1000)
+    public void testCoalesce() throws Exception {
+        final SqlResultSet expected = new SqlResultSet(0) {};
+        final List<Future<SqlResultSet>> results = startLoadAndWaiters(new Callable<SqlResultSet>() {
+            @Override
+            public SqlResultSet call() throws Exception {
+                loadCount.incrementAndGet();
+                loading.countDown();
+                release.await();
+                return expected;
+            }
+        });
+        release.countDown();
+
+        for (Future<SqlResultSet> result : results) {
+            assertThat(result.get(), sameInstance(expected));
+        }
+        assertThat("検索は1回のみ実行されること", loadCount.get(), is(1));
+    }
+
+    /** 検索で例外が発生した場合、全てのスレッドに例外が送出され、後続の検索は改めて実行されること。 */
+    @Test(timeout = 30 * 1000)
+    public void testFailure() throws Exception {
+        final List<Future<SqlResultSet>> results = startLoadAndWaiters(new Callable<SqlResultSet>() {
+            @Override
+            public SqlResultSet call() throws Exception {
+                loadCount.incrementAndGet();
+                loading.countDown();
+                release.await();
+                throw new IllegalArgumentException("load failed.");
+            }
+        });
+        release.countDown();
+
+        for (Future<SqlResultSet> result : results) {
+            try {
+                result.get();
+                fail("とおらない");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause().getMessage(), is("load failed."));
+            }
+        }
+        assertThat(loadCount.get(), is(1));
+
+        final SqlResultSet retried = new SqlResultSet(0) {};
+        assertThat("失敗した結果は共有されないこと", sut.load(key, new Callable<SqlResultSet>() {
+            @Override
+            public SqlResultSet call() {
+                return retried;
+            }
+        }), sameInstance(retried));
+    }
+
+    /** 待ち合わせがタイムアウトした場合、自スレッドで検索が実行されること。 */
+    @Test(timeout = 30 * 1000)
+    public void testTimeout() throws Exception {
+        sut.setTimeoutMillis(100);
+        final SqlResultSet slow = new SqlResultSet(0) {};
+        final Future<SqlResultSet> first = service.submit(new Callable<SqlResultSet>() {
+            @Override
+            public SqlResultSet call() throws Exception {
+                return sut.load(key, new Callable<SqlResultSet>() {
+                    @Override
+                    public SqlResultSet call() throws Exception {
+                        loading.countDown();
+                        release.await();
+                        return slow;
+                    }
+                });
+            }
+        });
+        loading.await();
+
+        final SqlResultSet own = new SqlResultSet(0) {};
+        assertThat(sut.load(key, new Callable<SqlResultSet>() {
+            @Override
+            public SqlResultSet call() {
+                return own;
+            }
+        }), sameInstance(own));
+
+        release.countDown();
+        assertThat(first.get(), sameInstance(slow));
+    }
+
+    /**
+     * 検索を実行するスレッドと、その検索結果を待ち合わせるスレッドを開始する。
+     *
+     * @param loader 検索処理
+     * @return 各スレッドの検索結果
+     */
+    private List<Future<SqlResultSet>> startLoadAndWaiters(final Callable<SqlResultSet> loader)
+            throws InterruptedException {
+        final List<Future<SqlResultSet>> results = new ArrayList<Future<SqlResultSet>>();
+        final CountDownLatch started = new CountDownLatch(WAITERS + 1);
+        final Callable<SqlResultSet> caller = new Callable<SqlResultSet>() {
+            @Override
+            public SqlResultSet call() {
+                started.countDown();
+                return sut.load(key, loader);
+            }
+        };
+        results.add(service.submit(caller));
+        loading.await();
+        for (int i = 0; i < WAITERS; i++) {
+            results.add(service.submit(caller));
+        }
+        // 待ち合わせ側のスレッドが検索結果の待ち合わせを開始するまで待つ。
+        started.await();
+        TimeUnit.MILLISECONDS.sleep(200);
+        return results;
+    }
+}
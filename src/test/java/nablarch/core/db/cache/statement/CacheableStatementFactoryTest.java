@@ -5,6 +5,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -23,6 +24,7 @@ import javax.persistence.TemporalType;
 
 import nablarch.core.ThreadContext;
 import nablarch.core.cache.expirable.BasicExpirationSetting;
+import nablarch.core.cache.expirable.ExpirationSetting;
 import nablarch.core.db.DbExecutionContext;
 import nablarch.core.db.cache.InMemoryResultSetCache;
 import nablarch.core.db.cache.ResultSetCache;
@@ -41,6 +43,7 @@ import nablarch.core.util.Builder;
 import nablarch.test.support.SystemRepositoryResource;
 import nablarch.test.support.db.helper.DatabaseTestRunner;
 import nablarch.test.support.db.helper.VariousDbTestHelper;
+import nablarch.util.FixedSystemTimeProvider;
 
 import org.junit.After;
 import org.junit.Before;
@@ -49,7 +52,10 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import mockit.Deencapsulation;
+import mockit.Expectations;
 import mockit.Mocked;
+import mockit.Verifications;
 
 
 /**
@@ -80,6 +86,7 @@ public class CacheableStatementFactoryTest {
     @BeforeClass
     public static void setUpClass() {
         VariousDbTestHelper.createTable(CacheStatementFactoryTestEntity.class);
+        VariousDbTestHelper.createTable(CacheStatementFactoryTestOtherEntity.class);
     }
 
     /** 準備 */
@@ -122,6 +129,271 @@ public class CacheableStatementFactoryTest {
 
     }
 
+    /** キャッシュミス時の検索を集約する設定の場合も、結果セットがキャッシュできること。 */
+    @Test
+    public void testCoalesceCacheMiss() throws SQLException {
+        sut.setCoalesceCacheMiss(true);
+        try {
+            String sqlId = PREFIX + "TEST_NO_PARAM";
+            SqlPStatement stmt = conn.prepareStatementBySqlId(sqlId);
+            SqlResultSet rs = stmt.retrieve();
+            assertThat(rs.size(), is(5));
+
+            ResultSetCacheKey key = new ResultSetCacheKeyBuilder(sqlId).build();
+            assertThat("キャッシュにのる", cache.getIfNotExpired(key), is(rs));
+            assertThat(stmt.retrieve(), is(rs));
+        } finally {
+            sut.setCoalesceCacheMiss(false);
+        }
+    }
+
+    /** 待ち合わせのタイムアウトに不正な値を設定した場合、例外が送出されること。 */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCoalesceTimeout() {
+        new CacheableStatementFactory().setCoalesceTimeoutMillis(0);
+    }
+
+    /**
+     * 再読み込み日時を過ぎたキャッシュにヒットした場合、キャッシュされた結果セットが返却され、
+     * 非同期でキャッシュが再読み込みされること。
+     */
+    @Test(timeout = 30 * 1000)
+    public void testRefreshAhead() throws Exception {
+        BasicExpirationSetting expirationSetting = repositoryResource.getComponent("expirationSetting");
+        FixedSystemTimeProvider systemTimeProvider = repositoryResource.getComponent("systemTimeProvider");
+        expirationSetting.setRefreshAheadRatio(0.5);
+        sut.setRefreshConnectionFactoryName("connectionFactory");
+        try {
+            String sqlId = PREFIX + "TEST_WITH_PARAM";
+            Map<String, Object> params = new HashMap<String, Object>();
+            params.put("colName1", "10002");
+            ParameterizedSqlPStatement stmt = conn.prepareParameterizedSqlStatementBySqlId(sqlId, params);
+            assertThat(stmt.retrieve(params).get(0).getString("colName2"), is("abc"));
+
+            VariousDbTestHelper.setUpTable(
+                    new CacheStatementFactoryTestEntity("10002", "xyz", 20000L, java.sql.Date.valueOf("2010-02-01"),
+                            Timestamp.valueOf("2010-11-01 11:28:01.0"), new BigDecimal("99999999999999.011")));
+
+            // 有効期間（1時間）の半分を経過
+            systemTimeProvider.setFixedDate("20140101003000");
+            assertThat("キャッシュされた結果セットが返却される",
+                    stmt.retrieve(params).get(0).getString("colName2"), is("abc"));
+
+            ResultSetCacheKey key = new ResultSetCacheKeyBuilder(sqlId).addParam("colName1", "10002").build();
+            while (!"xyz".equals(cache.getIfNotExpired(key).get(0).getString("colName2"))) {
+                Thread.sleep(10);
+            }
+            assertThat("再読み込みされた結果セットが返却される",
+                    stmt.retrieve(params).get(0).getString("colName2"), is("xyz"));
+        } finally {
+            expirationSetting.setRefreshAheadRatio(0);
+            sut.setRefreshConnectionFactoryName(null);
+            systemTimeProvider.setFixedDate("20140101000000");
+        }
+    }
+
+    /**
+     * テーブルの更新によるキャッシュの無効化と再読み込みを併用した場合、
+     * 再読み込みされた結果セットにも検索開始時のバージョンが記録され、キャッシュとして使用されること。
+     */
+    @Test(timeout = 30 * 1000)
+    public void testRefreshAheadWithInvalidateOnUpdate() throws Exception {
+        BasicExpirationSetting expirationSetting = repositoryResource.getComponent("expirationSetting");
+        FixedSystemTimeProvider systemTimeProvider = repositoryResource.getComponent("systemTimeProvider");
+        expirationSetting.setRefreshAheadRatio(0.5);
+        sut.setRefreshConnectionFactoryName("connectionFactory");
+        sut.setInvalidateOnUpdate(true);
+        try {
+            String sqlId = PREFIX + "TEST_WITH_PARAM";
+            Map<String, Object> params = new HashMap<String, Object>();
+            params.put("colName1", "10002");
+            ParameterizedSqlPStatement stmt = conn.prepareParameterizedSqlStatementBySqlId(sqlId, params);
+            assertThat(stmt.retrieve(params).get(0).getString("colName2"), is("abc"));
+
+            VariousDbTestHelper.setUpTable(
+                    new CacheStatementFactoryTestEntity("10002", "xyz", 20000L, java.sql.Date.valueOf("2010-02-01"),
+                            Timestamp.valueOf("2010-11-01 11:28:01.0"), new BigDecimal("99999999999999.011")));
+
+            // 有効期間（1時間）の半分を経過
+            systemTimeProvider.setFixedDate("20140101003000");
+            assertThat("キャッシュされた結果セットが返却される",
+                    stmt.retrieve(params).get(0).getString("colName2"), is("abc"));
+
+            ResultSetCacheKey key = new ResultSetCacheKeyBuilder(sqlId).addParam("colName1", "10002").build();
+            while (!"xyz".equals(cache.getIfNotExpired(key).get(0).getString("colName2"))) {
+                Thread.sleep(10);
+            }
+
+            // ファクトリを経由せずに検索対象テーブルを更新する(キャッシュが使用されていることの確認用)
+            VariousDbTestHelper.setUpTable(
+                    new CacheStatementFactoryTestEntity("10002", "other", 20000L, java.sql.Date.valueOf("2010-02-01"),
+                            Timestamp.valueOf("2010-11-01 11:28:01.0"), new BigDecimal("99999999999999.011")));
+            assertThat("再読み込みされた結果セットがキャッシュとして使用される",
+                    stmt.retrieve(params).get(0).getString("colName2"), is("xyz"));
+        } finally {
+            expirationSetting.setRefreshAheadRatio(0);
+            sut.setRefreshConnectionFactoryName(null);
+            sut.setInvalidateOnUpdate(false);
+            systemTimeProvider.setFixedDate("20140101000000");
+        }
+    }
+
+    /**
+     * 有効期限設定が再読み込み日時を扱えない場合、再読み込みは行われないこと。
+     */
+    @Test
+    public void testRefreshAhead_notRefreshableExpirationSetting() throws Exception {
+        final BasicExpirationSetting expirationSetting = repositoryResource.getComponent("expirationSetting");
+        expirationSetting.setRefreshAheadRatio(0.5);
+        sut.setExpirationSetting(new ExpirationSetting() {
+            @Override
+            public boolean isCacheEnable(String id) {
+                return expirationSetting.isCacheEnable(id);
+            }
+
+            @Override
+            public Date getExpiredDate(String id) {
+                return expirationSetting.getExpiredDate(id);
+            }
+        });
+        sut.setRefreshConnectionFactoryName("connectionFactory");
+        try {
+            String sqlId = PREFIX + "TEST_WITH_PARAM";
+            Map<String, Object> params = new HashMap<String, Object>();
+            params.put("colName1", "10002");
+            ParameterizedSqlPStatement stmt = conn.prepareParameterizedSqlStatementBySqlId(sqlId, params);
+            assertThat(stmt, instanceOf(CacheableSqlPStatement.class));
+            assertThat("再読み込みするクラスが設定されないこと",
+                    Deencapsulation.getField(stmt, "refresher"), nullValue());
+            assertThat(stmt.retrieve(params).get(0).getString("colName2"), is("abc"));
+        } finally {
+            expirationSetting.setRefreshAheadRatio(0);
+            sut.setExpirationSetting(expirationSetting);
+            sut.setRefreshConnectionFactoryName(null);
+        }
+    }
+
+    /** 検索対象テーブルを更新した場合、キャッシュが無効化されること。 */
+    @Test
+    public void testInvalidateOnUpdate() throws SQLException {
+        sut.setInvalidateOnUpdate(true);
+        try {
+            String sqlId = PREFIX + "TEST_WITH_PARAM";
+            Map<String, Object> params = new HashMap<String, Object>();
+            params.put("colName1", "10002");
+            ParameterizedSqlPStatement stmt = conn.prepareParameterizedSqlStatementBySqlId(sqlId, params);
+            assertThat(stmt.retrieve(params).get(0).getString("colName2"), is("abc"));
+
+            SqlPStatement update = conn.prepareStatement(
+                    "UPDATE CACHE_STATEMENT_TEST_TABLE SET COL_NAME_2 = 'xyz' WHERE COL_NAME_1 = '10002'");
+            assertThat(update.executeUpdate(), is(1));
+            assertThat("キャッシュが無効化され、再検索される",
+                    stmt.retrieve(params).get(0).getString("colName2"), is("xyz"));
+
+            update = conn.prepareStatement(
+                    "UPDATE CACHE_STATEMENT_TEST_TABLE SET COL_NAME_2 = ? WHERE COL_NAME_1 = '10002'");
+            update.setString(1, "batch");
+            update.addBatch();
+            update.executeBatch();
+            assertThat("バッチ実行でも無効化される",
+                    stmt.retrieve(params).get(0).getString("colName2"), is("batch"));
+            assertThat("再検索結果はキャッシュされる",
+                    stmt.retrieve(params), is(cache.getIfNotExpired(
+                            new ResultSetCacheKeyBuilder(sqlId).addParam("colName1", "10002").build())));
+        } finally {
+            sut.setInvalidateOnUpdate(false);
+        }
+    }
+
+    /**
+     * 検索対象テーブルを更新したトランザクションをコミットした場合、
+     * 更新後、コミット前にキャッシュされた結果セットも無効化されること。
+     */
+    @Test
+    public void testInvalidateOnCommit() throws SQLException {
+        sut.setInvalidateOnUpdate(true);
+        try {
+            String sqlId = PREFIX + "TEST_WITH_PARAM";
+            Map<String, Object> params = new HashMap<String, Object>();
+            params.put("colName1", "10002");
+            ParameterizedSqlPStatement stmt = conn.prepareParameterizedSqlStatementBySqlId(sqlId, params);
+
+            SqlPStatement update = conn.prepareStatement(
+                    "UPDATE CACHE_STATEMENT_TEST_TABLE SET COL_NAME_2 = 'xyz' WHERE COL_NAME_1 = '10002'");
+            assertThat(update.executeUpdate(), is(1));
+            assertThat("更新後に検索した結果セットがキャッシュされる",
+                    stmt.retrieve(params).get(0).getString("colName2"), is("xyz"));
+            conn.commit();
+
+            // ファクトリを経由せずに検索対象テーブルを更新する(キャッシュが使用されていないことの確認用)
+            VariousDbTestHelper.setUpTable(
+                    new CacheStatementFactoryTestEntity("10002", "other", 20000L, java.sql.Date.valueOf("2010-02-01"),
+                            Timestamp.valueOf("2010-11-01 11:28:01.0"), new BigDecimal("99999999999999.011")));
+            assertThat("コミットでキャッシュが無効化され、再検索される",
+                    stmt.retrieve(params).get(0).getString("colName2"), is("other"));
+        } finally {
+            sut.setInvalidateOnUpdate(false);
+        }
+    }
+
+    /** SQL IDを使用しないステートメントでも、更新されたテーブルの抽出はステートメントごとに1度のみ行われること。 */
+    @Test
+    public void testExtractTablesOncePerStatement() throws SQLException {
+        sut.setInvalidateOnUpdate(true);
+        try {
+            SqlPStatement update = conn.prepareStatement(
+                    "UPDATE CACHE_STATEMENT_TEST_TABLE SET COL_NAME_2 = 'xyz' WHERE COL_NAME_1 = '10002'");
+            new Expectations(SqlTableNameExtractor.class) {};
+            update.executeUpdate();
+            update.executeUpdate();
+            new Verifications() {{
+                SqlTableNameExtractor.extract(anyString);
+                times = 1;
+            }};
+        } finally {
+            sut.setInvalidateOnUpdate(false);
+        }
+    }
+
+    /** 検索対象でないテーブルを更新した場合、キャッシュは無効化されないこと。 */
+    @Test
+    public void testNotInvalidateOnOtherTableUpdate() throws SQLException {
+        sut.setInvalidateOnUpdate(true);
+        try {
+            String sqlId = PREFIX + "TEST_NO_PARAM";
+            SqlPStatement stmt = conn.prepareStatementBySqlId(sqlId);
+            SqlResultSet rs = stmt.retrieve();
+
+            conn.prepareStatement("INSERT INTO CACHE_STATEMENT_TEST_OTHER VALUES ('1')").executeUpdate();
+            // ファクトリを経由せずに検索対象テーブルを更新する(キャッシュが使用されていることの確認用)
+            VariousDbTestHelper.setUpTable(
+                    new CacheStatementFactoryTestEntity("10001", null, 11111L, java.sql.Date.valueOf("2010-01-01"),
+                            Timestamp.valueOf("2010-11-01 11:28:00.0"), new BigDecimal("9999999999.12345")));
+
+            assertThat("キャッシュされた結果セットが返却される", stmt.retrieve(), is(rs));
+            assertThat(stmt.retrieve().size(), is(5));
+        } finally {
+            sut.setInvalidateOnUpdate(false);
+        }
+    }
+
+    /** 再読み込みの設定値に不正な値を設定した場合、例外が送出されること。 */
+    @Test
+    public void testInvalidRefreshSettings() {
+        try {
+            new CacheableStatementFactory().setRefreshThreadPoolSize(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("refreshThreadPoolSize must be greater than 0. refreshThreadPoolSize = [0]"));
+        }
+        try {
+            new CacheableStatementFactory().setRefreshQueueCapacity(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("refreshQueueCapacity must be greater than 0. refreshQueueCapacity = [0]"));
+        }
+    }
+
     /** キャッシュ対象でないSQLの場合、キャッシュされないこと。（パラメータ無しステートメント） */
     @Test
     public void testNoParamNoCache() throws SQLException {
@@ -472,5 +744,13 @@ public class CacheableStatementFactoryTest {
             this.colName6 = colName6;
         }
     }
-}
 
+    @Entity
+    @Table(name = "CACHE_STATEMENT_TEST_OTHER")
+    public static class CacheStatementFactoryTestOtherEntity {
+
+        @Id
+        @Column(name = "id", length = 1)
+        public String id;
+    }
+}
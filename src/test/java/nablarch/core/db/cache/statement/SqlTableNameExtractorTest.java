@@ -0,0 +1,76 @@
+package nablarch.core.db.cache.statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * {@link SqlTableNameExtractor}のテストクラス。
+ */
+public class SqlTableNameExtractorTest {
+
+    /** 単一テーブルの検索からテーブル名が抽出できること。 */
+    @Test
+    public void testSelect() {
+        assertThat(extract("select * from user_table where id = :id"), is("[USER_TABLE]"));
+        assertThat("スキーマ修飾は除去される", extract("SELECT * FROM app.USER_TABLE u"), is("[USER_TABLE]"));
+    }
+
+    /** 結合、カンマ区切り、副問い合わせのテーブル名が抽出できること。 */
+    @Test
+    public void testJoinAndSubQuery() {
+        assertThat(extract("SELECT * FROM A a1, B AS b1 INNER JOIN C ON b1.id = C.id LEFT OUTER JOIN D d ON d.id = a1.id"),
+                is("[A, B, C, D]"));
+        assertThat(extract("SELECT * FROM (SELECT id FROM E) x, F WHERE x.id IN (SELECT id FROM G)"),
+                is("[E, F, G]"));
+        assertThat(extract("SELECT * FROM H FOR UPDATE"), is("[H]"));
+    }
+
+    /** 更新系のSQL文から更新対象のテーブル名が抽出できること。 */
+    @Test
+    public void testUpdateStatements() {
+        assertThat(extract("INSERT INTO T1 (ID, NAME) VALUES (?, ?)"), is("[T1]"));
+        assertThat(extract("INSERT INTO T1 SELECT * FROM T2"), is("[T1, T2]"));
+        assertThat(extract("UPDATE T3 SET NAME = :name WHERE ID = :id"), is("[T3]"));
+        assertThat(extract("DELETE FROM T4 WHERE ID = ?"), is("[T4]"));
+        assertThat(extract("DELETE T5 WHERE ID = ?"), is("[T5]"));
+        assertThat(extract("MERGE INTO T6 t USING T7 s ON (t.ID = s.ID) WHEN MATCHED THEN UPDATE SET t.NAME = s.NAME"),
+                is("[T6, T7]"));
+        assertThat(extract("TRUNCATE TABLE T8"), is("[T8]"));
+    }
+
+    /** ONLYを指定したSQL文や、INTOを省略したINSERT文からテーブル名が抽出できること。 */
+    @Test
+    public void testOnlyAndInsertWithoutInto() {
+        assertThat(extract("SELECT * FROM ONLY T1 t WHERE ID = ?"), is("[T1]"));
+        assertThat(extract("SELECT * FROM ONLY (T1), ONLY T2 AS t2, T3"), is("[T1, T2, T3]"));
+        assertThat(extract("UPDATE ONLY T4 SET NAME = ?"), is("[T4]"));
+        assertThat(extract("DELETE FROM ONLY T5 WHERE ID = ?"), is("[T5]"));
+        assertThat(extract("INSERT T6 VALUES (?, ?)"), is("[T6]"));
+        assertThat(extract("INSERT T7 (ID) SELECT ID FROM T8"), is("[T7, T8]"));
+        assertThat(extract("TRUNCATE ONLY T9"), is("[T9]"));
+    }
+
+    /** コメント、文字列リテラル、引用符付きの識別子が正しく扱われること。 */
+    @Test
+    public void testCommentsAndQuotes() {
+        assertThat(extract("SELECT 'from X' -- from Y\n FROM /* from Z */ \"Quoted\" WHERE NAME = 'it''s'"),
+                is("[QUOTED]"));
+        assertThat(extract("SELECT * FROM [dbo].[T9]"), is("[T9]"));
+    }
+
+    /** テーブルを参照しないSQL文の場合、空のセットが返却されること。 */
+    @Test
+    public void testNoTable() {
+        assertThat(extract("SELECT 1"), is("[]"));
+        assertThat(extract("{call PROC(?)}"), is("[]"));
+    }
+
+    private static String extract(String sql) {
+        Set<String> tables = SqlTableNameExtractor.extract(sql);
+        return tables.toString();
+    }
+}
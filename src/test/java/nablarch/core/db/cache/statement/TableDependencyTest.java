@@ -0,0 +1,65 @@
+package nablarch.core.db.cache.statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlResultSet;
+
+import org.junit.Test;
+
+import mockit.Mocked;
+
+/**
+ * {@link TableDependency}のテストクラス。
+ */
+public class TableDependencyTest {
+
+    /** テーブルのバージョン */
+    private final TableVersionRegistry registry = new TableVersionRegistry();
+
+    /** 検索結果(レコードなし) */
+    @Mocked
+    private ResultSetIterator rs;
+
+    /** 検索対象テーブルが更新された場合のみ、キャッシュが無効と判定されること。 */
+    @Test
+    public void testIsStale() {
+        TableDependency sut = new TableDependency(registry, tables("A", "B"));
+        SqlResultSet cached = sut.createResultSet(rs, 1, 0, sut.currentVersion());
+        assertThat(sut.isStale(cached), is(false));
+
+        registry.increment(tables("C"));
+        assertThat("依存しないテーブルの更新", sut.isStale(cached), is(false));
+
+        registry.increment(tables("B"));
+        assertThat("依存するテーブルの更新", sut.isStale(cached), is(true));
+
+        cached = sut.createResultSet(rs, 1, 0, sut.currentVersion());
+        assertThat("再検索後", sut.isStale(cached), is(false));
+    }
+
+    /** 検索中にテーブルが更新された場合、キャッシュが無効と判定されること。 */
+    @Test
+    public void testUpdatedDuringRetrieve() {
+        TableDependency sut = new TableDependency(registry, tables("A"));
+        long version = sut.currentVersion();
+        registry.increment(tables("A"));
+        assertThat(sut.isStale(sut.createResultSet(rs, 1, 0, version)), is(true));
+    }
+
+    /** バージョンが記録されていない結果セットは無効と判定されること。 */
+    @Test
+    public void testNotStamped() {
+        TableDependency sut = new TableDependency(registry, tables("A"));
+        assertThat(sut.isStale(new SqlResultSet(0) {}), is(true));
+    }
+
+    private static Set<String> tables(String... names) {
+        return new HashSet<String>(Arrays.asList(names));
+    }
+}
@@ -108,6 +108,9 @@ public class BasicDbConnectionFactoryForDataSourceTest {
         SqlPStatement statement2 = connection.prepareStatement(sql);
         assertThat("デフォルト設定でSqlPStatementが同一のものが返ってくる。",
                 statement1, is(statement2));
+        assertThat("キャッシュのヒット件数が計測されること",
+                factory.getStatementCacheHitCounter().getHitCount(), is(1L));
+        assertThat(factory.getStatementCacheHitCounter().getMissCount(), is(1L));
 
     }
 
@@ -134,6 +137,9 @@ public class BasicDbConnectionFactoryForDataSourceTest {
         SqlPStatement statement2 = connection.prepareStatement(sql);
         assertThat("statementReuseの値をfalseに設定することでSqlPStatementが異なるものが返ってくる。",
                 statement1, not(is(statement2)));
+        assertThat("キャッシュしない場合は計測されないこと",
+                factory.getStatementCacheHitCounter().getHitCount()
+                        + factory.getStatementCacheHitCounter().getMissCount(), is(0L));
 
     }
 
@@ -4,6 +4,7 @@ import static java.lang.Integer.MIN_VALUE;
 import static java.lang.String.format;
 import static java.sql.Statement.NO_GENERATED_KEYS;
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
@@ -14,11 +15,16 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import javax.persistence.Column;
@@ -30,8 +36,12 @@ import javax.sql.DataSource;
 import nablarch.core.db.DbAccessException;
 import nablarch.core.db.DbExecutionContext;
 import nablarch.core.db.connection.exception.BasicDbAccessExceptionFactory;
+import nablarch.core.db.dialect.DB2Dialect;
 import nablarch.core.db.dialect.DefaultDialect;
 import nablarch.core.db.dialect.Dialect;
+import nablarch.core.db.dialect.H2Dialect;
+import nablarch.core.db.dialect.OracleDialect;
+import nablarch.core.db.dialect.SqlServerDialect;
 import nablarch.core.db.statement.BasicSqlLoader;
 import nablarch.core.db.statement.BasicSqlParameterParserFactory;
 import nablarch.core.db.statement.BasicStatementFactory;
@@ -39,6 +49,7 @@ import nablarch.core.db.statement.ParameterizedSqlPStatement;
 import nablarch.core.db.statement.SelectOption;
 import nablarch.core.db.statement.SqlCStatement;
 import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.db.statement.SqlResultSet;
 import nablarch.core.db.statement.SqlStatement;
 import nablarch.core.db.statement.exception.BasicSqlStatementExceptionFactory;
 import nablarch.core.transaction.TransactionContext;
@@ -178,6 +189,60 @@ public class BasicDbConnectionTest {
         target.commit();
     }
 
+    /**
+     * {@link BasicDbConnection#addCommitListener(CommitListener)}のテスト。
+     * <p/>
+     * コミット後に1度だけ通知され、ロールバックした場合は通知されないこと。
+     */
+    @Test
+    public void addCommitListener(@Mocked final Connection mockedConnection) throws Exception {
+        final BasicDbConnection target = createTarget(mockedConnection);
+        final List<String> events = new ArrayList<String>();
+        final CommitListener listener = new CommitListener() {
+            @Override
+            public void onCommitted() {
+                events.add("committed");
+            }
+        };
+
+        target.addCommitListener(listener);
+        target.addCommitListener(listener);
+        target.commit();
+        assertThat("同じリスナーは1度だけ通知される", events, is(Collections.singletonList("committed")));
+        target.commit();
+        assertThat("通知後は登録が解除される", events.size(), is(1));
+
+        target.addCommitListener(listener);
+        target.rollback();
+        target.commit();
+        assertThat("ロールバックで登録が解除される", events.size(), is(1));
+    }
+
+    /**
+     * コミットに失敗した場合、{@link BasicDbConnection#addCommitListener(CommitListener)}で登録したリスナーに
+     * 通知されないこと。
+     */
+    @Test
+    public void addCommitListener_commitFail(@Mocked final Connection mockedConnection) throws Exception {
+        final BasicDbConnection target = createTarget(mockedConnection);
+        new Expectations() {{
+            mockedConnection.commit();
+            result = new SQLException("commit error");
+        }};
+        target.addCommitListener(new CommitListener() {
+            @Override
+            public void onCommitted() {
+                fail("must not be notified.");
+            }
+        });
+        try {
+            target.commit();
+            fail("must be thrown DbAccessException");
+        } catch (DbAccessException e) {
+            assertThat(e.getMessage(), is("failed to commit."));
+        }
+    }
+
     /**
      * {@link BasicDbConnection#rollback()} のテスト。
      */
@@ -1428,6 +1493,235 @@ public class BasicDbConnectionTest {
                 , not(sameInstance(target.prepareStatement("sql", new SelectOption(2, 2)))));
     }
 
+    /**
+     * 取得範囲をバインド変数とするダイアレクトの場合、ページが異なっても同じステートメントが再利用され、
+     * 指定したページのレコードが取得できること。
+     */
+    @Test
+    @TargetDb(include = TargetDb.Db.H2)
+    public void testPrepareStatementWithOptionBindPagination() throws Exception {
+        UserTestEntity[] entities = new UserTestEntity[10];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = new UserTestEntity();
+            entities[i].userId = format("%04d", i + 1);
+            entities[i].userName = "name" + (i + 1);
+            entities[i].tel = "tel";
+        }
+        VariousDbTestHelper.setUpTable(entities);
+        sut.setContext(new DbExecutionContext(sut, new H2Dialect(), TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+        sut.setStatementReuse(true);
+
+        final String sql = SELECT_QUERY + " where user_name like ? order by user_id";
+        SqlPStatement page1 = sut.prepareStatement(sql, new SelectOption(1, 3));
+        page1.setString(1, "name%");
+        assertThat(toUserIds(page1.retrieve()), is(Arrays.asList("0001", "0002", "0003")));
+
+        SqlPStatement page3 = sut.prepareStatement(sql, new SelectOption(7, 3));
+        assertThat("取得範囲のみが異なるので、同じインスタンスが返却される", page3, sameInstance(page1));
+        page3.setString(1, "name%");
+        assertThat(toUserIds(page3.retrieve()), is(Arrays.asList("0007", "0008", "0009")));
+
+        SqlPStatement offsetOnly = sut.prepareStatement(sql, new SelectOption(9, 0));
+        assertThat("limitの有無が異なるので、別のインスタンスが返却される", offsetOnly, not(sameInstance(page1)));
+        offsetOnly.setString(1, "name%");
+        assertThat(toUserIds(offsetOnly.retrieve()), is(Arrays.asList("0009", "0010")));
+
+        final String namedSql = SELECT_QUERY + " where user_name like :userName order by user_id";
+        ParameterizedSqlPStatement named1 = sut.prepareParameterizedSqlStatement(namedSql, new SelectOption(4, 2));
+        assertThat(toUserIds(named1.retrieve(Collections.singletonMap("userName", "name%"))),
+                is(Arrays.asList("0004", "0005")));
+        ParameterizedSqlPStatement named2 = sut.prepareParameterizedSqlStatement(namedSql, new SelectOption(9, 5));
+        assertThat("取得範囲のみが異なるので、同じインスタンスが返却される", named2, sameInstance(named1));
+        assertThat(toUserIds(named2.retrieve(Collections.singletonMap("userName", "name%"))),
+                is(Arrays.asList("0009", "0010")));
+    }
+
+    /**
+     * 取得範囲をバインド変数とするダイアレクトの場合、コメントや引用符で囲まれた識別子、文字列リテラル内の{@code ?}は
+     * バインド変数として数えず、取得範囲の値が正しい位置に設定されること。
+     */
+    @Test
+    @TargetDb(include = TargetDb.Db.H2)
+    public void testPrepareStatementWithOptionBindPaginationQuestionMarkInComment() throws Exception {
+        UserTestEntity[] entities = new UserTestEntity[10];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = new UserTestEntity();
+            entities[i].userId = format("%04d", i + 1);
+            entities[i].userName = "name" + (i + 1);
+            entities[i].tel = "tel";
+        }
+        VariousDbTestHelper.setUpTable(entities);
+        sut.setContext(new DbExecutionContext(sut, new H2Dialect(), TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+
+        final String sql = "select /* user_id = ? */ user_id, 'it''s ?' \"A?\" from " + TEST_TABLE
+                + " -- comment ?\n"
+                + " where user_name like ? order by user_id";
+        SqlPStatement page2 = sut.prepareStatement(sql, new SelectOption(4, 3));
+        page2.setString(1, "name%");
+        final SqlResultSet rows = page2.retrieve();
+        assertThat(toUserIds(rows), is(Arrays.asList("0004", "0005", "0006")));
+        assertThat(rows.get(0).getString("A?"), is("it's ?"));
+    }
+
+    /**
+     * 取得範囲をバインド変数とするダイアレクトを継承し、取得範囲をリテラルとするよう
+     * {@link H2Dialect#convertPaginationSql(String, SelectOption)}をオーバーライドした場合、
+     * 取得範囲のバインド変数は設定されず、指定したページのレコードが取得できること。
+     */
+    @Test
+    @TargetDb(include = TargetDb.Db.H2)
+    public void testPrepareStatementWithOptionLiteralPaginationSubclass() throws Exception {
+        UserTestEntity[] entities = new UserTestEntity[10];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = new UserTestEntity();
+            entities[i].userId = format("%04d", i + 1);
+            entities[i].userName = "name" + (i + 1);
+            entities[i].tel = "tel";
+        }
+        VariousDbTestHelper.setUpTable(entities);
+        sut.setContext(new DbExecutionContext(sut, new H2Dialect() {
+            @Override
+            public String convertPaginationSql(String sql, SelectOption selectOption) {
+                return sql + " limit " + selectOption.getLimit() + " offset " + selectOption.getOffset();
+            }
+        }, TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+        sut.setStatementReuse(true);
+
+        final String sql = SELECT_QUERY + " where user_name like ? order by user_id";
+        SqlPStatement page1 = sut.prepareStatement(sql, new SelectOption(1, 3));
+        page1.setString(1, "name%");
+        assertThat(toUserIds(page1.retrieve()), is(Arrays.asList("0001", "0002", "0003")));
+
+        SqlPStatement page3 = sut.prepareStatement(sql, new SelectOption(7, 3));
+        assertThat("取得範囲がリテラルのため、別のインスタンスが返却される", page3, not(sameInstance(page1)));
+        page3.setString(1, "name%");
+        assertThat(toUserIds(page3.retrieve()), is(Arrays.asList("0007", "0008", "0009")));
+    }
+
+    /**
+     * OFFSET句とFETCH句を使用する設定のダイアレクトの場合、サーバ側でページングが行われ、
+     * 指定したページのレコードが取得できること。
+     * <p/>
+     * 生成されるSQL文は標準SQLの構文のため、H2で実行して確認する。
+     */
+    @Test
+    @TargetDb(include = TargetDb.Db.H2)
+    public void testPrepareStatementWithOptionOffsetFetch() throws Exception {
+        UserTestEntity[] entities = new UserTestEntity[10];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = new UserTestEntity();
+            entities[i].userId = format("%04d", i + 1);
+            entities[i].userName = "name" + (i + 1);
+            entities[i].tel = "tel";
+        }
+        VariousDbTestHelper.setUpTable(entities);
+        sut.setStatementReuse(true);
+
+        final SqlServerDialect sqlServer = new SqlServerDialect();
+        sqlServer.setUseOffsetFetch(true);
+        final DB2Dialect db2 = new DB2Dialect();
+        db2.setUseOffsetFetch(true);
+        final OracleDialect oracle = new OracleDialect();
+        oracle.setUseOffsetFetch(true);
+
+        final String sql = SELECT_QUERY + " where user_name like ? order by user_id";
+        for (Dialect dialect : new Dialect[] {sqlServer, db2, oracle}) {
+            sut.setContext(new DbExecutionContext(sut, dialect, TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+
+            SqlPStatement page2 = sut.prepareStatement(sql, new SelectOption(4, 3));
+            page2.setString(1, "name%");
+            assertThat(toUserIds(page2.retrieve()), is(Arrays.asList("0004", "0005", "0006")));
+            assertThat("サーバ側でページングするので、最大行数は設定されないこと", page2.getMaxRows(), is(0));
+
+            SqlPStatement page4 = sut.prepareStatement(sql, new SelectOption(10, 3));
+            assertThat("取得範囲のみが異なるので、同じインスタンスが返却される", page4, sameInstance(page2));
+            page4.setString(1, "name%");
+            assertThat(toUserIds(page4.retrieve()), is(Collections.singletonList("0010")));
+
+            SqlPStatement keyset = sut.prepareStatement(sql.replace(" order by user_id", ""),
+                    new SelectOption(new String[] {"user_id"}, new Object[] {"0007"}, 2));
+            keyset.setString(1, "name%");
+            assertThat(toUserIds(keyset.retrieve()), is(Arrays.asList("0008", "0009")));
+        }
+    }
+
+    /**
+     * キーセットページングの場合、前ページの最終行より後ろのレコードが取得できること。
+     * <p/>
+     * 行値式の比較を使用するダイアレクト、展開した条件を使用するダイアレクトの両方で確認する。
+     */
+    @Test
+    @TargetDb(include = TargetDb.Db.H2)
+    public void testPrepareStatementWithKeysetOption() throws Exception {
+        UserTestEntity[] entities = new UserTestEntity[10];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = new UserTestEntity();
+            entities[i].userId = format("%04d", i + 1);
+            entities[i].userName = "name" + (i % 3);
+            entities[i].tel = "tel";
+        }
+        VariousDbTestHelper.setUpTable(entities);
+        sut.setStatementReuse(true);
+        final String sql = SELECT_QUERY + " where tel = :tel";
+        final String[] keyColumns = {"user_name", "user_id"};
+
+        for (Dialect dialect : new Dialect[] {new H2Dialect(), new DefaultDialect()}) {
+            sut.setContext(new DbExecutionContext(sut, dialect, TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+
+            ParameterizedSqlPStatement first = sut.prepareParameterizedSqlStatement(sql,
+                    new SelectOption(keyColumns, null, 4));
+            assertThat(toUserIds(first.retrieve(Collections.singletonMap("tel", "tel"))),
+                    is(Arrays.asList("0001", "0004", "0007", "0010")));
+
+            ParameterizedSqlPStatement second = sut.prepareParameterizedSqlStatement(sql,
+                    new SelectOption(keyColumns, new Object[] {"name0", "0010"}, 4));
+            assertThat(toUserIds(second.retrieve(Collections.singletonMap("tel", "tel"))),
+                    is(Arrays.asList("0002", "0005", "0008", "0003")));
+
+            ParameterizedSqlPStatement third = sut.prepareParameterizedSqlStatement(sql,
+                    new SelectOption(keyColumns, new Object[] {"name2", "0003"}, 4));
+            assertThat("前ページの値のみが異なるので、同じインスタンスが返却される", third, sameInstance(second));
+            assertThat(toUserIds(third.retrieve(Collections.singletonMap("tel", "tel"))),
+                    is(Arrays.asList("0006", "0009")));
+        }
+    }
+
+    /**
+     * {@link DefaultDialect}を継承していないダイアレクトの場合、キーセットページングは使用できないこと。
+     */
+    @Test
+    public void testPrepareStatementWithKeysetOptionNotDefaultDialect() throws Exception {
+        final Dialect delegate = new DefaultDialect();
+        final Dialect dialect = (Dialect) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {Dialect.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        return method.invoke(delegate, args);
+                    }
+                });
+        sut.setContext(new DbExecutionContext(sut, dialect, TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+        try {
+            sut.prepareStatement(SELECT_QUERY, new SelectOption(new String[] {"user_id"}, null, 2));
+            fail("must be thrown UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), containsString("keyset pagination is unsupported."));
+        }
+    }
+
+    /**
+     * 検索結果からユーザIDのリストを取得する。
+     *
+     * @param rs 検索結果
+     * @return ユーザIDのリスト
+     */
+    private static List<String> toUserIds(SqlResultSet rs) {
+        final List<String> userIds = new ArrayList<String>();
+        for (int i = 0; i < rs.size(); i++) {
+            userIds.add(rs.get(i).getString("userId"));
+        }
+        return userIds;
+    }
+
     /**
      * ステートメントの生成に失敗したときの確認。
      */
@@ -86,6 +86,16 @@ public class DB2DialectTest {
         assertThat("DB2は、offsetを使えないのでfalse", sut.supportsOffset(), is(false));
     }
 
+    /**
+     * {@link DB2Dialect#supportsCountOver()}のテスト。
+     * <p/>
+     * DB2は、分析関数を使えるのでtrueを返す。
+     */
+    @Test
+    public void supportsCountOver() throws Exception {
+        assertThat("trueがかえされること", sut.supportsCountOver(), is(true));
+    }
+
     /**
      * {@link DB2Dialect#convertPaginationSql(String, SelectOption)}のテスト。
      * <p/>
@@ -96,6 +106,22 @@ public class DB2DialectTest {
         assertThat("SQLが変換されないこと", sut.convertPaginationSql("sql", new SelectOption(1, 1)), is("sql"));
     }
 
+    /**
+     * {@link DB2Dialect#setUseOffsetFetch(boolean)}を設定した場合、
+     * OFFSET句とFETCH句を使用したSQL文に変換されること。
+     */
+    @Test
+    public void convertPaginationSql_useOffsetFetch() throws Exception {
+        sut.setUseOffsetFetch(true);
+        assertThat(sut.supportsOffset(), is(true));
+        assertThat(sut.convertPaginationSql("select * from hoge order by id", new SelectOption(11, 10)),
+                is("select * from hoge order by id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(11, 10)), is(new int[] {10, 10}));
+        assertThat(sut.convertPaginationSql("select * from hoge order by id", new SelectOption(11, 0)),
+                is("select * from hoge order by id OFFSET ? ROWS"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(11, 0)), is(new int[] {10}));
+    }
+
     /**
      * {@link DB2Dialect#isDuplicateException(SQLException)}のテスト。
      * <p/>
@@ -228,5 +254,15 @@ public class DB2DialectTest {
         assertThat(rs, is(notNullValue()));
         rs.close();
     }
-}
 
+    /**
+     * {@link DB2Dialect#supportsMultiRowInsert()}のテスト。
+     * <p/>
+     * DB2では、複数行のVALUES句を持つINSERT文をサポートするので{@code true}が返される。
+     */
+    @Test
+    public void supportsMultiRowInsert() throws Exception {
+        assertThat(sut.supportsMultiRowInsert(), is(true));
+        assertThat(sut.getMaxBindParameterCount(), is(32767));
+    }
+}
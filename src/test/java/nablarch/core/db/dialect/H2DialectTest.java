@@ -1,7 +1,10 @@
 package nablarch.core.db.dialect;
 
+import nablarch.core.db.statement.ColumnExtractor;
+import nablarch.core.db.statement.PlannableResultSetConvertor;
 import nablarch.core.db.statement.ResultSetConvertor;
 import nablarch.core.db.statement.SelectOption;
+import nablarch.core.db.statement.StandardColumnExtractor;
 import org.junit.After;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -24,6 +27,7 @@ import java.util.Date;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -100,6 +104,26 @@ public class H2DialectTest {
         assertThat("trueがかえされること", sut.supportsOffset(), is(true));
     }
 
+    /**
+     * {@link H2Dialect#supportsCountOver()}のテスト。
+     * <p/>
+     * H2(1.4.197以前)では、分析関数が使えないので{@code false}がかえる。
+     */
+    @Test
+    public void supportsCountOver() throws Exception {
+        assertThat("falseがかえされること", sut.supportsCountOver(), is(false));
+    }
+
+    /**
+     * {@link H2Dialect#convertCountOverSql(String)}のテスト。
+     */
+    @Test
+    public void convertCountOverSql() throws Exception {
+        final String actual = sut.convertCountOverSql("SELECT * FROM DUAL");
+        assertThat("変換されていること", actual,
+                is("SELECT SUB_.*, COUNT(*) OVER() TOTAL_COUNT_ FROM (SELECT * FROM DUAL) SUB_"));
+    }
+
     /**
      * {@link H2Dialect#isTransactionTimeoutError(SQLException)}のテスト。
      * <p/>
@@ -161,6 +185,32 @@ public class H2DialectTest {
         assertThat("値が取得出来ていること", bytes, is(new byte[] {0x00, 0x50, (byte) 0xFF}));
     }
 
+    /**
+     * {@link H2Dialect#getResultSetConvertor()}の変換計画のテスト。
+     * 全てのカラムが{@link ResultSet#getObject(int)}で取得されること。
+     */
+    @Test
+    public void getResultSetConvertor_createPlan() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new DialectEntity(1L, "12345", 100, 1234554321L, null, new BigDecimal("12345.54321"), null, null));
+        connection = VariousDbTestHelper.getNativeConnection();
+        final PreparedStatement statement = connection.prepareStatement(
+                "SELECT ENTITY_ID, STR, NUM, BIG_INT, DECIMAL_COL FROM DIALECT WHERE ENTITY_ID = ?");
+        statement.setLong(1, 1L);
+        final ResultSet rs = statement.executeQuery();
+        assertThat("1レコードは取得できているはず", rs.next(), is(true));
+
+        final PlannableResultSetConvertor convertor = (PlannableResultSetConvertor) sut.getResultSetConvertor();
+        final ResultSetMetaData meta = rs.getMetaData();
+        final ColumnExtractor[] plan = convertor.createPlan(meta);
+
+        assertThat("カラム数分の要素が生成される", plan.length, is(5));
+        for (int i = 0; i < plan.length; i++) {
+            assertThat((StandardColumnExtractor) plan[i], is(StandardColumnExtractor.OBJECT));
+            assertThat("convertと同じ値が取得できる", plan[i].extract(rs, i + 1), is(convertor.convert(rs, meta, i + 1)));
+        }
+    }
+
     /**
      * {@link H2Dialect#convertPaginationSql(String, SelectOption)}のテスト。
      */
@@ -169,20 +219,51 @@ public class H2DialectTest {
 
         assertThat("offsetとlimitを使ったレコード数フィルタのSQL文に変換されること",
                 sut.convertPaginationSql("select * from dual", new SelectOption(5, 10)),
-                is("select * from dual limit 10 offset 4"));
+                is("select * from dual limit ? offset ?"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(5, 10)), is(new int[] {10, 4}));
 
         assertThat("offsetを使った読み飛ばしレコード数が設定されたSQL文に変換されること",
                 sut.convertPaginationSql(
                         "SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME",
                         new SelectOption(50, 0)),
-                is("SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME offset 49"));
+                is("SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME offset ?"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(50, 0)), is(new int[] {49}));
 
         assertThat("limitを使った、取得レコード数が設定されたSQL文に変換されること",
                 sut.convertPaginationSql(
                         "SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME",
                         new SelectOption(0, 25)
                 ),
-                is("SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME limit 25"));
+                is("SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME limit ? offset ?"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(0, 25)), is(new int[] {25, 0}));
+
+        assertThat("ページが異なっても同じSQL文に変換されること",
+                sut.convertPaginationSql("select * from dual", new SelectOption(1, 10)),
+                is(sut.convertPaginationSql("select * from dual", new SelectOption(11, 10))));
+    }
+
+    /**
+     * {@link H2Dialect#convertPaginationSql(String, SelectOption)}をオーバーライドしたサブクラスの場合、
+     * {@link H2Dialect#getPaginationBindValues(SelectOption)}は空の配列を返すこと。
+     */
+    @Test
+    public void getPaginationBindValues_convertPaginationSqlOverridden() throws Exception {
+        final H2Dialect overridden = new H2Dialect() {
+            @Override
+            public String convertPaginationSql(String sql, SelectOption selectOption) {
+                return sql + " limit " + selectOption.getLimit() + " offset " + selectOption.getOffset();
+            }
+        };
+        assertThat(overridden.getPaginationBindValues(new SelectOption(5, 10)), is(new int[0]));
+
+        final H2Dialect notOverridden = new H2Dialect() {
+            @Override
+            public boolean supportsOffset() {
+                return true;
+            }
+        };
+        assertThat("convertPaginationSql以外をオーバーライドした場合は値を返すこと",
+                notOverridden.getPaginationBindValues(new SelectOption(5, 10)), is(new int[] {10, 4}));
     }
 
     /**
@@ -202,6 +283,7 @@ public class H2DialectTest {
         final PreparedStatement statement = connection.prepareStatement(
                 sut.convertPaginationSql(sql, new SelectOption(50, 0)));
         statement.setString(1, "name%");
+        bindPaginationValues(statement, sut.getPaginationBindValues(new SelectOption(50, 0)));
 
         final ResultSet rs = statement.executeQuery();
         int index = 49;
@@ -229,6 +311,7 @@ public class H2DialectTest {
         final PreparedStatement statement = connection.prepareStatement(
                 sut.convertPaginationSql(sql, new SelectOption(0, 25)));
         statement.setString(1, "name%");
+        bindPaginationValues(statement, sut.getPaginationBindValues(new SelectOption(0, 25)));
 
         final ResultSet rs = statement.executeQuery();
         int index = 0;
@@ -256,6 +339,7 @@ public class H2DialectTest {
         final PreparedStatement statement = connection.prepareStatement(
                 sut.convertPaginationSql(sql, new SelectOption(31, 15)));
         statement.setString(1, "name%");
+        bindPaginationValues(statement, sut.getPaginationBindValues(new SelectOption(31, 15)));
 
         final ResultSet rs = statement.executeQuery();
         int index = 30;
@@ -266,6 +350,82 @@ public class H2DialectTest {
         assertThat("最後に取得されたレコードの番号は45であること", index, is(45));
     }
 
+    /**
+     * {@link H2Dialect#convertKeysetPaginationSql(String, SelectOption)}のテスト。
+     */
+    @Test
+    public void convertKeysetPaginationSql() throws Exception {
+        assertThat("最初のページは、ソートと取得件数の指定のみが行われること",
+                sut.convertKeysetPaginationSql("select * from dual",
+                        new SelectOption(new String[] {"k1", "k2"}, null, 10)),
+                is("SELECT * FROM (select * from dual) SUB_ ORDER BY k1, k2 limit ? offset ?"));
+        assertThat(sut.getKeysetPaginationBindValues(new SelectOption(new String[] {"k1", "k2"}, null, 10)),
+                is(new Object[] {10, 0}));
+
+        assertThat("行値式の比較で前ページの最終行より後ろのレコードに絞り込まれること",
+                sut.convertKeysetPaginationSql("select * from dual",
+                        new SelectOption(new String[] {"k1", "k2"}, new Object[] {1, "a"}, 10)),
+                is("SELECT * FROM (select * from dual) SUB_ WHERE (k1, k2) > (?, ?) ORDER BY k1, k2 limit ? offset ?"));
+        assertThat(sut.getKeysetPaginationBindValues(
+                new SelectOption(new String[] {"k1", "k2"}, new Object[] {1, "a"}, 10)),
+                is(new Object[] {1, "a", 10, 0}));
+
+        assertThat("取得件数の指定がない場合は、ソートのみが行われること",
+                sut.convertKeysetPaginationSql("select * from dual",
+                        new SelectOption(new String[] {"k1"}, new Object[] {1}, 0)),
+                is("SELECT * FROM (select * from dual) SUB_ WHERE (k1) > (?) ORDER BY k1"));
+        assertThat(sut.getKeysetPaginationBindValues(new SelectOption(new String[] {"k1"}, new Object[] {1}, 0)),
+                is(new Object[] {1}));
+    }
+
+    /**
+     * {@link H2Dialect#convertKeysetPaginationSql(String, SelectOption)}で生成したSQL文で、
+     * 全てのページが取得できること。
+     */
+    @Test
+    public void convertKeysetPaginationSql_execute() throws Exception {
+        VariousDbTestHelper.delete(DialectEntity.class);
+        for (int i = 0; i < 100; i++) {
+            VariousDbTestHelper.insert(new DialectEntity((long) i + 1, "name_" + (i % 10)));
+        }
+        connection = VariousDbTestHelper.getNativeConnection();
+
+        String sql = "select entity_id, str from dialect where str like ?";
+        String[] keyColumns = {"str", "entity_id"};
+        Object[] lastKeyValues = null;
+        int count = 0;
+        String lastStr = "";
+        long lastId = 0;
+        while (true) {
+            SelectOption option = new SelectOption(keyColumns, lastKeyValues, 30);
+            final PreparedStatement statement = connection.prepareStatement(
+                    sut.convertKeysetPaginationSql(sql, option));
+            statement.setString(1, "name%");
+            Object[] values = sut.getKeysetPaginationBindValues(option);
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 2, values[i]);
+            }
+            final ResultSet rs = statement.executeQuery();
+            int pageCount = 0;
+            while (rs.next()) {
+                String str = rs.getString(2);
+                long id = rs.getLong(1);
+                int compare = str.compareTo(lastStr);
+                assertThat("ソートキーの昇順に取得されること", compare > 0 || (compare == 0 && id > lastId), is(true));
+                lastStr = str;
+                lastId = id;
+                pageCount++;
+            }
+            statement.close();
+            count += pageCount;
+            if (pageCount < 30) {
+                break;
+            }
+            lastKeyValues = new Object[] {lastStr, lastId};
+        }
+        assertThat("全てのレコードが重複なく取得されること", count, is(100));
+    }
+
     /**
      * {@link H2Dialect#buildSequenceGeneratorSql(String)}のテスト。
      */
@@ -317,5 +477,75 @@ public class H2DialectTest {
         assertThat(rs, is(notNullValue()));
         rs.close();
     }
-}
 
+    /**
+     * {@link H2Dialect#supportsMultiRowInsert()}のテスト。
+     * <p/>
+     * H2では、複数行のVALUES句を持つINSERT文をサポートするので{@code true}が返される。
+     */
+    @Test
+    public void supportsMultiRowInsert() throws Exception {
+        assertThat(sut.supportsMultiRowInsert(), is(true));
+        assertThat(sut.getMaxBindParameterCount(), is(32767));
+    }
+
+    /**
+     * {@link H2Dialect#buildMultiRowInsertSql(String, int)}のテスト。
+     */
+    @Test
+    public void buildMultiRowInsertSql() throws Exception {
+        assertThat(sut.buildMultiRowInsertSql("INSERT INTO DIALECT (ENTITY_ID, STR) VALUES (?, ?)", 3),
+                is("INSERT INTO DIALECT (ENTITY_ID, STR) VALUES (?, ?), (?, ?), (?, ?)"));
+        assertThat("値リストに括弧や文字列リテラルを含む場合も変換できること",
+                sut.buildMultiRowInsertSql(" insert into dialect (entity_id, str) values (?, concat(?, ')'))\n", 2),
+                is("insert into dialect (entity_id, str) values (?, concat(?, ')')), (?, concat(?, ')'))"));
+        assertThat("1行の場合は変換されないこと",
+                sut.buildMultiRowInsertSql("INSERT INTO DIALECT VALUES (?)", 1),
+                is("INSERT INTO DIALECT VALUES (?)"));
+    }
+
+    /**
+     * {@link H2Dialect#buildMultiRowInsertSql(String, int)}で、変換できないSQL文の場合は{@code null}が返されること。
+     */
+    @Test
+    public void buildMultiRowInsertSql_notConvertible() throws Exception {
+        assertThat(sut.buildMultiRowInsertSql("UPDATE DIALECT SET STR = ? WHERE ENTITY_ID = ?", 2), is(nullValue()));
+        assertThat(sut.buildMultiRowInsertSql("INSERT INTO DIALECT SELECT * FROM DIALECT_WORK", 2), is(nullValue()));
+        assertThat(sut.buildMultiRowInsertSql(
+                "INSERT INTO DIALECT (ENTITY_ID) VALUES (?) ON CONFLICT DO NOTHING", 2), is(nullValue()));
+        assertThat(sut.buildMultiRowInsertSql("INSERT INTO DIALECT (ENTITY_ID) VALUES (?", 2), is(nullValue()));
+    }
+
+    /**
+     * {@link H2Dialect#buildMultiRowInsertSql(String, int)}で変換したSQL文が実行可能であることを確認する。
+     */
+    @Test
+    public void buildMultiRowInsertSql_execute() throws Exception {
+        VariousDbTestHelper.delete(DialectEntity.class);
+        connection = VariousDbTestHelper.getNativeConnection();
+        final PreparedStatement statement = connection.prepareStatement(
+                sut.buildMultiRowInsertSql("insert into dialect (entity_id, str) values (?, ?)", 3));
+        for (int i = 0; i < 3; i++) {
+            statement.setLong(i * 2 + 1, i + 1);
+            statement.setString(i * 2 + 2, "name_" + i);
+        }
+        assertThat(statement.executeUpdate(), is(3));
+        connection.commit();
+
+        assertThat(VariousDbTestHelper.findAll(DialectEntity.class).size(), is(3));
+    }
+
+    /**
+     * 取得範囲のバインド変数に値を設定する。
+     * <p/>
+     * 取得範囲のバインド変数は、検索条件のバインド変数(1つ)の後に並ぶ。
+     *
+     * @param statement ステートメント
+     * @param values 取得範囲のバインド変数の値
+     */
+    private static void bindPaginationValues(PreparedStatement statement, int[] values) throws Exception {
+        for (int i = 0; i < values.length; i++) {
+            statement.setInt(i + 2, values[i]);
+        }
+    }
+}
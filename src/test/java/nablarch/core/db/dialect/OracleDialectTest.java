@@ -16,8 +16,11 @@ import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.Date;
 
+import nablarch.core.db.statement.ColumnExtractor;
+import nablarch.core.db.statement.PlannableResultSetConvertor;
 import nablarch.core.db.statement.ResultSetConvertor;
 import nablarch.core.db.statement.SelectOption;
+import nablarch.core.db.statement.StandardColumnExtractor;
 import nablarch.test.support.db.helper.DatabaseTestRunner;
 import nablarch.test.support.db.helper.DbTestRule;
 import nablarch.test.support.db.helper.TargetDb;
@@ -217,6 +220,47 @@ public class OracleDialectTest {
         assertThat(convertor.convert(rs, meta, 8), is(nullValue()));
     }
 
+    /**
+     * {@link OracleDialect#getResultSetConvertor()}の変換計画のテスト。
+     * <p/>
+     * カラムのデータタイプ、精度、スケールに応じた取得方法となり、
+     * {@link ResultSetConvertor#convert(ResultSet, ResultSetMetaData, int)}と同じ値が取得できること。
+     */
+    @Test
+    public void getResultSetConvertor_createPlan() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2015, 2, 9, 0, 0, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        Date date = calendar.getTime();
+        Timestamp timestamp = Timestamp.valueOf("2015-03-16 01:02:03.123456");
+        VariousDbTestHelper.setUpTable(
+                new DialectEntity(1L, "12345", 100, 1234554321L, date, new BigDecimal("12345.54321"), timestamp,
+                        new byte[] {0x00, 0x50, (byte) 0xFF}),
+                new DialectEntity(2L, null, null, null, null, null, null, null));
+        connection = VariousDbTestHelper.getNativeConnection();
+        final PreparedStatement statement = connection.prepareStatement(
+                "SELECT STR, NUM, BIG_INT, DECIMAL_COL, DATE_COL, TIMESTAMP_COL FROM DIALECT ORDER BY ENTITY_ID");
+        final ResultSet rs = statement.executeQuery();
+
+        final PlannableResultSetConvertor convertor = (PlannableResultSetConvertor) sut.getResultSetConvertor();
+        final ResultSetMetaData meta = rs.getMetaData();
+        final ColumnExtractor[] plan = convertor.createPlan(meta);
+
+        assertThat(plan.length, is(6));
+        assertThat((StandardColumnExtractor) plan[0], is(StandardColumnExtractor.OBJECT));
+        assertThat((StandardColumnExtractor) plan[1], is(StandardColumnExtractor.INTEGER));
+        assertThat((StandardColumnExtractor) plan[2], is(StandardColumnExtractor.LONG));
+        assertThat((StandardColumnExtractor) plan[3], is(StandardColumnExtractor.BIG_DECIMAL));
+        assertThat((StandardColumnExtractor) plan[4], is(StandardColumnExtractor.TIMESTAMP));
+        assertThat((StandardColumnExtractor) plan[5], is(StandardColumnExtractor.TIMESTAMP));
+
+        while (rs.next()) {
+            for (int i = 0; i < plan.length; i++) {
+                assertThat("convertと同じ値が取得できる", plan[i].extract(rs, i + 1), is(convertor.convert(rs, meta, i + 1)));
+            }
+        }
+    }
+
     /**
      * {@link OracleDialect#convertPaginationSql(String, SelectOption)}のテスト。
      */
@@ -226,8 +270,9 @@ public class OracleDialectTest {
         assertThat("rownumでの取得件数のフィルターが行われていること(offsetとlimit両方指定)",
                 sut.convertPaginationSql("SELECT * FROM DUAL", new SelectOption(5, 10)),
                 is(
-                        "SELECT SUB2.* FROM (SELECT SUB1.*, ROWNUM ROWNUM_ FROM (SELECT * FROM DUAL) SUB1 ) SUB2 WHERE SUB2.ROWNUM_ > 4 AND SUB2.ROWNUM_ <= 14"
+                        "SELECT SUB2.* FROM (SELECT SUB1.*, ROWNUM ROWNUM_ FROM (SELECT * FROM DUAL) SUB1 ) SUB2 WHERE SUB2.ROWNUM_ > ? AND SUB2.ROWNUM_ <= ?"
                 ));
+        assertThat(sut.getPaginationBindValues(new SelectOption(5, 10)), is(new int[] {4, 14}));
 
         assertThat("rownumでの取得件数のフィルタが行われていること(offsetのみ指定)",
                 sut.convertPaginationSql(
@@ -235,7 +280,8 @@ public class OracleDialectTest {
                         new SelectOption(50, 0)),
                 is("SELECT SUB2.* FROM (SELECT SUB1.*, ROWNUM ROWNUM_"
                         + " FROM (SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME) SUB1 ) SUB2"
-                        + " WHERE SUB2.ROWNUM_ > 49"));
+                        + " WHERE SUB2.ROWNUM_ > ?"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(50, 0)), is(new int[] {49}));
 
         assertThat("rownumでの取得件数のフィルタが行われていること(limitのみ指定)",
                 sut.convertPaginationSql(
@@ -244,7 +290,38 @@ public class OracleDialectTest {
                 ),
                 is("SELECT SUB2.* FROM (SELECT SUB1.*, ROWNUM ROWNUM_"
                         + " FROM (SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME) SUB1 ) SUB2"
-                        + " WHERE SUB2.ROWNUM_ <= 25"));
+                        + " WHERE SUB2.ROWNUM_ > ? AND SUB2.ROWNUM_ <= ?"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(0, 25)), is(new int[] {0, 25}));
+    }
+
+    /**
+     * {@link OracleDialect#setUseOffsetFetch(boolean)}を設定した場合、
+     * rownum擬似列ではなくOFFSET句とFETCH句を使用したSQL文に変換されること。
+     */
+    @Test
+    public void convertPaginationSql_useOffsetFetch() throws Exception {
+        sut.setUseOffsetFetch(true);
+        assertThat(sut.convertPaginationSql("SELECT * FROM DUAL", new SelectOption(5, 10)),
+                is("SELECT * FROM DUAL OFFSET ? ROWS FETCH NEXT ? ROWS ONLY"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(5, 10)), is(new int[] {4, 10}));
+        assertThat(sut.convertPaginationSql("SELECT * FROM DUAL", new SelectOption(50, 0)),
+                is("SELECT * FROM DUAL OFFSET ? ROWS"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(50, 0)), is(new int[] {49}));
+    }
+
+    /**
+     * {@link OracleDialect#convertKeysetPaginationSql(String, SelectOption)}のテスト。
+     * <p/>
+     * 行値式の比較はサポートされないため、ソートキーごとの条件に展開されること。
+     */
+    @Test
+    public void convertKeysetPaginationSql() throws Exception {
+        SelectOption option = new SelectOption(new String[] {"K1", "K2"}, new Object[] {1, "a"}, 10);
+        assertThat(sut.convertKeysetPaginationSql("SELECT * FROM DUAL", option),
+                is("SELECT SUB2.* FROM (SELECT SUB1.*, ROWNUM ROWNUM_ FROM ("
+                        + "SELECT * FROM (SELECT * FROM DUAL) SUB_ WHERE ((K1 > ?) OR (K1 = ? AND K2 > ?)) ORDER BY K1, K2"
+                        + ") SUB1 ) SUB2 WHERE SUB2.ROWNUM_ > ? AND SUB2.ROWNUM_ <= ?"));
+        assertThat(sut.getKeysetPaginationBindValues(option), is(new Object[] {1, 1, "a", 0, 10}));
     }
 
     /**
@@ -264,6 +341,7 @@ public class OracleDialectTest {
         final PreparedStatement statement = connection.prepareStatement(
                 sut.convertPaginationSql(sql, new SelectOption(50, 0)));
         statement.setString(1, "name%");
+        bindPaginationValues(statement, sut.getPaginationBindValues(new SelectOption(50, 0)));
 
         final ResultSet rs = statement.executeQuery();
         int index = 50;
@@ -290,6 +368,7 @@ public class OracleDialectTest {
         final PreparedStatement statement = connection.prepareStatement(
                 sut.convertPaginationSql(sql, new SelectOption(0, 25)));
         statement.setString(1, "name%");
+        bindPaginationValues(statement, sut.getPaginationBindValues(new SelectOption(0, 25)));
 
         final ResultSet rs = statement.executeQuery();
         int index = 0;
@@ -317,6 +396,7 @@ public class OracleDialectTest {
         final PreparedStatement statement = connection.prepareStatement(
                 sut.convertPaginationSql(sql, new SelectOption(31, 15)));
         statement.setString(1, "name%");
+        bindPaginationValues(statement, sut.getPaginationBindValues(new SelectOption(31, 15)));
 
         final ResultSet rs = statement.executeQuery();
         int index = 30;
@@ -355,6 +435,43 @@ public class OracleDialectTest {
         assertThat(rs.getInt(1), is(11));       // name_3とname_3x
     }
 
+    /**
+     * {@link OracleDialect#supportsCountOver()}のテスト。
+     * <p/>
+     * Oracleでは、分析関数が使えるので{@code true}がかえる。
+     */
+    @Test
+    public void supportsCountOver() throws Exception {
+        assertThat("trueがかえされること", sut.supportsCountOver(), is(true));
+    }
+
+    /**
+     * {@link OracleDialect#convertCountOverSql(String)}で変換し、さらにページング用に変換したSQL文が実行可能であることを確認する。
+     */
+    @Test
+    public void convertCountOverSql_execute() throws Exception {
+        VariousDbTestHelper.delete(DialectEntity.class);
+        for (int i = 0; i < 100; i++) {
+            VariousDbTestHelper.insert(new DialectEntity((long) i + 1, "name_" + i));
+        }
+        connection = VariousDbTestHelper.getNativeConnection();
+        String sql = "select entity_id, str from dialect where str like ? order by entity_id";
+        final SelectOption selectOption = new SelectOption(3, 2);
+        final PreparedStatement statement = connection.prepareStatement(
+                sut.convertPaginationSql(sut.convertCountOverSql(sql), selectOption));
+        statement.setString(1, "name_3%");
+        bindPaginationValues(statement, sut.getPaginationBindValues(selectOption));
+        final ResultSet rs = statement.executeQuery();
+
+        assertThat(rs.next(), is(true));
+        assertThat(rs.getString("str"), is("name_31"));
+        assertThat("件数が付加されていること", rs.getInt("total_count_"), is(11));
+        assertThat(rs.next(), is(true));
+        assertThat(rs.getString("str"), is("name_32"));
+        assertThat(rs.getInt("total_count_"), is(11));
+        assertThat(rs.next(), is(false));
+    }
+
     /**
      * {@link OracleDialect#getPingSql()}のテスト。
      */
@@ -370,5 +487,18 @@ public class OracleDialectTest {
         assertThat(rs, is(notNullValue()));
         rs.close();
     }
-}
 
+    /**
+     * 取得範囲のバインド変数に値を設定する。
+     * <p/>
+     * 取得範囲のバインド変数は、検索条件のバインド変数(1つ)の後に並ぶ。
+     *
+     * @param statement ステートメント
+     * @param values 取得範囲のバインド変数の値
+     */
+    private static void bindPaginationValues(PreparedStatement statement, int[] values) throws Exception {
+        for (int i = 0; i < values.length; i++) {
+            statement.setInt(i + 2, values[i]);
+        }
+    }
+}
@@ -173,20 +173,35 @@ public class PostgreSQLDialectTest {
 
         assertThat("offsetとlimitを使ったレコード数フィルタのSQL文に変換されること",
                 sut.convertPaginationSql("select * from dual", new SelectOption(5, 10)),
-                is("select * from dual offset 4 limit 10"));
+                is("select * from dual offset ? limit ?"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(5, 10)), is(new int[] {4, 10}));
 
         assertThat("offsetを使った読み飛ばしレコード数が設定されたSQL文に変換されること",
                 sut.convertPaginationSql(
                         "SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME",
                         new SelectOption(50, 0)),
-                is("SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME offset 49"));
+                is("SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME offset ?"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(50, 0)), is(new int[] {49}));
 
         assertThat("limitを使った、取得レコード数が設定されたSQL文に変換されること",
                 sut.convertPaginationSql(
                         "SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME",
                         new SelectOption(0, 25)
                 ),
-                is("SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME limit 25"));
+                is("SELECT HOGE, FUGA FROM HOGE_TABLE INNER JOIN FUGA_TABLE ON HOGE_TABLE.ID = FUGA_TABLE.HOGE_ID ORDER BY HOGE_TABLE.ID, HOGE_TABLE.NAME offset ? limit ?"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(0, 25)), is(new int[] {0, 25}));
+    }
+
+    /**
+     * {@link PostgreSQLDialect#convertKeysetPaginationSql(String, SelectOption)}のテスト。
+     */
+    @Test
+    public void convertKeysetPaginationSql() throws Exception {
+        SelectOption option = new SelectOption(new String[] {"k1", "k2"}, new Object[] {1, "a"}, 10);
+        assertThat("行値式の比較で前ページの最終行より後ろのレコードに絞り込まれること",
+                sut.convertKeysetPaginationSql("select * from dual", option),
+                is("SELECT * FROM (select * from dual) SUB_ WHERE (k1, k2) > (?, ?) ORDER BY k1, k2 offset ? limit ?"));
+        assertThat(sut.getKeysetPaginationBindValues(option), is(new Object[] {1, "a", 0, 10}));
     }
 
     /**
@@ -206,6 +221,7 @@ public class PostgreSQLDialectTest {
         final PreparedStatement statement = connection.prepareStatement(
                 sut.convertPaginationSql(sql, new SelectOption(50, 0)));
         statement.setString(1, "name%");
+        bindPaginationValues(statement, sut.getPaginationBindValues(new SelectOption(50, 0)));
 
         final ResultSet rs = statement.executeQuery();
         int index = 49;
@@ -233,6 +249,7 @@ public class PostgreSQLDialectTest {
         final PreparedStatement statement = connection.prepareStatement(
                 sut.convertPaginationSql(sql, new SelectOption(0, 25)));
         statement.setString(1, "name%");
+        bindPaginationValues(statement, sut.getPaginationBindValues(new SelectOption(0, 25)));
 
         final ResultSet rs = statement.executeQuery();
         int index = 0;
@@ -260,6 +277,7 @@ public class PostgreSQLDialectTest {
         final PreparedStatement statement = connection.prepareStatement(
                 sut.convertPaginationSql(sql, new SelectOption(31, 15)));
         statement.setString(1, "name%");
+        bindPaginationValues(statement, sut.getPaginationBindValues(new SelectOption(31, 15)));
 
         final ResultSet rs = statement.executeQuery();
         int index = 30;
@@ -306,6 +324,43 @@ public class PostgreSQLDialectTest {
         assertThat(rs.getInt(1), is(11));       // name_3とname_3x
     }
 
+    /**
+     * {@link PostgreSQLDialect#supportsCountOver()}のテスト。
+     * <p/>
+     * PostgreSQLでは、分析関数が使えるので{@code true}がかえる。
+     */
+    @Test
+    public void supportsCountOver() throws Exception {
+        assertThat("trueがかえされること", sut.supportsCountOver(), is(true));
+    }
+
+    /**
+     * {@link PostgreSQLDialect#convertCountOverSql(String)}で変換し、さらにページング用に変換したSQL文が実行可能であることを確認する。
+     */
+    @Test
+    public void convertCountOverSql_execute() throws Exception {
+        VariousDbTestHelper.delete(DialectEntity.class);
+        for (int i = 0; i < 100; i++) {
+            VariousDbTestHelper.insert(new DialectEntity((long) i + 1, "name_" + i));
+        }
+        connection = VariousDbTestHelper.getNativeConnection();
+        String sql = "select entity_id, str from dialect where str like ? order by entity_id";
+        final SelectOption selectOption = new SelectOption(3, 2);
+        final PreparedStatement statement = connection.prepareStatement(
+                sut.convertPaginationSql(sut.convertCountOverSql(sql), selectOption));
+        statement.setString(1, "name_3%");
+        bindPaginationValues(statement, sut.getPaginationBindValues(selectOption));
+        final ResultSet rs = statement.executeQuery();
+
+        assertThat(rs.next(), is(true));
+        assertThat(rs.getString("str"), is("name_31"));
+        assertThat("件数が付加されていること", rs.getInt("total_count_"), is(11));
+        assertThat(rs.next(), is(true));
+        assertThat(rs.getString("str"), is("name_32"));
+        assertThat(rs.getInt("total_count_"), is(11));
+        assertThat(rs.next(), is(false));
+    }
+
     /**
      * {@link PostgreSQLDialect#getPingSql()}のテスト。
      */
@@ -321,5 +376,29 @@ public class PostgreSQLDialectTest {
         assertThat(rs, is(notNullValue()));
         rs.close();
     }
-}
 
+    /**
+     * {@link PostgreSQLDialect#supportsMultiRowInsert()}のテスト。
+     * <p/>
+     * PostgreSQLでは、複数行のVALUES句を持つINSERT文をサポートするので{@code true}が返される。
+     */
+    @Test
+    public void supportsMultiRowInsert() throws Exception {
+        assertThat(sut.supportsMultiRowInsert(), is(true));
+        assertThat(sut.getMaxBindParameterCount(), is(32767));
+    }
+
+    /**
+     * 取得範囲のバインド変数に値を設定する。
+     * <p/>
+     * 取得範囲のバインド変数は、検索条件のバインド変数(1つ)の後に並ぶ。
+     *
+     * @param statement ステートメント
+     * @param values 取得範囲のバインド変数の値
+     */
+    private static void bindPaginationValues(PreparedStatement statement, int[] values) throws Exception {
+        for (int i = 0; i < values.length; i++) {
+            statement.setInt(i + 2, values[i]);
+        }
+    }
+}
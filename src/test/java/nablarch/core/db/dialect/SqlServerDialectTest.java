@@ -1,5 +1,6 @@
 package nablarch.core.db.dialect;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.assertThat;
@@ -23,8 +24,11 @@ import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 
+import nablarch.core.db.statement.ColumnExtractor;
+import nablarch.core.db.statement.PlannableResultSetConvertor;
 import nablarch.core.db.statement.ResultSetConvertor;
 import nablarch.core.db.statement.SelectOption;
+import nablarch.core.db.statement.StandardColumnExtractor;
 import nablarch.test.support.db.helper.DatabaseTestRunner;
 import nablarch.test.support.db.helper.DbTestRule;
 import nablarch.test.support.db.helper.TargetDb;
@@ -179,6 +183,49 @@ public class SqlServerDialectTest {
 
     }
 
+    /**
+     * {@link SqlServerDialect#getResultSetConvertor()}の変換計画のテスト。
+     * {@code varbinary(max)}のカラムのみ{@link ResultSet#getBinaryStream(int)}で取得されること。
+     */
+    @Test
+    public void getResultSetConvertor_createPlan() throws Exception {
+        VariousDbTestHelper.setUpTable(
+                new SqlServerDialectEntity(1L, "12345", 100, 1234554321L, null, null, null,
+                        new byte[] {0x00, 0x50, (byte) 0xFF}));
+        connection = VariousDbTestHelper.getNativeConnection();
+        final PreparedStatement statement = connection.prepareStatement(
+                "SELECT STR, BINARY_COL, LONG_VAR_BINARY FROM SQL_SERVER_DIALECT WHERE ENTITY_ID = ?");
+        statement.setLong(1, 1L);
+        final ResultSet rs = statement.executeQuery();
+        assertThat("1レコードは取得できているはず", rs.next(), is(true));
+
+        final ColumnExtractor[] plan = ((PlannableResultSetConvertor) sut.getResultSetConvertor()).createPlan(
+                rs.getMetaData());
+
+        assertThat(plan.length, is(3));
+        assertThat((StandardColumnExtractor) plan[0], is(StandardColumnExtractor.OBJECT));
+        assertThat((StandardColumnExtractor) plan[1], is(StandardColumnExtractor.OBJECT));
+        assertThat((StandardColumnExtractor) plan[2], is(StandardColumnExtractor.BINARY_STREAM));
+        assertThat((String) plan[0].extract(rs, 1), is("12345"));
+        assertThat(plan[2].extract(rs, 3), instanceOf(InputStream.class));
+    }
+
+    /**
+     * {@link SqlServerDialect.SqlServerResultSetConvertor}を継承したクラスは、変換計画を持たないこと。
+     * サブクラスでオーバーライドした{@link ResultSetConvertor#convert(ResultSet, ResultSetMetaData, int)}が
+     * 使用されること。
+     */
+    @Test
+    public void sqlServerResultSetConvertor_subclassIsNotPlannable() throws Exception {
+        final ResultSetConvertor convertor = new SqlServerDialect.SqlServerResultSetConvertor() {
+            @Override
+            public Object convert(ResultSet rs, ResultSetMetaData rsmd, int columnIndex) throws SQLException {
+                return "converted";
+            }
+        };
+        assertThat(convertor instanceof PlannableResultSetConvertor, is(false));
+    }
+
     /**
      * {@link SqlServerDialect#buildSequenceGeneratorSql(String)}のテスト。
      * シーケンスはサポートしないので例外が送出されること。
@@ -199,6 +246,64 @@ public class SqlServerDialectTest {
                 "select object_name(12345)"));
     }
 
+    /**
+     * {@link SqlServerDialect#setUseOffsetFetch(boolean)}を設定した場合、
+     * OFFSET句とFETCH句を使用したSQL文に変換されること。
+     */
+    @Test
+    public void convertPaginationSql_useOffsetFetch() throws Exception {
+        sut.setUseOffsetFetch(true);
+        assertThat(sut.supportsOffset(), is(true));
+        assertThat(sut.convertPaginationSql("select * from hoge\norder  by id", new SelectOption(11, 10)),
+                is("select * from hoge\norder  by id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(11, 10)), is(new int[] {10, 10}));
+        assertThat("ORDER BY句がない場合は付加されること",
+                sut.convertPaginationSql("select * from hoge", new SelectOption(11, 0)),
+                is("select * from hoge ORDER BY (SELECT NULL) OFFSET ? ROWS"));
+        assertThat(sut.getPaginationBindValues(new SelectOption(11, 0)), is(new int[] {10}));
+    }
+
+    /**
+     * {@link SqlServerDialect#setUseOffsetFetch(boolean)}を設定した場合、
+     * 括弧内やリテラル、コメント内のORDER BYは、SQL文のORDER BY句とみなされないこと。
+     */
+    @Test
+    public void convertPaginationSql_useOffsetFetch_nestedOrderBy() throws Exception {
+        sut.setUseOffsetFetch(true);
+        final SelectOption option = new SelectOption(11, 0);
+        assertThat("分析関数内のORDER BY",
+                sut.convertPaginationSql("select ROW_NUMBER() OVER(ORDER BY id) rn from hoge", option),
+                is("select ROW_NUMBER() OVER(ORDER BY id) rn from hoge ORDER BY (SELECT NULL) OFFSET ? ROWS"));
+        assertThat("サブクエリ内のORDER BY",
+                sut.convertPaginationSql("select * from (select top 10 * from hoge order by id) sub", option),
+                is("select * from (select top 10 * from hoge order by id) sub ORDER BY (SELECT NULL) OFFSET ? ROWS"));
+        assertThat("文字列リテラル、識別子、コメント内のORDER BY",
+                sut.convertPaginationSql(
+                        "select 'order by' \"order by\", [order by] from hoge -- order by\n/* order by */", option),
+                is("select 'order by' \"order by\", [order by] from hoge -- order by\n/* order by */"
+                        + " ORDER BY (SELECT NULL) OFFSET ? ROWS"));
+        assertThat("識別子の一部",
+                sut.convertPaginationSql("select * from orders by_date", option),
+                is("select * from orders by_date ORDER BY (SELECT NULL) OFFSET ? ROWS"));
+        assertThat("サブクエリの後のORDER BY",
+                sut.convertPaginationSql("select * from (select * from hoge order by id) sub\tOrder\nBy id", option),
+                is("select * from (select * from hoge order by id) sub\tOrder\nBy id OFFSET ? ROWS"));
+    }
+
+    /**
+     * {@link SqlServerDialect#convertKeysetPaginationSql(String, SelectOption)}のテスト。
+     * <p/>
+     * ソートキーごとの条件に展開され、取得件数はSQL文に含まれないこと。
+     */
+    @Test
+    public void convertKeysetPaginationSql() throws Exception {
+        SelectOption option = new SelectOption(new String[] {"k1", "k2", "k3"}, new Object[] {1, "a", 2}, 10);
+        assertThat(sut.convertKeysetPaginationSql("select * from hoge_table", option),
+                is("SELECT * FROM (select * from hoge_table) SUB_"
+                        + " WHERE ((k1 > ?) OR (k1 = ? AND k2 > ?) OR (k1 = ? AND k2 = ? AND k3 > ?)) ORDER BY k1, k2, k3"));
+        assertThat(sut.getKeysetPaginationBindValues(option), is(new Object[] {1, 1, "a", 1, "a", 2}));
+    }
+
     /**
      * {@link SqlServerDialect#convertCountSql(String)}のテスト。
      */
@@ -246,6 +351,17 @@ public class SqlServerDialectTest {
         rs.close();
     }
 
+    /**
+     * {@link SqlServerDialect#supportsMultiRowInsert()}のテスト。
+     * <p/>
+     * SQL Serverでは、複数行のVALUES句を持つINSERT文をサポートするので{@code true}が返される。
+     */
+    @Test
+    public void supportsMultiRowInsert() throws Exception {
+        assertThat(sut.supportsMultiRowInsert(), is(true));
+        assertThat(sut.getMaxBindParameterCount(), is(2000));
+    }
+
     @Entity
     @Table(name = "SQL_SERVER_DIALECT")
     public static class SqlServerDialectEntity {
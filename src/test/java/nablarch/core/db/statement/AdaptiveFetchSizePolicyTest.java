@@ -0,0 +1,178 @@
+package nablarch.core.db.statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * {@link AdaptiveFetchSizePolicy}のテストクラス。
+ */
+public class AdaptiveFetchSizePolicyTest {
+
+    private ResultSetMetaData metaData;
+
+    /**
+     * メタデータのカラム構成を設定する。
+     *
+     * @param types データタイプ
+     * @param precisions 精度
+     */
+    private void setColumns(final int[] types, final int[] precisions) {
+        metaData = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {ResultSetMetaData.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getColumnCount")) {
+                            return types.length;
+                        } else if (method.getName().equals("getColumnType")) {
+                            return types[(Integer) args[0] - 1];
+                        } else if (method.getName().equals("getPrecision")) {
+                            return precisions[(Integer) args[0] - 1];
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /** 実績がない場合は、デフォルトのフェッチサイズとなること。 */
+    @Test
+    public void testNoStatistics() {
+        AdaptiveFetchSizePolicy sut = new AdaptiveFetchSizePolicy();
+        assertThat(sut.getFetchSize("SQL_ID", 10), is(10));
+        assertThat(sut.getStatistics("SQL_ID"), is(nullValue()));
+    }
+
+    /** 取得件数の移動平均 + 1がフェッチサイズとなること。 */
+    @Test
+    public void testFetchSizeFromRowCount() throws Exception {
+        setColumns(new int[] {Types.INTEGER, Types.VARCHAR}, new int[] {10, 10});
+        AdaptiveFetchSizePolicy sut = new AdaptiveFetchSizePolicy();
+
+        sut.record("SQL_ID", metaData, 3);
+        assertThat(sut.getFetchSize("SQL_ID", 10), is(4));
+
+        sut.record("SQL_ID", metaData, 101);
+        assertThat(sut.getFetchSize("SQL_ID", 10), is(53));
+
+        AdaptiveFetchSizePolicy.Statistics statistics = sut.getStatistics("SQL_ID");
+        assertThat(statistics.getExecutionCount(), is(2L));
+        assertThat(statistics.getAverageRowCount(), is(52.0));
+        assertThat(statistics.getRowWidth(), is(24L));
+        assertThat(statistics.getFetchSize(), is(53));
+        assertThat(statistics.toString(), is("executionCount=2, averageRowCount=52.0, rowWidth=24, fetchSize=53"));
+    }
+
+    /** フェッチサイズが最小値と最大値の範囲に収まること。 */
+    @Test
+    public void testMinAndMaxFetchSize() throws Exception {
+        setColumns(new int[] {Types.INTEGER}, new int[] {10});
+        AdaptiveFetchSizePolicy sut = new AdaptiveFetchSizePolicy();
+        sut.setMinFetchSize(5);
+        sut.setMaxFetchSize(100);
+
+        sut.record("small", metaData, 0);
+        sut.record("large", metaData, 100000);
+        assertThat(sut.getFetchSize("small", 10), is(5));
+        assertThat(sut.getFetchSize("large", 10), is(100));
+    }
+
+    /** フェッチサイズ × 1行の大きさがバッファの上限に収まること。 */
+    @Test
+    public void testMaxFetchBufferBytes() throws Exception {
+        setColumns(new int[] {Types.VARCHAR, Types.BLOB, Types.CLOB},
+                new int[] {Integer.MAX_VALUE, 0, 100});
+        AdaptiveFetchSizePolicy sut = new AdaptiveFetchSizePolicy();
+        sut.setMaxFetchBufferBytes(120000);
+
+        sut.record("SQL_ID", metaData, 1000);
+        // 1行の大きさ : 4000 * 2 + 4000 + 100 * 2 = 12200バイト
+        assertThat(sut.getStatistics("SQL_ID").getRowWidth(), is(12200L));
+        assertThat(sut.getFetchSize("SQL_ID", 10), is(9));
+
+        sut.setMaxFetchBufferBytes(1);
+        sut.record("SQL_ID", metaData, 1000);
+        assertThat("1未満にはならない", sut.getFetchSize("SQL_ID", 10), is(1));
+    }
+
+    /** 移動平均の重みが反映されること。 */
+    @Test
+    public void testSmoothingFactor() throws Exception {
+        setColumns(new int[] {Types.BIGINT}, new int[] {19});
+        AdaptiveFetchSizePolicy sut = new AdaptiveFetchSizePolicy();
+        sut.setSmoothingFactor(1.0);
+
+        sut.record("SQL_ID", metaData, 10);
+        sut.record("SQL_ID", metaData, 20);
+        assertThat(sut.getStatistics("SQL_ID").getAverageRowCount(), is(20.0));
+        assertThat(sut.getFetchSize("SQL_ID", 10), is(21));
+    }
+
+    /** 記録するSQLの数が上限に達した場合は、新たなSQLの実績は記録されないこと。 */
+    @Test
+    public void testMaxEntries() throws Exception {
+        setColumns(new int[] {Types.INTEGER}, new int[] {10});
+        AdaptiveFetchSizePolicy sut = new AdaptiveFetchSizePolicy();
+        sut.setMaxEntries(2);
+
+        sut.record("sql1", metaData, 1);
+        sut.record("sql2", metaData, 2);
+        sut.record("sql3", metaData, 3);
+        sut.record("sql1", metaData, 3);
+
+        Map<String, AdaptiveFetchSizePolicy.Statistics> all = sut.getAllStatistics();
+        assertThat(all.keySet().toString(), is(Arrays.asList("sql1", "sql2").toString()));
+        assertThat(all.get("sql1").getExecutionCount(), is(2L));
+        assertThat(sut.getFetchSize("sql3", 10), is(10));
+
+        sut.clear();
+        assertThat(sut.getAllStatistics().isEmpty(), is(true));
+    }
+
+    /** 不正な設定値の場合は例外が送出されること。 */
+    @Test
+    public void testInvalidSettings() {
+        AdaptiveFetchSizePolicy sut = new AdaptiveFetchSizePolicy();
+        try {
+            sut.setMinFetchSize(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("minFetchSize must be greater than 0. minFetchSize = [0]"));
+        }
+        try {
+            sut.setMaxFetchSize(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("maxFetchSize must be greater than 0. maxFetchSize = [0]"));
+        }
+        try {
+            sut.setMaxFetchBufferBytes(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("maxFetchBufferBytes must be greater than 0. maxFetchBufferBytes = [0]"));
+        }
+        try {
+            sut.setMaxEntries(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("maxEntries must be greater than 0. maxEntries = [0]"));
+        }
+        try {
+            sut.setSmoothingFactor(1.5);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("smoothingFactor must be greater than 0 and less than or equal to 1. smoothingFactor = [1.5]"));
+        }
+    }
+}
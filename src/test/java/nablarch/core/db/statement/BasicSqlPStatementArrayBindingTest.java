@@ -0,0 +1,105 @@
+package nablarch.core.db.statement;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import nablarch.core.db.DbExecutionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.dialect.DefaultDialect;
+import nablarch.core.db.dialect.Dialect;
+import nablarch.core.db.dialect.PostgreSQLDialect;
+
+import org.junit.Test;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+
+/**
+ * {@link BasicSqlPStatement}の配列型のバインド変数(:ids[*])に着目したテスト。
+ */
+public class BasicSqlPStatementArrayBindingTest {
+
+    @Mocked
+    private PreparedStatement statement;
+
+    @Mocked
+    private Connection connection;
+
+    @Mocked
+    private Array array;
+
+    @Mocked
+    private TransactionManagerConnection dbConnection;
+
+    private BasicSqlPStatement createStatement(Dialect dialect) {
+        BasicSqlPStatement sut = new BasicSqlPStatement(
+                new ParsedSql("select * from test where id = ANY(?) and kbn = ?", Arrays.asList("ids[*]", "kbn")),
+                statement);
+        sut.setContext(new DbExecutionContext(dbConnection, dialect, "test"));
+        return sut;
+    }
+
+    /** 配列全体が1つのバインド変数に設定されること。 */
+    @Test
+    public void testBindArray() throws Exception {
+        new Expectations() {{
+            statement.getConnection();
+            result = connection;
+            connection.createArrayOf("int4", (Object[]) any);
+            result = array;
+        }};
+        Map<String, Object> condition = new HashMap<String, Object>();
+        condition.put("ids", new int[] {1, 2, 3});
+        condition.put("kbn", "1");
+        createStatement(new PostgreSQLDialect()).executeQueryByMap(condition);
+
+        new Verifications() {{
+            Object[] elements;
+            connection.createArrayOf("int4", elements = withCapture());
+            assertThat(Arrays.asList(elements), is(Arrays.<Object>asList(1, 2, 3)));
+            statement.setArray(1, array);
+            statement.setObject(2, "1");
+        }};
+    }
+
+    /** 要素が存在しない場合はnullが設定されること。 */
+    @Test
+    public void testBindEmptyArray() throws Exception {
+        Map<String, Object> condition = new HashMap<String, Object>();
+        condition.put("ids", Collections.emptyList());
+        condition.put("kbn", "1");
+        createStatement(new PostgreSQLDialect()).executeQueryByMap(condition);
+
+        new Verifications() {{
+            statement.setNull(1, Types.ARRAY);
+            connection.createArrayOf(anyString, (Object[]) any);
+            times = 0;
+        }};
+    }
+
+    /** 方言が要素の型に対応しない場合は例外が送出されること。 */
+    @Test
+    public void testUnsupportedElementType() throws Exception {
+        Map<String, Object> condition = new HashMap<String, Object>();
+        condition.put("ids", Arrays.asList("1", "2"));
+        condition.put("kbn", "1");
+        try {
+            createStatement(new DefaultDialect()).executeQueryByMap(condition);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("parameter name=[ids], element type=[java.lang.String]"));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package nablarch.core.db.statement;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import nablarch.core.db.DbExecutionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.dialect.DefaultDialect;
+
+import org.junit.Test;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+
+/**
+ * {@link BasicSqlPStatement}のnullの設定に{@link ParameterMetaData}を使用する機能に着目したテスト。
+ */
+public class BasicSqlPStatementParameterMetaDataTest {
+
+    @Mocked
+    private PreparedStatement statement;
+
+    @Mocked
+    private ParameterMetaData metaData;
+
+    @Mocked
+    private TransactionManagerConnection dbConnection;
+
+    private BasicSqlPStatement createStatement(boolean useParameterMetaData) {
+        BasicSqlPStatement sut = new BasicSqlPStatement(
+                new ParsedSql("update test set name = ?, age = ?", Arrays.asList("name", "age")),
+                statement);
+        sut.setContext(new DbExecutionContext(dbConnection, new DefaultDialect(), "test"));
+        sut.setParameterBinder(new TypedParameterBinder());
+        sut.setUseParameterMetaData(useParameterMetaData);
+        return sut;
+    }
+
+    private static Map<String, Object> nullValues() {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("name", null);
+        values.put("age", null);
+        return values;
+    }
+
+    /** ParameterMetaDataを使用しない場合、nullはParameterBinderで設定されること。 */
+    @Test
+    public void testBindNull() throws Exception {
+        createStatement(false).executeUpdateByMap(nullValues());
+
+        new Verifications() {{
+            statement.setObject(1, null);
+            statement.setObject(2, null);
+            statement.getParameterMetaData();
+            times = 0;
+        }};
+    }
+
+    /**
+     * ParameterMetaDataを使用する場合、nullはバインド変数のSQL型で設定されること。
+     * SQL型はステートメントごとに一度だけ取得されること。
+     */
+    @Test
+    public void testBindNullWithParameterMetaData() throws Exception {
+        new Expectations() {{
+            statement.getParameterMetaData();
+            result = metaData;
+            times = 1;
+            metaData.getParameterCount();
+            result = 2;
+            metaData.getParameterType(1);
+            result = Types.VARCHAR;
+            metaData.getParameterType(2);
+            result = Types.INTEGER;
+        }};
+        BasicSqlPStatement sut = createStatement(true);
+        sut.executeUpdateByMap(nullValues());
+        sut.executeUpdateByMap(nullValues());
+
+        new Verifications() {{
+            statement.setNull(1, Types.VARCHAR);
+            times = 2;
+            statement.setNull(2, Types.INTEGER);
+            times = 2;
+            statement.setObject(anyInt, any);
+            times = 0;
+        }};
+    }
+
+    /** ParameterMetaDataが取得できない場合、nullはParameterBinderで設定されること。 */
+    @Test
+    public void testBindNullWithoutParameterMetaData() throws Exception {
+        new Expectations() {{
+            statement.getParameterMetaData();
+            result = new SQLException("unsupported");
+            times = 1;
+        }};
+        BasicSqlPStatement sut = createStatement(true);
+        sut.executeUpdateByMap(nullValues());
+        sut.executeUpdateByMap(nullValues());
+
+        new Verifications() {{
+            statement.setObject(1, null);
+            times = 2;
+            statement.setObject(2, null);
+            times = 2;
+            statement.setNull(anyInt, anyInt);
+            times = 0;
+        }};
+    }
+}
@@ -23,11 +23,15 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,6 +50,7 @@ import nablarch.core.db.connection.ConnectionFactory;
 import nablarch.core.db.connection.TransactionManagerConnection;
 import nablarch.core.db.dialect.DefaultDialect;
 import nablarch.core.db.dialect.Dialect;
+import nablarch.core.db.dialect.H2Dialect;
 import nablarch.core.db.statement.exception.SqlStatementException;
 import nablarch.core.exception.IllegalOperationException;
 import nablarch.core.log.Logger;
@@ -924,6 +929,345 @@ public abstract class BasicSqlPStatementTestLogic {
         assertLog("ログが出力されれる。", Pattern.compile("failed to close result set."));
     }
 
+    /**
+     * {@link BasicSqlPStatement#retrieve(RowHandler)}のテスト。
+     * <p/>
+     * 全ての行が1行ずつ同じ{@link SqlRow}で渡され、SQLログが出力されること。
+     */
+    @Test
+    public void retrieve_rowHandler() throws Exception {
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareStatement("SELECT * FROM STATEMENT_TEST_TABLE ORDER BY ENTITY_ID");
+        final List<String> ids = new ArrayList<String>();
+        final List<SqlRow> rows = new ArrayList<SqlRow>();
+
+        final int count = sut.retrieve(new RowHandler() {
+            @Override
+            public void handle(SqlRow row) {
+                ids.add(row.getString("entityId"));
+                rows.add(row);
+            }
+        });
+
+        assertThat(count, is(3));
+        assertThat(ids, is(Arrays.asList("10001", "10002", "10003")));
+        assertThat("行は再利用される", rows.get(2), is(sameInstance(rows.get(0))));
+        assertLog("終了ログ", Pattern.compile("nablarch.core.db.statement.BasicSqlPStatement#retrieve"
+                + Logger.LS
+                + "\texecute time\\(ms\\) = \\[[0-9]+\\] retrieve time\\(ms\\) = \\[[0-9]+\\] count = \\[3\\]"
+        ));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieve(RowHandler)}で、ステートメント生成時に設定された検索処理のオプションが有効になること。
+     */
+    @Test
+    public void retrieve_rowHandlerWithSelectOption() throws Exception {
+        setDialect(dbCon, new DefaultDialect());
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareStatement(
+                "SELECT * FROM STATEMENT_TEST_TABLE ORDER BY ENTITY_ID", new SelectOption(2, 1));
+        final List<String> ids = new ArrayList<String>();
+
+        final int count = sut.retrieve(new RowHandler() {
+            @Override
+            public void handle(SqlRow row) {
+                ids.add(row.getString("entityId"));
+            }
+        });
+
+        assertThat(count, is(1));
+        assertThat(ids, is(Arrays.asList("10002")));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieve(RowHandler)}で{@link RowHandler}が例外を送出した場合、
+     * その例外が送出され、{@link ResultSet}がクローズされること。
+     */
+    @Test
+    public void retrieve_rowHandlerException(@Mocked final PreparedStatement mockStatement) throws Exception {
+        final ResultSet[] resultSet = new ResultSet[1];
+        new Expectations() {{
+            ResultSet rs = mockStatement.executeQuery();
+            resultSet[0] = rs;
+            final ResultSetMetaData rsm = rs.getMetaData();
+            rsm.getColumnCount();
+            result = 0;
+            rs.next();
+            result = true;
+        }};
+
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareStatement("SELECT * FROM STATEMENT_TEST_TABLE");
+        Deencapsulation.setField(sut, mockStatement);
+        try {
+            sut.retrieve(new RowHandler() {
+                @Override
+                public void handle(SqlRow row) {
+                    throw new IllegalStateException("handler error");
+                }
+            });
+            fail("");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("handler error"));
+        }
+
+        new Verifications() {{
+            resultSet[0].close();
+            times = 1;
+        }};
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieveByMap(Map, RowHandler)}のテスト。
+     */
+    @Test
+    public void retrieveByMap_rowHandler() throws Exception {
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "SELECT * FROM STATEMENT_TEST_TABLE WHERE ENTITY_ID >= :id ORDER BY ENTITY_ID");
+        final Map<String, String> condition = new HashMap<String, String>();
+        condition.put("id", "10002");
+        final List<String> ids = new ArrayList<String>();
+
+        final int count = sut.retrieveByMap(condition, new RowHandler() {
+            @Override
+            public void handle(SqlRow row) {
+                ids.add(row.getString("entityId"));
+            }
+        });
+
+        assertThat(count, is(2));
+        assertThat(ids, is(Arrays.asList("10002", "10003")));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieveByObject(Object, RowHandler)}のテスト。
+     */
+    @Test
+    public void retrieveByObject_rowHandler() throws Exception {
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "SELECT * FROM STATEMENT_TEST_TABLE WHERE ENTITY_ID = :id");
+        final TestEntity entity = new TestEntity();
+        entity.id = "10003";
+        final List<String> ids = new ArrayList<String>();
+
+        final int count = sut.retrieveByObject(entity, new RowHandler() {
+            @Override
+            public void handle(SqlRow row) {
+                ids.add(row.getString("entityId"));
+            }
+        });
+
+        assertThat(count, is(1));
+        assertThat(ids, is(Arrays.asList("10003")));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieveByObject(Object, RowHandler)}のSQLExceptionのテスト。
+     */
+    @Test(expected = SqlStatementException.class)
+    public void retrieveByObject_SQLException(@Mocked final PreparedStatement mockStatement) throws Exception {
+        new Expectations() {{
+            mockStatement.setObject(anyInt, any);
+            result = new SQLException("retrieveByObject error");
+        }};
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "SELECT * FROM STATEMENT_TEST_TABLE WHERE ENTITY_ID = :id");
+        Deencapsulation.setField(sut, mockStatement);
+        final TestEntity entity = new TestEntity();
+        entity.id = "10003";
+        sut.retrieveByObject(entity, new RowHandler() {
+            @Override
+            public void handle(SqlRow row) {
+            }
+        });
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieve(Class)}のテスト。
+     * <p/>
+     * 検索結果がオブジェクトのリストで取得でき、SQLログが出力されること。
+     */
+    @Test
+    public void retrieve_bean() throws Exception {
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareStatement(
+                "SELECT ENTITY_ID, VARCHAR_COL, LONG_COL, INTEGER_COL FROM STATEMENT_TEST_TABLE ORDER BY ENTITY_ID");
+        final List<RowBean> actual = sut.retrieve(RowBean.class);
+
+        assertThat(actual.size(), is(3));
+        assertThat(actual.get(0).getEntityId(), is("10001"));
+        assertThat(actual.get(0).getVarcharCol(), is("a"));
+        assertThat(actual.get(0).getLongCol(), is(10000L));
+        assertThat(actual.get(0).getIntegerCol(), is("1"));
+        assertThat(actual.get(2).getEntityId(), is("10003"));
+        assertThat(actual.get(2).getLongCol(), is(30000L));
+        assertLog("終了ログ", Pattern.compile("nablarch.core.db.statement.BasicSqlPStatement#retrieve"
+                + Logger.LS
+                + "\texecute time\\(ms\\) = \\[[0-9]+\\] retrieve time\\(ms\\) = \\[[0-9]+\\] count = \\[3\\]"
+        ));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieve(Class)}で、ステートメント生成時に設定された検索処理のオプションが有効になること。
+     */
+    @Test
+    public void retrieve_beanWithSelectOption() throws Exception {
+        setDialect(dbCon, new DefaultDialect());
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareStatement(
+                "SELECT * FROM STATEMENT_TEST_TABLE ORDER BY ENTITY_ID", new SelectOption(2, 5));
+        final List<RowBean> actual = sut.retrieve(RowBean.class);
+
+        assertThat(actual.size(), is(2));
+        assertThat(actual.get(0).getEntityId(), is("10002"));
+        assertThat(actual.get(1).getEntityId(), is("10003"));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieveByMap(Map, Class)}のテスト。
+     * <p/>
+     * 同じステートメントで繰り返し検索できること。
+     */
+    @Test
+    public void retrieveByMap_bean() throws Exception {
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "SELECT * FROM STATEMENT_TEST_TABLE WHERE ENTITY_ID = :id");
+        final Map<String, String> condition = new HashMap<String, String>();
+        condition.put("id", "10002");
+
+        List<RowBean> actual = sut.retrieveByMap(condition, RowBean.class);
+        assertThat(actual.size(), is(1));
+        assertThat(actual.get(0).getVarcharCol(), is("b"));
+
+        condition.put("id", "99999");
+        actual = sut.retrieveByMap(condition, RowBean.class);
+        assertThat(actual.isEmpty(), is(true));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieveByObject(Object, Class)}のテスト。
+     */
+    @Test
+    public void retrieveByObject_bean() throws Exception {
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "SELECT * FROM STATEMENT_TEST_TABLE WHERE ENTITY_ID = :id");
+        final TestEntity entity = new TestEntity();
+        entity.id = "10001";
+
+        final List<RowBean> actual = sut.retrieveByObject(entity, RowBean.class);
+        assertThat(actual.size(), is(1));
+        assertThat(actual.get(0).getEntityId(), is("10001"));
+        assertThat(actual.get(0).getIntegerCol(), is("1"));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieve(Class)}で{@link SQLException}が発生した場合、
+     * {@link SqlStatementException}が送出されること。
+     */
+    @Test(expected = SqlStatementException.class)
+    public void retrieve_beanSQLException(@Mocked final PreparedStatement mockStatement) throws Exception {
+        new Expectations() {{
+            mockStatement.executeQuery();
+            result = new SQLException("retrieve error");
+        }};
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareStatement("SELECT * FROM STATEMENT_TEST_TABLE");
+        Deencapsulation.setField(sut, mockStatement);
+        sut.retrieve(RowBean.class);
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieveColumnar()}のテスト。
+     * <p/>
+     * ステートメント生成時に設定された検索処理のオプションが有効になり、SQLログが出力されること。
+     */
+    @Test
+    public void retrieveColumnar() throws Exception {
+        setDialect(dbCon, new DefaultDialect());
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareStatement(
+                "SELECT ENTITY_ID, LONG_COL, INTEGER_COL FROM STATEMENT_TEST_TABLE ORDER BY ENTITY_ID",
+                new SelectOption(2, 5));
+        final ColumnarResultSet actual = sut.retrieveColumnar();
+
+        assertThat(actual.size(), is(2));
+        assertThat(actual.getString("entityId", 0), is("10002"));
+        assertThat(actual.getLongArray("longCol"), is(new long[] {20000L, 30000L}));
+        assertThat(actual.getInt("integerCol", 1), is(3));
+        assertLog("終了ログ", Pattern.compile("nablarch.core.db.statement.BasicSqlPStatement#retrieve"
+                + Logger.LS
+                + "\texecute time\\(ms\\) = \\[[0-9]+\\] retrieve time\\(ms\\) = \\[[0-9]+\\] count = \\[2\\]"
+        ));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieveColumnarByMap(Map)}のテスト。
+     */
+    @Test
+    public void retrieveColumnarByMap() throws Exception {
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "SELECT ENTITY_ID, VARCHAR_COL FROM STATEMENT_TEST_TABLE WHERE ENTITY_ID <= :id ORDER BY ENTITY_ID");
+        final Map<String, String> condition = new HashMap<String, String>();
+        condition.put("id", "10002");
+
+        final ColumnarResultSet actual = sut.retrieveColumnarByMap(condition);
+        assertThat(actual.size(), is(2));
+        assertThat(actual.getString("varcharCol", 0), is("a"));
+        assertThat(actual.getString("varcharCol", 1), is("b"));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#retrieveColumnarByObject(Object)}のテスト。
+     */
+    @Test
+    public void retrieveColumnarByObject() throws Exception {
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "SELECT ENTITY_ID, LONG_COL FROM STATEMENT_TEST_TABLE WHERE ENTITY_ID = :id");
+        final TestEntity entity = new TestEntity();
+        entity.id = "10003";
+
+        final ColumnarResultSet actual = sut.retrieveColumnarByObject(entity);
+        assertThat(actual.size(), is(1));
+        assertThat(actual.getLong("longCol", 0), is(30000L));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#setFetchSizePolicy(AdaptiveFetchSizePolicy)}のテスト。
+     * <p/>
+     * 検索の実績が記録され、次回の検索では実績から決定したフェッチサイズが使用されること。
+     */
+    @Test
+    public void retrieve_adaptiveFetchSize() throws Exception {
+        final AdaptiveFetchSizePolicy policy = new AdaptiveFetchSizePolicy();
+        final String sql = "SELECT ENTITY_ID, LONG_COL FROM STATEMENT_TEST_TABLE ORDER BY ENTITY_ID";
+
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareStatement(sql);
+        sut.setFetchSizePolicy(policy);
+        assertThat(sut.retrieve().size(), is(3));
+        assertThat(policy.getStatistics(sql).getExecutionCount(), is(1L));
+
+        sut.retrieve(new RowHandler() {
+            @Override
+            public void handle(SqlRow row) {
+            }
+        });
+        assertThat("実績から決定したフェッチサイズ", sut.getFetchSize(), is(4));
+        assertThat(policy.getStatistics(sql).getExecutionCount(), is(2L));
+
+        sut.setFetchSize(20);
+        sut.retrieve();
+        assertThat("明示的に設定したフェッチサイズが優先される", sut.getFetchSize(), is(20));
+        assertThat(policy.getStatistics(sql).getExecutionCount(), is(2L));
+
+        final BasicSqlPStatement limited = (BasicSqlPStatement) dbCon.prepareStatement(
+                "SELECT ENTITY_ID FROM STATEMENT_TEST_TABLE ORDER BY ENTITY_ID");
+        limited.setFetchSizePolicy(policy);
+        limited.retrieve(1, 2);
+        assertThat("取得最大件数を指定した場合は記録しない",
+                policy.getStatistics("SELECT ENTITY_ID FROM STATEMENT_TEST_TABLE ORDER BY ENTITY_ID"), is(nullValue()));
+
+        final BasicSqlPStatement bySqlId = (BasicSqlPStatement) dbCon.prepareStatement(
+                "SELECT LONG_COL FROM STATEMENT_TEST_TABLE");
+        bySqlId.setFetchSizePolicy(policy);
+        bySqlId.setSqlId("test#SQL_ID");
+        bySqlId.retrieve();
+        assertThat("SQL_IDをキーに記録される", policy.getStatistics("test#SQL_ID").getExecutionCount(), is(1L));
+    }
+
     /**
      * {@link BasicSqlPStatement#addBatch()}のテスト。
      *
@@ -3187,6 +3531,203 @@ public abstract class BasicSqlPStatementTestLogic {
     }
 
 
+    /**
+     * {@link BasicSqlPStatement#setAutoFlushBatchSize(int)}を設定した場合、
+     * バッチサイズが設定値に達するごとにバッチ実行されること。
+     */
+    @Test
+    public void addBatchMap_autoFlush() throws Exception {
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "INSERT INTO STATEMENT_TEST_TABLE (ENTITY_ID, LONG_COL) VALUES (:id, :long)");
+        sut.setAutoFlushBatchSize(2);
+        Map<String, Object> insertData = new HashMap<String, Object>();
+        for (int i = 1; i <= 5; i++) {
+            insertData.put("id", "2000" + i);
+            insertData.put("long", (long) i);
+            sut.addBatchMap(insertData);
+            assertThat("バッチサイズに達した場合はバッチ実行されること", sut.getBatchSize(), is(i % 2));
+        }
+        assertThat(sut.getBatchUpdateSummary().getExecuteCount(), is(2));
+        assertThat(sut.getBatchUpdateSummary().getBatchCount(), is(4));
+
+        final int[] result = sut.executeBatch();
+        dbCon.commit();
+        assertThat("自動実行されていないレコードのみ実行されること", result.length, is(1));
+
+        final BatchUpdateSummary summary = sut.getBatchUpdateSummary();
+        assertThat(summary.getExecuteCount(), is(3));
+        assertThat(summary.getBatchCount(), is(5));
+        assertThat(summary.getUpdateCount() + summary.getSuccessNoInfoCount(), is(5L));
+
+        final List<TestEntity> actual = VariousDbTestHelper.findAll(TestEntity.class, "id");
+        assertThat("5レコード増えていること", actual.size(), is(8));
+
+        insertData.put("id", "20006");
+        sut.addBatchMap(insertData);
+        assertThat("executeBatch後に追加した場合は新たな集計となること",
+                sut.getBatchUpdateSummary().getExecuteCount(), is(0));
+        sut.clearBatch();
+    }
+
+    /**
+     * {@link BasicSqlPStatement#setAutoFlushBatchSize(int)}により全てのレコードが実行済みの場合、
+     * {@link BasicSqlPStatement#executeBatch()}はバッチ実行を行わないこと。
+     */
+    @Test
+    public void executeBatch_autoFlushedAll() throws Exception {
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "INSERT INTO STATEMENT_TEST_TABLE (ENTITY_ID, LONG_COL) VALUES (:id, :long)");
+        sut.setAutoFlushBatchSize(2);
+        Map<String, Object> insertData = new HashMap<String, Object>();
+        for (int i = 1; i <= 4; i++) {
+            insertData.put("id", "2100" + i);
+            insertData.put("long", (long) i);
+            sut.addBatchMap(insertData);
+        }
+        assertThat(sut.getBatchSize(), is(0));
+
+        final int[] result = sut.executeBatch();
+        dbCon.commit();
+        assertThat("バッチ実行されず、要素数0の配列が返却されること", result.length, is(0));
+
+        final BatchUpdateSummary summary = sut.getBatchUpdateSummary();
+        assertThat("空のバッチ実行は集計されないこと", summary.getExecuteCount(), is(2));
+        assertThat(summary.getBatchCount(), is(4));
+
+        final List<TestEntity> actual = VariousDbTestHelper.findAll(TestEntity.class, "id");
+        assertThat("4レコード増えていること", actual.size(), is(7));
+
+        insertData.put("id", "21005");
+        sut.addBatchMap(insertData);
+        assertThat("executeBatch後に追加した場合は新たな集計となること",
+                sut.getBatchUpdateSummary().getExecuteCount(), is(0));
+        sut.clearBatch();
+    }
+
+    /**
+     * {@link BasicSqlPStatement#setMultiRowInsert(boolean)}を設定した場合、
+     * 複数行のVALUES句を持つINSERT文で登録されること。
+     */
+    @Test
+    public void addBatchMap_multiRowInsert() throws Exception {
+        // 1つのSQL文で2行(バインド変数4つ)まで登録するDialect
+        setDialect(dbCon, new H2Dialect() {
+            @Override
+            public int getMaxBindParameterCount() {
+                return 5;
+            }
+        });
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "INSERT INTO STATEMENT_TEST_TABLE (ENTITY_ID, LONG_COL) VALUES (:id, :long)");
+        sut.setMultiRowInsert(true);
+        Map<String, Object> insertData = new HashMap<String, Object>();
+        for (int i = 1; i <= 5; i++) {
+            insertData.put("id", "3000" + i);
+            insertData.put("long", (long) i);
+            sut.addBatchMap(insertData);
+        }
+        assertThat(sut.getBatchSize(), is(5));
+
+        try {
+            sut.addBatch();
+            fail("とおらない");
+        } catch (IllegalOperationException e) {
+            assertThat(e.getMessage(), containsString("multi-row insert"));
+        }
+
+        final int[] result = sut.executeBatch();
+        dbCon.commit();
+        assertThat("行ごとの更新件数が返されること", result, is(new int[] {1, 1, 1, 1, 1}));
+        assertThat(sut.getBatchSize(), is(0));
+
+        final List<TestEntity> actual = VariousDbTestHelper.findAll(TestEntity.class, "id");
+        assertThat("5レコード増えていること", actual.size(), is(8));
+        assertThat(actual.get(7).id, is("30005"));
+        assertThat(actual.get(7).longCol, is(5L));
+
+        // 再度実行した場合も登録できること
+        insertData.put("id", "30006");
+        sut.addBatchMap(insertData);
+        assertThat(sut.executeBatch(), is(new int[] {1}));
+        dbCon.commit();
+        assertThat(VariousDbTestHelper.findAll(TestEntity.class).size(), is(9));
+        sut.close();
+    }
+
+    /**
+     * {@link BasicSqlPStatement#setMultiRowInsert(boolean)}と{@link BasicSqlPStatement#setAutoFlushBatchSize(int)}を
+     * 設定した場合、上限行数に満たない行数のSQL文のステートメントも再利用されること。
+     */
+    @Test
+    public void addBatchMap_multiRowInsertWithAutoFlush() throws Exception {
+        setDialect(dbCon, new H2Dialect());
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "INSERT INTO STATEMENT_TEST_TABLE (ENTITY_ID, LONG_COL) VALUES (:id, :long)");
+        sut.setMultiRowInsert(true);
+        sut.setAutoFlushBatchSize(3);
+        final Map<Integer, PreparedStatement> statements = Deencapsulation.getField(
+                Deencapsulation.getField(sut, "multiRowInsertBatch"), "statements");
+
+        Map<String, Object> insertData = new HashMap<String, Object>();
+        for (int i = 1; i <= 3; i++) {
+            insertData.put("id", "3100" + i);
+            insertData.put("long", (long) i);
+            sut.addBatchMap(insertData);
+        }
+        final PreparedStatement threeRows = statements.get(3);
+        assertThat("3行のSQL文のステートメントが保持されること", threeRows, is(notNullValue()));
+
+        for (int i = 4; i <= 7; i++) {
+            insertData.put("id", "3100" + i);
+            insertData.put("long", (long) i);
+            sut.addBatchMap(insertData);
+        }
+        assertThat(sut.executeBatch(), is(new int[] {1}));
+        dbCon.commit();
+        assertThat("同じ行数のSQL文はステートメントを再利用すること", statements.get(3), is(sameInstance(threeRows)));
+        assertThat(threeRows.isClosed(), is(false));
+        assertThat(statements.keySet(), is((Set<Integer>) new HashSet<Integer>(Arrays.asList(3, 1))));
+        assertThat("7レコード増えていること", VariousDbTestHelper.findAll(TestEntity.class).size(), is(10));
+
+        sut.close();
+        assertThat("ステートメントを閉じた場合は、再利用しているステートメントも閉じること", threeRows.isClosed(), is(true));
+        assertThat(statements.isEmpty(), is(true));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#setMultiRowInsert(boolean)}を設定した場合でも、
+     * INSERT文以外は置き換えずにバッチ実行されること。
+     */
+    @Test
+    public void addBatchMap_multiRowInsertNotInsert() throws Exception {
+        setDialect(dbCon, new H2Dialect());
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "UPDATE STATEMENT_TEST_TABLE SET LONG_COL = :long WHERE ENTITY_ID = :id");
+        sut.setMultiRowInsert(true);
+        Map<String, Object> updateData = new HashMap<String, Object>();
+        updateData.put("id", "10001");
+        updateData.put("long", 1L);
+        sut.addBatchMap(updateData);
+        updateData.put("id", "99999");
+        sut.addBatchMap(updateData);
+        sut.addBatch();
+
+        final int[] result = sut.executeBatch();
+        dbCon.commit();
+        assertThat(result, is(new int[] {1, 0, 0}));
+        assertThat(VariousDbTestHelper.findById(TestEntity.class, "10001").longCol, is(1L));
+    }
+
+    /**
+     * {@link BasicSqlPStatement#setAutoFlushBatchSize(int)}に負数を設定した場合、例外が送出されること。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void setAutoFlushBatchSize_negative() throws Exception {
+        final BasicSqlPStatement sut = (BasicSqlPStatement) dbCon.prepareParameterizedSqlStatement(
+                "INSERT INTO STATEMENT_TEST_TABLE (ENTITY_ID) VALUES (:id)");
+        sut.setAutoFlushBatchSize(-1);
+    }
+
     /**
      * {@link BasicSqlPStatement#addBatchObject(Object)}のテスト。
      */
@@ -3471,6 +4012,50 @@ public abstract class BasicSqlPStatementTestLogic {
             return convertedSql;
         }
     }
-}
 
+    /**
+     * 検索結果を変換するBean。
+     */
+    public static class RowBean {
+
+        private String entityId;
+
+        private String varcharCol;
 
+        private long longCol;
+
+        private String integerCol;
+
+        public String getEntityId() {
+            return entityId;
+        }
+
+        public void setEntityId(String entityId) {
+            this.entityId = entityId;
+        }
+
+        public String getVarcharCol() {
+            return varcharCol;
+        }
+
+        public void setVarcharCol(String varcharCol) {
+            this.varcharCol = varcharCol;
+        }
+
+        public long getLongCol() {
+            return longCol;
+        }
+
+        public void setLongCol(long longCol) {
+            this.longCol = longCol;
+        }
+
+        public String getIntegerCol() {
+            return integerCol;
+        }
+
+        public void setIntegerCol(String integerCol) {
+            this.integerCol = integerCol;
+        }
+    }
+}
@@ -2,11 +2,18 @@ package nablarch.core.db.statement;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
+import nablarch.core.db.dialect.PostgreSQLDialect;
+import nablarch.core.db.statement.sqlconvertor.VariableConditionSyntaxConvertor;
 import nablarch.core.db.statement.sqlconvertor.VariableInSyntaxConvertor;
+import nablarch.core.db.statement.sqlconvertor.VariableOrderBySyntaxConvertor;
 
 import org.junit.Test;
 
@@ -39,4 +46,75 @@ public class BasicSqlParameterParserFactoryTest {
         assertThat(convertors.length, is(1));
         assertThat(convertors[0], is(instanceOf(VariableInSyntaxConvertor.class)));
     }
-}
\ No newline at end of file
+
+    /**
+     * デフォルト設定の場合、拡張構文を解析したテンプレートがキャッシュされ、パーサ間で共有されること。
+     */
+    @Test
+    public void createSqlParameterParserWithTemplateCache() throws Exception {
+        final String sql = "select * from test where $if(id){id in (:id[])} $sort(sortId) {(1 id) (default name)}";
+        final Map<String, Object> condition = new HashMap<String, Object>();
+        condition.put("id", Arrays.asList("1", "2"));
+        condition.put("sortId", "1");
+
+        final SqlParameterParser parser1 = sut.createSqlParameterParser();
+        assertThat(parser1.convertToJdbcSql(sql, condition),
+                is("select * from test where (0 = 1 or (id in (:id[0],:id[1]))) ORDER BY id"));
+
+        final VariableSqlTemplateCache cache = Deencapsulation.getField(sut, "variableSqlTemplateCache");
+        assertThat(cache.size(), is(1));
+
+        condition.put("id", Collections.emptyList());
+        condition.put("sortId", null);
+        final SqlParameterParser parser2 = sut.createSqlParameterParser();
+        assertThat(parser2.convertToJdbcSql(sql, condition),
+                is("select * from test where (0 = 0 or (id in (:id[]))) ORDER BY name"));
+        assertThat(cache.size(), is(1));
+    }
+
+    /**
+     * テンプレートのキャッシュ件数に0を設定した場合、テンプレートを使用しないこと。
+     */
+    @Test
+    public void createSqlParameterParserWithoutTemplateCache() throws Exception {
+        sut.setVariableSqlTemplateCacheSize(0);
+        final SqlParameterParser parser = sut.createSqlParameterParser();
+        assertThat(Deencapsulation.getField(parser, "variableSqlTemplateCache"), is(nullValue()));
+
+        final Map<String, Object> condition = new HashMap<String, Object>();
+        condition.put("id", "1");
+        assertThat(parser.convertToJdbcSql("select * from test where $if(id){id = :id}", condition),
+                is("select * from test where (0 = 1 or (id = :id))"));
+    }
+
+    /**
+     * テンプレートのキャッシュ件数に負数を設定した場合、例外が送出されること。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void setVariableSqlTemplateCacheSizeNegative() throws Exception {
+        sut.setVariableSqlTemplateCacheSize(-1);
+    }
+
+    /**
+     * 配列型のバインド変数を使用する場合、テンプレートからも配列型のバインド変数を使用したSQL文が構築されること。
+     */
+    @Test
+    public void createSqlParameterParserWithArrayBinding() throws Exception {
+        final VariableInSyntaxConvertor inConvertor = new VariableInSyntaxConvertor();
+        inConvertor.setDialect(new PostgreSQLDialect());
+        sut.setSqlConvertors(Arrays.<SqlConvertor>asList(
+                new VariableConditionSyntaxConvertor(), inConvertor, new VariableOrderBySyntaxConvertor()));
+
+        final String sql = "select * from test where $if(id){id in (:id[])}";
+        final Map<String, Object> condition = new HashMap<String, Object>();
+        condition.put("id", Arrays.asList("1", "2"));
+
+        final SqlParameterParser parser = sut.createSqlParameterParser();
+        assertThat(parser.convertToJdbcSql(sql, condition),
+                is("select * from test where (0 = 1 or (id = ANY(:id[*])))"));
+
+        parser.parse("select * from test where (0 = 1 or (id = ANY(:id[*])))");
+        assertThat(parser.getSql(), is("select * from test where (0 = 1 or (id = ANY(?)))"));
+        assertThat(parser.getNameList(), is(Collections.singletonList("id[*]")));
+    }
+}
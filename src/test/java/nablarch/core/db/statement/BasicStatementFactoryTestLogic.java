@@ -2,6 +2,9 @@ package nablarch.core.db.statement;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -318,6 +321,185 @@ public abstract class BasicStatementFactoryTestLogic {
 
     }
 
+    /**
+     * {@link BasicStatementFactory#parseSql(String)}のテスト。
+     * <p/>
+     * 同一のSQL文の解析結果はキャッシュされ、ステートメント間で共有されること。
+     */
+    @Test
+    public void testParseSqlCached() throws Exception {
+        BasicStatementFactory sut = createStatementFactory();
+        setupSqlParser(sut);
+
+        final String sql = "SELECT * FROM STATEMENT_FACTORY_TEST WHERE ENTITY_ID = :id";
+        ParsedSql first = sut.parseSql(sql);
+        assertThat(first.getSql(), is("SELECT * FROM STATEMENT_FACTORY_TEST WHERE ENTITY_ID = ?"));
+        assertThat(first.getNameList().size(), is(1));
+        assertThat(first.getNameList().get(0), is("id"));
+        assertThat("キャッシュされた解析結果が返却されること", sut.parseSql(sql), sameInstance(first));
+        assertThat(sut.getParsedSqlCacheHitCounter().getMissCount(), is(1L));
+        assertThat(sut.getParsedSqlCacheHitCounter().getHitCount(), is(1L));
+
+        ParameterizedSqlPStatement statement1 = sut.getParameterizedSqlPStatement(sql, connection, createContext());
+        ParameterizedSqlPStatement statement2 = sut.getParameterizedSqlPStatement(sql, connection, createContext());
+        assertThat("名前付きバインド変数の情報がステートメント間で共有されること",
+                Deencapsulation.getField(statement1, "namedParameterHolderList"),
+                sameInstance(Deencapsulation.getField(statement2, "namedParameterHolderList")));
+
+        // like条件のエスケープ文字が変わった場合は、再解析されること
+        sut.setLikeEscapeChar("!");
+        final String likeSql = "SELECT * FROM STATEMENT_FACTORY_TEST WHERE ENTITY_ID LIKE :id%";
+        assertThat(sut.parseSql(likeSql).getSql(),
+                is("SELECT * FROM STATEMENT_FACTORY_TEST WHERE ENTITY_ID LIKE ? escape '!'"));
+        sut.setLikeEscapeChar("\\");
+        assertThat(sut.parseSql(likeSql).getSql(),
+                is("SELECT * FROM STATEMENT_FACTORY_TEST WHERE ENTITY_ID LIKE ? escape '\\'"));
+    }
+
+    /**
+     * {@link BasicStatementFactory#setParsedSqlCacheSize(int)}に0を設定した場合、
+     * 解析結果がキャッシュされないこと。
+     */
+    @Test
+    public void testParseSqlNotCached() throws Exception {
+        BasicStatementFactory sut = createStatementFactory();
+        setupSqlParser(sut);
+        sut.setParsedSqlCacheSize(0);
+
+        final String sql = "SELECT * FROM STATEMENT_FACTORY_TEST WHERE ENTITY_ID = :id";
+        ParsedSql first = sut.parseSql(sql);
+        ParsedSql second = sut.parseSql(sql);
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.getSql(), is(first.getSql()));
+        assertThat(second.getNameList(), is(first.getNameList()));
+    }
+
+    /**
+     * {@link BasicStatementFactory#setParameterBinder(ParameterBinder)}で設定した{@link ParameterBinder}で、
+     * バインド変数の値が設定されること。
+     */
+    @Test
+    public void testSetParameterBinder() throws Exception {
+        final Statement insert = connection.createStatement();
+        insert.executeUpdate("DELETE FROM STATEMENT_FACTORY_TEST");
+        insert.executeUpdate("INSERT INTO STATEMENT_FACTORY_TEST (ENTITY_ID) VALUES ('1')");
+        insert.executeUpdate("INSERT INTO STATEMENT_FACTORY_TEST (ENTITY_ID) VALUES ('2')");
+        insert.close();
+        BasicStatementFactory sut = createStatementFactory();
+        setupSqlParser(sut);
+
+        ParameterizedSqlPStatement statement = sut.getParameterizedSqlPStatement(
+                "SELECT ENTITY_ID FROM STATEMENT_FACTORY_TEST WHERE ENTITY_ID = :id", connection, createContext());
+        assertThat(Deencapsulation.getField(statement, "parameterBinder"), instanceOf(ObjectParameterBinder.class));
+
+        sut.setParameterBinder(new TypedParameterBinder());
+        statement = sut.getParameterizedSqlPStatement(
+                "SELECT ENTITY_ID FROM STATEMENT_FACTORY_TEST WHERE ENTITY_ID = :id", connection, createContext());
+        assertThat(Deencapsulation.getField(statement, "parameterBinder"), instanceOf(TypedParameterBinder.class));
+
+        final HashMap<String, Object> condition = new HashMap<String, Object>();
+        condition.put("id", "2");
+        SqlResultSet rows = statement.retrieve(condition);
+        assertThat(rows.size(), is(1));
+        assertThat(rows.get(0).getString("entity_id"), is("2"));
+    }
+
+    /**
+     * {@link BasicStatementFactory#setUseParameterMetaData(boolean)}で設定した値が、
+     * 生成したステートメントに設定されること。
+     */
+    @Test
+    public void testSetUseParameterMetaData() throws Exception {
+        BasicStatementFactory sut = createStatementFactory();
+        setupSqlParser(sut);
+
+        ParameterizedSqlPStatement statement = sut.getParameterizedSqlPStatement(
+                "SELECT ENTITY_ID FROM STATEMENT_FACTORY_TEST WHERE ENTITY_ID = :id", connection, createContext());
+        assertThat(Deencapsulation.getField(statement, "useParameterMetaData"), is((Object) false));
+
+        sut.setParameterBinder(new TypedParameterBinder());
+        sut.setUseParameterMetaData(true);
+        statement = sut.getParameterizedSqlPStatement(
+                "SELECT ENTITY_ID FROM STATEMENT_FACTORY_TEST WHERE ENTITY_ID = :id", connection, createContext());
+        assertThat(Deencapsulation.getField(statement, "useParameterMetaData"), is((Object) true));
+
+        final HashMap<String, Object> condition = new HashMap<String, Object>();
+        condition.put("id", null);
+        assertThat(statement.retrieve(condition).size(), is(0));
+    }
+
+    /**
+     * {@link BasicStatementFactory#setAutoFlushBatchSize(int)}で設定した値がステートメントに設定されること。
+     */
+    @Test
+    public void testSetAutoFlushBatchSize() throws Exception {
+        BasicStatementFactory sut = createStatementFactory();
+        setupSqlParser(sut);
+        sut.setAutoFlushBatchSize(500);
+
+        ParameterizedSqlPStatement statement = sut.getParameterizedSqlPStatement(
+                "INSERT INTO STATEMENT_FACTORY_TEST (ENTITY_ID) VALUES (:id)", connection, createContext());
+        assertThat(Deencapsulation.<Integer>getField(statement, "autoFlushBatchSize"), is(500));
+
+        try {
+            sut.setAutoFlushBatchSize(-1);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("autoFlushBatchSize must not be negative. autoFlushBatchSize = [-1]"));
+        }
+    }
+
+    /**
+     * {@link BasicStatementFactory#setFetchSizePolicy(AdaptiveFetchSizePolicy)}で設定したポリシーがステートメントに設定されること。
+     * <p/>
+     * SQLIDを元に生成したステートメントには、SQLIDが設定されること。
+     */
+    @Test
+    public void testSetFetchSizePolicy() throws Exception {
+        BasicStatementFactory sut = createStatementFactory();
+        setupSqlParser(sut);
+        sut.setSqlLoader(new BasicSqlLoader());
+        AdaptiveFetchSizePolicy policy = new AdaptiveFetchSizePolicy();
+        sut.setFetchSizePolicy(policy);
+
+        SqlPStatement statement = sut.getSqlPStatement(
+                "SELECT '1' FROM STATEMENT_FACTORY_TEST", connection, createContext());
+        assertThat(Deencapsulation.<AdaptiveFetchSizePolicy>getField(statement, "fetchSizePolicy"), is(policy));
+        assertThat(Deencapsulation.<String>getField(statement, "sqlId"), is(nullValue()));
+
+        SqlPStatement bySqlId = sut.getSqlPStatementBySqlId(SQL_FILE_PATH + "#SQL1", connection, createContext());
+        assertThat(Deencapsulation.<AdaptiveFetchSizePolicy>getField(bySqlId, "fetchSizePolicy"), is(policy));
+        assertThat(Deencapsulation.<String>getField(bySqlId, "sqlId"), is(SQL_FILE_PATH + "#SQL1"));
+
+        ParameterizedSqlPStatement parameterized = sut.getParameterizedSqlPStatementBySqlId(
+                SQL_FILE_PATH + "#SQL2", connection, createContext());
+        assertThat(Deencapsulation.<String>getField(parameterized, "sqlId"), is(SQL_FILE_PATH + "#SQL2"));
+    }
+
+    /**
+     * {@link BasicStatementFactory#setMultiRowInsert(boolean)}で設定した値がステートメントに設定されること。
+     */
+    @Test
+    public void testSetMultiRowInsert() throws Exception {
+        BasicStatementFactory sut = createStatementFactory();
+        setupSqlParser(sut);
+        final String sql = "INSERT INTO STATEMENT_FACTORY_TEST (ENTITY_ID) VALUES (:id)";
+        assertThat(Deencapsulation.<Boolean>getField(
+                sut.getParameterizedSqlPStatement(sql, connection, createContext()), "multiRowInsert"), is(false));
+
+        sut.setMultiRowInsert(true);
+        assertThat(Deencapsulation.<Boolean>getField(
+                sut.getParameterizedSqlPStatement(sql, connection, createContext()), "multiRowInsert"), is(true));
+    }
+
+    /**
+     * {@link BasicStatementFactory#setParsedSqlCacheSize(int)}に負数を設定した場合、例外が送出されること。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetParsedSqlCacheSizeNegative() throws Exception {
+        createStatementFactory().setParsedSqlCacheSize(-1);
+    }
+
     /**
      * SQLの解析クラスなどをセットアップする。
      *
@@ -0,0 +1,33 @@
+package nablarch.core.db.statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.sql.Statement;
+
+import org.junit.Test;
+
+/**
+ * {@link BatchUpdateSummary}のテストクラス。
+ */
+public class BatchUpdateSummaryTest {
+
+    /** バッチ実行の結果が集計されること。 */
+    @Test
+    public void testAdd() {
+        BatchUpdateSummary empty = BatchUpdateSummary.EMPTY;
+        BatchUpdateSummary sut = empty.add(new int[] {1, 2, 0})
+                .add(new int[] {Statement.SUCCESS_NO_INFO, 1})
+                .add(new int[0]);
+
+        assertThat(sut.getExecuteCount(), is(3));
+        assertThat(sut.getBatchCount(), is(5));
+        assertThat(sut.getUpdateCount(), is(4L));
+        assertThat(sut.getSuccessNoInfoCount(), is(1));
+        assertThat(sut.toString(), is("executeCount=3, batchCount=5, updateCount=4, successNoInfoCount=1"));
+
+        assertThat("元の集計結果は変更されないこと", empty.getExecuteCount(), is(0));
+        assertThat(BatchUpdateSummary.EMPTY, sameInstance(empty));
+    }
+}
@@ -0,0 +1,149 @@
+package nablarch.core.db.statement;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.beans.BeansException;
+
+import org.junit.Test;
+
+/**
+ * {@link BeanBindingPlan}のテストクラス。
+ */
+public class BeanBindingPlanTest {
+
+    /** バインド変数に対応するプロパティの値が取得できること。 */
+    @Test
+    public void testGetValue() {
+        ParsedSql parsedSql = new ParsedSql("insert into test values (?, ?, ?, ?)",
+                Arrays.asList("id", "%name%", "names[1]", "id"));
+        BeanBindingPlan sut = parsedSql.getBeanBindingPlan(TestBean.class);
+        assertThat(sut.isSupported(), is(true));
+
+        TestBean bean = new TestBean();
+        bean.setId(100);
+        bean.setName("なまえ");
+        bean.setNames(new String[] {"1", "2"});
+
+        Map<String, Object> expected = BeanUtil.createMapAndCopy(bean);
+        assertThat(sut.getValue(bean, 0, "id"), is(expected.get("id")));
+        assertThat(sut.getValue(bean, 1, "name"), is(expected.get("name")));
+        assertThat(sut.getValue(bean, 2, "names"), is(expected.get("names")));
+        assertThat(sut.getValue(bean, 3, "id"), is(expected.get("id")));
+    }
+
+    /** 実行計画はクラスごとに一度だけ生成されること。 */
+    @Test
+    public void testCached() {
+        ParsedSql parsedSql = new ParsedSql("select * from test where id = ?", Arrays.asList("id"));
+        BeanBindingPlan plan = parsedSql.getBeanBindingPlan(TestBean.class);
+        assertThat(parsedSql.getBeanBindingPlan(TestBean.class), sameInstance(plan));
+    }
+
+    /** 存在しないプロパティやネストしたプロパティを持つ場合はサポートしないこと。 */
+    @Test
+    public void testNotSupported() {
+        assertThat(new ParsedSql("select * from test where id = ?", Arrays.asList("unknown"))
+                .getBeanBindingPlan(TestBean.class).isSupported(), is(false));
+        assertThat(new ParsedSql("select * from test where id = ?", Arrays.asList("child.id"))
+                .getBeanBindingPlan(TestBean.class).isSupported(), is(false));
+        assertThat(new ParsedSql("select * from test where id = ?", Arrays.asList("writeOnly"))
+                .getBeanBindingPlan(TestBean.class).isSupported(), is(false));
+    }
+
+    /** ネストしたオブジェクトのプロパティは、値がnullの場合のみ取得できること。 */
+    @Test
+    public void testNestedObject() {
+        BeanBindingPlan sut = new ParsedSql("select * from test where id = ?", Arrays.asList("child"))
+                .getBeanBindingPlan(TestBean.class);
+        assertThat(sut.isSupported(), is(true));
+
+        TestBean bean = new TestBean();
+        assertThat(sut.getValue(bean, 0, "child"), nullValue());
+
+        bean.setChild(new TestBean());
+        try {
+            sut.getValue(bean, 0, "child");
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("parameter name=[child]"));
+        }
+    }
+
+    /** getterで例外が発生した場合は{@link BeansException}が送出されること。 */
+    @Test
+    public void testGetterError() {
+        BeanBindingPlan sut = new ParsedSql("select * from test where id = ?", Arrays.asList("error"))
+                .getBeanBindingPlan(ErrorBean.class);
+        try {
+            sut.getValue(new ErrorBean(), 0, "error");
+            fail("とおらない");
+        } catch (BeansException e) {
+            assertThat(e.getCause(), instanceOf(Exception.class));
+        }
+    }
+
+    /** テスト用のBean */
+    public static class TestBean {
+
+        private Integer id;
+
+        private String name;
+
+        private String[] names;
+
+        private TestBean child;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String[] getNames() {
+            return names;
+        }
+
+        public void setNames(String[] names) {
+            this.names = names;
+        }
+
+        public TestBean getChild() {
+            return child;
+        }
+
+        public void setChild(TestBean child) {
+            this.child = child;
+        }
+
+        public void setWriteOnly(String writeOnly) {
+        }
+    }
+
+    /** getterで例外が発生するBean */
+    public static class ErrorBean {
+
+        public String getError() {
+            throw new IllegalStateException("error");
+        }
+    }
+}
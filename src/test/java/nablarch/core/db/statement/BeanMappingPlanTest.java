@@ -0,0 +1,176 @@
+package nablarch.core.db.statement;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import nablarch.core.beans.BeansException;
+
+import org.junit.Test;
+
+/**
+ * {@link BeanMappingPlan}のテストクラス。
+ */
+public class BeanMappingPlanTest {
+
+    /** カラム名の大文字/小文字、アンダースコアの有無を区別せずにプロパティに値が設定されること。 */
+    @Test
+    public void testMap() throws Exception {
+        BeanMappingPlan<TestBean> sut = BeanMappingPlan.create(TestBean.class,
+                new String[] {"USER_ID", "USER_NAME", "AGE", "SCORE", "UNKNOWN_COL"});
+        ValueExtractor extractor = new ValueExtractor(1, "なまえ", new BigDecimal("20"), 99, "不明");
+
+        TestBean bean = sut.map(null, extractor.toArray(5));
+        assertThat(bean.getUserId(), is("1"));
+        assertThat(bean.getUserName(), is("なまえ"));
+        assertThat(bean.getAge(), is(20));
+        assertThat(bean.getScore(), is(99L));
+        assertThat("対応するプロパティがないカラムの値は取得しない", extractor.columnIndexes.contains(5), is(false));
+    }
+
+    /** プリミティブ型のプロパティには、カラムの値がnullの場合は値を設定しないこと。 */
+    @Test
+    public void testMapNull() throws Exception {
+        BeanMappingPlan<TestBean> sut = BeanMappingPlan.create(TestBean.class,
+                new String[] {"USER_ID", "AGE", "SCORE"});
+        ValueExtractor extractor = new ValueExtractor(null, null, null);
+
+        TestBean bean = sut.map(null, extractor.toArray(3));
+        assertThat(bean.getUserId(), is(nullValue()));
+        assertThat(bean.getAge(), is(0));
+        assertThat(bean.getScore(), is(nullValue()));
+    }
+
+    /** 同一のプロパティに対応するカラムが複数存在する場合は、後ろのカラムが有効となること。 */
+    @Test
+    public void testDuplicateColumn() throws Exception {
+        BeanMappingPlan<TestBean> sut = BeanMappingPlan.create(TestBean.class,
+                new String[] {"USER_NAME", "USERNAME", "user_name"});
+        ValueExtractor extractor = new ValueExtractor("first", "second", "third");
+
+        assertThat(sut.map(null, extractor.toArray(3)).getUserName(), is("third"));
+        assertThat(extractor.columnIndexes.size(), is(1));
+    }
+
+    /** 実行計画はクラスごとに保持し、カラム構成が変わった場合のみ再生成されること。 */
+    @Test
+    public void testCached() {
+        ParsedSql parsedSql = new ParsedSql("select * from test", null);
+        BeanMappingPlan<TestBean> plan = parsedSql.getBeanMappingPlan(TestBean.class, new String[] {"USER_ID"});
+        assertThat(plan.isApplicable(new String[] {"USER_ID"}), is(true));
+        assertThat(parsedSql.getBeanMappingPlan(TestBean.class, new String[] {"USER_ID"}), sameInstance(plan));
+
+        BeanMappingPlan<TestBean> changed = parsedSql.getBeanMappingPlan(TestBean.class,
+                new String[] {"USER_ID", "AGE"});
+        assertThat(changed, not(sameInstance(plan)));
+        assertThat(changed.isApplicable(new String[] {"USER_ID"}), is(false));
+        assertThat(parsedSql.getBeanMappingPlan(TestBean.class, new String[] {"USER_ID", "AGE"}),
+                sameInstance(changed));
+    }
+
+    /** デフォルトコンストラクタを持たないクラスの場合は例外が送出されること。 */
+    @Test
+    public void testNoDefaultConstructor() {
+        try {
+            BeanMappingPlan.create(NoDefaultConstructorBean.class, new String[] {"USER_ID"});
+            fail("とおらない");
+        } catch (BeansException e) {
+            assertThat(e.getCause(), instanceOf(NoSuchMethodException.class));
+        }
+    }
+
+    /** 指定された値を返す{@link ColumnExtractor}。 */
+    private static class ValueExtractor implements ColumnExtractor {
+
+        private final Object[] values;
+
+        private final List<Integer> columnIndexes = new ArrayList<Integer>();
+
+        ValueExtractor(Object... values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object extract(ResultSet rs, int columnIndex) {
+            columnIndexes.add(columnIndex);
+            return values[columnIndex - 1];
+        }
+
+        ColumnExtractor[] toArray(int size) {
+            ColumnExtractor[] result = new ColumnExtractor[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = this;
+            }
+            return result;
+        }
+    }
+
+    public static class TestBean {
+
+        private String userId;
+
+        private String userName;
+
+        private int age;
+
+        private Long score;
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public void setUserId(String userId) {
+            this.userId = userId;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public void setUserName(String userName) {
+            this.userName = userName;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public Long getScore() {
+            return score;
+        }
+
+        public void setScore(Long score) {
+            this.score = score;
+        }
+    }
+
+    public static class NoDefaultConstructorBean {
+
+        private String userId;
+
+        public NoDefaultConstructorBean(String userId) {
+            this.userId = userId;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public void setUserId(String userId) {
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package nablarch.core.db.statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * {@link CacheHitCounter}のテストクラス。
+ */
+public class CacheHitCounterTest {
+
+    /** ヒット件数、ミス件数、ヒット率が取得できること。 */
+    @Test
+    public void testCount() {
+        CacheHitCounter sut = new CacheHitCounter();
+        assertThat("記録がない場合のヒット率は0", sut.getHitRate(), is(0.0));
+
+        sut.hit();
+        sut.hit();
+        sut.hit();
+        sut.miss();
+        assertThat(sut.getHitCount(), is(3L));
+        assertThat(sut.getMissCount(), is(1L));
+        assertThat(sut.getHitRate(), is(0.75));
+        assertThat(sut.toString(), is("hit=3, miss=1, hitRate=0.75"));
+
+        sut.reset();
+        assertThat(sut.getHitCount(), is(0L));
+        assertThat(sut.getMissCount(), is(0L));
+    }
+}
@@ -0,0 +1,202 @@
+package nablarch.core.db.statement;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.statement.ResultSetIteratorTest.TestEntity;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.TargetDb;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link ColumnarResultSet}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class ColumnarResultSetTest {
+
+    @ClassRule
+    public static SystemRepositoryResource repositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    private final TransactionManagerConnection connection =
+            repositoryResource.getComponentByType(ConnectionFactory.class)
+                    .getConnection(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY);
+
+    private final Timestamp testTimestamp = Timestamp.valueOf("2015-03-17 10:20:30.997");
+
+    @BeforeClass
+    public static void setupDatabase() {
+        VariousDbTestHelper.createTable(TestEntity.class);
+    }
+
+    @Before
+    public void setup() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2015, 2, 17, 0, 0, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        Date testDate = calendar.getTime();
+
+        VariousDbTestHelper.setUpTable(
+                new TestEntity("00001"),
+                new TestEntity("00002", "あいうえお", (short) 12, 12345, 1234554321L, new BigDecimal("12.3"), testDate,
+                        testTimestamp, null),
+                new TestEntity("00003", "あいうえお", (short) -1, -1, Long.MAX_VALUE, new BigDecimal("-0.5"), testDate,
+                        null, null)
+        );
+    }
+
+    @After
+    public void tearDown() {
+        connection.terminate();
+    }
+
+    /** カラムごとに値が取得できること。 */
+    @Test
+    public void testGetValue() {
+        ColumnarResultSet sut = retrieve();
+
+        assertThat(sut.size(), is(3));
+        assertThat(sut.getColumnNames(), is(Arrays.asList(
+                "CHAR_COL", "VARCHAR_COL", "SHORT_COL", "INT_COL", "LONG_COL", "FLOAT_COL", "TIMESTAMP_COL")));
+
+        assertThat(sut.getString("charCol", 1), is("00002"));
+        assertThat(sut.getString("VARCHAR_COL", 1), is("あいうえお"));
+        assertThat(sut.getInt("shortCol", 1), is(12));
+        assertThat(sut.getInt("int_col", 1), is(12345));
+        assertThat(sut.getLong("intCol", 1), is(12345L));
+        assertThat(sut.getLong("longCol", 2), is(Long.MAX_VALUE));
+        assertThat(sut.getDouble("longCol", 1), is(1234554321d));
+        assertThat(sut.getBigDecimal("floatCol", 1), is(new BigDecimal("12.3")));
+        assertThat(sut.getDouble("floatCol", 2), is(-0.5d));
+        assertThat(sut.getBigDecimal("intCol", 2), is(new BigDecimal("-1")));
+        assertThat(sut.getObject("timestampCol", 1), is((Object) testTimestamp));
+
+        assertThat(sut.getObject("intCol", 1), is((Object) 12345));
+        assertThat(sut.getObject("longCol", 1), is((Object) 1234554321L));
+    }
+
+    /** 値がnullの場合のテスト。 */
+    @Test
+    public void testNullValue() {
+        ColumnarResultSet sut = retrieve();
+
+        assertThat(sut.isNull("intCol", 0), is(true));
+        assertThat(sut.isNull("intCol", 1), is(false));
+        assertThat(sut.getInt("intCol", 0), is(0));
+        assertThat(sut.getObject("intCol", 0), is(nullValue()));
+        assertThat(sut.getLong("longCol", 0), is(0L));
+        assertThat(sut.getString("varcharCol", 0), is(nullValue()));
+        assertThat(sut.getBigDecimal("floatCol", 0), is(nullValue()));
+        assertThat(sut.isNull("timestampCol", 2), is(true));
+        assertThat(sut.isNull("charCol", 0), is(false));
+    }
+
+    /** 同じ文字列は1つのインスタンスを共有すること。 */
+    @Test
+    public void testStringDictionary() {
+        ColumnarResultSet sut = retrieve();
+        assertThat(sut.getObject("varcharCol", 2), sameInstance(sut.getObject("varcharCol", 1)));
+    }
+
+    /** プリミティブ型の配列で全ての行の値が取得できること。 */
+    @Test
+    public void testGetArray() {
+        ColumnarResultSet sut = retrieve();
+
+        assertThat(sut.getIntArray("intCol"), is(new int[] {0, 12345, -1}));
+        assertThat(sut.getLongArray("longCol"), is(new long[] {0L, 1234554321L, Long.MAX_VALUE}));
+        try {
+            sut.getDoubleArray("intCol");
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("column type does not match. column name = [intCol]"));
+        }
+    }
+
+    /** 不正なカラム名、行のインデックスの場合は例外が送出されること。 */
+    @Test
+    public void testInvalidArguments() {
+        ColumnarResultSet sut = retrieve();
+        try {
+            sut.getObject("unknown", 0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("column was not found. column name = [unknown]"));
+        }
+        try {
+            sut.getInt("intCol", 3);
+            fail("とおらない");
+        } catch (IndexOutOfBoundsException e) {
+            assertThat(e.getMessage(), is("row index = [3], size = [3]"));
+        }
+        try {
+            sut.getInt("varcharCol", 1);
+            fail("とおらない");
+        } catch (Exception e) {
+            assertThat(e, instanceOf(ClassCastException.class));
+        }
+    }
+
+    /** 検索結果が0件の場合でも、カラムの情報が取得できること。 */
+    @Test
+    public void testEmpty() {
+        ColumnarResultSet sut = ((BasicSqlPStatement) connection.prepareStatement(
+                "SELECT CHAR_COL, INT_COL FROM RS_TEST WHERE CHAR_COL = 'XXXXX'")).retrieveColumnar();
+        assertThat(sut.size(), is(0));
+        assertThat(sut.getColumnNames(), is(Arrays.asList("CHAR_COL", "INT_COL")));
+        assertThat(sut.getIntArray("intCol").length, is(0));
+    }
+
+    /**
+     * 大量の行を保持できること。
+     * <p/>
+     * 文字列の種類が辞書の上限を超えた場合も、値が正しく取得できること。
+     */
+    @Test
+    @TargetDb(include = TargetDb.Db.H2)
+    public void testManyRows() {
+        ColumnarResultSet sut = ((BasicSqlPStatement) connection.prepareStatement("SELECT"
+                + " CASE WHEN MOD(X, 3) = 0 THEN NULL ELSE CAST(X AS INT) END AS INT_COL,"
+                + " CAST(X AS VARCHAR) AS VARCHAR_COL,"
+                + " CAST(MOD(X, 10) AS VARCHAR) AS CODE_COL"
+                + " FROM SYSTEM_RANGE(1, 70000) ORDER BY X")).retrieveColumnar();
+
+        assertThat(sut.size(), is(70000));
+        for (int i = 0; i < sut.size(); i++) {
+            long x = i + 1;
+            if (x % 3 == 0) {
+                assertThat(sut.isNull("intCol", i), is(true));
+            } else {
+                assertThat(sut.getInt("intCol", i), is((int) x));
+            }
+            assertThat(sut.getString("varcharCol", i), is(String.valueOf(x)));
+            assertThat(sut.getString("codeCol", i), is(String.valueOf(x % 10)));
+        }
+    }
+
+    private ColumnarResultSet retrieve() {
+        return ((BasicSqlPStatement) connection.prepareStatement("SELECT"
+                + " CHAR_COL, VARCHAR_COL, SHORT_COL, INT_COL, LONG_COL, FLOAT_COL, TIMESTAMP_COL"
+                + " FROM RS_TEST ORDER BY CHAR_COL")).retrieveColumnar();
+    }
+}
@@ -0,0 +1,179 @@
+package nablarch.core.db.statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * {@link IndexedSqlRow}のテストクラス。
+ */
+public class IndexedSqlRowTest {
+
+    private final SqlRowSchema schema = new SqlRowSchema(
+            new String[] {"USER_ID", "USER_NAME", "AGE"},
+            new int[] {Types.CHAR, Types.VARCHAR, Types.INTEGER});
+
+    private IndexedSqlRow createRow() {
+        return new IndexedSqlRow(schema, new Object[] {"00001", "なまえ", 20});
+    }
+
+    /** カラム名の大文字/小文字、アンダースコアの有無を区別せずに値が取得できること。 */
+    @Test
+    public void testGet() {
+        IndexedSqlRow sut = createRow();
+        assertThat(sut.getString("USER_ID"), is("00001"));
+        assertThat(sut.getString("user_id"), is("00001"));
+        assertThat(sut.getString("userId"), is("00001"));
+        assertThat(sut.getString("USERNAME"), is("なまえ"));
+        assertThat(sut.getInteger("age"), is(20));
+        assertThat(sut.get("unknown"), is(nullValue()));
+        assertThat(sut.containsKey("userName"), is(true));
+        assertThat(sut.containsKey("unknown"), is(false));
+        assertThat(sut.getColType("userName"), is(Types.VARCHAR));
+    }
+
+    /** {@link Map}として同一内容の{@link HashMap}と等価であること。 */
+    @Test
+    public void testMapContract() {
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("USER_ID", "00001");
+        expected.put("USER_NAME", "なまえ");
+        expected.put("AGE", 20);
+
+        IndexedSqlRow sut = createRow();
+        assertThat(sut.size(), is(3));
+        assertThat(sut.isEmpty(), is(false));
+        assertThat(sut.keySet(), is(expected.keySet()));
+        assertThat(sut.containsValue("なまえ"), is(true));
+        assertThat(sut.equals(expected), is(true));
+        assertThat(expected.equals(sut), is(true));
+        assertThat(sut.hashCode(), is(expected.hashCode()));
+        assertThat(sut.toString(), is("{USER_ID=00001, USER_NAME=なまえ, AGE=20}"));
+    }
+
+    /** 検索結果のカラムへのputは値の置き換えとなること。 */
+    @Test
+    public void testPutExistingColumn() {
+        IndexedSqlRow sut = createRow();
+        assertThat(sut.put("userName", "変更後"), is((Object) "なまえ"));
+        assertThat(sut.getString("USER_NAME"), is("変更後"));
+        assertThat(sut.size(), is(3));
+
+        for (Map.Entry<String, Object> entry : sut.entrySet()) {
+            if (entry.getKey().equals("AGE")) {
+                entry.setValue(30);
+            }
+        }
+        assertThat(sut.getInteger("age"), is(30));
+    }
+
+    /** 検索結果に存在しないカラムの追加や削除ができること。 */
+    @Test
+    public void testStructuralChange() {
+        IndexedSqlRow sut = createRow();
+        sut.put("EXTRA_COL", "追加");
+        assertThat(sut.size(), is(4));
+        assertThat(sut.getString("extraCol"), is("追加"));
+        assertThat(sut.getString("userId"), is("00001"));
+
+        sut.remove("USER_ID");
+        assertThat(sut.size(), is(3));
+        assertThat(sut.containsKey("userId"), is(false));
+        assertThat(sut.getString("userName"), is("なまえ"));
+
+        sut.put("user_id", "00002");
+        assertThat(sut.getString("USER_ID"), is("00002"));
+
+        sut.clear();
+        assertThat(sut.isEmpty(), is(true));
+    }
+
+    /** {@link Map#keySet()}から要素を削除できること。 */
+    @Test
+    public void testRemoveFromKeySet() {
+        IndexedSqlRow sut = createRow();
+        assertThat(sut.keySet().remove("USER_NAME"), is(true));
+        assertThat(sut.keySet().remove("UNKNOWN"), is(false));
+        assertThat(sut.size(), is(2));
+        assertThat(sut.containsKey("userName"), is(false));
+        assertThat(sut.getString("userId"), is("00001"));
+        assertThat(sut.getInteger("age"), is(20));
+    }
+
+    /** {@link Map#entrySet()}の{@link Iterator}から要素を削除でき、反復を継続できること。 */
+    @Test
+    public void testRemoveFromEntrySetIterator() {
+        IndexedSqlRow sut = createRow();
+        List<String> keys = new ArrayList<String>();
+        for (Iterator<Map.Entry<String, Object>> it = sut.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Object> entry = it.next();
+            keys.add(entry.getKey());
+            if (entry.getKey().equals("USER_ID")) {
+                it.remove();
+                try {
+                    it.remove();
+                    fail("とおらない");
+                } catch (IllegalStateException e) {
+                    assertThat(e.getMessage(), is("next must be called before remove."));
+                }
+            } else if (entry.getKey().equals("AGE")) {
+                entry.setValue(30);
+            }
+        }
+        assertThat(keys, is(Arrays.asList("USER_ID", "USER_NAME", "AGE")));
+        assertThat(sut.size(), is(2));
+        assertThat(sut.containsKey("userId"), is(false));
+        assertThat(sut.getString("userName"), is("なまえ"));
+        assertThat(sut.getInteger("age"), is(30));
+    }
+
+    /** {@link Map#values()}から要素を削除できること。 */
+    @Test
+    public void testRemoveFromValues() {
+        IndexedSqlRow sut = createRow();
+        assertThat(sut.values().removeAll(Arrays.asList("00001", 20)), is(true));
+        assertThat(sut.size(), is(1));
+        assertThat(sut.keySet(), is(Collections.singleton("USER_NAME")));
+        assertThat(sut.getString("user_name"), is("なまえ"));
+    }
+
+    /** 同一名のカラムが存在する場合は、後ろのカラムが有効となること。 */
+    @Test
+    public void testDuplicateColumnName() {
+        SqlRowSchema duplicate = new SqlRowSchema(
+                new String[] {"COL", "COL2", "COL"},
+                new int[] {Types.VARCHAR, Types.VARCHAR, Types.INTEGER});
+        IndexedSqlRow sut = new IndexedSqlRow(duplicate, new Object[] {"first", "second", 3});
+        assertThat(sut.size(), is(2));
+        assertThat(sut.get("col"), is((Object) 3));
+        assertThat(sut.getColType("col"), is(Types.INTEGER));
+        assertThat(sut.toString(), is("{COL2=second, COL=3}"));
+    }
+
+    /** コピーしたインスタンスでもカラム名を区別せずに値が取得できること。 */
+    @Test
+    public void testCopy() {
+        IndexedSqlRow orig = createRow();
+        orig.put("EXTRA_COL", "追加");
+        SqlRow sut = new SqlRow(orig) {
+        };
+        orig.put("USER_ID", "変更");
+
+        assertThat(sut.getString("userId"), is("00001"));
+        assertThat(sut.getString("extra_col"), is("追加"));
+        assertThat(sut.getInteger("AGE"), is(20));
+        assertThat(sut.size(), is(4));
+    }
+}
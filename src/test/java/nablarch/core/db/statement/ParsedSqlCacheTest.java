@@ -0,0 +1,51 @@
+package nablarch.core.db.statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * {@link ParsedSqlCache}のテストクラス。
+ */
+public class ParsedSqlCacheTest {
+
+    /** キャッシュした解析結果が取得できること。 */
+    @Test
+    public void testGet() {
+        ParsedSqlCache sut = new ParsedSqlCache(10);
+        ParsedSql parsedSql = new ParsedSql("select * from test where id = ?", Arrays.asList("id"));
+
+        assertThat(sut.get("select * from test where id = :id", '\\'), nullValue());
+        sut.put("select * from test where id = :id", '\\', parsedSql);
+        assertThat(sut.get("select * from test where id = :id", '\\'), sameInstance(parsedSql));
+
+        assertThat("エスケープ文字が異なる場合はヒットしないこと",
+                sut.get("select * from test where id = :id", '!'), nullValue());
+    }
+
+    /** 上限値を超えてエントリが追加されないこと。 */
+    @Test
+    public void testMaxSize() {
+        ParsedSqlCache sut = new ParsedSqlCache(3);
+        for (int i = 0; i < 10; i++) {
+            sut.put("sql" + i, '\\', new ParsedSql("sql" + i, null));
+            assertThat(sut.size() <= 3, is(true));
+        }
+        assertThat(sut.size(), is(3));
+        assertThat("最後に追加したエントリは取得できること", sut.get("sql9", '\\').getSql(), is("sql9"));
+
+        sut.clear();
+        assertThat(sut.size(), is(0));
+    }
+
+    /** 上限値に0以下を指定した場合、例外が送出されること。 */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxSize() {
+        new ParsedSqlCache(0);
+    }
+}
@@ -142,6 +142,63 @@ public class ResultSetIteratorTest {
                 .getString("char_col"), is("00003"));
     }
 
+    /**
+     * {@link ResultSetIterator#getBean(Class)}のテスト。
+     */
+    @Test
+    public void getBean() throws Exception {
+        final ResultSetIterator sut = createResultSetIterator("00002");
+
+        assertThat(sut.next(), is(true));
+        final RsBean bean = sut.getBean(RsBean.class);
+        assertThat(bean.getCharCol(), is("00002"));
+        assertThat(bean.getVarcharCol(), is("あいうえお"));
+        assertThat(bean.getIntCol(), is(12345));
+        assertThat(bean.getLongCol(), is("1234554321"));
+        assertThat(bean.getFloatCol(), is(new BigDecimal("12.3")));
+        assertThat(bean.getTimestampCol(), is(testTimestamp));
+    }
+
+    /**
+     * {@link ResultSetIterator#getBean(Class)}で、カラムの値がnullの場合のテスト。
+     */
+    @Test
+    public void getBean_nullValue() throws Exception {
+        final ResultSetIterator sut = createResultSetIterator("00001");
+
+        assertThat(sut.next(), is(true));
+        final RsBean bean = sut.getBean(RsBean.class);
+        assertThat(bean.getCharCol(), is("00001"));
+        assertThat("プリミティブ型は初期値のまま", bean.getIntCol(), is(0));
+        assertThat(bean.getLongCol(), is(nullValue()));
+        assertThat(bean.getTimestampCol(), is(nullValue()));
+    }
+
+    /**
+     * {@link ResultSetIterator#getBean(Class)}でSQLExceptionが発生した場合、
+     * {@link DbAccessException}が送出されること。
+     */
+    @Test
+    public void getBean_SQLException(@Mocked final ResultSet mockRs) throws Exception {
+        new Expectations() {{
+            ResultSetMetaData metaData = mockRs.getMetaData();
+            metaData.getColumnCount();
+            result = 1;
+            metaData.getColumnLabel(1);
+            result = "char_col";
+            mockRs.getObject(1);
+            result = new SQLException("getObject error");
+        }};
+        final ResultSetIterator sut = new ResultSetIterator(mockRs, null);
+        try {
+            sut.getBean(RsBean.class);
+            fail("とおらない");
+        } catch (DbAccessException e) {
+            assertThat(e.getMessage(), is("failed to getBean."));
+            assertThat(e.getCause(), is(instanceOf(SQLException.class)));
+        }
+    }
+
     /**
      * {@link ResultSetIterator#getRow()}でConvertorが設定されているケース。
      */
@@ -174,6 +231,95 @@ public class ResultSetIteratorTest {
 
     }
 
+    /**
+     * {@link ResultSetIterator#getRow()}で{@link PlannableResultSetConvertor}が設定されているケース。
+     * <p/>
+     * 変換計画は検索結果ごとに一度だけ生成され、値ごとの変換は行われないこと。
+     */
+    @Test
+    public void getRowWithPlannableConvertor() throws Exception {
+
+        class Convertor implements PlannableResultSetConvertor {
+
+            int planCount;
+
+            @Override
+            public ColumnExtractor[] createPlan(ResultSetMetaData rsmd) throws SQLException {
+                planCount++;
+                final ColumnExtractor[] plan = new ColumnExtractor[rsmd.getColumnCount()];
+                for (int i = 0; i < plan.length; i++) {
+                    plan[i] = StandardColumnExtractor.OBJECT;
+                }
+                plan[0] = new ColumnExtractor() {
+                    @Override
+                    public Object extract(ResultSet rs, int columnIndex) throws SQLException {
+                        return rs.getString(columnIndex).substring(4);
+                    }
+                };
+                return plan;
+            }
+
+            @Override
+            public Object convert(ResultSet rs, ResultSetMetaData rsmd, int columnIndex) throws SQLException {
+                throw new UnsupportedOperationException("convert must not be called.");
+            }
+
+            @Override
+            public boolean isConvertible(ResultSetMetaData rsmd, int columnIndex) throws SQLException {
+                throw new UnsupportedOperationException("isConvertible must not be called.");
+            }
+        }
+
+        final PreparedStatement statement = connection.getConnection().prepareStatement(
+                "SELECT * FROM RS_TEST ORDER BY CHAR_COL");
+        final ResultSet rs = statement.executeQuery();
+        final Convertor convertor = new Convertor();
+        final ResultSetIterator sut = new ResultSetIterator(rs, convertor);
+
+        int index = 1;
+        for (SqlRow row : sut) {
+            assertThat("最後の一文字だけかえされる", row.getString("charCol"), is(String.valueOf(index)));
+            index++;
+        }
+        assertThat(index, is(4));
+        assertThat("変換計画は一度だけ生成される", convertor.planCount, is(1));
+    }
+
+    /**
+     * {@link PlannableResultSetConvertor}が生成した変換計画の要素数がカラム数と一致しない場合、
+     * 例外が送出されること。
+     */
+    @Test
+    public void initialize_invalidPlan() throws Exception {
+        final PreparedStatement statement = connection.getConnection().prepareStatement(
+                "SELECT CHAR_COL FROM RS_TEST");
+        final ResultSet rs = statement.executeQuery();
+        try {
+            new ResultSetIterator(rs, new PlannableResultSetConvertor() {
+                @Override
+                public ColumnExtractor[] createPlan(ResultSetMetaData rsmd) throws SQLException {
+                    return new ColumnExtractor[0];
+                }
+
+                @Override
+                public Object convert(ResultSet rs, ResultSetMetaData rsmd, int columnIndex) throws SQLException {
+                    return null;
+                }
+
+                @Override
+                public boolean isConvertible(ResultSetMetaData rsmd, int columnIndex) throws SQLException {
+                    return false;
+                }
+            });
+            fail("ここはとおらない");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("column extractor count does not match column count."
+                    + " extractor count = [0], column count = [1]"));
+        } finally {
+            rs.close();
+        }
+    }
+
     /**
      * {@link ResultSetIterator#iterator()}のテスト。
      */
@@ -884,5 +1030,70 @@ public class ResultSetIteratorTest {
             this.binCol = binCol;
         }
     }
-}
 
+    /**
+     * 検索結果を変換するBean。
+     */
+    public static class RsBean {
+
+        private String charCol;
+
+        private String varcharCol;
+
+        private int intCol;
+
+        private String longCol;
+
+        private BigDecimal floatCol;
+
+        private Timestamp timestampCol;
+
+        public String getCharCol() {
+            return charCol;
+        }
+
+        public void setCharCol(String charCol) {
+            this.charCol = charCol;
+        }
+
+        public String getVarcharCol() {
+            return varcharCol;
+        }
+
+        public void setVarcharCol(String varcharCol) {
+            this.varcharCol = varcharCol;
+        }
+
+        public int getIntCol() {
+            return intCol;
+        }
+
+        public void setIntCol(int intCol) {
+            this.intCol = intCol;
+        }
+
+        public String getLongCol() {
+            return longCol;
+        }
+
+        public void setLongCol(String longCol) {
+            this.longCol = longCol;
+        }
+
+        public BigDecimal getFloatCol() {
+            return floatCol;
+        }
+
+        public void setFloatCol(BigDecimal floatCol) {
+            this.floatCol = floatCol;
+        }
+
+        public Timestamp getTimestampCol() {
+            return timestampCol;
+        }
+
+        public void setTimestampCol(Timestamp timestampCol) {
+            this.timestampCol = timestampCol;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package nablarch.core.db.statement;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * {@link SelectOption}のテストクラス。
+ */
+public class SelectOptionTest {
+
+    /** 取得開始レコード番号と取得レコード数を指定した場合のテスト。 */
+    @Test
+    public void testStartPositionAndLimit() {
+        SelectOption sut = new SelectOption(11, 5);
+        assertThat(sut.getStartPosition(), is(11));
+        assertThat(sut.getOffset(), is(10));
+        assertThat(sut.getLimit(), is(5));
+        assertThat(sut.isKeyset(), is(false));
+        assertThat(sut.getKeyColumns(), is(nullValue()));
+        assertThat(sut.getLastKeyValues(), is(nullValue()));
+        assertThat(sut.toString(), is("nablarch.core.db.statement.SelectOption:{offset=10, limit=5}"));
+    }
+
+    /** キーセットページングのテスト。 */
+    @Test
+    public void testKeyset() {
+        String[] keyColumns = {"USER_NAME", "USER_ID"};
+        Object[] lastKeyValues = {"name", 10};
+        SelectOption sut = new SelectOption(keyColumns, lastKeyValues, 20);
+        keyColumns[0] = "changed";
+        lastKeyValues[0] = "changed";
+
+        assertThat(sut.isKeyset(), is(true));
+        assertThat(sut.getStartPosition(), is(1));
+        assertThat(sut.getOffset(), is(0));
+        assertThat(sut.getLimit(), is(20));
+        assertThat("生成後に引数の配列を変更しても影響を受けないこと",
+                sut.getKeyColumns(), is(new String[] {"USER_NAME", "USER_ID"}));
+        assertThat(sut.getLastKeyValues(), is(new Object[] {"name", 10}));
+        assertThat(sut.toString(), is("nablarch.core.db.statement.SelectOption:{offset=0, limit=20,"
+                + " keyColumns=[USER_NAME, USER_ID], lastKeyValues=[name, 10]}"));
+
+        SelectOption firstPage = new SelectOption(new String[] {"T.USER_ID"}, null, 20);
+        assertThat(firstPage.isKeyset(), is(true));
+        assertThat(firstPage.getLastKeyValues(), is(nullValue()));
+    }
+
+    /** キーセットページングで、不正な値を指定した場合は例外が送出されること。 */
+    @Test
+    public void testKeysetInvalidArguments() {
+        try {
+            new SelectOption(new String[0], null, 10);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("keyColumns must not be empty."));
+        }
+        try {
+            new SelectOption(new String[] {"USER_ID", "USER_ID; DELETE FROM USER"}, null, 10);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("invalid key column. key column = [USER_ID; DELETE FROM USER]"));
+        }
+        try {
+            new SelectOption(new String[] {"USER_NAME", "USER_ID"}, new Object[] {"name"}, 10);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("lastKeyValues size must be equal to keyColumns size."
+                    + " keyColumns = [USER_NAME, USER_ID], lastKeyValues = [name]"));
+        }
+    }
+}
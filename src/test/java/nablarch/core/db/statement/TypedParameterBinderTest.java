@@ -0,0 +1,89 @@
+package nablarch.core.db.statement;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+import org.junit.Test;
+
+import mockit.Mocked;
+import mockit.Verifications;
+
+/**
+ * {@link TypedParameterBinder}のテストクラス。
+ */
+public class TypedParameterBinderTest {
+
+    @Mocked
+    private PreparedStatement statement;
+
+    /** 値のクラスに応じた型指定のsetterで設定されること。 */
+    @Test
+    public void testBind() throws Exception {
+        final Timestamp timestamp = new Timestamp(0L);
+        final java.sql.Date date = new java.sql.Date(0L);
+        final Time time = new Time(0L);
+        final byte[] bytes = {0x30};
+
+        TypedParameterBinder sut = new TypedParameterBinder();
+        sut.bind(statement, 1, "value");
+        sut.bind(statement, 2, 100);
+        sut.bind(statement, 3, 200L);
+        sut.bind(statement, 4, (short) 3);
+        sut.bind(statement, 5, (byte) 4);
+        sut.bind(statement, 6, true);
+        sut.bind(statement, 7, 1.5d);
+        sut.bind(statement, 8, 2.5f);
+        sut.bind(statement, 9, new BigDecimal("1.23"));
+        sut.bind(statement, 10, timestamp);
+        sut.bind(statement, 11, date);
+        sut.bind(statement, 12, time);
+        sut.bind(statement, 13, bytes);
+
+        new Verifications() {{
+            statement.setString(1, "value");
+            statement.setInt(2, 100);
+            statement.setLong(3, 200L);
+            statement.setShort(4, (short) 3);
+            statement.setByte(5, (byte) 4);
+            statement.setBoolean(6, true);
+            statement.setDouble(7, 1.5d);
+            statement.setFloat(8, 2.5f);
+            statement.setBigDecimal(9, new BigDecimal("1.23"));
+            statement.setTimestamp(10, timestamp);
+            statement.setDate(11, date);
+            statement.setTime(12, time);
+            statement.setBytes(13, bytes);
+            statement.setObject(anyInt, any);
+            times = 0;
+        }};
+    }
+
+    /** 型指定のsetterが対応しないクラスの値は、setObjectで設定されること。 */
+    @Test
+    public void testBindUnsupportedType() throws Exception {
+        final java.util.Date date = new java.util.Date(0L);
+        TypedParameterBinder sut = new TypedParameterBinder();
+        sut.bind(statement, 1, BigInteger.TEN);
+        sut.bind(statement, 2, date);
+
+        new Verifications() {{
+            statement.setObject(1, BigInteger.TEN);
+            statement.setObject(2, date);
+        }};
+    }
+
+    /** nullはsetObjectで設定されること。 */
+    @Test
+    public void testBindNull() throws Exception {
+        new TypedParameterBinder().bind(statement, 1, null);
+
+        new Verifications() {{
+            statement.setObject(1, null);
+            statement.getParameterMetaData();
+            times = 0;
+        }};
+    }
+}
@@ -0,0 +1,138 @@
+package nablarch.core.db.statement.sqlconvertor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import nablarch.core.db.dialect.DefaultDialect;
+import nablarch.core.db.dialect.Dialect;
+import nablarch.core.db.dialect.PostgreSQLDialect;
+
+import org.junit.Test;
+
+/**
+ * {@link VariableInSyntaxConvertor}のテストクラス。
+ */
+public class VariableInSyntaxConvertorTest {
+
+    private VariableInSyntaxConvertor sut = new VariableInSyntaxConvertor();
+
+    public static class TestBean {
+
+        private List<String> ids;
+
+        public List<String> getIds() {
+            return ids;
+        }
+
+        public void setIds(List<String> ids) {
+            this.ids = ids;
+        }
+    }
+
+    private static TestBean createBean(String... ids) {
+        TestBean bean = new TestBean();
+        bean.setIds(Arrays.asList(ids));
+        return bean;
+    }
+
+    /** 丸め単位を設定しない場合は、要素数のとおりに展開されること。 */
+    @Test
+    public void testConvert() {
+        final String sql = "select * from test where id in (:ids[])";
+        assertThat(sut.convert(sql, createBean("1", "2", "3")),
+                is("select * from test where id in (:ids[0],:ids[1],:ids[2])"));
+        assertThat(sut.convert(sql, createBean()),
+                is("select * from test where id in (:ids[])"));
+    }
+
+    /** 丸め単位を設定した場合は、要素数以上で最小の丸め単位まで最後の要素で埋めて展開されること。 */
+    @Test
+    public void testConvertWithBucketSizes() {
+        sut.setInListBucketSizes(new int[] {4, 1, 2});
+        final String sql = "select * from test where id in (:ids[])";
+
+        assertThat(sut.convert(sql, createBean("1")),
+                is("select * from test where id in (:ids[0])"));
+        assertThat(sut.convert(sql, createBean("1", "2")),
+                is("select * from test where id in (:ids[0],:ids[1])"));
+        assertThat(sut.convert(sql, createBean("1", "2", "3")),
+                is("select * from test where id in (:ids[0],:ids[1],:ids[2],:ids[2])"));
+        assertThat(sut.convert(sql, createBean("1", "2", "3", "4")),
+                is("select * from test where id in (:ids[0],:ids[1],:ids[2],:ids[3])"));
+        assertThat("最大の丸め単位を超える場合は要素数のとおりに展開されること",
+                sut.convert(sql, createBean("1", "2", "3", "4", "5")),
+                is("select * from test where id in (:ids[0],:ids[1],:ids[2],:ids[3],:ids[4])"));
+        assertThat("要素が存在しない場合は展開されないこと",
+                sut.convert(sql, createBean()),
+                is("select * from test where id in (:ids[])"));
+
+        sut.setInListBucketSizes(null);
+        assertThat("丸め単位をクリアした場合は要素数のとおりに展開されること",
+                sut.convert(sql, createBean("1", "2", "3")),
+                is("select * from test where id in (:ids[0],:ids[1],:ids[2])"));
+    }
+
+    /** 0以下の丸め単位は設定できないこと。 */
+    @Test
+    public void testSetInListBucketSizesInvalid() {
+        try {
+            sut.setInListBucketSizes(new int[] {2, 0});
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("inListBucketSizes must be greater than 0. inListBucketSizes = [2, 0]"));
+        }
+    }
+
+    /** 配列型のバインド変数をサポートする方言の場合、IN条件が配列型のバインド変数を使用した条件に変換されること。 */
+    @Test
+    public void testConvertArrayInCondition() {
+        sut.setDialect(new PostgreSQLDialect());
+        assertThat(sut.convert("select * from test where id in (:ids[]) and kbn = :kbn", createBean("1", "2", "3")),
+                is("select * from test where id = ANY(:ids[*]) and kbn = :kbn"));
+        assertThat("要素数によらず同じSQL文となること",
+                sut.convert("select * from test where id IN ( :ids[] )", createBean("1")),
+                is("select * from test where id = ANY(:ids[*])"));
+        assertThat("NOT IN条件は変換されないこと",
+                sut.convert("select * from test where id not in (:ids[])", createBean("1", "2")),
+                is("select * from test where id not in (:ids[0],:ids[1])"));
+        assertThat("可変IN構文以外の要素を含むIN条件は変換されないこと",
+                sut.convert("select * from test where id in ('0', :ids[])", createBean("1", "2")),
+                is("select * from test where id in ('0', :ids[0],:ids[1])"));
+    }
+
+    /** 配列型のバインド変数をサポートしない方言の場合、要素数分のバインド変数に展開されること。 */
+    @Test
+    public void testConvertArrayInConditionUnsupported() {
+        sut.setDialect(new DefaultDialect());
+        final String sql = "select * from test where id in (:ids[])";
+        assertThat(sut.convertArrayInCondition(sql), is(sql));
+        assertThat(sut.convert(sql, createBean("1", "2")),
+                is("select * from test where id in (:ids[0],:ids[1])"));
+    }
+
+    /**
+     * {@link DefaultDialect}を継承しない方言の場合、方言のメソッドを呼び出さずに、
+     * 要素数分のバインド変数に展開されること。
+     */
+    @Test
+    public void testConvertArrayInConditionNotDefaultDialect() {
+        sut.setDialect((Dialect) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {Dialect.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                }));
+        final String sql = "select * from test where id in (:ids[])";
+        assertThat(sut.convertArrayInCondition(sql), is(sql));
+        assertThat(sut.convert(sql, createBean("1", "2")),
+                is("select * from test where id in (:ids[0],:ids[1])"));
+    }
+}
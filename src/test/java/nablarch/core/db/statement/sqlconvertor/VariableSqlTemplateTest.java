@@ -0,0 +1,149 @@
+package nablarch.core.db.statement.sqlconvertor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * {@link VariableSqlTemplate}のテストクラス。
+ * <p/>
+ * テンプレートから構築したSQL文が、{@link VariableConditionSyntaxConvertor}、{@link VariableInSyntaxConvertor}、
+ * {@link VariableOrderBySyntaxConvertor}を順に適用した結果と一致することを検証する。
+ */
+public class VariableSqlTemplateTest {
+
+    private final VariableConditionSyntaxConvertor condition = new VariableConditionSyntaxConvertor();
+
+    private final VariableInSyntaxConvertor in = new VariableInSyntaxConvertor();
+
+    private final VariableOrderBySyntaxConvertor orderBy = new VariableOrderBySyntaxConvertor();
+
+    /** テンプレートとして解析できるSQL文 */
+    private static final String[] COMPILABLE_SQL = {
+            "",
+            "select * from dual",
+            "select * from test where id = :id",
+            "select * from test where $if(id){id = :id}",
+            "select * from test where $if (id) { id = :id } and $if(name){name like :%name%} and del_flg = '0'",
+            "select * from test where $if(ids){id in (:ids[])} and kbn in (:ids[]) and ':ids[]' = x",
+            "select * from test where $if(ids){id in (:ids[]) and sub in (:ids[])}",
+            "select * from test where $if(id){id = :id} $sort(sortId) {(1 id asc) (2 id desc) (3 name, id) (default id)}",
+            "select * from test $sort (sortId) {( 1  id asc )(2 id desc)}",
+            "select * from (select * from test $sort(sortId) {(1 id) (2 name)}) where rownum <= :n $sort(sortId2) {(1 id) (default name)}",
+            "select * from test $sort(sortId) {(1 func(a, b)) (2 x(2 y)) (default z)}",
+            "select * from test where $if(id)",
+            "select * from test where $if (id) {id = :id $if(name) {name = :name}}",
+    };
+
+    /** テンプレートとして解析できないSQL文 */
+    private static final String[] NOT_COMPILABLE_SQL = {
+            "select * from test where $if(id){id = :id $sort(sortId) {(1 id)}",
+            "select * from test $sort(sortId) {(1 id) (2 :ids[])}",
+            "select * from test $sort(sortId) (1 id)",
+            "select * from test $sort(sortId) {(1 id) $if(id){x}",
+    };
+
+    /** 検索条件 */
+    private static List<Map<String, Object>> conditions() {
+        final List<Map<String, Object>> result = new ArrayList<Map<String, Object>>();
+        final Object[] ids = {"1", "", Arrays.asList("a", "b", "c"), new String[] {"x"}};
+        final Object[] sortIds = {null, "1", "2", "3", 1, "9", "default", "", ".", "(", "1 id", "x(2"};
+        for (Object id : ids) {
+            for (Object sortId : sortIds) {
+                final Map<String, Object> map = new HashMap<String, Object>();
+                map.put("id", id);
+                map.put("ids", id instanceof String ? Collections.singletonList(id) : id);
+                map.put("name", "name");
+                map.put("n", 10);
+                map.put("sortId", sortId);
+                map.put("sortId2", sortId);
+                result.add(map);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * テンプレートとして解析できるSQL文の場合、コンバータを順に適用した結果と一致すること。
+     */
+    @Test
+    public void testCompilable() throws Exception {
+        for (String sql : COMPILABLE_SQL) {
+            final VariableSqlTemplate sut = VariableSqlTemplate.compile(sql);
+            assertThat(sql, sut.isCompiled(), is(true));
+            assertSameResult(sut, sql);
+        }
+    }
+
+    /**
+     * テンプレートとして解析できないSQL文の場合も、コンバータを順に適用した結果と一致すること。
+     */
+    @Test
+    public void testNotCompilable() throws Exception {
+        for (String sql : NOT_COMPILABLE_SQL) {
+            final VariableSqlTemplate sut = VariableSqlTemplate.compile(sql);
+            assertThat(sql, sut.isCompiled(), is(false));
+            assertSameResult(sut, sql);
+        }
+    }
+
+    /**
+     * 拡張構文を含まないSQL文の場合、元のSQL文がそのまま返却されること。
+     */
+    @Test
+    public void testNoSyntax() throws Exception {
+        final String sql = "select * from test where id = :id";
+        assertThat(VariableSqlTemplate.compile(sql).render(new HashMap<String, Object>(), condition, in, orderBy) == sql,
+                is(true));
+    }
+
+    /**
+     * 可変IN構文に配列以外の値が指定された場合、コンバータと同じ例外が送出されること。
+     */
+    @Test
+    public void testInvalidInParameter() throws Exception {
+        final Map<String, Object> map = new HashMap<String, Object>();
+        map.put("ids", "1");
+        try {
+            VariableSqlTemplate.compile("select * from test where id in (:ids[])").render(map, condition, in, orderBy);
+            fail("do not run.");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("object type in field is invalid. valid object type is Collection or Array."
+                    + " field name = [ids]."));
+        }
+    }
+
+    /**
+     * 指定されたSQL文について、全ての検索条件でコンバータを順に適用した結果と一致することを検証する。
+     *
+     * @param sut テンプレート
+     * @param sql SQL文
+     */
+    private void assertSameResult(VariableSqlTemplate sut, String sql) {
+        for (Map<String, Object> map : conditions()) {
+            String expected;
+            try {
+                expected = orderBy.convert(in.convert(condition.convert(sql, map), map), map);
+            } catch (RuntimeException e) {
+                // ソートIDが正規表現として不正な場合など、コンバータで例外となる場合は同じ例外となること
+                expected = e.getClass().getName();
+            }
+            String actual;
+            try {
+                actual = sut.render(map, condition, in, orderBy);
+            } catch (RuntimeException e) {
+                actual = e.getClass().getName();
+            }
+            assertThat(sql + " " + map, actual, is(expected));
+        }
+    }
+}
@@ -4,6 +4,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -17,9 +20,12 @@ import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import nablarch.core.db.DbExecutionContext;
 import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.BasicDbConnection;
 import nablarch.core.db.connection.DbConnectionContext;
 import nablarch.core.db.dialect.Dialect;
+import nablarch.core.db.dialect.H2Dialect;
 import nablarch.core.db.dialect.OracleDialect;
 import nablarch.core.db.statement.BasicSqlLoader;
 import nablarch.core.db.statement.ParameterizedSqlPStatement;
@@ -28,6 +34,7 @@ import nablarch.core.db.statement.SqlCStatement;
 import nablarch.core.db.statement.SqlPStatement;
 import nablarch.core.db.statement.SqlResultSet;
 import nablarch.core.db.transaction.SimpleDbTransactionManager;
+import nablarch.core.transaction.TransactionContext;
 import nablarch.test.support.SystemRepositoryResource;
 import nablarch.test.support.db.helper.DatabaseTestRunner;
 import nablarch.test.support.db.helper.TargetDb;
@@ -334,6 +341,149 @@ public class DbAccessSupportTest extends DbAccessSupport {
         assertThat(cond.getResultCount(), is(0));
     }
 
+    /**
+     * {@link DbAccessSupport#searchWithCountOver(String, ListSearchInfo)}のテスト。
+     * <p/>
+     * 分析関数をサポートするダイアレクトの場合、1回のSQL文の実行で件数と検索結果が取得できること。
+     */
+    @Test
+    @TargetDb(include = TargetDb.Db.H2)
+    public void testSearchWithCountOver() throws Exception {
+        setUpPagingRecords();
+        final BasicDbConnection connection = (BasicDbConnection) DbConnectionContext.getConnection();
+        connection.setContext(new DbExecutionContext(connection, new CountOverEmulationDialect(),
+                TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+
+        // デフォルト(max=20、startPageNumber=1)の場合
+        ListSearchInfoImpl cond = new ListSearchInfoImpl();
+        SqlResultSet rs = super.searchWithCountOver("SQL004", cond);
+        assertThat(rs.size(), is(20));
+        assertThat(rs.get(0).getString("col2"), is("22201"));
+        assertThat(rs.get(19).getString("col2"), is("22220"));
+        assertThat(cond.getResultCount(), is(22));
+        assertThat("件数のカラムは検索結果から除かれていること", rs.get(0).containsKey("totalCount"), is(false));
+        assertThat(rs.get(0).size(), is(3));
+
+        // max=5、startPageNumber=5に設定した場合
+        cond.setMax(5);
+        cond.setPageNumber(5);
+        rs = super.searchWithCountOver("SQL004", cond);
+        assertThat(rs.size(), is(2));
+        assertThat(rs.get(0).getString("col2"), is("22221"));
+        assertThat(rs.get(1).getString("col2"), is("22222"));
+        assertThat(cond.getResultCount(), is(22));
+
+        // 取得対象のページに検索結果が存在しない場合は、件数取得用のSQL文で件数を取得する
+        cond.setPageNumber(6);
+        rs = super.searchWithCountOver("SQL004", cond);
+        assertThat(rs.size(), is(0));
+        assertThat(cond.getResultCount(), is(22));
+
+        // maxResultCount=21に設定した場合
+        cond.setMaxResultCount(21);
+        cond.setPageNumber(1);
+        try {
+            super.searchWithCountOver("SQL004", cond);
+            fail("ここはとおらない");
+        } catch (TooManyResultException e) {
+            assertThat(e.getMaxResultCount(), is(21));
+            assertThat(e.getResultCount(), is(22));
+        }
+
+        // 検索結果0件の場合
+        cond.col1 = "11113";
+        rs = super.searchWithCountOver("SQL004", cond);
+        assertThat(rs.size(), is(0));
+        assertThat(cond.getResultCount(), is(0));
+    }
+
+    /**
+     * {@link DbAccessSupport#searchWithCountOver(String, ListSearchInfo)}のテスト。
+     * <p/>
+     * 分析関数をサポートしないダイアレクトの場合、{@link DbAccessSupport#search(String, ListSearchInfo)}と同じ結果となること。
+     */
+    @Test
+    public void testSearchWithCountOver_notSupported() throws Exception {
+        setUpPagingRecords();
+        final BasicDbConnection connection = (BasicDbConnection) DbConnectionContext.getConnection();
+        connection.setContext(new DbExecutionContext(connection, new H2Dialect() {
+            @Override
+            public boolean supportsCountOver() {
+                return false;
+            }
+        }, TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+
+        ListSearchInfoImpl cond = new ListSearchInfoImpl();
+        cond.setMax(5);
+        cond.setPageNumber(5);
+        SqlResultSet rs = super.searchWithCountOver("SQL004", cond);
+        assertThat(rs.size(), is(2));
+        assertThat(rs.get(0).getString("col2"), is("22221"));
+        assertThat(rs.get(1).getString("col2"), is("22222"));
+        assertThat(cond.getResultCount(), is(22));
+    }
+
+    /**
+     * {@link DbAccessSupport#searchWithCountOver(String, ListSearchInfo)}のテスト。
+     * <p/>
+     * {@link nablarch.core.db.dialect.DefaultDialect}を継承していないダイアレクトの場合、
+     * {@link DbAccessSupport#search(String, ListSearchInfo)}と同じ結果となること。
+     */
+    @Test
+    public void testSearchWithCountOver_notDefaultDialect() throws Exception {
+        setUpPagingRecords();
+        final BasicDbConnection connection = (BasicDbConnection) DbConnectionContext.getConnection();
+        final Dialect delegate = new CountOverEmulationDialect();
+        final Dialect dialect = (Dialect) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {Dialect.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        return method.invoke(delegate, args);
+                    }
+                });
+        connection.setContext(new DbExecutionContext(connection, dialect,
+                TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+
+        ListSearchInfoImpl cond = new ListSearchInfoImpl();
+        cond.setMax(5);
+        cond.setPageNumber(5);
+        SqlResultSet rs = super.searchWithCountOver("SQL004", cond);
+        assertThat(rs.size(), is(2));
+        assertThat("件数のカラムが付加されないこと", rs.get(0).containsKey("TOTAL_COUNT_"), is(false));
+        assertThat(rs.get(0).getString("col2"), is("22221"));
+        assertThat(rs.get(1).getString("col2"), is("22222"));
+        assertThat(cond.getResultCount(), is(22));
+    }
+
+    /**
+     * ページングのテスト用のレコードを登録する。
+     */
+    private static void setUpPagingRecords() {
+        TestEntity[] entities = new TestEntity[23];
+        for (int i = 0; i < 22; i++) {
+            final String no = String.format("%02d", i + 1);
+            entities[i] = TestEntity.create("id" + no, "11111", "222" + no);
+        }
+        entities[22] = TestEntity.create("id23", "11112", "44442");
+        VariousDbTestHelper.setUpTable(entities);
+    }
+
+    /**
+     * 分析関数をサポートしないH2で、{@code COUNT(*) OVER()}と同じ結果を返すSQL文に変換するダイアレクト。
+     */
+    private static class CountOverEmulationDialect extends H2Dialect {
+
+        @Override
+        public boolean supportsCountOver() {
+            return true;
+        }
+
+        @Override
+        public String convertCountOverSql(String sql) {
+            return "SELECT SUB_.*, (SELECT COUNT(*) FROM (" + sql + ") CNT_) TOTAL_COUNT_ FROM (" + sql + ") SUB_";
+        }
+    }
+
     @Test
     public void testGetSqlPStatement() throws Exception {
         VariousDbTestHelper.setUpTable(
@@ -0,0 +1,209 @@
+package nablarch.core.db.transaction;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nablarch.core.db.statement.exception.DuplicateStatementException;
+import nablarch.core.db.transaction.SimpleDbTransactionExecutorTest.TestEntity;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link ParallelBatchWriter}のテスト。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class ParallelBatchWriterTest {
+
+    @ClassRule
+    public static SystemRepositoryResource repository = new SystemRepositoryResource(
+            "nablarch/core/db/transaction/SimpleDbTransactionExecutorTest.xml");
+
+    private static final String SQL = "INSERT INTO SBT_TEST_TABLE (COL1, COL2) VALUES (:col1, :col2)";
+
+    private SimpleDbTransactionManager transactionManager;
+
+    @BeforeClass
+    public static void beforeClass() {
+        VariousDbTestHelper.createTable(TestEntity.class);
+    }
+
+    @Before
+    public void setUp() {
+        VariousDbTestHelper.delete(TestEntity.class);
+        transactionManager = repository.getComponent("transactionManager");
+    }
+
+    /** 全てのオブジェクトが登録されること。 */
+    @Test
+    public void testWrite() {
+        ParallelBatchWriter<TestBean> sut = new ParallelBatchWriter<TestBean>(transactionManager, SQL, 3);
+        sut.setBatchSize(10);
+        sut.setCommitInterval(40);
+        sut.setQueueCapacity(5);
+
+        ParallelBatchWriter.Result result = sut.write(createBeans(1, 250));
+
+        assertThat(result.isSuccess(), is(true));
+        assertThat(result.getCommittedCount(), is(250L));
+        assertThat(result.getUncommittedCount(), is(0L));
+        assertThat(result.toString(), is("committedCount=250, uncommittedCount=0, failures=0"));
+        assertThat(VariousDbTestHelper.findAll(TestEntity.class).size(), is(250));
+    }
+
+    /** 時間間隔でコミットする設定の場合も、全てのオブジェクトが登録されること。 */
+    @Test
+    public void testWriteWithCommitIntervalMillis() {
+        ParallelBatchWriter<TestBean> sut = new ParallelBatchWriter<TestBean>(transactionManager, SQL, 2);
+        sut.setCommitInterval(Integer.MAX_VALUE);
+        sut.setCommitIntervalMillis(1L);
+
+        ParallelBatchWriter.Result result = sut.write(createBeans(1, 30));
+
+        assertThat(result.isSuccess(), is(true));
+        assertThat(result.getCommittedCount(), is(30L));
+        assertThat(VariousDbTestHelper.findAll(TestEntity.class).size(), is(30));
+    }
+
+    /** {@link ParallelBatchWriter.Partitioner}で決定したパーティションで登録されること。 */
+    @Test
+    public void testWriteWithPartitioner() {
+        final List<String> threadNames = new ArrayList<String>();
+        ParallelBatchWriter<TestBean> sut = new ParallelBatchWriter<TestBean>(transactionManager, SQL, 2);
+        sut.setPartitioner(new ParallelBatchWriter.Partitioner<TestBean>() {
+            @Override
+            public int partition(TestBean object, int partitionCount) {
+                threadNames.add(Thread.currentThread().getName());
+                return Integer.parseInt(object.getCol1()) % partitionCount;
+            }
+        });
+
+        ParallelBatchWriter.Result result = sut.write(createBeans(1, 20));
+
+        assertThat(result.isSuccess(), is(true));
+        assertThat(result.getCommittedCount(), is(20L));
+        assertThat("振り分けは呼び出し元のスレッドで行われること",
+                threadNames.get(0), is(Thread.currentThread().getName()));
+        assertThat(VariousDbTestHelper.findAll(TestEntity.class).size(), is(20));
+    }
+
+    /** パーティションが範囲外の場合は、処理が中断されること。 */
+    @Test
+    public void testWritePartitionOutOfRange() {
+        ParallelBatchWriter<TestBean> sut = new ParallelBatchWriter<TestBean>(transactionManager, SQL, 2);
+        sut.setPartitioner(new ParallelBatchWriter.Partitioner<TestBean>() {
+            @Override
+            public int partition(TestBean object, int partitionCount) {
+                return partitionCount;
+            }
+        });
+
+        ParallelBatchWriter.Result result = sut.write(createBeans(1, 10));
+
+        assertThat(result.isSuccess(), is(false));
+        assertThat(result.getFailures().size(), is(1));
+        assertThat(result.getFailures().get(0), instanceOf(IllegalArgumentException.class));
+        assertThat(result.getCommittedCount(), is(0L));
+        assertThat(VariousDbTestHelper.findAll(TestEntity.class).size(), is(0));
+    }
+
+    /** 登録に失敗した場合は処理が中断され、コミット済みの件数のみが登録されていること。 */
+    @Test
+    public void testWriteFailure() {
+        ParallelBatchWriter<TestBean> sut = new ParallelBatchWriter<TestBean>(transactionManager, SQL, 2);
+        sut.setBatchSize(5);
+        sut.setCommitInterval(10);
+        sut.setPartitioner(new ParallelBatchWriter.Partitioner<TestBean>() {
+            @Override
+            public int partition(TestBean object, int partitionCount) {
+                return 0;
+            }
+        });
+        List<TestBean> beans = createBeans(1, 20);
+        beans.add(new TestBean("00001", "duplicate"));
+        beans.addAll(createBeans(21, 40));
+
+        ParallelBatchWriter.Result result = sut.write(beans);
+
+        assertThat(result.isSuccess(), is(false));
+        assertThat(result.getFailures().get(0), instanceOf(DuplicateStatementException.class));
+        assertThat(result.getCommittedCount(), is(20L));
+        assertThat(VariousDbTestHelper.findAll(TestEntity.class).size(), is(20));
+    }
+
+    /** 不正な設定値の場合は例外が送出されること。 */
+    @Test
+    public void testInvalidSettings() {
+        try {
+            new ParallelBatchWriter<TestBean>(transactionManager, SQL, 0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("partitionCount must be greater than 0. partitionCount = [0]"));
+        }
+        ParallelBatchWriter<TestBean> sut = new ParallelBatchWriter<TestBean>(transactionManager, SQL, 1);
+        try {
+            sut.setBatchSize(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("batchSize must be greater than 0. batchSize = [0]"));
+        }
+        try {
+            sut.setCommitInterval(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("commitInterval must be greater than 0. commitInterval = [0]"));
+        }
+        try {
+            sut.setCommitIntervalMillis(-1L);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("commitIntervalMillis must not be negative. commitIntervalMillis = [-1]"));
+        }
+        try {
+            sut.setQueueCapacity(0);
+            fail("とおらない");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("queueCapacity must be greater than 0. queueCapacity = [0]"));
+        }
+    }
+
+    private static List<TestBean> createBeans(int from, int to) {
+        List<TestBean> beans = new ArrayList<TestBean>();
+        for (int i = from; i <= to; i++) {
+            beans.add(new TestBean(String.format("%05d", i), "value" + i));
+        }
+        return beans;
+    }
+
+    /** 登録するBean */
+    public static class TestBean {
+
+        private final String col1;
+
+        private final String col2;
+
+        public TestBean(String col1, String col2) {
+            this.col1 = col1;
+            this.col2 = col2;
+        }
+
+        public String getCol1() {
+            return col1;
+        }
+
+        public String getCol2() {
+            return col2;
+        }
+    }
+}
@@ -9,8 +9,12 @@ import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.Vector;
 
 import org.junit.Test;
@@ -157,6 +161,72 @@ public class DbUtilTest {
         }
     }
 
+    /**
+     * プリミティブ型の配列、{@link RandomAccess}を実装しない{@link Collection}から値が取得できること。
+     */
+    @Test
+    public void testGetArrayValuePrimitiveAndCollection() {
+        assertThat((Integer) DbUtil.getArrayValue(new int[] {1, 2, 3}, 2), is(3));
+        assertThat((Long) DbUtil.getArrayValue(new long[] {1L, 2L}, 1), is(2L));
+        assertThat((Short) DbUtil.getArrayValue(new short[] {1, 2}, 0), is((short) 1));
+        assertThat((Byte) DbUtil.getArrayValue(new byte[] {1, 2}, 1), is((byte) 2));
+        assertThat((Character) DbUtil.getArrayValue(new char[] {'a', 'b'}, 1), is('b'));
+        assertThat((Boolean) DbUtil.getArrayValue(new boolean[] {false, true}, 1), is(true));
+        assertThat((Double) DbUtil.getArrayValue(new double[] {1.5, 2.5}, 1), is(2.5));
+        assertThat((Float) DbUtil.getArrayValue(new float[] {1.5f, 2.5f}, 0), is(1.5f));
+
+        assertThat((String) DbUtil.getArrayValue(new LinkedList<String>(Arrays.asList("a", "b")), 1), is("b"));
+        assertThat((String) DbUtil.getArrayValue(new LinkedHashSet<String>(Arrays.asList("a", "b")), 0), is("a"));
+
+        try {
+            DbUtil.getArrayValue(new int[] {1, 2, 3}, 3);
+            fail("do not run");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("specified position is out of range. actual size = [3], specified position = [3]"));
+        }
+    }
+
+    /**
+     * {@link DbUtil#toRandomAccessList(Object)}のテスト。
+     */
+    @Test
+    public void testToRandomAccessList() {
+        assertThat("nullは、null", DbUtil.toRandomAccessList(null), nullValue());
+
+        List<String> arrayList = new ArrayList<String>(Arrays.asList("a", "b"));
+        assertTrue("RandomAccessなListはそのまま返却されること", DbUtil.toRandomAccessList(arrayList) == arrayList);
+
+        List<?> linkedList = DbUtil.toRandomAccessList(new LinkedList<String>(Arrays.asList("a", "b")));
+        assertTrue(linkedList instanceof RandomAccess);
+        assertThat(linkedList.size(), is(2));
+        assertThat((String) linkedList.get(1), is("b"));
+
+        List<?> strings = DbUtil.toRandomAccessList(new String[] {"1", "2", "3"});
+        assertTrue(strings instanceof RandomAccess);
+        assertThat(strings.size(), is(3));
+        assertThat((String) strings.get(2), is("3"));
+
+        List<?> ints = DbUtil.toRandomAccessList(new int[] {10, 20});
+        assertTrue(ints instanceof RandomAccess);
+        assertThat(ints.size(), is(2));
+        assertThat((Integer) ints.get(0), is(10));
+        try {
+            ints.get(2);
+            fail("do not run");
+        } catch (IndexOutOfBoundsException e) {
+            assertThat(e.getMessage(), is("index = [2], size = [2]"));
+        }
+
+        try {
+            DbUtil.toRandomAccessList("");
+            fail("do not run");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(
+                    "object type is invalid. valid object type is Array or Collection. object class = [java.lang.String]"));
+        }
+    }
+
     private static class StringCollection implements Collection<String> {
 
         private int size = 0;